@@ -0,0 +1,102 @@
+package org.codingmatters.poom.runner.tracing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends spans to a file, one JSON object per line. Spans are queued and written by a daemon thread, they are dropped
+ * when the queue is full so that tracing never slows jobs down.
+ */
+public class FileSpanExporter implements SpanExporter {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(FileSpanExporter.class);
+
+    static private final int QUEUE_SIZE = 10000;
+
+    private final File file;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final BlockingQueue<Span> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final AtomicLong dropped = new AtomicLong(0L);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public FileSpanExporter(File file) {
+        this.file = file;
+        this.writer = new Thread(this::write, "span-file-exporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void export(Span span) {
+        if (!this.queue.offer(span)) {
+            this.dropped.incrementAndGet();
+        }
+    }
+
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        List<Span> spans = new ArrayList<>();
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                Span first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                spans.add(first);
+                this.queue.drainTo(spans);
+                this.append(spans);
+            } catch (InterruptedException e) {
+                this.running = false;
+            } catch (IOException e) {
+                log.error("failed writing " + spans.size() + " spans to " + this.file, e);
+            } finally {
+                spans.clear();
+            }
+        }
+    }
+
+    private void append(List<Span> spans) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.file, true), StandardCharsets.UTF_8))) {
+            for (Span span : spans) {
+                try (JsonGenerator generator = this.jsonFactory.createGenerator(out)) {
+                    generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                    generator.writeStartObject();
+                    generator.writeStringField("service", span.service());
+                    generator.writeStringField("traceId", span.traceId());
+                    generator.writeStringField("name", span.name());
+                    generator.writeNumberField("start", span.startEpochMicros());
+                    generator.writeNumberField("duration", span.durationMicros());
+                    generator.writeObjectFieldStart("attributes");
+                    for (Map.Entry<String, String> attribute : span.attributes().entrySet()) {
+                        generator.writeStringField(attribute.getKey(), attribute.getValue());
+                    }
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                }
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.codingmatters.poom.runner.tracing;
+
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.codingmatters.value.objects.values.PropertyValue;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Job trace ids are assigned by the job registry when a job is created and stored in the job context. They are carried
+ * to the runner with the job, held by the processing thread while the job runs, and sent to task APIs as a header.
+ */
+public class JobTracing {
+
+    static public final String CONTEXT_PROPERTY = "trace-id";
+    static public final String HEADER = "x-trace-id";
+    static public final String MDC_KEY = "trace-id";
+
+    static private volatile Tracer tracer = Tracer.NOOP;
+    static private final ThreadLocal<String> current = new ThreadLocal<>();
+
+    static public Tracer tracer() {
+        return tracer;
+    }
+
+    static public void install(Tracer installed) {
+        tracer = installed != null ? installed : Tracer.NOOP;
+    }
+
+    static public boolean enabled() {
+        return tracer != Tracer.NOOP;
+    }
+
+    /**
+     * @return the context with a trace id when tracing is enabled, the context unchanged otherwise
+     */
+    static public ObjectValue traced(ObjectValue context) {
+        return enabled() ? withTraceId(context) : context;
+    }
+
+    static public String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+
+    /**
+     * @return the context with a new trace id, or the context itself when it already holds one
+     */
+    static public ObjectValue withTraceId(ObjectValue context) {
+        if (traceId(context) != null) {
+            return context;
+        }
+        ObjectValue.Builder builder = context != null ? ObjectValue.from(context) : ObjectValue.builder();
+        return builder.property(CONTEXT_PROPERTY, PropertyValue.builder().stringValue(newTraceId())).build();
+    }
+
+    static public String traceId(ObjectValue context) {
+        if (context == null) {
+            return null;
+        }
+        PropertyValue property = context.property(CONTEXT_PROPERTY);
+        if (property == null || property.single() == null) {
+            return null;
+        }
+        return property.single().stringValue();
+    }
+
+    static public String traceId(Job job) {
+        return job != null ? traceId(job.context()) : null;
+    }
+
+    /**
+     * @return the trace id of the job being processed by the current thread
+     */
+    static public String current() {
+        return current.get();
+    }
+
+    /**
+     * Sets the current thread trace id until the returned scope is closed.
+     */
+    static public Scope enter(String traceId) {
+        String previous = current.get();
+        current.set(traceId);
+        return () -> {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        };
+    }
+
+    static public Span span(String traceId, String name) {
+        return tracer.start(traceId, name);
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
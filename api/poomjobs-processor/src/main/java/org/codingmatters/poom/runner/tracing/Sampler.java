@@ -0,0 +1,39 @@
+package org.codingmatters.poom.runner.tracing;
+
+/**
+ * Decides whether spans of a trace are recorded. The decision only depends on the trace id, so that the registry, the
+ * runners and the task API sample the same traces.
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    boolean sampled(String traceId);
+
+    static Sampler always() {
+        return traceId -> true;
+    }
+
+    static Sampler never() {
+        return traceId -> false;
+    }
+
+    static Sampler ratio(double ratio) {
+        if (ratio <= 0d) {
+            return never();
+        }
+        if (ratio >= 1d) {
+            return always();
+        }
+        long threshold = (long) (ratio * Long.MAX_VALUE);
+        return traceId -> traceId != null && (mix(traceId.hashCode()) & Long.MAX_VALUE) < threshold;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
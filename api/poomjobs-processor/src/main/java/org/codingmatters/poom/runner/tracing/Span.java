@@ -0,0 +1,79 @@
+package org.codingmatters.poom.runner.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timed phase of a job, exported when closed. Spans of traces that are not sampled are not recorded at all.
+ */
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null) {
+        @Override
+        public Span attribute(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public void close() {}
+    };
+
+    private final SpanExporter exporter;
+    private final String service;
+    private final String traceId;
+    private final String name;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private long durationMicros = -1L;
+
+    Span(SpanExporter exporter, String service, String traceId, String name) {
+        this.exporter = exporter;
+        this.service = service;
+        this.traceId = traceId;
+        this.name = name;
+        this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+    }
+
+    public Span attribute(String name, Object value) {
+        if (value != null) {
+            this.attributes.put(name, String.valueOf(value));
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (this.durationMicros < 0L) {
+            this.durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - this.startNanos);
+            this.exporter.export(this);
+        }
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long startEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long durationMicros() {
+        return durationMicros;
+    }
+
+    public Map<String, String> attributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+}
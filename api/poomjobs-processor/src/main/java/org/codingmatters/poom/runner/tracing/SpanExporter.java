@@ -0,0 +1,11 @@
+package org.codingmatters.poom.runner.tracing;
+
+@FunctionalInterface
+public interface SpanExporter {
+
+    SpanExporter NOOP = span -> {};
+
+    void export(Span span);
+
+    default void close() {}
+}
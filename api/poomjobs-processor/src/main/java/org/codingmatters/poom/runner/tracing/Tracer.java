@@ -0,0 +1,49 @@
+package org.codingmatters.poom.runner.tracing;
+
+import org.codingmatters.poom.services.support.Env;
+
+import java.io.File;
+
+public class Tracer {
+
+    static public final String TRACING_SAMPLE_RATIO = "TRACING_SAMPLE_RATIO";
+    static public final String TRACING_FILE = "TRACING_FILE";
+
+    static public final Tracer NOOP = new Tracer(null, Sampler.never(), SpanExporter.NOOP);
+
+    /**
+     * @return a tracer writing sampled spans to TRACING_FILE, or NOOP when TRACING_SAMPLE_RATIO is not greater than 0
+     */
+    static public Tracer fromEnv(String service) {
+        double ratio = Double.parseDouble(Env.optional(TRACING_SAMPLE_RATIO).orElse(new Env.Var("0")).asString());
+        if (ratio <= 0d) {
+            return NOOP;
+        }
+        String file = Env.optional(TRACING_FILE).orElse(new Env.Var(new File(System.getProperty("java.io.tmpdir"), "poomjobs-traces.jsonl").getPath())).asString();
+        return new Tracer(service, Sampler.ratio(ratio), new FileSpanExporter(new File(file)));
+    }
+
+    private final String service;
+    private final Sampler sampler;
+    private final SpanExporter exporter;
+
+    public Tracer(String service, Sampler sampler, SpanExporter exporter) {
+        this.service = service;
+        this.sampler = sampler;
+        this.exporter = exporter;
+    }
+
+    /**
+     * @return a started span, to be closed at the end of the phase, a noop span when the trace is not sampled
+     */
+    public Span start(String traceId, String name) {
+        if (traceId == null || !this.sampler.sampled(traceId)) {
+            return Span.NOOP;
+        }
+        return new Span(this.exporter, this.service, traceId, name);
+    }
+
+    public void close() {
+        this.exporter.close();
+    }
+}
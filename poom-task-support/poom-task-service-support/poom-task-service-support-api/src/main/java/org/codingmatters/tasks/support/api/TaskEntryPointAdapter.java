@@ -12,6 +12,16 @@ import java.util.Optional;
 public interface TaskEntryPointAdapter {
     Repository<Task, PropertyQuery> tasks();
     Optional<Repository<TaskLog, PropertyQuery>> taskLogs();
+
+    /**
+     * Defaults to the taskLogs repository when it is a TaskLogBatchWriter, as MongoTaskRepositories.taskLogs (one
+     * insertMany per batch), otherwise logs are written one by one.
+     */
+    default Optional<TaskLogBatchWriter> taskLogBatchWriter() {
+        return this.taskLogs().map(repository -> repository instanceof TaskLogBatchWriter
+                ? (TaskLogBatchWriter) repository
+                : TaskLogBatchWriter.oneByOne(repository));
+    }
     JobSpec jobSpecFor(Task task);
     String jobAccount();
     Requester callbackRequester(String callbackUrl);
@@ -0,0 +1,28 @@
+package org.codingmatters.tasks.support.api;
+
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.tasks.api.types.TaskLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a batch of task logs, returned entities are in the given logs order.
+ */
+@FunctionalInterface
+public interface TaskLogBatchWriter {
+    List<Entity<TaskLog>> createAll(List<TaskLog> logs) throws RepositoryException;
+
+    static TaskLogBatchWriter oneByOne(Repository<TaskLog, PropertyQuery> repository) {
+        return logs -> {
+            List<Entity<TaskLog>> result = new ArrayList<>(logs.size());
+            for (TaskLog taskLog : logs) {
+                result.add(repository.create(taskLog));
+            }
+            return result;
+        };
+    }
+}
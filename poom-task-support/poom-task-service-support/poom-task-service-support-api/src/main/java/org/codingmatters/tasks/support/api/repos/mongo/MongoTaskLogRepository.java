@@ -0,0 +1,161 @@
+package org.codingmatters.tasks.support.api.repos.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.tasks.api.types.TaskLog;
+import org.codingmatters.tasks.api.types.mongo.TaskLogMongoMapper;
+import org.codingmatters.tasks.support.api.TaskLogBatchWriter;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Task log repository writing batches with one insertMany. Inserted documents are encoded as the generic repository
+ * encodes them : the first batch creates its first log with the generic repository and reads the created document back
+ * to learn how ids, versions and meta fields are stored.
+ */
+public class MongoTaskLogRepository implements Repository<TaskLog, PropertyQuery>, TaskLogBatchWriter {
+
+    static private final String ID_FIELD = "_id";
+
+    private final TaskLogMongoMapper mapper = new TaskLogMongoMapper();
+    private final Repository<TaskLog, PropertyQuery> repository;
+    private final MongoCollection<Document> collection;
+    private volatile CreationTemplate creationTemplate;
+
+    public MongoTaskLogRepository(Repository<TaskLog, PropertyQuery> repository, MongoCollection<Document> collection) {
+        this.repository = repository;
+        this.collection = collection;
+    }
+
+    @Override
+    public List<Entity<TaskLog>> createAll(List<TaskLog> logs) throws RepositoryException {
+        List<Entity<TaskLog>> result = new ArrayList<>(logs.size());
+        if (logs.isEmpty()) {
+            return result;
+        }
+        int from = 0;
+        CreationTemplate template = this.creationTemplate;
+        if (template == null) {
+            Entity<TaskLog> first = this.repository.create(logs.get(0));
+            result.add(first);
+            template = this.learnCreationTemplate(first);
+            from = 1;
+        }
+
+        List<Document> documents = new ArrayList<>(logs.size() - from);
+        for (int i = from; i < logs.size(); i++) {
+            ObjectId objectId = new ObjectId();
+            Document document = this.mapper.toDocument(logs.get(i));
+            for (String field : template.meta.keySet()) {
+                document.put(field, template.meta.get(field));
+            }
+            document.put(ID_FIELD, template.objectIds ? objectId : objectId.toHexString());
+            documents.add(document);
+            result.add(new ImmutableEntity<>(objectId.toHexString(), template.version, logs.get(i)));
+        }
+        if (documents.isEmpty()) {
+            return result;
+        }
+        try {
+            this.collection.insertMany(documents, new InsertManyOptions().ordered(true));
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed inserting " + logs.size() + " task logs", e);
+        }
+        return result;
+    }
+
+    private CreationTemplate learnCreationTemplate(Entity<TaskLog> created) throws RepositoryException {
+        Document stored;
+        try {
+            stored = this.collection.find(this.idFilter(created.id())).first();
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed reading back created task log " + created.id(), e);
+        }
+        if (stored == null) {
+            throw new RepositoryException("created task log not found " + created.id());
+        }
+        Document meta = new Document();
+        for (String field : stored.keySet()) {
+            if (field.startsWith("_") && !field.equals(ID_FIELD)) {
+                meta.put(field, stored.get(field));
+            }
+        }
+        CreationTemplate template = new CreationTemplate(stored.get(ID_FIELD) instanceof ObjectId, meta, created.version());
+        this.creationTemplate = template;
+        return template;
+    }
+
+    private Bson idFilter(String id) {
+        if (ObjectId.isValid(id)) {
+            return Filters.or(Filters.eq(ID_FIELD, new ObjectId(id)), Filters.eq(ID_FIELD, id));
+        }
+        return Filters.eq(ID_FIELD, id);
+    }
+
+    @Override
+    public Entity<TaskLog> create(TaskLog withValue) throws RepositoryException {
+        return this.repository.create(withValue);
+    }
+
+    @Override
+    public Entity<TaskLog> createWithId(String id, TaskLog withValue) throws RepositoryException {
+        return this.repository.createWithId(id, withValue);
+    }
+
+    @Override
+    public Entity<TaskLog> retrieve(String id) throws RepositoryException {
+        return this.repository.retrieve(id);
+    }
+
+    @Override
+    public Entity<TaskLog> update(Entity<TaskLog> entity, TaskLog withValue) throws RepositoryException {
+        return this.repository.update(entity, withValue);
+    }
+
+    @Override
+    public void delete(Entity<TaskLog> entity) throws RepositoryException {
+        this.repository.delete(entity);
+    }
+
+    @Override
+    public void deleteFrom(PropertyQuery query) throws RepositoryException {
+        this.repository.deleteFrom(query);
+    }
+
+    @Override
+    public PagedEntityList<TaskLog> all(long startIndex, long endIndex) throws RepositoryException {
+        return this.repository.all(startIndex, endIndex);
+    }
+
+    @Override
+    public PagedEntityList<TaskLog> search(PropertyQuery query, long startIndex, long endIndex) throws RepositoryException {
+        return this.repository.search(query, startIndex, endIndex);
+    }
+
+    /**
+     * How the generic repository encodes a newly created document, besides the value fields.
+     */
+    static private class CreationTemplate {
+        final boolean objectIds;
+        final Document meta;
+        final BigInteger version;
+
+        CreationTemplate(boolean objectIds, Document meta, BigInteger version) {
+            this.objectIds = objectIds;
+            this.meta = meta;
+            this.version = version;
+        }
+    }
+}
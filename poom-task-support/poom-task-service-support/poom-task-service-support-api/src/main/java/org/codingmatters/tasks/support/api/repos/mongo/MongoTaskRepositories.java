@@ -8,6 +8,7 @@ import org.codingmatters.tasks.api.types.Task;
 import org.codingmatters.tasks.api.types.TaskLog;
 import org.codingmatters.tasks.api.types.mongo.TaskLogMongoMapper;
 import org.codingmatters.tasks.api.types.mongo.TaskMongoMapper;
+import org.codingmatters.tasks.support.api.TaskLogBatchWriter;
 
 public class MongoTaskRepositories {
     private final MongoClient mongoClient;
@@ -28,11 +29,20 @@ public class MongoTaskRepositories {
                 .buildWithPropertyQuery(this.mongoClient);
     }
 
-    public Repository<TaskLog, PropertyQuery> taskLogs() {
+    /**
+     * @return the task log repository, also a TaskLogBatchWriter so that TaskEntryPointAdapter.taskLogBatchWriter writes
+     * log batches with one insertMany by default
+     */
+    public MongoTaskLogRepository taskLogs() {
         TaskLogMongoMapper mapper = new TaskLogMongoMapper();
-        return MongoCollectionRepository.<TaskLog, PropertyQuery>repository(this.db, this.task + "_task_logs")
+        Repository<TaskLog, PropertyQuery> repository = MongoCollectionRepository.<TaskLog, PropertyQuery>repository(this.db, this.task + "_task_logs")
                 .withToDocument(mapper::toDocument)
                 .withToValue(mapper::toValue)
                 .buildWithPropertyQuery(this.mongoClient);
+        return new MongoTaskLogRepository(repository, this.mongoClient.getDatabase(this.db).getCollection(this.task + "_task_logs"));
+    }
+
+    public TaskLogBatchWriter taskLogBatchWriter() {
+        return this.taskLogs();
     }
 }
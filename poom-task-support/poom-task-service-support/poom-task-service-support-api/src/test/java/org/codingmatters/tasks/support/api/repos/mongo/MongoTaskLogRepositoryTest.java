@@ -0,0 +1,129 @@
+package org.codingmatters.tasks.support.api.repos.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.rest.api.client.Requester;
+import org.codingmatters.tasks.api.types.Task;
+import org.codingmatters.tasks.api.types.TaskLog;
+import org.codingmatters.tasks.support.api.TaskEntryPointAdapter;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Logs written in batches are read back through the task log repository, needs docker.
+ */
+public class MongoTaskLogRepositoryTest {
+
+    static private MongoDBContainer mongo;
+
+    @BeforeClass
+    static public void startMongo() {
+        Assume.assumeTrue("docker is needed to run mongo", DockerClientFactory.instance().isDockerAvailable());
+        mongo = new MongoDBContainer("mongo:6.0");
+        mongo.start();
+    }
+
+    @AfterClass
+    static public void stopMongo() {
+        if (mongo != null) {
+            mongo.stop();
+        }
+    }
+
+    private MongoClient mongoClient;
+    private String database;
+    private MongoTaskRepositories repositories;
+
+    @Before
+    public void setUp() throws Exception {
+        this.mongoClient = MongoClients.create(mongo.getReplicaSetUrl());
+        this.database = "tasks-" + UUID.randomUUID();
+        this.repositories = new MongoTaskRepositories(this.mongoClient, this.database, "demo");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.mongoClient.getDatabase(this.database).drop();
+        this.mongoClient.close();
+    }
+
+    @Test
+    public void givenMongoTaskLogs__whenAdapterDoesNotOverrideBatchWriter__thenMongoBatchWriterUsed() throws Exception {
+        MongoTaskLogRepository taskLogs = this.repositories.taskLogs();
+        TaskEntryPointAdapter adapter = new TaskEntryPointAdapter() {
+            @Override
+            public Repository<Task, PropertyQuery> tasks() {
+                return repositories.tasks();
+            }
+
+            @Override
+            public Optional<Repository<TaskLog, PropertyQuery>> taskLogs() {
+                return Optional.of(taskLogs);
+            }
+
+            @Override
+            public JobSpec jobSpecFor(Task task) {
+                return null;
+            }
+
+            @Override
+            public String jobAccount() {
+                return null;
+            }
+
+            @Override
+            public Requester callbackRequester(String callbackUrl) {
+                return null;
+            }
+        };
+
+        assertThat(adapter.taskLogBatchWriter().get(), is(sameInstance(taskLogs)));
+    }
+
+    @Test
+    public void givenLogsWrittenInBatches__thenReadBackThroughTaskLogRepository() throws Exception {
+        List<Entity<TaskLog>> written = new ArrayList<>(this.repositories.taskLogBatchWriter().createAll(this.logs("first", 3)));
+        written.addAll(this.repositories.taskLogBatchWriter().createAll(this.logs("second", 2)));
+
+        Repository<TaskLog, PropertyQuery> taskLogs = this.repositories.taskLogs();
+        for (Entity<TaskLog> entity : written) {
+            Entity<TaskLog> retrieved = taskLogs.retrieve(entity.id());
+            assertThat(retrieved.value(), is(entity.value()));
+            assertThat(retrieved.version(), is(entity.version()));
+        }
+
+        PagedEntityList<TaskLog> found = taskLogs.search(PropertyQuery.builder().filter("taskId == 'task'").build(), 0, 10);
+        assertThat(found.total(), is(5L));
+
+        Entity<TaskLog> last = taskLogs.retrieve(written.get(4).id());
+        taskLogs.update(last, last.value().withLog("updated"));
+        assertThat(taskLogs.retrieve(last.id()).value().log(), is("updated"));
+    }
+
+    private List<TaskLog> logs(String prefix, int count) {
+        List<TaskLog> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(TaskLog.builder().taskId("task").at(LocalDateTime.of(2026, 10, 18, 12, 0, i)).level(TaskLog.Level.INFO).log(prefix + " " + i).build());
+        }
+        return result;
+    }
+}
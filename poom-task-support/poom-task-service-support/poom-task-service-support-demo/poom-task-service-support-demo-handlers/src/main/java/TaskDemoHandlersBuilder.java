@@ -29,6 +29,9 @@ public class TaskDemoHandlersBuilder extends TaskDemoApiHandlers.Builder {
         this.rootLogsPostHandler(
                 new CreateTaskLog(adapterSupplier, jsonFactory).adapted(RootLogsPostRequest.class, RootLogsPostResponse.class)
         );
+        this.rootLogBatchPostHandler(
+                new CreateTaskLogBatch(adapterSupplier, jsonFactory).adapted(RootLogBatchPostRequest.class, RootLogBatchPostResponse.class)
+        );
         this.rootLogsGetHandler(
                 new BrowseTaskLogs(adapterSupplier, 100, jsonFactory).adapted(RootLogsGetRequest.class, RootLogsGetResponse.class)
         );
@@ -55,6 +58,9 @@ public class TaskDemoHandlersBuilder extends TaskDemoApiHandlers.Builder {
         this.taskWithParamLogsPostHandler(
                 request -> new CreateTaskLog(forParam(request.param(), adapterSupplier), jsonFactory).adapted(TaskWithParamLogsPostRequest.class, TaskWithParamLogsPostResponse.class).apply(request)
         );
+        this.taskWithParamLogBatchPostHandler(
+                request -> new CreateTaskLogBatch(forParam(request.param(), adapterSupplier), jsonFactory).adapted(TaskWithParamLogBatchPostRequest.class, TaskWithParamLogBatchPostResponse.class).apply(request)
+        );
         this.taskWithParamLogsGetHandler(
                 request -> new BrowseTaskLogs(forParam(request.param(), adapterSupplier), 100, jsonFactory).adapted(TaskWithParamLogsGetRequest.class, TaskWithParamLogsGetResponse.class).apply(request)
         );
@@ -0,0 +1,141 @@
+package org.codingmatters.tasks.support.handlers.tasks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.tasks.api.TaskLogBatchPostRequest;
+import org.codingmatters.tasks.api.TaskLogBatchPostResponse;
+import org.codingmatters.tasks.api.tasklogbatchpostresponse.Status201;
+import org.codingmatters.tasks.api.tasklogbatchpostresponse.Status400;
+import org.codingmatters.tasks.api.tasklogbatchpostresponse.Status404;
+import org.codingmatters.tasks.api.tasklogbatchpostresponse.Status500;
+import org.codingmatters.tasks.api.types.Error;
+import org.codingmatters.tasks.api.types.Task;
+import org.codingmatters.tasks.api.types.TaskLog;
+import org.codingmatters.tasks.api.types.TaskLogCreation;
+import org.codingmatters.tasks.api.types.TaskNotification;
+import org.codingmatters.tasks.support.api.TaskEntryPointAdapter;
+import org.codingmatters.tasks.support.api.TaskLogBatchWriter;
+import org.codingmatters.tasks.support.handlers.AbstractTaskHandler;
+import org.codingmatters.tasks.support.handlers.tasks.adapter.ReflectHandlerAdapter;
+import org.codingmatters.tasks.support.handlers.tasks.adapter.UnadatableHandlerException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Appends many logs to a task : the task is retrieved once, logs are written with one TaskLogBatchWriter call and the
+ * callback gets one LOG_APPENDED notification whose log aggregates the appended ones.
+ */
+public class CreateTaskLogBatch extends AbstractTaskHandler implements Function<TaskLogBatchPostRequest, TaskLogBatchPostResponse> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(CreateTaskLogBatch.class);
+
+    static public final int MAX_BATCH_SIZE = 1000;
+
+    public CreateTaskLogBatch(Supplier<TaskEntryPointAdapter> adapterProvider, JsonFactory jsonFactory) {
+        super(adapterProvider, jsonFactory);
+    }
+
+    public <Req, Resp> Function<Req, Resp> adapted(Class<Req> requestClass, Class<Resp> responseClass) {
+        try {
+            return new ReflectHandlerAdapter<>(this, requestClass, responseClass, TaskLogBatchPostRequest.class, TaskLogBatchPostResponse.class);
+        } catch (UnadatableHandlerException e) {
+            log.error("[GRAVE] error adapting adapter", e);
+            throw new RuntimeException("error adapting handler", e);
+        }
+    }
+
+    @Override
+    public TaskLogBatchPostResponse apply(TaskLogBatchPostRequest request) {
+        if(request.payload() == null || request.payload().size() == 0 || request.payload().size() > MAX_BATCH_SIZE) {
+            return TaskLogBatchPostResponse.builder().status400(Status400.builder().payload(Error.builder()
+                            .code(Error.Code.BAD_REQUEST)
+                            .token(log.tokenized().info("invalid task log batch, must provide between 1 and {} logs, got {}", MAX_BATCH_SIZE, request.payload() == null ? null : request.payload().size()))
+                            .description("must provide a list of 1 to " + MAX_BATCH_SIZE + " logs")
+                    .build()).build()).build();
+        }
+
+        TaskEntryPointAdapter adapter = this.adapter();
+        Entity<Task> taskEntity;
+        try {
+            taskEntity = adapter.tasks().retrieve(request.taskId());
+        } catch (RepositoryException e) {
+            return TaskLogBatchPostResponse.builder().status500(Status500.builder().payload(Error.builder()
+                            .code(Error.Code.UNEXPECTED_ERROR)
+                            .token(log.tokenized().error("while creating task log batch, failed reaching task repository", e))
+                    .build()).build()).build();
+        }
+        if(taskEntity == null) {
+            return TaskLogBatchPostResponse.builder().status404(Status404.builder().payload(Error.builder()
+                            .code(Error.Code.RESOURCE_NOT_FOUND)
+                            .token(log.tokenized().info("request to add log batch to unexistent task : {}", request.taskId()))
+                            .description("task not found")
+                    .build()).build()).build();
+        }
+
+        List<TaskLog> taskLogs = new ArrayList<>(request.payload().size());
+        for (TaskLogCreation creation : request.payload()) {
+            taskLogs.add(TaskLog.builder()
+                    .taskId(taskEntity.id())
+                    .at(UTC.now())
+                    .level(TaskLog.Level.valueOf(creation.level().name()))
+                    .log(creation.log())
+                    .build());
+        }
+
+        Optional<TaskLogBatchWriter> writer = adapter.taskLogBatchWriter();
+        if(writer.isPresent()) {
+            try {
+                writer.get().createAll(taskLogs);
+            } catch (RepositoryException e) {
+                return TaskLogBatchPostResponse.builder().status500(Status500.builder().payload(Error.builder()
+                        .code(Error.Code.UNEXPECTED_ERROR)
+                        .token(log.tokenized().error("while creating task log batch, failed reaching task log repository", e))
+                        .build()).build()).build();
+            }
+        }
+
+        if(taskEntity.value().opt().callbackUrl().isPresent()) {
+            TaskNotification notification = TaskNotification.builder()
+                    .type(TaskNotification.Type.LOG_APPENDED).log(this.aggregated(taskLogs))
+                    .build();
+
+            this.notifyCallback(
+                    taskEntity.value(),
+                    notification,
+                    adapter.callbackRequester(taskEntity.value().callbackUrl())
+            );
+        }
+
+        return TaskLogBatchPostResponse.builder().status201(Status201.builder().payload(taskLogs.toArray(new TaskLog[0])).build()).build();
+    }
+
+    private TaskLog aggregated(List<TaskLog> taskLogs) {
+        if(taskLogs.size() == 1) {
+            return taskLogs.get(0);
+        }
+        TaskLog.Level level = TaskLog.Level.INFO;
+        StringBuilder lines = new StringBuilder();
+        for (TaskLog taskLog : taskLogs) {
+            if(taskLog.level() == TaskLog.Level.ERROR || (taskLog.level() == TaskLog.Level.WARN && level == TaskLog.Level.INFO)) {
+                level = taskLog.level();
+            }
+            if(lines.length() > 0) {
+                lines.append("\n");
+            }
+            lines.append(taskLog.log());
+        }
+        TaskLog last = taskLogs.get(taskLogs.size() - 1);
+        return TaskLog.builder()
+                .taskId(last.taskId())
+                .at(last.at())
+                .level(level)
+                .log(lines.toString())
+                .build();
+    }
+}
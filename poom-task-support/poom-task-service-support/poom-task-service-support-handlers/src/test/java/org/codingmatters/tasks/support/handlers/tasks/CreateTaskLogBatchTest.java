@@ -0,0 +1,175 @@
+package org.codingmatters.tasks.support.handlers.tasks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.rest.api.client.Requester;
+import org.codingmatters.rest.api.client.test.TestRequesterFactory;
+import org.codingmatters.tasks.api.TaskLogBatchPostRequest;
+import org.codingmatters.tasks.api.TaskLogBatchPostResponse;
+import org.codingmatters.tasks.api.types.Task;
+import org.codingmatters.tasks.api.types.TaskLog;
+import org.codingmatters.tasks.api.types.TaskLogCreation;
+import org.codingmatters.tasks.api.types.TaskNotification;
+import org.codingmatters.tasks.api.types.json.TaskNotificationReader;
+import org.codingmatters.tasks.api.types.task.Status;
+import org.codingmatters.tasks.support.api.TaskEntryPointAdapter;
+import org.codingmatters.tasks.support.api.TaskLogBatchWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.codingmatters.poom.services.tests.DateMatchers.around;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertTrue;
+
+public class CreateTaskLogBatchTest {
+
+    private final Repository<Task, PropertyQuery> taskRepository = InMemoryRepositoryWithPropertyQuery.validating(Task.class);
+
+    private final AtomicReference<Repository<TaskLog, PropertyQuery>> taskLogRepository = new AtomicReference<>(InMemoryRepositoryWithPropertyQuery.validating(TaskLog.class));
+    private final AtomicInteger batchWrites = new AtomicInteger(0);
+
+    private final TestRequesterFactory callbackRequesterFactory = new TestRequesterFactory(() -> "");
+    private final AtomicInteger callbacks = new AtomicInteger(0);
+
+    private final CreateTaskLogBatch createTaskLogBatch = new CreateTaskLogBatch(() -> new TaskEntryPointAdapter() {
+        @Override
+        public Repository<Task, PropertyQuery> tasks() {
+            return taskRepository;
+        }
+
+        @Override
+        public Optional<Repository<TaskLog, PropertyQuery>> taskLogs() {
+            return Optional.ofNullable(taskLogRepository.get());
+        }
+
+        @Override
+        public Optional<TaskLogBatchWriter> taskLogBatchWriter() {
+            return this.taskLogs().<TaskLogBatchWriter>map(repository -> logs -> {
+                batchWrites.incrementAndGet();
+                return TaskLogBatchWriter.oneByOne(repository).createAll(logs);
+            });
+        }
+
+        @Override
+        public JobSpec jobSpecFor(Task task) {
+            return null;
+        }
+
+        @Override
+        public String jobAccount() {
+            return null;
+        }
+
+        @Override
+        public Requester callbackRequester(String callbackUrl) {
+            callbacks.incrementAndGet();
+            return callbackRequesterFactory.create();
+        }
+    }, new JsonFactory());
+
+    @Test
+    public void givenNoTask__thenNoLogCreated_and404() throws Exception {
+        TaskLogBatchPostResponse response = this.createTaskLogBatch.apply(TaskLogBatchPostRequest.builder()
+                .taskId("no-task")
+                .payload(TaskLogCreation.builder().log("log").level(TaskLogCreation.Level.INFO).build())
+                .build());
+
+        response.opt().status404().orElseThrow(() -> new AssertionError("expected 404, got " + response));
+
+        assertThat(this.taskLogRepository.get().all(0L, 0L).total(), is(0L));
+    }
+
+    @Test
+    public void givenNoLogs__then400() throws Exception {
+        this.taskRepository.createWithId("task", Task.builder().id("task").build());
+
+        TaskLogBatchPostResponse response = this.createTaskLogBatch.apply(TaskLogBatchPostRequest.builder()
+                .taskId("task")
+                .build());
+
+        response.opt().status400().orElseThrow(() -> new AssertionError("expected 400, got " + response));
+    }
+
+    @Test
+    public void givenTask__whenManyLogs__thenLogsWrittenInOneBatch_and201WithLogsInOrder() throws Exception {
+        this.taskRepository.createWithId("task", Task.builder().id("task").build());
+
+        TaskLogBatchPostResponse response = this.createTaskLogBatch.apply(TaskLogBatchPostRequest.builder()
+                .taskId("task")
+                .payload(
+                        TaskLogCreation.builder().log("first").level(TaskLogCreation.Level.INFO).build(),
+                        TaskLogCreation.builder().log("second").level(TaskLogCreation.Level.WARN).build()
+                )
+                .build());
+
+        response.opt().status201().orElseThrow(() -> new AssertionError("expected 201, got " + response));
+
+        assertThat(this.batchWrites.get(), is(1));
+        assertThat(this.taskLogRepository.get().all(0L, 0L).total(), is(2L));
+
+        assertThat(response.status201().payload(), hasSize(2));
+        TaskLog first = response.status201().payload().get(0);
+        assertThat(first.taskId(), is("task"));
+        assertThat(first.at(), is(around(UTC.now())));
+        assertThat(first.level(), is(TaskLog.Level.INFO));
+        assertThat(first.log(), is("first"));
+        assertThat(response.status201().payload().get(1).log(), is("second"));
+    }
+
+    @Test
+    public void givenNoTaskLogRepository__whenTask__then201() throws Exception {
+        this.taskLogRepository.set(null);
+        this.taskRepository.createWithId("task", Task.builder().id("task").build());
+
+        TaskLogBatchPostResponse response = this.createTaskLogBatch.apply(TaskLogBatchPostRequest.builder()
+                .taskId("task")
+                .payload(TaskLogCreation.builder().log("log").level(TaskLogCreation.Level.INFO).build())
+                .build());
+
+        response.opt().status201().orElseThrow(() -> new AssertionError("expected 201, got " + response));
+    }
+
+    @Test
+    public void givenTaskWithCallback__whenManyLogs__thenOneAggregatedLogAppendedNotification() throws Exception {
+        this.taskRepository.createWithId("task", Task.builder().id("task").callbackUrl("http://call.me/back").status(Status.builder().run(Status.Run.RUNNING).build()).build());
+
+        this.callbackRequesterFactory.nextResponse(TestRequesterFactory.Method.POST, 204);
+
+        TaskLogBatchPostResponse response = this.createTaskLogBatch.apply(TaskLogBatchPostRequest.builder()
+                .taskId("task")
+                .payload(
+                        TaskLogCreation.builder().log("first").level(TaskLogCreation.Level.INFO).build(),
+                        TaskLogCreation.builder().log("second").level(TaskLogCreation.Level.ERROR).build(),
+                        TaskLogCreation.builder().log("third").level(TaskLogCreation.Level.WARN).build()
+                )
+                .build());
+
+        assertThat(this.callbacks.get(), is(1));
+        assertTrue(this.callbackRequesterFactory.lastCall().isPresent());
+
+        TestRequesterFactory.Call call = this.callbackRequesterFactory.lastCall().get();
+        assertThat(call.headers().get("status")[0], is("RUNNING"));
+
+        TaskNotification notification = this.readTaskNotification(call.requestBody());
+        assertThat(notification.type(), is(TaskNotification.Type.LOG_APPENDED));
+        assertThat(notification.log().taskId(), is("task"));
+        assertThat(notification.log().level(), is(TaskLog.Level.ERROR));
+        assertThat(notification.log().log(), is("first\nsecond\nthird"));
+        assertThat(notification.log().at(), is(response.status201().payload().get(2).at()));
+    }
+
+    private TaskNotification readTaskNotification(byte[] json) throws IOException {
+        try(JsonParser parser = new JsonFactory().createParser(json)) {
+            return new TaskNotificationReader().read(parser);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.codingmatters.tasks.api.types.Task;
 import org.codingmatters.tasks.api.types.TaskStatusChange;
 import org.codingmatters.tasks.client.TaskApiClient;
 import org.codingmatters.tasks.context.TaskContext;
+import org.codingmatters.tasks.support.jobs.notifier.BufferedTaskNotifier;
 import org.codingmatters.tasks.support.jobs.notifier.ClientTaskNotifier;
 import org.codingmatters.value.objects.values.ObjectValue;
 import org.codingmatters.value.objects.values.casts.ValueObjectCaster;
@@ -30,6 +31,10 @@ public abstract class TaskJobProcessor<Param, Result> implements JobProcessor {
     protected final Job job;
     private final Function<String, TaskApiClient> taskClientProvider;
 
+    /**
+     * @param taskClientProvider provides the task api client for the task api url found in job arguments, see
+     *                           TraceHeaderRequesterFactory.taskClientProvider to relate task api calls to the job trace
+     */
     public TaskJobProcessor(Job job, Function<String, TaskApiClient> taskClientProvider, Class<Param> paramClass, Class<Result> resultClass) throws ValueObjectCaster.ValueObjectUncastableException {
         this.job = job;
         this.taskClientProvider = taskClientProvider;
@@ -43,7 +48,17 @@ public abstract class TaskJobProcessor<Param, Result> implements JobProcessor {
     public Job process() throws JobProcessingException {
         TaskApiClient taskClient = this.taskClientProvider.apply(this.job.arguments().get(1));
         Task task = this.task(taskClient, job);
-        ExtendedTaskNotifier notifier = new ClientTaskNotifier(taskClient, task);
+        ExtendedTaskNotifier notifier = BufferedTaskNotifier.fromEnv(taskClient, task);
+        try {
+            return this.process(task, notifier);
+        } finally {
+            if (notifier instanceof BufferedTaskNotifier) {
+                ((BufferedTaskNotifier) notifier).close();
+            }
+        }
+    }
+
+    private Job process(Task task, ExtendedTaskNotifier notifier) throws JobProcessingException {
         TaskContext.setupLog(notifier);
 
         TaskProcessor<Param, Result> processor = this.taskProcessor();
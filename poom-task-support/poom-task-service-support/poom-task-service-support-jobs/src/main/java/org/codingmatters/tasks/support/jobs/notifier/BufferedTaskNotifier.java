@@ -0,0 +1,261 @@
+package org.codingmatters.tasks.support.jobs.notifier;
+
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.Env;
+import org.codingmatters.tasks.api.TaskLogBatchPostRequest;
+import org.codingmatters.tasks.api.TaskLogBatchPostResponse;
+import org.codingmatters.tasks.api.types.Task;
+import org.codingmatters.tasks.api.types.TaskLogCreation;
+import org.codingmatters.tasks.api.types.TaskStatusChange;
+import org.codingmatters.tasks.client.TaskApiClient;
+import org.codingmatters.tasks.support.jobs.ExtendedTaskNotifier;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task notifier appending logs in batches : logs are kept in a bounded ring buffer and sent by a background virtual
+ * thread when batchSize of them are buffered or flushDelay after the oldest one was buffered. When the buffer is full,
+ * logging waits for room to be made.
+ *
+ * Buffered logs are always sent before the task result or status is changed. Batches are capped to MAX_BATCH_SIZE, the
+ * largest batch the task api accepts. When a batch is rejected (400) or fails (500), its logs are appended one by one ;
+ * when the task is not found (404), the batch is dropped as single logs would be. Only when the task api doesn't know
+ * the log batch endpoint are logs appended one by one for the rest of the task.
+ */
+public class BufferedTaskNotifier implements ExtendedTaskNotifier {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(BufferedTaskNotifier.class);
+
+    static public final String TASK_LOG_BUFFER_SIZE = "TASK_LOG_BUFFER_SIZE";
+    static public final String TASK_LOG_BATCH_SIZE = "TASK_LOG_BATCH_SIZE";
+    static public final String TASK_LOG_FLUSH_DELAY = "TASK_LOG_FLUSH_DELAY_IN_MS";
+
+    /**
+     * Same limit as the task api log batch handler (CreateTaskLogBatch.MAX_BATCH_SIZE).
+     */
+    static public final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * @return a notifier configured from the environment, or a ClientTaskNotifier when TASK_LOG_BATCH_SIZE is lower than 2
+     */
+    static public ExtendedTaskNotifier fromEnv(TaskApiClient taskClient, Task task) {
+        int batchSize = Env.optional(TASK_LOG_BATCH_SIZE).orElse(new Env.Var("100")).asInteger();
+        if (batchSize < 2) {
+            return new ClientTaskNotifier(taskClient, task);
+        }
+        return new BufferedTaskNotifier(taskClient, task,
+                Math.max(batchSize, Env.optional(TASK_LOG_BUFFER_SIZE).orElse(new Env.Var("1000")).asInteger()),
+                batchSize,
+                Env.optional(TASK_LOG_FLUSH_DELAY).orElse(new Env.Var("200")).asInteger()
+        );
+    }
+
+    private final TaskApiClient taskClient;
+    private final Task task;
+    private final ClientTaskNotifier delegate;
+    private final int batchSize;
+    private final long flushDelay;
+    private final String traceId;
+
+    private final TaskLogCreation[] buffer;
+    private int head = 0;
+    private int count = 0;
+    private long oldestBufferedAt;
+    private boolean closed = false;
+
+    private final Object sendLock = new Object();
+    private volatile boolean batchDisabled = false;
+    private final Thread flusher;
+
+    public BufferedTaskNotifier(TaskApiClient taskClient, Task task, int bufferSize, int batchSize, long flushDelay) {
+        this.taskClient = taskClient;
+        this.task = task;
+        this.delegate = new ClientTaskNotifier(taskClient, task);
+        this.batchSize = Math.min(batchSize, MAX_BATCH_SIZE);
+        this.flushDelay = flushDelay;
+        this.traceId = JobTracing.current();
+        this.buffer = new TaskLogCreation[bufferSize];
+
+        this.flusher = Thread.ofVirtual().name("task-log-flusher-" + task.id()).start(this::flushLoop);
+    }
+
+    @Override
+    public void updateRunStatus(TaskStatusChange.Run status) {
+        this.flush();
+        this.delegate.updateRunStatus(status);
+    }
+
+    @Override
+    public void partialResult(ObjectValue result) {
+        this.flush();
+        this.delegate.partialResult(result);
+    }
+
+    @Override
+    public void success(ObjectValue result) {
+        this.close();
+        this.delegate.success(result);
+    }
+
+    @Override
+    public void failure() {
+        this.close();
+        this.delegate.failure();
+    }
+
+    @Override
+    public void info(String log, Object... args) {
+        BufferedTaskNotifier.log.info(String.format(log, args));
+        this.append(TaskLogCreation.builder().level(TaskLogCreation.Level.INFO).log(log, args).build());
+    }
+
+    @Override
+    public void warn(String log, Object... args) {
+        BufferedTaskNotifier.log.warn(String.format(log, args));
+        this.append(TaskLogCreation.builder().level(TaskLogCreation.Level.WARN).log(log, args).build());
+    }
+
+    @Override
+    public void error(String log, Object... args) {
+        BufferedTaskNotifier.log.error(log, args);
+        this.append(TaskLogCreation.builder().level(TaskLogCreation.Level.ERROR).log(log, args).build());
+    }
+
+    /**
+     * Sends the buffered logs, returns once they're sent.
+     */
+    public void flush() {
+        synchronized (this.sendLock) {
+            List<TaskLogCreation> batch;
+            while (!(batch = this.taken()).isEmpty()) {
+                this.send(batch);
+            }
+        }
+    }
+
+    private void append(TaskLogCreation logCreation) {
+        synchronized (this) {
+            while (!this.closed && this.count == this.buffer.length) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!this.closed && this.count < this.buffer.length) {
+                this.buffer[(this.head + this.count) % this.buffer.length] = logCreation;
+                this.count++;
+                if (this.count == 1) {
+                    this.oldestBufferedAt = System.nanoTime();
+                    this.notifyAll();
+                } else if (this.count == this.batchSize) {
+                    this.notifyAll();
+                }
+                return;
+            }
+        }
+        synchronized (this.sendLock) {
+            this.send(List.of(logCreation));
+        }
+    }
+
+    /**
+     * Sends the buffered logs and stops the background flusher, logs are then sent as they come.
+     */
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+            this.notifyAll();
+        }
+        try {
+            this.flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    private void flushLoop() {
+        try (JobTracing.Scope scope = JobTracing.enter(this.traceId)) {
+            while (this.awaitBatch()) {
+                this.flush();
+            }
+            this.flush();
+        } catch (InterruptedException e) {
+            log.warn("task log flusher interrupted, remaining logs will be sent when task ends - task : {}", this.task);
+        }
+    }
+
+    private synchronized boolean awaitBatch() throws InterruptedException {
+        while (!this.closed && this.count == 0) {
+            this.wait();
+        }
+        while (!this.closed && this.count > 0 && this.count < this.batchSize) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(this.oldestBufferedAt + TimeUnit.MILLISECONDS.toNanos(this.flushDelay) - System.nanoTime());
+            if (remaining <= 0) {
+                break;
+            }
+            this.wait(remaining);
+        }
+        return !this.closed;
+    }
+
+    private synchronized List<TaskLogCreation> taken() {
+        int size = Math.min(this.count, this.batchSize);
+        List<TaskLogCreation> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(this.buffer[this.head]);
+            this.buffer[this.head] = null;
+            this.head = (this.head + 1) % this.buffer.length;
+        }
+        this.count -= size;
+        if (this.count > 0) {
+            this.oldestBufferedAt = System.nanoTime();
+        }
+        if (size > 0) {
+            this.notifyAll();
+        }
+        return batch;
+    }
+
+    private void send(List<TaskLogCreation> batch) {
+        if (this.batchDisabled) {
+            batch.forEach(this.delegate::post);
+            return;
+        }
+        TaskLogBatchPostResponse response;
+        try (Span span = JobTracing.span(this.traceId, "task.log.batch").attribute("task", this.task.id()).attribute("size", batch.size())) {
+            response = this.taskClient.taskCollection().taskEntity().taskLogBatch().post(TaskLogBatchPostRequest.builder()
+                    .taskId(this.task.id())
+                    .payload(batch.toArray(new TaskLogCreation[0]))
+                    .build());
+        } catch (IOException e) {
+            log.error("[GRAVE] while appending task log batch, failed accessing task api");
+            return;
+        } catch (RuntimeException e) {
+            log.warn("error sending batch of " + batch.size() + " task logs, logs will be appended one by one", e);
+            batch.forEach(this.delegate::post);
+            return;
+        }
+
+        if (response.opt().status201().isPresent()) {
+            return;
+        }
+        if (response.opt().status404().isPresent()) {
+            log.error("[GRAVE] while appending task log batch, task not found, dropping {} logs : {}", batch.size(), response);
+        } else if (response.opt().status400().isPresent() || response.opt().status500().isPresent()) {
+            log.warn("task log batch of {} logs not appended, logs will be appended one by one : {}", batch.size(), response);
+            batch.forEach(this.delegate::post);
+        } else {
+            log.info("task api doesn't support task log batches, logs will be appended one by one : {}", response);
+            this.batchDisabled = true;
+            batch.forEach(this.delegate::post);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.codingmatters.tasks.support.jobs.notifier;
 
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.tasks.api.*;
 import org.codingmatters.tasks.api.types.Task;
@@ -35,7 +37,7 @@ public class ClientTaskNotifier implements ExtendedTaskNotifier {
     }
 
     private void result(ObjectValue result) {
-        try {
+        try (Span span = JobTracing.span(JobTracing.current(), "task.result").attribute("task", this.task.id())) {
             TaskResultsPutResponse response = this.taskClient.taskCollection().taskEntity().taskResults().put(TaskResultsPutRequest.builder()
                     .taskId(this.task.id())
                     .payload(result)
@@ -78,7 +80,7 @@ public class ClientTaskNotifier implements ExtendedTaskNotifier {
     }
 
     private void statusChange(TaskStatusChange.Run run, TaskStatusChange.Exit exit) {
-        try {
+        try (Span span = JobTracing.span(JobTracing.current(), "task.status").attribute("task", this.task.id()).attribute("run", run).attribute("exit", exit)) {
             log.info("changing task status to {}/{} - task : {}", run, exit, this.task);
             TaskStatusChangesPostResponse response = this.taskClient.taskCollection().taskEntity().taskStatusChanges().post(TaskStatusChangesPostRequest.builder()
                     .taskId(this.task.id())
@@ -93,13 +95,17 @@ public class ClientTaskNotifier implements ExtendedTaskNotifier {
     }
 
     private void log(TaskLogCreation logCreation) {
-        try {
-            switch (logCreation.level()) {
-                case INFO -> log.info("{}", logCreation.log());
-                case ERROR -> log.error("{}", logCreation.log());
-                default -> log.info("[{}] {}", logCreation.level(), logCreation.log());
-            }
-            log.info("", this.task);
+        switch (logCreation.level()) {
+            case INFO -> log.info("{}", logCreation.log());
+            case ERROR -> log.error("{}", logCreation.log());
+            default -> log.info("[{}] {}", logCreation.level(), logCreation.log());
+        }
+        log.info("", this.task);
+        this.post(logCreation);
+    }
+
+    void post(TaskLogCreation logCreation) {
+        try (Span span = JobTracing.span(JobTracing.current(), "task.log").attribute("task", this.task.id())) {
             TaskLogsPostResponse response = this.taskClient.taskCollection().taskEntity().taskLogs().post(TaskLogsPostRequest.builder()
                     .taskId(this.task.id())
                     .payload(logCreation)
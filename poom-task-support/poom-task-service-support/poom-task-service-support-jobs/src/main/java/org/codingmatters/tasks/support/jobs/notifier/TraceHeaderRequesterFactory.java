@@ -0,0 +1,43 @@
+package org.codingmatters.tasks.support.jobs.notifier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.rest.api.client.Requester;
+import org.codingmatters.rest.api.client.RequesterFactory;
+import org.codingmatters.tasks.client.TaskApiClient;
+import org.codingmatters.tasks.client.TaskApiRequesterClient;
+
+import java.util.function.Function;
+
+/**
+ * Adds the trace id of the job processed by the calling thread as a header to the requests, so that task API calls made
+ * from a job, as the ClientTaskNotifier ones, can be related to it.
+ *
+ * Use taskClientProvider to build the task client provider given to TaskJobProcessor.
+ */
+public class TraceHeaderRequesterFactory implements RequesterFactory {
+
+    /**
+     * @param requesterFactoryProvider provides the requester factory for a task api url
+     * @return a task client provider, as expected by TaskJobProcessor, whose clients send the job trace id header
+     */
+    static public Function<String, TaskApiClient> taskClientProvider(Function<String, RequesterFactory> requesterFactoryProvider, JsonFactory jsonFactory) {
+        return url -> new TaskApiRequesterClient(new TraceHeaderRequesterFactory(requesterFactoryProvider.apply(url)), jsonFactory, () -> url);
+    }
+
+    private final RequesterFactory delegate;
+
+    public TraceHeaderRequesterFactory(RequesterFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Requester create(String url) {
+        Requester requester = this.delegate.create(url);
+        String traceId = JobTracing.current();
+        if (traceId != null) {
+            requester = requester.header(JobTracing.HEADER, traceId);
+        }
+        return requester;
+    }
+}
@@ -0,0 +1,214 @@
+package org.codingmatters.tasks.support.jobs.notifier;
+
+import org.codingmatters.tasks.api.*;
+import org.codingmatters.tasks.api.types.Task;
+import org.codingmatters.tasks.api.types.TaskLogCreation;
+import org.codingmatters.tasks.client.TaskApiClient;
+import org.codingmatters.tasks.client.TaskApiHandlersClient;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BufferedTaskNotifierTest {
+
+    private final List<String> calls = Collections.synchronizedList(new LinkedList<>());
+    private final List<TaskLogCreation> logs = Collections.synchronizedList(new LinkedList<>());
+    private final AtomicInteger batchStatus = new AtomicInteger(201);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final TaskApiClient taskClient = new TaskApiHandlersClient(new TaskApiHandlers.Builder()
+            .taskLogBatchPostHandler(request -> {
+                switch (this.batchStatus.get()) {
+                    case 400:
+                        this.calls.add("batch-400:" + request.payload().size());
+                        return TaskLogBatchPostResponse.builder().status400(status -> status).build();
+                    case 404:
+                        this.calls.add("batch-404:" + request.payload().size());
+                        return TaskLogBatchPostResponse.builder().status404(status -> status).build();
+                    case 500:
+                        this.calls.add("batch-500:" + request.payload().size());
+                        return TaskLogBatchPostResponse.builder().status500(status -> status).build();
+                    case 201:
+                        break;
+                    default:
+                        return TaskLogBatchPostResponse.builder().build();
+                }
+                this.calls.add("batch:" + request.payload().size());
+                this.logs.addAll(request.payload());
+                return TaskLogBatchPostResponse.builder().status201(status -> status).build();
+            })
+            .taskLogsPostHandler(request -> {
+                this.calls.add("log");
+                this.logs.add(request.payload());
+                return TaskLogsPostResponse.builder().status201(status -> status).build();
+            })
+            .taskStatusChangesPostHandler(request -> {
+                this.calls.add("status:" + request.payload().run());
+                return TaskStatusChangesPostResponse.builder().status201(status -> status).build();
+            })
+            .taskResultsPutHandler(request -> {
+                this.calls.add("result");
+                return TaskResultsPutResponse.builder().status200(status -> status).build();
+            })
+            .build(), this.executor);
+
+    private final Task task = Task.builder().id("task-id").build();
+
+    @After
+    public void tearDown() throws Exception {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void givenLogsUnderBatchSize__whenTaskSucceeds__thenLogsSentInOneBatch_beforeResultAndStatus() throws Exception {
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.warn("second");
+        notifier.error("third");
+        notifier.success(ObjectValue.builder().build());
+
+        assertThat(this.calls, contains("batch:3", "result", "status:DONE"));
+        assertThat(this.logs, contains(
+                TaskLogCreation.builder().level(TaskLogCreation.Level.INFO).log("first").build(),
+                TaskLogCreation.builder().level(TaskLogCreation.Level.WARN).log("second").build(),
+                TaskLogCreation.builder().level(TaskLogCreation.Level.ERROR).log("third").build()
+        ));
+    }
+
+    @Test
+    public void givenBatchSizeReached__thenBatchSentWithoutWaitingForDelay() throws Exception {
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 2, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.info("second");
+
+        this.waitForCalls(1);
+        assertThat(this.calls, contains("batch:2"));
+
+        notifier.failure();
+        assertThat(this.calls, contains("batch:2", "status:DONE"));
+    }
+
+    @Test
+    public void givenFlushDelayElapsed__thenBufferedLogsSent() throws Exception {
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, 50);
+
+        notifier.info("first");
+
+        this.waitForCalls(1);
+        assertThat(this.calls, contains("batch:1"));
+
+        notifier.close();
+    }
+
+    @Test
+    public void givenMoreLogsThanBufferSize__thenAllLogsSentInOrder() throws Exception {
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 4, 2, 10);
+
+        for (int i = 0; i < 100; i++) {
+            notifier.info("log %s", i);
+        }
+        notifier.success(ObjectValue.builder().build());
+
+        assertThat(this.logs, hasSize(100));
+        for (int i = 0; i < 100; i++) {
+            assertThat(this.logs.get(i).log(), is("log " + i));
+        }
+        assertThat(this.calls.get(this.calls.size() - 1), is("status:DONE"));
+    }
+
+    @Test
+    public void givenTaskApiWithoutBatchEndpoint__thenLogsAppendedOneByOne() throws Exception {
+        this.batchStatus.set(0);
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.info("second");
+        notifier.failure();
+
+        assertThat(this.calls, contains("log", "log", "status:DONE"));
+        assertThat(this.logs.get(0).log(), is("first"));
+        assertThat(this.logs.get(1).log(), is("second"));
+    }
+
+    @Test
+    public void givenBatchRejected__thenLogsAppendedOneByOne_andNextBatchStillSentAsBatch() throws Exception {
+        this.batchStatus.set(400);
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.info("second");
+        notifier.flush();
+
+        this.batchStatus.set(201);
+        notifier.info("third");
+        notifier.failure();
+
+        assertThat(this.calls, contains("batch-400:2", "log", "log", "batch:1", "status:DONE"));
+        assertThat(this.logs.stream().map(TaskLogCreation::log).toList(), contains("first", "second", "third"));
+    }
+
+    @Test
+    public void givenBatchFailed__thenLogsAppendedOneByOne() throws Exception {
+        this.batchStatus.set(500);
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.info("second");
+        notifier.failure();
+
+        assertThat(this.calls, contains("batch-500:2", "log", "log", "status:DONE"));
+        assertThat(this.logs.stream().map(TaskLogCreation::log).toList(), contains("first", "second"));
+    }
+
+    @Test
+    public void givenTaskNotFound__thenBatchNotAppendedOneByOne_andBatchingNotDisabled() throws Exception {
+        this.batchStatus.set(404);
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 10, 5, TimeUnit.MINUTES.toMillis(1));
+
+        notifier.info("first");
+        notifier.flush();
+        notifier.info("second");
+        notifier.failure();
+
+        assertThat(this.calls, contains("batch-404:1", "batch-404:1", "status:DONE"));
+        assertThat(this.logs, is(empty()));
+    }
+
+    @Test
+    public void givenBatchSizeOverApiLimit__thenBatchesCappedToMaxBatchSize() throws Exception {
+        BufferedTaskNotifier notifier = new BufferedTaskNotifier(this.taskClient, this.task, 3000, 5000, TimeUnit.MINUTES.toMillis(1));
+
+        for (int i = 0; i < 2500; i++) {
+            notifier.info("log %s", i);
+        }
+        notifier.failure();
+
+        for (String call : this.calls.subList(0, this.calls.size() - 1)) {
+            assertThat(call, startsWith("batch:"));
+            assertThat(Integer.parseInt(call.substring("batch:".length())), is(lessThanOrEqualTo(BufferedTaskNotifier.MAX_BATCH_SIZE)));
+        }
+        assertThat(this.calls.get(this.calls.size() - 1), is("status:DONE"));
+        assertThat(this.logs, hasSize(2500));
+    }
+
+    private void waitForCalls(int count) throws InterruptedException {
+        long until = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (this.calls.size() < count && System.currentTimeMillis() < until) {
+            Thread.sleep(10);
+        }
+    }
+}
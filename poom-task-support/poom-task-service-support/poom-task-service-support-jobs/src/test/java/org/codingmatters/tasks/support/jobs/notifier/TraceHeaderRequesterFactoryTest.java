@@ -0,0 +1,53 @@
+package org.codingmatters.tasks.support.jobs.notifier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.rest.api.client.test.TestRequesterFactory;
+import org.codingmatters.tasks.api.TaskEntityGetRequest;
+import org.codingmatters.tasks.client.TaskApiClient;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TraceHeaderRequesterFactoryTest {
+
+    private final TestRequesterFactory requesterFactory = new TestRequesterFactory(() -> "http://tasks");
+
+    @Test
+    public void givenJobTraced__whenRequesting__thenTraceIdHeaderSent() throws Exception {
+        this.requesterFactory.nextResponse(TestRequesterFactory.Method.GET, 200);
+
+        try (JobTracing.Scope scope = JobTracing.enter("trace-id")) {
+            new TraceHeaderRequesterFactory(this.requesterFactory).create("/tasks/task-id").get();
+        }
+
+        assertThat(this.requesterFactory.lastCall().get().headers().get(JobTracing.HEADER)[0], is("trace-id"));
+    }
+
+    @Test
+    public void givenNoJobTraced__whenRequesting__thenNoTraceIdHeader() throws Exception {
+        this.requesterFactory.nextResponse(TestRequesterFactory.Method.GET, 200);
+
+        new TraceHeaderRequesterFactory(this.requesterFactory).create("/tasks/task-id").get();
+
+        assertThat(this.requesterFactory.lastCall().get().headers().get(JobTracing.HEADER), is(nullValue()));
+    }
+
+    @Test
+    public void givenTaskClientProvider__whenJobTraced__thenTaskApiCallsSendTraceIdHeader() throws Exception {
+        Function<String, TaskApiClient> provider = TraceHeaderRequesterFactory.taskClientProvider(url -> this.requesterFactory, new JsonFactory());
+        this.requesterFactory.nextResponse(TestRequesterFactory.Method.GET, 404);
+
+        try (JobTracing.Scope scope = JobTracing.enter("trace-id")) {
+            provider.apply("http://tasks").taskCollection().taskEntity().get(TaskEntityGetRequest.builder().taskId("task-id").build());
+        } catch (IOException e) {
+            // response content is not relevant here
+        }
+
+        assertThat(this.requesterFactory.lastCall().get().headers().get(JobTracing.HEADER)[0], is("trace-id"));
+    }
+}
@@ -0,0 +1,46 @@
+package org.codingmatters.poom.poomjobs.benchmarks;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobRunnerMetaData;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.time.LocalDateTime;
+
+public class JobFixtures {
+
+    static public final int CATEGORIES = 10;
+    static public final int NAMES = 20;
+
+    static public String category(int i) {
+        return "category-" + (i % CATEGORIES);
+    }
+
+    static public String name(int i) {
+        return "name-" + (i % NAMES);
+    }
+
+    /**
+     * A job as found in a long running registry : mostly DONE jobs, a few PENDING and RUNNING ones.
+     */
+    static public JobValue job(int i, LocalDateTime now) {
+        Status.Run run = i % 50 == 0 ? Status.Run.PENDING : (i % 50 == 1 ? Status.Run.RUNNING : Status.Run.DONE);
+        return JobValue.builder()
+                .category(category(i))
+                .name(name(i))
+                .arguments("argument-" + i, "another-argument")
+                .status(status -> status
+                        .run(run)
+                        .exit(run == Status.Run.DONE ? Status.Exit.SUCCESS : null)
+                )
+                .processing(processing -> processing
+                        .submitted(now.minusSeconds(i))
+                        .started(run != Status.Run.PENDING ? now.minusSeconds(i).plusNanos(1000) : null)
+                        .finished(run == Status.Run.DONE ? now.minusSeconds(i).plusSeconds(1) : null)
+                )
+                .runner(JobRunnerMetaData.builder().runnerId(run != Status.Run.PENDING ? "runner-" + (i % 7) : null).idempotent(true).build())
+                .accounting(accounting -> accounting.accountId("account-" + (i % 3)))
+                .context(ObjectValue.builder().property("trace", p -> p.stringValue("trace-" + i)).build())
+                .build();
+    }
+}
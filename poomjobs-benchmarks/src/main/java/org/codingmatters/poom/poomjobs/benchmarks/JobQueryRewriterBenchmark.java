@@ -0,0 +1,47 @@
+package org.codingmatters.poom.poomjobs.benchmarks;
+
+import org.codingmatters.poom.jobs.collections.jobs.repository.JobQueryRewriter;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobCriteria;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobQueryRewriterBenchmark {
+
+    private final JobQueryRewriter rewriter = new JobQueryRewriter();
+
+    private JobQuery pendingQuery;
+    private PropertyQuery sortedQuery;
+
+    @Setup
+    public void setUp() {
+        this.pendingQuery = JobQuery.builder().criteria(JobCriteria.builder()
+                .category(JobFixtures.category(0))
+                .names(JobFixtures.name(0), JobFixtures.name(1), JobFixtures.name(2))
+                .runStatus("PENDING")
+                .build()
+        ).build();
+        this.sortedQuery = PropertyQuery.builder()
+                .filter("accounting.accountId == 'account-0'")
+                .sort("processing.submitted")
+                .build();
+    }
+
+    @Benchmark
+    public PropertyQuery rewrite() {
+        return this.rewriter.propertyQuery(this.pendingQuery, null);
+    }
+
+    @Benchmark
+    public PropertyQuery rewriteAndMerge() {
+        return this.rewriter.propertyQuery(this.pendingQuery, this.sortedQuery);
+    }
+}
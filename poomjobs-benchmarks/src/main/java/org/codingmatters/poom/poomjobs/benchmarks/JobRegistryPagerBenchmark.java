@@ -0,0 +1,76 @@
+package org.codingmatters.poom.poomjobs.benchmarks;
+
+import org.codingmatters.poom.jobs.collections.jobs.JobRegistryPager;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.inmemory.InMemoryJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobCriteria;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job listing as done by the registry and the runners looking for pending jobs, over repositories of growing size.
+ * The INDEXED repository is the one the registry uses, GENERIC evaluates property queries on every stored value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class JobRegistryPagerBenchmark {
+
+    public enum RepositoryKind {
+        INDEXED, GENERIC
+    }
+
+    @Param({"10000", "100000", "1000000"})
+    public int jobCount;
+
+    @Param({"INDEXED", "GENERIC"})
+    public RepositoryKind repositoryKind;
+
+    private JobRegistryPager pendingPager;
+    private JobRegistryPager allPager;
+    private PropertyQuery accountQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RepositoryException {
+        Repository<JobValue, PropertyQuery> repository = RepositoryKind.INDEXED.equals(this.repositoryKind) ?
+                new InMemoryJobRepository() :
+                InMemoryRepositoryWithPropertyQuery.notValidating(JobValue.class, true);
+
+        LocalDateTime now = UTC.now();
+        for (int i = 0; i < this.jobCount; i++) {
+            repository.create(JobFixtures.job(i, now));
+        }
+
+        this.pendingPager = new JobRegistryPager(null, JobQuery.builder().criteria(JobCriteria.builder()
+                .category(JobFixtures.category(0))
+                .names(JobFixtures.name(0), JobFixtures.name(10))
+                .runStatus("PENDING")
+                .build()
+        ).build(), repository);
+        this.allPager = new JobRegistryPager(null, null, repository);
+        this.accountQuery = PropertyQuery.builder().filter("accounting.accountId == 'account-1'").build();
+    }
+
+    @Benchmark
+    public PagedEntityList<Job> pendingJobsFirstPage() throws RepositoryException {
+        return this.pendingPager.all(0, 19);
+    }
+
+    @Benchmark
+    public PagedEntityList<Job> accountJobsFirstPage() throws RepositoryException {
+        return this.allPager.search(this.accountQuery, 0, 19);
+    }
+}
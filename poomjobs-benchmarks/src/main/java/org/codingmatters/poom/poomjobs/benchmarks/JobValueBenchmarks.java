@@ -0,0 +1,85 @@
+package org.codingmatters.poom.poomjobs.benchmarks;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.JobValueChange;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.change.Validation;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
+import org.codingmatters.poomjobs.api.types.JobUpdateData;
+import org.codingmatters.poomjobs.api.types.jobupdatedata.Status;
+import org.codingmatters.poomjobs.service.JobEntityTransformation;
+import org.codingmatters.poomjobs.service.JobValueMerger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request value handling : merging update data, transforming entities to API jobs and validating status changes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobValueBenchmarks {
+
+    private JobValue pending;
+    private JobValue running;
+    private Entity<JobValue> entity;
+    private JobUpdateData reservation;
+    private JobUpdateData completion;
+
+    @Setup
+    public void setUp() {
+        this.pending = JobFixtures.job(0, UTC.now());
+        this.running = JobFixtures.job(1, UTC.now());
+        this.entity = new ImmutableEntity<>("job-id", BigInteger.TWO, this.running);
+        this.reservation = JobUpdateData.builder()
+                .status(Status.builder().run(Status.Run.RUNNING).build())
+                .runner(JobRunnerMetaData.builder().runnerId("runner-id").idempotent(true).build())
+                .build();
+        this.completion = JobUpdateData.builder()
+                .status(Status.builder().run(Status.Run.DONE).exit(Status.Exit.SUCCESS).build())
+                .result("some result")
+                .build();
+    }
+
+    @Benchmark
+    public JobValue mergeReservation() {
+        return JobValueMerger.merge(this.pending).with(this.reservation);
+    }
+
+    @Benchmark
+    public JobValue mergeCompletion() {
+        return JobValueMerger.merge(this.running).with(this.completion);
+    }
+
+    @Benchmark
+    public Job transformAsJob() {
+        return JobEntityTransformation.transform(this.entity).asJob();
+    }
+
+    @Benchmark
+    public void reservationChange(Blackhole blackhole) {
+        JobValue newValue = JobValueMerger.merge(this.pending).with(this.reservation);
+        JobValueChange change = JobValueChange.from(BigInteger.ONE, null, this.pending).to(newValue);
+        Validation validation = change.validation();
+        blackhole.consume(validation);
+        blackhole.consume(change.applied());
+    }
+
+    @Benchmark
+    public void completionChange(Blackhole blackhole) {
+        JobValue newValue = JobValueMerger.merge(this.running).with(this.completion);
+        JobValueChange change = JobValueChange.from(BigInteger.TWO, BigInteger.TWO, this.running).to(newValue);
+        Validation validation = change.validation();
+        blackhole.consume(validation);
+        blackhole.consume(change.applied());
+    }
+}
@@ -0,0 +1,140 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.JobValueCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.JobBatchPostRequest;
+import org.codingmatters.poomjobs.api.JobBatchPostResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.api.types.JobBatchCreationResult;
+import org.codingmatters.poomjobs.api.types.JobCreationData;
+import org.codingmatters.poomjobs.service.JobEntityTransformation;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class JobBatchCreationHandler implements Function<JobBatchPostRequest, JobBatchPostResponse> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobBatchCreationHandler.class);
+
+    static public final int MAX_BATCH_SIZE = 10000;
+
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final Function<JobBatchPostRequest, ObjectValue> contextualizer;
+    private final PoomjobsJobRepositoryListener listener;
+    private final Function<String, Boolean> accountValidator;
+
+    public JobBatchCreationHandler(Repository<JobValue, PropertyQuery> repository, Function<JobBatchPostRequest, ObjectValue> contextualizer, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator) {
+        this.repository = repository;
+        this.contextualizer = contextualizer;
+        this.listener = listener;
+        this.accountValidator = accountValidator;
+    }
+
+    @Override
+    public JobBatchPostResponse apply(JobBatchPostRequest request) {
+        if (request.payload() == null || request.payload().size() > MAX_BATCH_SIZE) {
+            return JobBatchPostResponse.builder().status400(status -> status.payload(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_CREATION)
+                    .token(log.tokenized().info("invalid job batch, must provide at most {} jobs, got {}", MAX_BATCH_SIZE, request.payload() == null ? null : request.payload().size()))
+                    .description("must provide a list of at most " + MAX_BATCH_SIZE + " jobs")
+            )).build();
+        }
+        if (request.accountId() != null && !this.accountValidator.apply(request.accountId())) {
+            return JobBatchPostResponse.builder().status400(status -> status.payload(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_CREATION)
+                    .token(log.tokenized().info("invalid account for job batch : {}", request.accountId()))
+                    .description("Invalid account")
+            )).build();
+        }
+
+        ObjectValue context = this.contextualizer.apply(request);
+        JobBatchCreationResult[] results = new JobBatchCreationResult[request.payload().size()];
+        List<Integer> validIndexes = new ArrayList<>(results.length);
+        List<JobValue> validValues = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            JobCreationData jobCreationData = request.payload().get(i);
+            JobValueCreation creation = JobRegistryCRUD.creation(jobCreationData, request.accountId(), request.xExtension(), context);
+            if (creation.validation().isValid()) {
+                validIndexes.add(i);
+                validValues.add(creation.applied());
+            } else {
+                long index = i;
+                results[i] = JobBatchCreationResult.builder()
+                        .index(index)
+                        .error(error -> error
+                                .code(Error.Code.INVALID_OBJECT_FOR_CREATION)
+                                .token(log.tokenized().info("invalid for job creation : {} - {}", creation.validation().message(), jobCreationData))
+                                .description(creation.validation().message()))
+                        .build();
+            }
+        }
+
+        JobBatchCreation creation;
+        try {
+            creation = this.createAll(validValues);
+        } catch (RepositoryException e) {
+            return JobBatchPostResponse.builder().status500(status -> status.payload(error -> error
+                    .code(Error.Code.UNEXPECTED_ERROR)
+                    .token(log.tokenized().error("error creating job batch of " + validValues.size() + " jobs", e))
+                    .description("unexpected error, see logs")
+            )).build();
+        }
+        List<Entity<JobValue>> created = creation.created();
+        if (!created.isEmpty()) {
+            this.listener.jobsCreated(created);
+        }
+
+        for (int i = 0; i < creation.size(); i++) {
+            int index = validIndexes.get(i);
+            Optional<Entity<JobValue>> entity = creation.entity(i);
+            if (entity.isPresent()) {
+                results[index] = JobBatchCreationResult.builder()
+                        .index((long) index)
+                        .job(JobEntityTransformation.transform(entity.get()).asJob())
+                        .build();
+            } else {
+                String failure = creation.failure(i).orElse("not created");
+                results[index] = JobBatchCreationResult.builder()
+                        .index((long) index)
+                        .error(error -> error
+                                .code(Error.Code.UNEXPECTED_ERROR)
+                                .token(log.tokenized().error("failed creating job at index {} of batch : {}", index, failure))
+                                .description("job not created, see logs"))
+                        .build();
+            }
+        }
+
+        log.debug("created {} jobs out of a batch of {}", created.size(), results.length);
+        return JobBatchPostResponse.builder()
+                .status200(status -> status.payload(results))
+                .build();
+    }
+
+    private JobBatchCreation createAll(List<JobValue> values) throws RepositoryException {
+        if (values.isEmpty()) {
+            return new JobBatchCreation(0);
+        }
+        if (this.repository instanceof PoomjobsJobRepository) {
+            return ((PoomjobsJobRepository) this.repository).createAll(values);
+        }
+        JobBatchCreation result = new JobBatchCreation(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            try {
+                result.created(i, this.repository.create(values.get(i)));
+            } catch (RepositoryException e) {
+                result.failed(i, e.getMessage());
+            }
+        }
+        return result;
+    }
+}
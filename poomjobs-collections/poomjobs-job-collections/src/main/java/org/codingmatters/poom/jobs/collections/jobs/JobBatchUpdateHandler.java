@@ -0,0 +1,114 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.generic.resource.domain.exceptions.*;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.JobBatchPatchRequest;
+import org.codingmatters.poomjobs.api.JobBatchPatchResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdate;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdateResult;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.math.BigInteger;
+import java.util.function.Function;
+
+public class JobBatchUpdateHandler implements Function<JobBatchPatchRequest, JobBatchPatchResponse> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobBatchUpdateHandler.class);
+
+    static public final int MAX_BATCH_SIZE = 1000;
+
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final String url;
+    private final PoomjobsJobRepositoryListener listener;
+    private final Function<String, Boolean> accountValidator;
+    private final JobRetryPolicies retryPolicies;
+    private final JobCache jobCache;
+
+    public JobBatchUpdateHandler(Repository<JobValue, PropertyQuery> repository, String url, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator, JobRetryPolicies retryPolicies, JobCache jobCache) {
+        this.repository = repository;
+        this.url = url;
+        this.listener = listener;
+        this.accountValidator = accountValidator;
+        this.retryPolicies = retryPolicies;
+        this.jobCache = jobCache;
+    }
+
+    @Override
+    public JobBatchPatchResponse apply(JobBatchPatchRequest request) {
+        if (request.payload() == null || request.payload().size() > MAX_BATCH_SIZE) {
+            return JobBatchPatchResponse.builder().status400(status -> status.payload(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                    .token(log.tokenized().info("invalid job update batch, must provide at most {} updates, got {}", MAX_BATCH_SIZE, request.payload() == null ? null : request.payload().size()))
+                    .description("must provide a list of at most " + MAX_BATCH_SIZE + " job updates")
+            )).build();
+        }
+
+        JobBatchUpdateResult[] results = new JobBatchUpdateResult[request.payload().size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.update((long) i, request.payload().get(i));
+        }
+        return JobBatchPatchResponse.builder()
+                .status200(status -> status.payload(results))
+                .build();
+    }
+
+    private JobBatchUpdateResult update(Long index, JobBatchUpdate update) {
+        JobBatchUpdateResult.Builder result = JobBatchUpdateResult.builder().index(index).jobId(update.jobId());
+        if (update.jobId() == null || update.update() == null) {
+            return result.error(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                    .token(log.tokenized().info("invalid job batch update, must provide a job id and an update : {}", update))
+                    .description("must provide a job id and an update")
+            ).build();
+        }
+
+        BigInteger fromVersion;
+        try {
+            fromVersion = this.fromVersion(update);
+        } catch (NumberFormatException e) {
+            return result.error(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                    .token(log.tokenized().info("invalid job batch update, currentVersion must be a version : {}", update))
+                    .description("currentVersion must be a job version")
+            ).build();
+        }
+
+        JobRegistryCRUD crud = new JobRegistryCRUD(this.repository, this.url, null, null, null, fromVersion, this.listener, this.accountValidator, this.retryPolicies, this.jobCache);
+        try {
+            Entity<Job> updated = crud.updateEntityWith(update.jobId(), update.update());
+            return result.job(updated.value()).build();
+        } catch (BadRequestException e) {
+            return result.error(error -> error
+                    .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                    .token(log.tokenized().info("invalid job batch update : {} - {}", e.getMessage(), update))
+                    .description(e.getMessage())
+            ).build();
+        } catch (NotFoundException e) {
+            return result.error(error -> error
+                    .code(Error.Code.RESOURCE_NOT_FOUND)
+                    .token(log.tokenized().info("job batch update on missing job : {}", update))
+                    .description("no job found with id " + update.jobId())
+            ).build();
+        } catch (ForbiddenException | UnauthorizedException | UnexpectedException | MethodNotAllowedException e) {
+            return result.error(error -> error
+                    .code(Error.Code.UNEXPECTED_ERROR)
+                    .token(log.tokenized().error("error while updating job " + update.jobId() + " in batch", e))
+                    .description("unexpected error, see logs")
+            ).build();
+        }
+    }
+
+    private BigInteger fromVersion(JobBatchUpdate update) {
+        if (update.opt().strict().orElse(false)) {
+            return update.opt().currentVersion().isPresent() ? new BigInteger(update.currentVersion()) : BigInteger.ONE;
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.support.Env;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the Job payloads served by the job registry, by job id. Each entry keeps the job version it was
+ * computed from, and an entry is never replaced by an older version.
+ *
+ * Jobs read from the repository are put with the stamp taken before reading them : a read that started before the job
+ * was invalidated is not cached, so that a stale read cannot bring back an invalidated job.
+ *
+ * The least recently used entries are evicted above maxSize, and entries older than ttl are reloaded so that changes
+ * made outside of this registry are eventually seen.
+ */
+public class JobCache implements Supplier<ObjectValue> {
+
+    static public final String JOB_CACHE_SIZE = "JOB_CACHE_SIZE";
+    static public final String JOB_CACHE_TTL = "JOB_CACHE_TTL_IN_MS";
+
+    /**
+     * @return a cache configured from the environment, or null when JOB_CACHE_SIZE is 0
+     */
+    static public JobCache fromEnv() {
+        int size = Env.optional(JOB_CACHE_SIZE).orElse(new Env.Var("10000")).asInteger();
+        if (size <= 0) {
+            return null;
+        }
+        return new JobCache(size, Duration.ofMillis(Env.optional(JOB_CACHE_TTL).orElse(new Env.Var("5000")).asInteger()));
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Cached> entries;
+    private final LinkedHashMap<String, Long> invalidations;
+    private long invalidationSequence = 0L;
+
+    private final AtomicLong hits = new AtomicLong(0L);
+    private final AtomicLong misses = new AtomicLong(0L);
+    private final AtomicLong evictions = new AtomicLong(0L);
+
+    public JobCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                if (this.size() > JobCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidations = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return this.size() > JobCache.this.maxSize;
+            }
+        };
+    }
+
+    public Optional<Entity<Job>> get(String id) {
+        Cached cached;
+        synchronized (this.entries) {
+            cached = this.entries.get(id);
+            if (cached != null && System.nanoTime() - cached.at > this.ttlNanos) {
+                this.entries.remove(id);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+        this.hits.incrementAndGet();
+        return Optional.of(cached.job);
+    }
+
+    /**
+     * @return the stamp to put a job read from the repository with, to be taken before reading it
+     */
+    public long stamp() {
+        synchronized (this.entries) {
+            return this.invalidationSequence;
+        }
+    }
+
+    /**
+     * Caches a job just written to the repository.
+     */
+    public void put(Entity<Job> job) {
+        synchronized (this.entries) {
+            this.putIfNewer(job);
+        }
+    }
+
+    /**
+     * Caches a job read from the repository, unless it was invalidated since the stamp was taken.
+     */
+    public void put(Entity<Job> job, long stamp) {
+        synchronized (this.entries) {
+            Long invalidated = this.invalidations.get(job.id());
+            if (invalidated == null || invalidated <= stamp) {
+                this.putIfNewer(job);
+            }
+        }
+    }
+
+    private void putIfNewer(Entity<Job> job) {
+        Cached current = this.entries.get(job.id());
+        if (current == null || current.job.version().compareTo(job.version()) <= 0) {
+            this.entries.put(job.id(), new Cached(job, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(String id) {
+        synchronized (this.entries) {
+            this.entries.remove(id);
+            this.invalidations.remove(id);
+            this.invalidations.put(id, ++this.invalidationSequence);
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * @return a listener invalidating the cached jobs it is notified of before delegating, for job updates and deletions
+     * that don't go through the job registry CRUD. A listener already invalidating this cache is returned as is.
+     */
+    public PoomjobsJobRepositoryListener invalidating(PoomjobsJobRepositoryListener delegate) {
+        if (delegate instanceof Invalidating && ((Invalidating) delegate).cache() == this) {
+            return delegate;
+        }
+        return new Invalidating() {
+            @Override
+            public JobCache cache() {
+                return JobCache.this;
+            }
+
+            @Override
+            public void jobCreated(Entity<JobValue> entity) {
+                delegate.jobCreated(entity);
+            }
+
+            @Override
+            public void jobsCreated(List<Entity<JobValue>> entities) {
+                delegate.jobsCreated(entities);
+            }
+
+            @Override
+            public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+                invalidate(entity.id());
+                delegate.jobUpdated(entity, oldValue);
+            }
+
+            @Override
+            public void jobsDeleted(List<String> ids) {
+                for (String id : ids) {
+                    invalidate(id);
+                }
+                delegate.jobsDeleted(ids);
+            }
+        };
+    }
+
+    private interface Invalidating extends PoomjobsJobRepositoryListener {
+        JobCache cache();
+    }
+
+    @Override
+    public ObjectValue get() {
+        long size = this.size();
+        long hitCount = this.hits.get();
+        long missCount = this.misses.get();
+        long evictionCount = this.evictions.get();
+        return ObjectValue.builder()
+                .property("job-cache/size", val -> val.longValue(size))
+                .property("job-cache/max-size", val -> val.longValue((long) this.maxSize))
+                .property("job-cache/hit/count", val -> val.longValue(hitCount))
+                .property("job-cache/miss/count", val -> val.longValue(missCount))
+                .property("job-cache/eviction/count", val -> val.longValue(evictionCount))
+                .build();
+    }
+
+    static private class Cached {
+        private final Entity<Job> job;
+        private final long at;
+
+        Cached(Entity<Job> job, long at) {
+            this.job = job;
+            this.at = at;
+        }
+    }
+}
@@ -3,16 +3,24 @@ package org.codingmatters.poom.jobs.collections.jobs;
 import org.codingmatters.poom.api.paged.collection.api.types.Error;
 import org.codingmatters.poom.generic.resource.domain.PagedCollectionAdapter;
 import org.codingmatters.poom.generic.resource.domain.exceptions.*;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicy;
 import org.codingmatters.poom.poomjobs.domain.jobs.JobValueChange;
 import org.codingmatters.poom.poomjobs.domain.jobs.JobValueCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Accounting;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Processing;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.AbortionStatus;
+import org.codingmatters.poom.runner.tracing.JobTracing;
 import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
 import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
 import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.date.UTC;
 import org.codingmatters.poomjobs.api.types.Job;
 import org.codingmatters.poomjobs.api.types.JobCreationData;
 import org.codingmatters.poomjobs.api.types.JobUpdateData;
@@ -23,6 +31,7 @@ import org.codingmatters.value.objects.values.ObjectValue;
 
 import java.math.BigInteger;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 import static org.codingmatters.poomjobs.service.JobValueMerger.merge;
@@ -30,6 +39,8 @@ import static org.codingmatters.poomjobs.service.JobValueMerger.merge;
 public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCreationData, Void, JobUpdateData> {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobRegistryCRUD.class);
 
+    static private final int MAX_CONCURRENT_UPDATE_ATTEMPTS = 10;
+
     private final Repository<JobValue, PropertyQuery> repository;
     private final String url;
     private final String accountId;
@@ -38,8 +49,18 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
     private final BigInteger fromVersion;
     private final PoomjobsJobRepositoryListener listener;
     private final Function<String, Boolean> accountValidator;
+    private final JobRetryPolicies retryPolicies;
+    private final JobCache cache;
 
     public JobRegistryCRUD(Repository<JobValue, PropertyQuery> repository, String url, String accountId, String xExtension, ObjectValue context, BigInteger fromVersion, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator) {
+        this(repository, url, accountId, xExtension, context, fromVersion, listener, accountValidator, JobRetryPolicies.NONE);
+    }
+
+    public JobRegistryCRUD(Repository<JobValue, PropertyQuery> repository, String url, String accountId, String xExtension, ObjectValue context, BigInteger fromVersion, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator, JobRetryPolicies retryPolicies) {
+        this(repository, url, accountId, xExtension, context, fromVersion, listener, accountValidator, retryPolicies, null);
+    }
+
+    public JobRegistryCRUD(Repository<JobValue, PropertyQuery> repository, String url, String accountId, String xExtension, ObjectValue context, BigInteger fromVersion, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator, JobRetryPolicies retryPolicies, JobCache cache) {
         this.repository = repository;
         this.url = url;
         this.accountId = accountId;
@@ -48,6 +69,8 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
         this.fromVersion = fromVersion;
         this.listener = listener;
         this.accountValidator = accountValidator;
+        this.retryPolicies = retryPolicies;
+        this.cache = cache;
     }
 
     @Override
@@ -70,14 +93,7 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
             }
         }
 
-        JobValue jobValue = JobValueMerger.create()
-                .with(jobCreationData)
-                .withAccounting(Accounting.builder()
-                        .accountId(this.accountId)
-                        .extension(this.xExtension)
-                        .build())
-                .withContext(this.context);
-        JobValueCreation creation = JobValueCreation.with(jobValue);
+        JobValueCreation creation = creation(jobCreationData, this.accountId, this.xExtension, this.context);
         if (creation.validation().isValid()) {
             Entity<JobValue> created;
             try {
@@ -96,8 +112,26 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
         }
     }
 
+    static JobValueCreation creation(JobCreationData jobCreationData, String accountId, String xExtension, ObjectValue context) {
+        return JobValueCreation.with(JobValueMerger.create()
+                .with(jobCreationData)
+                .withAccounting(Accounting.builder()
+                        .accountId(accountId)
+                        .extension(xExtension)
+                        .build())
+                .withContext(JobTracing.traced(context)));
+    }
+
     @Override
     public Optional<Entity<Job>> retrieveEntity(String id) throws BadRequestException, ForbiddenException, NotFoundException, UnauthorizedException, UnexpectedException, MethodNotAllowedException {
+        long stamp = 0L;
+        if (this.cache != null) {
+            Optional<Entity<Job>> cached = this.cache.get(id);
+            if (cached.isPresent()) {
+                return cached;
+            }
+            stamp = this.cache.stamp();
+        }
         Entity<JobValue> entity;
         try {
             entity = this.repository.retrieve(id);
@@ -105,9 +139,11 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
             throw this.unexpectedException("cannot retrieve job", e);
         }
         if (entity != null) {
-            return Optional.of(
-                    new ImmutableEntity<>(entity.id(), entity.version(), JobEntityTransformation.transform(entity).asJob())
-            );
+            Entity<Job> job = new ImmutableEntity<>(entity.id(), entity.version(), JobEntityTransformation.transform(entity).asJob());
+            if (this.cache != null) {
+                this.cache.put(job, stamp);
+            }
+            return Optional.of(job);
         } else {
             return Optional.empty();
         }
@@ -116,36 +152,131 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
     @Override
     public Entity<Job> updateEntityWith(String id, JobUpdateData jobUpdateData) throws BadRequestException, ForbiddenException, NotFoundException, UnauthorizedException, UnexpectedException, MethodNotAllowedException {
         log.debug("job update request...");
+        for (int attempt = 1; ; attempt++) {
+            Entity<JobValue> entity = this.retrieveForUpdate(id);
+            JobValue newValue = merge(entity.value()).with(jobUpdateData);
+            JobValueChange change = JobValueChange.from(entity.version(), this.fromVersion, entity.value()).to(newValue);
+            if (!change.validation().isValid()) {
+                throw new BadRequestException(Error.builder()
+                        .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                        .token(log.tokenized().info("invalid for job {} update : {} - {}", entity.id(), change.validation().message(), jobUpdateData))
+                        .description(change.validation().message())
+                        .build(), change.validation().message());
+            }
+
+            JobValue applied = change.applied();
+            Optional<JobRetryPolicy> retryPolicy = this.failed(entity.value(), applied) ?
+                    this.retryPolicies.policyFor(applied.category(), applied.name()) :
+                    Optional.empty();
+            Entity<JobValue> retry = null;
+            if (retryPolicy.isPresent()) {
+                if (retryPolicy.get().retryable(applied)) {
+                    retry = this.createRetry(applied, retryPolicy.get());
+                    applied = applied.withStatus(applied.status().withRetriedByJob(retry.id()));
+                } else {
+                    applied = applied.withStatus(applied.status().withAbortionStatus(AbortionStatus.builder()
+                            .cause(AbortionStatus.Cause.MAX_RETRY_ATTEMPTED)
+                            .build()));
+                }
+            }
+
+            Optional<Entity<JobValue>> updated;
+            try {
+                updated = this.updateIfUnchanged(entity, applied);
+            } catch (RepositoryException e) {
+                this.discardRetry(retry);
+                throw this.unexpectedException("error updating job", e);
+            }
+            if (updated.isPresent()) {
+                listener.jobUpdated(updated.get(), entity.value());
+                if (retry != null) {
+                    log.info("job {} failed on attempt {}, retried by job {}", entity.id(), retryPolicy.get().attempt(applied), retry.id());
+                    listener.jobCreated(retry);
+                }
+                return this.cached(new ImmutableEntity<>(updated.get().id(), updated.get().version(), JobEntityTransformation.transform(updated.get()).asJob()));
+            }
+            this.discardRetry(retry);
+
+            if (this.fromVersion != null || attempt >= MAX_CONCURRENT_UPDATE_ATTEMPTS) {
+                String message = String.format("job changed while updating, cannot validate change (changing from %s)", entity.version());
+                throw new BadRequestException(Error.builder()
+                        .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
+                        .token(log.tokenized().info("job {} changed while updating after {} attempts - {}", entity.id(), attempt, jobUpdateData))
+                        .description(message)
+                        .build(), message);
+            }
+            log.debug("job {} changed while updating, retrying update", entity.id());
+        }
+    }
+
+    private Entity<Job> cached(Entity<Job> job) {
+        if (this.cache != null) {
+            this.cache.put(job);
+        }
+        return job;
+    }
+
+    private boolean failed(JobValue current, JobValue updated) {
+        return !Status.Run.DONE.equals(current.opt().status().run().orElse(null))
+                && Status.Run.DONE.equals(updated.opt().status().run().orElse(null))
+                && Status.Exit.FAILURE.equals(updated.opt().status().exit().orElse(null));
+    }
+
+    private Entity<JobValue> createRetry(JobValue failed, JobRetryPolicy policy) throws UnexpectedException {
+        long attempt = policy.attempt(failed);
+        JobValue retry = JobValueCreation.with(JobValue.builder()
+                .category(failed.category())
+                .name(failed.name())
+                .arguments(failed.arguments() != null ?
+                        failed.arguments().toArray(new String[failed.arguments().size()]) :
+                        (String[]) null)
+                .priority(failed.priority())
+                .accounting(failed.accounting())
+                .context(failed.context())
+                .attemptCount(attempt + 1)
+                .processing(Processing.builder()
+                        .notBefore(UTC.now().plus(policy.backoff(attempt, ThreadLocalRandom.current().nextDouble())))
+                        .build())
+                .build()).applied();
+        try {
+            return this.repository.create(retry);
+        } catch (RepositoryException e) {
+            throw this.unexpectedException("error creating retry job", e);
+        }
+    }
+
+    private void discardRetry(Entity<JobValue> retry) {
+        if (retry != null) {
+            try {
+                this.repository.delete(retry);
+            } catch (RepositoryException e) {
+                log.error("[GRAVE] failed deleting retry job " + retry.id() + " of a job that could not be updated", e);
+            }
+        }
+    }
+
+    private Entity<JobValue> retrieveForUpdate(String id) throws NotFoundException, UnexpectedException {
         Entity<JobValue> entity;
         try {
             entity = this.repository.retrieve(id);
             log.debug("job update request... retrieved {}", entity);
-            if (entity == null) {
-                throw new NotFoundException(Error.builder()
-                        .code(Error.Code.RESOURCE_NOT_FOUND)
-                        .token(log.tokenized().info("while updating, job not found : {}", id))
-                        .build(), "while updating, job not found");
-            }
         } catch (RepositoryException e) {
             throw this.unexpectedException("while updating, cannot retrieve job", e);
         }
-        JobValue newValue = merge(entity.value()).with(jobUpdateData);
-        JobValueChange change = JobValueChange.from(entity.version(), this.fromVersion, entity.value()).to(newValue);
-        if (change.validation().isValid()) {
-            Entity<JobValue> updated;
-            try {
-                updated = this.repository.update(entity, change.applied());
-            } catch (RepositoryException e) {
-                throw this.unexpectedException("error updating job", e);
-            }
-            listener.jobUpdated(updated, entity.value());
-            return new ImmutableEntity<>(updated.id(), updated.version(), JobEntityTransformation.transform(updated).asJob());
+        if (entity == null) {
+            throw new NotFoundException(Error.builder()
+                    .code(Error.Code.RESOURCE_NOT_FOUND)
+                    .token(log.tokenized().info("while updating, job not found : {}", id))
+                    .build(), "while updating, job not found");
+        }
+        return entity;
+    }
+
+    private Optional<Entity<JobValue>> updateIfUnchanged(Entity<JobValue> entity, JobValue value) throws RepositoryException {
+        if (this.repository instanceof PoomjobsJobRepository) {
+            return ((PoomjobsJobRepository) this.repository).updateIfVersionMatches(entity, value);
         } else {
-            throw new BadRequestException(Error.builder()
-                    .code(Error.Code.INVALID_OBJECT_FOR_UPDATE)
-                    .token(log.tokenized().info("invalid for job {} update : {} - {}", entity.id(), change.validation().message(), jobUpdateData))
-                    .description(change.validation().message())
-                    .build(), change.validation().message());
+            return Optional.of(this.repository.update(entity, value));
         }
     }
 
@@ -162,6 +293,10 @@ public class JobRegistryCRUD implements PagedCollectionAdapter.CRUD<Job, JobCrea
                 this.repository.delete(entity);
             } catch (RepositoryException e) {
                 throw this.unexpectedException("error deleting job " + id, e);
+            } finally {
+                if (this.cache != null) {
+                    this.cache.invalidate(id);
+                }
             }
         } else {
             throw new NotFoundException(Error.builder()
@@ -1,5 +1,6 @@
 package org.codingmatters.poom.jobs.collections.jobs;
 
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobCriteria;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
@@ -29,13 +30,80 @@ public class JobRegistryHandlersBuilder extends PoomjobsJobRegistryAPIHandlers.B
             Function<JobCollectionPostRequest, ObjectValue> contextualizer,
             PoomjobsJobRepositoryListener jobRepositoryListener,
             Function<String, Boolean> accountValidator
+    ) {
+        this(jobValueRepository, url, contextualizer, jobRepositoryListener, accountValidator, JobRetryPolicies.NONE);
+    }
+
+    public JobRegistryHandlersBuilder(
+            Repository<JobValue, PropertyQuery> jobValueRepository,
+            String url,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies
+    ) {
+        this(jobValueRepository, url, contextualizer, jobRepositoryListener, accountValidator, retryPolicies, null);
+    }
+
+    public JobRegistryHandlersBuilder(
+            Repository<JobValue, PropertyQuery> jobValueRepository,
+            String url,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache
+    ) {
+        this(jobValueRepository, url, contextualizer, jobRepositoryListener, accountValidator, retryPolicies, jobCache, new JobWatchers(), true);
+    }
+
+    /**
+     * The job watchers are shared with the caller, who is expected to notify them of job updates, typically by passing a
+     * listener wrapped with {@link JobWatchers#notifying(PoomjobsJobRepositoryListener)}, so that each update is
+     * notified once whatever it comes from.
+     */
+    public JobRegistryHandlersBuilder(
+            Repository<JobValue, PropertyQuery> jobValueRepository,
+            String url,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache,
+            JobWatchers jobWatchers
+    ) {
+        this(jobValueRepository, url, contextualizer, jobRepositoryListener, accountValidator, retryPolicies, jobCache, jobWatchers, false);
+    }
+
+    private JobRegistryHandlersBuilder(
+            Repository<JobValue, PropertyQuery> jobValueRepository,
+            String url,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache,
+            JobWatchers jobWatchers,
+            boolean notifyWatchers
     ) {
         Function<JobCollectionPostRequest, ObjectValue> ctxizer = contextualizer == null ? r -> null : contextualizer;
 
+        PoomjobsJobRepositoryListener listener = notifyWatchers ? jobWatchers.notifying(jobRepositoryListener) : jobRepositoryListener;
+        if (jobCache != null) {
+            listener = jobCache.invalidating(listener);
+        }
+
         this.jobCollectionGetHandler(new JobCollectionBrowse(request -> new JobRegistryPager(request.accountId(), this.parseQuery(request), jobValueRepository)));
-        this.jobCollectionPostHandler(new JobCollectionCreate(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), request.xExtension(), ctxizer.apply(request), null, jobRepositoryListener, accountValidator)));
-        this.jobResourceGetHandler(new JobCollectionRetrieve(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), null, null, null, jobRepositoryListener, accountValidator)));
-        this.jobResourcePatchHandler(new JobCollectionUpdate(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), null, null, this.fromVersion(request), jobRepositoryListener, accountValidator)));
+        this.jobCollectionPostHandler(new JobCollectionCreate(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), request.xExtension(), ctxizer.apply(request), null, listener, accountValidator)));
+        this.jobResourceGetHandler(new JobCollectionRetrieve(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), null, null, null, listener, accountValidator, retryPolicies, jobCache)));
+        this.jobResourcePatchHandler(new JobCollectionUpdate(request -> new JobRegistryCRUD(jobValueRepository, url, request.accountId(), null, null, this.fromVersion(request), listener, accountValidator, retryPolicies, jobCache)));
+        this.jobBatchPostHandler(new JobBatchCreationHandler(jobValueRepository, request -> ctxizer.apply(JobCollectionPostRequest.builder()
+                .accountId(request.accountId())
+                .xExtension(request.xExtension())
+                .build()), listener, accountValidator));
+        this.jobBatchPatchHandler(new JobBatchUpdateHandler(jobValueRepository, url, listener, accountValidator, retryPolicies, jobCache));
+        this.jobReservationsPostHandler(new JobReservationHandler(jobValueRepository, url, listener, accountValidator));
+        this.jobWatchGetHandler(new JobWatchHandler(jobValueRepository, jobWatchers));
     }
 
     public JobQuery parseQuery(JobCollectionGetRequest request) {
@@ -0,0 +1,116 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.generic.resource.domain.exceptions.*;
+import org.codingmatters.poom.jobs.collections.jobs.repository.JobQueryRewriter;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobCriteria;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.JobReservationsPostRequest;
+import org.codingmatters.poomjobs.api.JobReservationsPostResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobReservation;
+import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
+import org.codingmatters.poomjobs.api.types.JobUpdateData;
+import org.codingmatters.poomjobs.api.types.jobupdatedata.Status;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class JobReservationHandler implements Function<JobReservationsPostRequest, JobReservationsPostResponse> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobReservationHandler.class);
+
+    static public final long MAX_RESERVATION_COUNT = 100;
+
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final String url;
+    private final PoomjobsJobRepositoryListener listener;
+    private final Function<String, Boolean> accountValidator;
+
+    public JobReservationHandler(Repository<JobValue, PropertyQuery> repository, String url, PoomjobsJobRepositoryListener listener, Function<String, Boolean> accountValidator) {
+        this.repository = repository;
+        this.url = url;
+        this.listener = listener;
+        this.accountValidator = accountValidator;
+    }
+
+    @Override
+    public JobReservationsPostResponse apply(JobReservationsPostRequest request) {
+        JobReservation reservation = request.payload();
+        if(reservation == null || ! reservation.opt().category().isPresent() || ! reservation.opt().runner().runnerId().isPresent()) {
+            return JobReservationsPostResponse.builder().status400(status -> status.payload(error -> error
+                    .code(Error.Code.ILLEGAL_RESOURCE_CHANGE)
+                    .token(log.tokenized().info("invalid job reservation, must provide a category and a runner id : {}", reservation))
+                    .description("must provide a category and a runner id to reserve jobs")
+            )).build();
+        }
+
+        long count = Math.min(reservation.opt().count().orElse(1L), MAX_RESERVATION_COUNT);
+        PropertyQuery query = new JobQueryRewriter().propertyQuery(this.pendingQuery(reservation), PropertyQuery.builder().sort(PendingJobsOrder.SORT).build());
+
+        List<Job> reserved = new LinkedList<>();
+        try {
+            boolean candidatesLeft = count > 0;
+            while (candidatesLeft && reserved.size() < count) {
+                PagedEntityList<JobValue> candidates = this.repository.search(query, 0, count - reserved.size() - 1);
+                int reservedFromCandidates = 0;
+                for (Entity<JobValue> candidate : candidates) {
+                    Optional<Job> job = this.reserve(candidate, reservation.runner());
+                    if(job.isPresent()) {
+                        reserved.add(job.get());
+                        reservedFromCandidates++;
+                    }
+                }
+                candidatesLeft = reservedFromCandidates > 0 && candidates.total() > candidates.size();
+            }
+        } catch (RepositoryException | UnexpectedException e) {
+            return JobReservationsPostResponse.builder().status500(status -> status.payload(error -> error
+                    .code(Error.Code.UNEXPECTED_ERROR)
+                    .token(log.tokenized().error("error while reserving jobs for " + reservation, e))
+                    .description("unexpected error, see logs")
+            )).build();
+        }
+
+        log.debug("reserved {} jobs for {}", reserved.size(), reservation);
+        return JobReservationsPostResponse.builder()
+                .status200(status -> status.payload(reserved.toArray(new Job[0])))
+                .build();
+    }
+
+    private JobQuery pendingQuery(JobReservation reservation) {
+        JobCriteria.Builder criteria = JobCriteria.builder()
+                .category(reservation.category())
+                .runStatus(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING.name());
+        if(reservation.opt().names().isPresent() && ! reservation.names().isEmpty()) {
+            criteria.names(reservation.names().toArray(new String[reservation.names().size()]));
+        }
+        return JobQuery.builder().criteria(criteria.build()).build();
+    }
+
+    private Optional<Job> reserve(Entity<JobValue> candidate, JobRunnerMetaData runner) throws UnexpectedException {
+        JobRegistryCRUD crud = new JobRegistryCRUD(this.repository, this.url, null, null, null, null, this.listener, this.accountValidator);
+        try {
+            return Optional.of(crud.updateEntityWith(candidate.id(), JobUpdateData.builder()
+                    .status(Status.builder().run(Status.Run.RUNNING).build())
+                    .runner(runner)
+                    .build()
+            ).value());
+        } catch (BadRequestException | NotFoundException e) {
+            log.debug("job {} is no longer reservable, skipping it", candidate.id());
+            return Optional.empty();
+        } catch (ForbiddenException | UnauthorizedException | MethodNotAllowedException e) {
+            log.error("unexpected error while reserving job " + candidate.id(), e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.JobWatchGetRequest;
+import org.codingmatters.poomjobs.api.JobWatchGetResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.service.JobEntityTransformation;
+
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Long poll on a job : the request is held until the job is updated past the waitForVersion version, or until the
+ * timeout elapses, in which case the job is returned as is.
+ *
+ * Held requests are woken by the job update events received by the {@link JobWatchers}, the repository is not polled.
+ * A held request holds its worker thread : when the watchers already hold their maximum of watches, the job is returned
+ * as is right away and the client polls again. Servers with a bounded worker pool should park watches out of the pool
+ * and call this handler with a zero timeout once the watch is over (the registries service does so).
+ */
+public class JobWatchHandler implements Function<JobWatchGetRequest, JobWatchGetResponse> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobWatchHandler.class);
+
+    static public final long DEFAULT_TIMEOUT_SECONDS = 30;
+    static public final long MAX_TIMEOUT_SECONDS = 60;
+
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final JobWatchers watchers;
+
+    public JobWatchHandler(Repository<JobValue, PropertyQuery> repository, JobWatchers watchers) {
+        this.repository = repository;
+        this.watchers = watchers;
+    }
+
+    @Override
+    public JobWatchGetResponse apply(JobWatchGetRequest request) {
+        BigInteger afterVersion;
+        try {
+            afterVersion = request.opt().waitForVersion().isPresent() ? new BigInteger(request.waitForVersion()) : null;
+        } catch (NumberFormatException e) {
+            return JobWatchGetResponse.builder().status400(status -> status.payload(error -> error
+                    .code(Error.Code.ILLEGAL_RESOURCE_CHANGE)
+                    .token(log.tokenized().info("invalid watch request, waitForVersion must be a version : {}", request))
+                    .description("waitForVersion must be a job version")
+            )).build();
+        }
+        long timeout = Math.max(0L, Math.min(request.opt().timeout().orElse(DEFAULT_TIMEOUT_SECONDS), MAX_TIMEOUT_SECONDS));
+
+        try {
+            Entity<JobValue> current = this.repository.retrieve(request.jobId());
+            if (current == null) {
+                return this.notFound(request, "no job with id " + request.jobId());
+            }
+            if (afterVersion == null || current.version().compareTo(afterVersion) > 0 || timeout == 0) {
+                return this.found(current);
+            }
+
+            Optional<JobWatchers.Watch> acquired = this.watchers.watch(request.jobId(), afterVersion);
+            if (!acquired.isPresent()) {
+                log.info("too many pending job watches, job {} returned without waiting", request.jobId());
+                return this.found(current);
+            }
+            JobWatchers.Watch watch = acquired.get();
+            try {
+                current = this.repository.retrieve(request.jobId());
+                if (current == null) {
+                    return this.notFound(request, "no job with id " + request.jobId());
+                }
+                if (current.version().compareTo(afterVersion) > 0) {
+                    return this.found(current);
+                }
+                try {
+                    return this.found(watch.future().get(timeout, TimeUnit.SECONDS));
+                } catch (TimeoutException e) {
+                    log.debug("job {} not updated after version {} in {}s", request.jobId(), afterVersion, timeout);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("unexpected error while watching job " + request.jobId(), e);
+                }
+            } finally {
+                watch.release();
+            }
+
+            current = this.repository.retrieve(request.jobId());
+            if (current == null) {
+                return this.notFound(request, "no job with id " + request.jobId());
+            }
+            return this.found(current);
+        } catch (RepositoryException e) {
+            return JobWatchGetResponse.builder().status500(status -> status.payload(error -> error
+                    .code(Error.Code.UNEXPECTED_ERROR)
+                    .token(log.tokenized().error("error while watching job " + request.jobId(), e))
+                    .description("unexpected error, see logs")
+            )).build();
+        }
+    }
+
+    private JobWatchGetResponse found(Entity<JobValue> entity) {
+        return JobWatchGetResponse.builder()
+                .status200(status -> status.payload(JobEntityTransformation.transform(entity).asJob()))
+                .build();
+    }
+
+    private JobWatchGetResponse notFound(JobWatchGetRequest request, String message) {
+        return JobWatchGetResponse.builder().status404(status -> status.payload(error -> error
+                .code(Error.Code.RESOURCE_NOT_FOUND)
+                .token(log.tokenized().info("watch request failed : {} - {}", message, request))
+                .description(message)
+        )).build();
+    }
+}
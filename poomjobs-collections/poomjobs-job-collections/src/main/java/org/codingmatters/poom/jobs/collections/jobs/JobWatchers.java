@@ -0,0 +1,133 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.support.Env;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the pending job watches, completed from job update events.
+ *
+ * A watch is a future completed with the first job update past a given version. No thread is attached to a watch : the
+ * caller decides how long it waits for it. At most maxWatches watches are pending at once.
+ */
+public class JobWatchers {
+
+    static public final String JOB_WATCH_MAX = "JOB_WATCH_MAX";
+    static public final int DEFAULT_MAX_WATCHES = 1000;
+
+    static public JobWatchers fromEnv() {
+        return new JobWatchers(Env.optional(JOB_WATCH_MAX).orElse(new Env.Var("" + DEFAULT_MAX_WATCHES)).asInteger());
+    }
+
+    private final int maxWatches;
+    private final Map<String, Set<Watch>> watches = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    public JobWatchers() {
+        this(DEFAULT_MAX_WATCHES);
+    }
+
+    public JobWatchers(int maxWatches) {
+        this.maxWatches = maxWatches;
+    }
+
+    /**
+     * Watches for a job version greater than afterVersion. The watch must be released once it is no longer waited for.
+     *
+     * @return the watch, or empty when maxWatches watches are already pending
+     */
+    public Optional<Watch> watch(String jobId, BigInteger afterVersion) {
+        if (this.count.incrementAndGet() > this.maxWatches) {
+            this.count.decrementAndGet();
+            return Optional.empty();
+        }
+        Watch watch = new Watch(jobId, afterVersion);
+        this.watches.computeIfAbsent(jobId, id -> ConcurrentHashMap.newKeySet()).add(watch);
+        return Optional.of(watch);
+    }
+
+    public int size() {
+        return this.count.get();
+    }
+
+    public void jobUpdated(Entity<JobValue> entity) {
+        Set<Watch> jobWatches = this.watches.get(entity.id());
+        if (jobWatches != null) {
+            for (Watch watch : jobWatches) {
+                if (entity.version().compareTo(watch.afterVersion) > 0) {
+                    watch.future.complete(entity);
+                    this.release(watch);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a listener completing watches from the job updates it is notified of before delegating
+     */
+    public PoomjobsJobRepositoryListener notifying(PoomjobsJobRepositoryListener delegate) {
+        return new PoomjobsJobRepositoryListener() {
+            @Override
+            public void jobCreated(Entity<JobValue> entity) {
+                delegate.jobCreated(entity);
+            }
+
+            @Override
+            public void jobsCreated(List<Entity<JobValue>> entities) {
+                delegate.jobsCreated(entities);
+            }
+
+            @Override
+            public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+                JobWatchers.this.jobUpdated(entity);
+                delegate.jobUpdated(entity, oldValue);
+            }
+
+            @Override
+            public void jobsDeleted(List<String> ids) {
+                delegate.jobsDeleted(ids);
+            }
+        };
+    }
+
+    private void release(Watch watch) {
+        if (watch.released.compareAndSet(false, true)) {
+            this.watches.computeIfPresent(watch.jobId, (id, jobWatches) -> {
+                jobWatches.remove(watch);
+                return jobWatches.isEmpty() ? null : jobWatches;
+            });
+            this.count.decrementAndGet();
+        }
+    }
+
+    public class Watch {
+        private final String jobId;
+        private final BigInteger afterVersion;
+        private final CompletableFuture<Entity<JobValue>> future = new CompletableFuture<>();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Watch(String jobId, BigInteger afterVersion) {
+            this.jobId = jobId;
+            this.afterVersion = afterVersion;
+        }
+
+        public CompletableFuture<Entity<JobValue>> future() {
+            return future;
+        }
+
+        public void release() {
+            JobWatchers.this.release(this);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobRepository;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poomjobs.api.JobBatchPostRequest;
+import org.codingmatters.poomjobs.api.JobBatchPostResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.api.types.JobBatchCreationResult;
+import org.codingmatters.poomjobs.api.types.JobCreationData;
+import org.codingmatters.poomjobs.api.types.job.Status;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobBatchCreationHandlerTest {
+
+    private final PoomjobsJobRepository repository = JobRepository.createInMemory();
+
+    private final List<List<Entity<JobValue>>> createdBatches = Collections.synchronizedList(new LinkedList<>());
+
+    private final JobBatchCreationHandler handler = new JobBatchCreationHandler(this.repository, request -> null, new PoomjobsJobRepositoryListener() {
+        @Override
+        public void jobCreated(Entity<JobValue> entity) {
+            throw new AssertionError("jobs created in batch must be notified as a batch");
+        }
+
+        @Override
+        public void jobsCreated(List<Entity<JobValue>> entities) {
+            createdBatches.add(entities);
+        }
+
+        @Override
+        public void jobUpdated(Entity<JobValue> entity, JobValue value) {}
+    }, accountId -> !accountId.equals("invalid"));
+
+    @Test
+    public void givenValidJobs__whenPostingBatch__thenJobsCreated_andNotifiedAsOneBatch() throws Exception {
+        JobBatchPostResponse response = this.handler.apply(JobBatchPostRequest.builder()
+                .accountId("account")
+                .payload(
+                        JobCreationData.builder().category("category").name("job-1").arguments("a").build(),
+                        JobCreationData.builder().category("category").name("job-2").build()
+                )
+                .build());
+
+        List<JobBatchCreationResult> results = response.opt().status200().payload().orElseThrow(() -> new AssertionError("expected 200, got " + response));
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).index(), is(0L));
+        assertThat(results.get(0).job().name(), is("job-1"));
+        assertThat(results.get(0).job().status().run(), is(Status.Run.PENDING));
+        assertThat(results.get(0).job().accounting().accountId(), is("account"));
+        assertThat(results.get(1).job().name(), is("job-2"));
+
+        assertThat(this.repository.retrieve(results.get(0).job().id()).value().arguments(), contains("a"));
+        assertThat(this.createdBatches, hasSize(1));
+        assertThat(this.createdBatches.get(0), hasSize(2));
+    }
+
+    @Test
+    public void givenSomeInvalidJobs__whenPostingBatch__thenValidJobsCreated_andInvalidOnesHaveErrors() throws Exception {
+        JobBatchPostResponse response = this.handler.apply(JobBatchPostRequest.builder()
+                .accountId("account")
+                .payload(
+                        JobCreationData.builder().category("category").build(),
+                        JobCreationData.builder().category("category").name("job").build()
+                )
+                .build());
+
+        List<JobBatchCreationResult> results = response.status200().payload();
+        assertThat(results.get(0).index(), is(0L));
+        assertThat(results.get(0).job(), is(nullValue()));
+        assertThat(results.get(0).error().code(), is(Error.Code.INVALID_OBJECT_FOR_CREATION));
+        assertThat(results.get(0).error().description(), is("cannot create a job with no name"));
+        assertThat(results.get(1).index(), is(1L));
+        assertThat(results.get(1).job().name(), is("job"));
+
+        assertThat(this.repository.all(0, 0).total(), is(1L));
+    }
+
+    @Test
+    public void givenInvalidAccount__whenPostingBatch__then400() throws Exception {
+        JobBatchPostResponse response = this.handler.apply(JobBatchPostRequest.builder()
+                .accountId("invalid")
+                .payload(JobCreationData.builder().category("category").name("job").build())
+                .build());
+
+        response.opt().status400().orElseThrow(() -> new AssertionError("expected 400, got " + response));
+        assertThat(this.repository.all(0, 0).total(), is(0L));
+    }
+
+    @Test
+    public void givenNoPayload__whenPostingBatch__then400() throws Exception {
+        JobBatchPostResponse response = this.handler.apply(JobBatchPostRequest.builder().accountId("account").build());
+
+        response.opt().status400().orElseThrow(() -> new AssertionError("expected 400, got " + response));
+    }
+
+    @Test
+    public void givenRepositoryFailingSomeInserts__whenPostingBatch__thenInsertedJobsReturned_andNotified_andFailedOnesHaveErrors() throws Exception {
+        PoomjobsJobRepository partiallyFailing = (PoomjobsJobRepository) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[]{PoomjobsJobRepository.class}, (proxy, method, args) -> {
+            if (method.getName().equals("createAll")) {
+                @SuppressWarnings("unchecked")
+                List<JobValue> values = (List<JobValue>) args[0];
+                JobBatchCreation creation = new JobBatchCreation(values.size());
+                for (int i = 0; i < values.size(); i++) {
+                    if (i == 1) {
+                        creation.failed(i, "duplicate key");
+                    } else {
+                        creation.created(i, this.repository.create(values.get(i)));
+                    }
+                }
+                return creation;
+            }
+            return method.invoke(this.repository, args);
+        });
+        JobBatchCreationHandler partialHandler = new JobBatchCreationHandler(partiallyFailing, request -> null, new PoomjobsJobRepositoryListener() {
+            @Override
+            public void jobCreated(Entity<JobValue> entity) {}
+
+            @Override
+            public void jobsCreated(List<Entity<JobValue>> entities) {
+                createdBatches.add(entities);
+            }
+
+            @Override
+            public void jobUpdated(Entity<JobValue> entity, JobValue value) {}
+        }, accountId -> true);
+
+        JobBatchPostResponse response = partialHandler.apply(JobBatchPostRequest.builder()
+                .accountId("account")
+                .payload(
+                        JobCreationData.builder().category("category").name("job-1").build(),
+                        JobCreationData.builder().category("category").name("job-2").build(),
+                        JobCreationData.builder().category("category").name("job-3").build()
+                )
+                .build());
+
+        List<JobBatchCreationResult> results = response.opt().status200().payload().orElseThrow(() -> new AssertionError("expected 200, got " + response));
+        assertThat(results.get(0).job().name(), is("job-1"));
+        assertThat(results.get(1).job(), is(nullValue()));
+        assertThat(results.get(1).error().code(), is(Error.Code.UNEXPECTED_ERROR));
+        assertThat(results.get(2).job().name(), is("job-3"));
+
+        assertThat(this.repository.all(0, 0).total(), is(2L));
+        assertThat(this.createdBatches, hasSize(1));
+        assertThat(this.createdBatches.get(0), hasSize(2));
+    }
+
+}
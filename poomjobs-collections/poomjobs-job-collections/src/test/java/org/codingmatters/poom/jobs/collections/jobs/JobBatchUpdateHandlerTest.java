@@ -0,0 +1,115 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.JobBatchPatchRequest;
+import org.codingmatters.poomjobs.api.JobBatchPatchResponse;
+import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdate;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdateResult;
+import org.codingmatters.poomjobs.api.types.JobUpdateData;
+import org.codingmatters.poomjobs.api.types.jobupdatedata.Status;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobBatchUpdateHandlerTest {
+
+    private final Repository<JobValue, PropertyQuery> repository = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
+
+    private final List<Entity<JobValue>> updated = Collections.synchronizedList(new LinkedList<>());
+
+    private final JobBatchUpdateHandler handler = new JobBatchUpdateHandler(this.repository, "https://some.where/here", new PoomjobsJobRepositoryListener() {
+        @Override
+        public void jobCreated(Entity<JobValue> entity) {}
+
+        @Override
+        public void jobUpdated(Entity<JobValue> entity, JobValue value) {
+            updated.add(entity);
+        }
+    }, accountId -> true, JobRetryPolicies.NONE, null);
+
+    @Test
+    public void givenRunningJobs__whenBatchUpdatingToDone__thenEachJobUpdated_andResultsInOrder() throws Exception {
+        Entity<JobValue> job1 = this.running("1");
+        Entity<JobValue> job2 = this.running("2");
+
+        JobBatchPatchResponse response = this.handler.apply(JobBatchPatchRequest.builder()
+                .payload(this.done(job2.id(), null, false), this.done(job1.id(), null, false))
+                .build());
+
+        List<JobBatchUpdateResult> results = response.opt().status200().payload().orElseThrow(() -> new AssertionError("expected 200, got " + response));
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).index(), is(0L));
+        assertThat(results.get(0).jobId(), is(job2.id()));
+        assertThat(results.get(0).job().status().run().name(), is("DONE"));
+        assertThat(results.get(1).jobId(), is(job1.id()));
+        assertThat(results.get(1).job().result(), is("ok"));
+
+        assertThat(this.repository.retrieve(job1.id()).value().status().run().name(), is("DONE"));
+        assertThat(this.updated, hasSize(2));
+    }
+
+    @Test
+    public void givenSomeUpdatesFailing__whenBatchUpdating__thenFailuresReportedPerItem() throws Exception {
+        Entity<JobValue> job = this.running("1");
+        Entity<JobValue> changed = this.running("2");
+        this.repository.update(changed, changed.value().withResult("changed"));
+
+        JobBatchPatchResponse response = this.handler.apply(JobBatchPatchRequest.builder()
+                .payload(
+                        this.done("no-such-job", null, false),
+                        this.done(changed.id(), "1", true),
+                        this.done(job.id(), "1", true),
+                        JobBatchUpdate.builder().jobId(job.id()).build()
+                )
+                .build());
+
+        List<JobBatchUpdateResult> results = response.status200().payload();
+        assertThat(results.get(0).error().code(), is(Error.Code.RESOURCE_NOT_FOUND));
+        assertThat(results.get(1).error().code(), is(Error.Code.INVALID_OBJECT_FOR_UPDATE));
+        assertThat(results.get(2).error(), is(nullValue()));
+        assertThat(results.get(2).job().status().run().name(), is("DONE"));
+        assertThat(results.get(3).error().code(), is(Error.Code.INVALID_OBJECT_FOR_UPDATE));
+
+        assertThat(this.repository.retrieve(changed.id()).value().status().run().name(), is("RUNNING"));
+    }
+
+    @Test
+    public void givenNoPayload__whenBatchUpdating__then400() throws Exception {
+        JobBatchPatchResponse response = this.handler.apply(JobBatchPatchRequest.builder().build());
+
+        response.opt().status400().orElseThrow(() -> new AssertionError("expected 400, got " + response));
+    }
+
+    private Entity<JobValue> running(String id) throws Exception {
+        return this.repository.createWithId(id, JobValue.builder()
+                .name("test").category("category")
+                .status(s -> s.run(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.RUNNING))
+                .processing(p -> p.submitted(UTC.now()).started(UTC.now()))
+                .build());
+    }
+
+    private JobBatchUpdate done(String jobId, String currentVersion, boolean strict) {
+        return JobBatchUpdate.builder()
+                .jobId(jobId)
+                .currentVersion(currentVersion)
+                .strict(strict)
+                .update(JobUpdateData.builder()
+                        .result("ok")
+                        .status(Status.builder().run(Status.Run.DONE).exit(Status.Exit.SUCCESS).build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poomjobs.api.JobReservationsPostRequest;
+import org.codingmatters.poomjobs.api.JobResourceGetRequest;
+import org.codingmatters.poomjobs.api.PoomjobsJobRegistryAPIHandlers;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobReservation;
+import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
+import org.codingmatters.poomjobs.api.types.JobUpdateData;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobCacheTest {
+
+    private final Repository<JobValue, PropertyQuery> repository = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
+
+    @Test
+    public void givenJobCached__whenGettingIt__thenHit_otherwiseMiss() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        cache.put(this.job("1", 1, "v1"));
+
+        assertThat(cache.get("1").get().value().name(), is("v1"));
+        assertThat(cache.get("2").isPresent(), is(false));
+
+        ObjectValue metrics = cache.get();
+        assertThat(metrics.property("job-cache/hit/count").single().longValue(), is(1L));
+        assertThat(metrics.property("job-cache/miss/count").single().longValue(), is(1L));
+    }
+
+    @Test
+    public void givenJobCached__whenOlderVersionPut__thenCachedVersionIsKept() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        cache.put(this.job("1", 2, "v2"));
+        cache.put(this.job("1", 1, "v1"));
+
+        assertThat(cache.get("1").get().value().name(), is("v2"));
+    }
+
+    @Test
+    public void givenJobReadBeforeInvalidation__whenPutWithStamp__thenJobIsNotCached() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        long stamp = cache.stamp();
+        cache.invalidate("1");
+        cache.put(this.job("1", 1, "v1"), stamp);
+
+        assertThat(cache.get("1").isPresent(), is(false));
+    }
+
+    @Test
+    public void givenJobReadAfterInvalidation__whenPutWithStamp__thenJobIsCached() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        cache.invalidate("1");
+        long stamp = cache.stamp();
+        cache.put(this.job("1", 2, "v2"), stamp);
+
+        assertThat(cache.get("1").get().value().name(), is("v2"));
+    }
+
+    @Test
+    public void givenCacheFull__whenPutting__thenLeastRecentlyUsedIsEvicted() throws Exception {
+        JobCache cache = new JobCache(2, Duration.ofMinutes(1));
+        cache.put(this.job("1", 1, "v1"));
+        cache.put(this.job("2", 1, "v1"));
+        cache.get("1");
+        cache.put(this.job("3", 1, "v1"));
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("1").isPresent(), is(true));
+        assertThat(cache.get("2").isPresent(), is(false));
+        assertThat(cache.get().property("job-cache/eviction/count").single().longValue(), is(1L));
+    }
+
+    @Test
+    public void givenTtlElapsed__whenGetting__thenMiss() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMillis(50));
+        cache.put(this.job("1", 1, "v1"));
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("1").isPresent(), is(false));
+    }
+
+    @Test
+    public void givenCachedCrud__whenRetrievingTwice__thenSecondRetrieveServedFromCache_andUpdateRefreshesIt() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        JobRegistryCRUD crud = new JobRegistryCRUD(this.repository, "https://some.where/here", null, null, null, null, PoomjobsJobRepositoryListener.NOOP, account -> true, JobRetryPolicies.NONE, cache);
+        this.repository.createWithId("12", JobValue.builder().name("test").category("category").status(s -> s.run(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING)).build());
+
+        crud.retrieveEntity("12");
+        assertThat(crud.retrieveEntity("12").get().value().name(), is("test"));
+        assertThat(cache.get().property("job-cache/hit/count").single().longValue(), is(1L));
+
+        crud.updateEntityWith("12", JobUpdateData.builder().result("changed").build());
+
+        assertThat(crud.retrieveEntity("12").get().value().result(), is("changed"));
+
+        crud.deleteEntity("12");
+        assertThat(crud.retrieveEntity("12").isPresent(), is(false));
+    }
+
+    @Test
+    public void givenInvalidatingListener__whenJobUpdatedOutsideCrud__thenCachedJobInvalidated() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        cache.put(this.job("1", 1, "v1"));
+
+        cache.invalidating(PoomjobsJobRepositoryListener.NOOP).jobUpdated(
+                new ImmutableEntity<>("1", BigInteger.valueOf(2), JobValue.builder().name("v2").build()),
+                JobValue.builder().name("v1").build()
+        );
+
+        assertThat(cache.get("1").isPresent(), is(false));
+    }
+
+    @Test
+    public void givenJobCached__whenInvalidatingListenerNotifiedOfDeletion__thenJobIsNotCachedAnymore() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        cache.put(this.job("1", 1, "v1"));
+        cache.put(this.job("2", 1, "v1"));
+
+        cache.invalidating(PoomjobsJobRepositoryListener.NOOP).jobsDeleted(Arrays.asList("1"));
+
+        assertThat(cache.get("1").isPresent(), is(false));
+        assertThat(cache.get("2").isPresent(), is(true));
+    }
+
+    @Test
+    public void givenInvalidatingListener__whenWrappedAgain__thenSameListener() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        PoomjobsJobRepositoryListener invalidating = cache.invalidating(PoomjobsJobRepositoryListener.NOOP);
+
+        assertThat(cache.invalidating(invalidating), is(sameInstance(invalidating)));
+        assertThat(new JobCache(10, Duration.ofMinutes(1)).invalidating(invalidating), is(not(sameInstance(invalidating))));
+    }
+
+    @Test
+    public void givenHandlersBuiltWithCache__whenJobReserved__thenCachedJobInvalidated() throws Exception {
+        JobCache cache = new JobCache(10, Duration.ofMinutes(1));
+        PoomjobsJobRegistryAPIHandlers handlers = new JobRegistryHandlersBuilder(this.repository, "", null, PoomjobsJobRepositoryListener.NOOP, account -> true, JobRetryPolicies.NONE, cache).build();
+        Entity<JobValue> entity = this.repository.create(JobValue.builder()
+                .category("category").name("name")
+                .accounting(acc -> acc.accountId("account"))
+                .status(s -> s.run(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING))
+                .build());
+
+        handlers.jobResourceGetHandler().apply(JobResourceGetRequest.builder().jobId(entity.id()).accountId("account").build());
+        assertThat(cache.get(entity.id()).isPresent(), is(true));
+
+        handlers.jobReservationsPostHandler().apply(JobReservationsPostRequest.builder()
+                .payload(JobReservation.builder().category("category").names("name").count(1L)
+                        .runner(JobRunnerMetaData.builder().runnerId("runner-id").build())
+                        .build())
+                .build());
+
+        assertThat(cache.get(entity.id()).isPresent(), is(false));
+        assertThat(handlers.jobResourceGetHandler().apply(JobResourceGetRequest.builder().jobId(entity.id()).accountId("account").build())
+                .status200().payload().status().run(), is(org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING));
+    }
+
+    private Entity<Job> job(String id, long version, String name) {
+        return new ImmutableEntity<>(id, BigInteger.valueOf(version), Job.builder().id(id).version(String.valueOf(version)).name(name).build());
+    }
+}
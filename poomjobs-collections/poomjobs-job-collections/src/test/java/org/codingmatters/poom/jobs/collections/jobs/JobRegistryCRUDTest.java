@@ -2,7 +2,15 @@ package org.codingmatters.poom.jobs.collections.jobs;
 
 import org.codingmatters.poom.generic.resource.domain.exceptions.MethodNotAllowedException;
 import org.codingmatters.poom.generic.resource.domain.exceptions.NotFoundException;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicy;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.AbortionStatus;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Sampler;
+import org.codingmatters.poom.runner.tracing.SpanExporter;
+import org.codingmatters.poom.runner.tracing.Tracer;
 import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
@@ -18,6 +26,7 @@ import org.codingmatters.value.objects.values.ObjectValue;
 import org.junit.Test;
 
 import java.math.BigInteger;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -85,6 +94,7 @@ public class JobRegistryCRUDTest {
                 is(Job.builder()
                         .name("name")
                         .category("category")
+                        .priority(PendingJobsOrder.DEFAULT_PRIORITY)
                         .id(value.id())
                         .version(value.version().toString())
                         .accounting(acc -> acc.accountId(this.accountId))
@@ -100,6 +110,25 @@ public class JobRegistryCRUDTest {
         assertThat(this.created, contains(value));
     }
 
+    @Test
+    public void givenTracingEnabled__whenCreating__thenTraceIdAddedToContext() throws Exception {
+        JobTracing.install(new Tracer("test", Sampler.always(), SpanExporter.NOOP));
+        Entity<Job> created;
+        try {
+            created = this.crud.createEntityFrom(JobCreationData.builder()
+                    .name("name")
+                    .category("category")
+                    .build());
+        } finally {
+            JobTracing.install(Tracer.NOOP);
+        }
+
+        JobValue value = this.repository.retrieve(created.id()).value();
+        assertThat(JobTracing.traceId(value.context()), is(notNullValue()));
+        assertThat(value.context().property("test"), is(this.context.property("test")));
+        assertThat(JobTracing.traceId(created.value()), is(JobTracing.traceId(value.context())));
+    }
+
     @Test
     public void givenJobValueExists__whenRetrieving__thenRetrievedFromValue() throws Exception {
         LocalDateTime now = UTC.now();
@@ -149,4 +178,106 @@ public class JobRegistryCRUDTest {
 
         assertThat(this.updated, contains(this.repository.retrieve("12")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenRetryPolicy__whenJobFails__thenRetryJobScheduled_andFailedJobRetriedByIt() throws Exception {
+        JobRegistryCRUD retryingCrud = this.retryingCrud(3);
+        this.repository.createWithId("12", this.runningJob(1L));
+
+        Entity<Job> job = retryingCrud.updateEntityWith("12", this.failure());
+
+        assertThat(job.value().status().run(), is(Status.Run.DONE));
+        assertThat(job.value().status().retriedByJob(), is(notNullValue()));
+
+        Entity<JobValue> retry = this.repository.retrieve(job.value().status().retriedByJob());
+        assertThat(retry.value().name(), is("test"));
+        assertThat(retry.value().category(), is("category"));
+        assertThat(retry.value().arguments(), contains("a", "b"));
+        assertThat(retry.value().priority(), is(5L));
+        assertThat(retry.value().accounting().accountId(), is(this.accountId));
+        assertThat(retry.value().attemptCount(), is(2L));
+        assertThat(retry.value().status().run(), is(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.SCHEDULED));
+        assertThat(retry.value().processing().notBefore(), is(around(UTC.now().plusSeconds(30))));
+
+        assertThat(this.created, contains(retry));
+        assertThat(this.updated, contains(this.repository.retrieve("12")));
+    }
+
+    @Test
+    public void givenRetryPolicy__whenJobFailsOnLastAttempt__thenNoRetry_andAbortionCauseIsMaxRetryAttempted() throws Exception {
+        JobRegistryCRUD retryingCrud = this.retryingCrud(3);
+        this.repository.createWithId("12", this.runningJob(3L));
+
+        Entity<Job> job = retryingCrud.updateEntityWith("12", this.failure());
+
+        assertThat(job.value().status().retriedByJob(), is(nullValue()));
+        assertThat(this.repository.retrieve("12").value().status().abortionStatus().cause(), is(AbortionStatus.Cause.MAX_RETRY_ATTEMPTED));
+        assertThat(this.repository.all(0, 0).total(), is(1L));
+        assertThat(this.created, is(empty()));
+    }
+
+    @Test
+    public void givenRetryPolicy__whenJobSucceeds__thenNoRetry() throws Exception {
+        JobRegistryCRUD retryingCrud = this.retryingCrud(3);
+        this.repository.createWithId("12", this.runningJob(1L));
+
+        Entity<Job> job = retryingCrud.updateEntityWith("12", JobUpdateData.builder()
+                .status(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.builder()
+                        .run(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.Run.DONE)
+                        .exit(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.Exit.SUCCESS)
+                        .build())
+                .build());
+
+        assertThat(job.value().status().retriedByJob(), is(nullValue()));
+        assertThat(this.repository.all(0, 0).total(), is(1L));
+    }
+
+    @Test
+    public void givenNoRetryPolicyForJob__whenJobFails__thenNoRetry() throws Exception {
+        JobRegistryCRUD retryingCrud = new JobRegistryCRUD(this.repository, "https://some.where/here", this.accountId, null, null, null, PoomjobsJobRepositoryListener.NOOP, accountId -> true,
+                JobRetryPolicies.builder().policy("other", "test", new JobRetryPolicy(3, Duration.ofMinutes(1), Duration.ofHours(1), 0d)).build());
+        this.repository.createWithId("12", this.runningJob(1L));
+
+        Entity<Job> job = retryingCrud.updateEntityWith("12", this.failure());
+
+        assertThat(job.value().status().retriedByJob(), is(nullValue()));
+        assertThat(job.value().status().abortionStatus(), is(nullValue()));
+        assertThat(this.repository.all(0, 0).total(), is(1L));
+    }
+
+    private JobRegistryCRUD retryingCrud(int maxAttempts) {
+        return new JobRegistryCRUD(this.repository, "https://some.where/here", this.accountId, null, null, null, new PoomjobsJobRepositoryListener() {
+            @Override
+            public void jobCreated(Entity<JobValue> entity) {
+                created.add(entity);
+            }
+
+            @Override
+            public void jobUpdated(Entity<JobValue> entity, JobValue value) {
+                updated.add(entity);
+            }
+        }, accountId -> true,
+                JobRetryPolicies.builder().policy("category", "test", new JobRetryPolicy(maxAttempts, Duration.ofSeconds(30), Duration.ofHours(1), 0d)).build());
+    }
+
+    private JobValue runningJob(Long attemptCount) {
+        return JobValue.builder()
+                .name("test").category("category")
+                .arguments("a", "b")
+                .priority(5L)
+                .attemptCount(attemptCount)
+                .accounting(acc -> acc.accountId(this.accountId))
+                .processing(p -> p.submitted(UTC.now().minusHours(1)).started(UTC.now().minusMinutes(30)))
+                .status(s -> s.run(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.RUNNING).exit(null))
+                .build();
+    }
+
+    private JobUpdateData failure() {
+        return JobUpdateData.builder()
+                .status(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.builder()
+                        .run(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.Run.DONE)
+                        .exit(org.codingmatters.poomjobs.api.types.jobupdatedata.Status.Exit.FAILURE)
+                        .build())
+                .build();
+    }
+}
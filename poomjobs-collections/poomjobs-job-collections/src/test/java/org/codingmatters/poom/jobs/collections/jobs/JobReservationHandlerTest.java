@@ -0,0 +1,131 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.JobReservationsPostRequest;
+import org.codingmatters.poomjobs.api.JobReservationsPostResponse;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobReservation;
+import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
+import org.codingmatters.poomjobs.api.types.job.Status;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobReservationHandlerTest {
+
+    private Repository<JobValue, PropertyQuery> repository = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
+
+    private final List<Entity<JobValue>> updated = Collections.synchronizedList(new LinkedList<>());
+
+    private final JobReservationHandler handler = new JobReservationHandler(this.repository, "https://some.where/here", new PoomjobsJobRepositoryListener() {
+        @Override
+        public void jobCreated(Entity<JobValue> entity) {}
+
+        @Override
+        public void jobUpdated(Entity<JobValue> entity, JobValue value) {
+            updated.add(entity);
+        }
+    }, accountId -> true);
+
+    @Test
+    public void givenPendingJobs__whenReservingLessThanPending__thenRequestedCountReserved_andJobsRunningWithRunner() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            this.createJob("category", "name", org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING);
+        }
+
+        JobReservationsPostResponse response = this.handler.apply(this.reservation("category", 3L, "name"));
+
+        assertThat(response.opt().status200().isPresent(), is(true));
+        assertThat(response.status200().payload(), hasSize(3));
+        for (Job job : response.status200().payload()) {
+            assertThat(job.status().run(), is(Status.Run.RUNNING));
+            assertThat(job.runner().runnerId(), is("runner-id"));
+            assertThat(job.processing().started(), is(notNullValue()));
+        }
+        assertThat(this.updated, hasSize(3));
+        assertThat(this.repository.search(PropertyQuery.builder().filter("status.run == 'PENDING'").build(), 0, 0).total(), is(2L));
+    }
+
+    @Test
+    public void givenPendingJobs__whenReservingMoreThanPending__thenAllMatchingPendingJobsReserved() throws Exception {
+        this.createJob("category", "name", org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING);
+        this.createJob("category", "other-name", org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING);
+        this.createJob("other-category", "name", org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING);
+        this.createJob("category", "name", org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.DONE);
+
+        JobReservationsPostResponse response = this.handler.apply(this.reservation("category", 10L, "name"));
+
+        assertThat(response.status200().payload(), hasSize(1));
+        assertThat(response.status200().payload().get(0).category(), is("category"));
+        assertThat(response.status200().payload().get(0).name(), is("name"));
+    }
+
+    @Test
+    public void givenPendingJobsWithPriorities__whenReserving__thenHighestPriorityJobsReservedFirst() throws Exception {
+        this.createJob("category", "name", 1L);
+        this.createJob("category", "name", 9L);
+        this.createJob("category", "name", 5L);
+
+        JobReservationsPostResponse response = this.handler.apply(this.reservation("category", 2L, "name"));
+
+        assertThat(response.status200().payload().stream().map(Job::priority).collect(Collectors.toList()), contains(9L, 5L));
+    }
+
+    @Test
+    public void givenNoPendingJobs__whenReserving__thenEmptyList() throws Exception {
+        JobReservationsPostResponse response = this.handler.apply(this.reservation("category", 10L, "name"));
+
+        assertThat(response.status200().payload(), is(empty()));
+    }
+
+    @Test
+    public void givenNoRunner__whenReserving__thenBadRequest() throws Exception {
+        JobReservationsPostResponse response = this.handler.apply(JobReservationsPostRequest.builder()
+                .payload(JobReservation.builder().category("category").count(1L).build())
+                .build());
+
+        assertThat(response.opt().status400().isPresent(), is(true));
+    }
+
+    private JobReservationsPostRequest reservation(String category, Long count, String... names) {
+        return JobReservationsPostRequest.builder()
+                .payload(JobReservation.builder()
+                        .category(category)
+                        .names(names)
+                        .runner(JobRunnerMetaData.builder().runnerId("runner-id").build())
+                        .count(count)
+                        .build())
+                .build();
+    }
+
+    private void createJob(String category, String name, Long priority) throws Exception {
+        this.repository.create(JobValue.builder()
+                .category(category).name(name)
+                .priority(priority)
+                .accounting(acc -> acc.accountId("account"))
+                .processing(p -> p.submitted(UTC.now()))
+                .status(s -> s.run(org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run.PENDING))
+                .build());
+    }
+
+    private void createJob(String category, String name, org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status.Run run) throws Exception {
+        this.repository.create(JobValue.builder()
+                .category(category).name(name)
+                .accounting(acc -> acc.accountId("account"))
+                .processing(p -> p.submitted(UTC.now()))
+                .status(s -> s.run(run))
+                .build());
+    }
+}
@@ -0,0 +1,106 @@
+package org.codingmatters.poom.jobs.collections.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poomjobs.api.JobWatchGetRequest;
+import org.codingmatters.poomjobs.api.JobWatchGetResponse;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class JobWatchHandlerTest {
+
+    private final Repository<JobValue, PropertyQuery> repository = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
+    private final JobWatchers watchers = new JobWatchers();
+    private final JobWatchHandler handler = new JobWatchHandler(this.repository, this.watchers);
+
+    @Test
+    public void givenNoJob__whenWatching__then404() throws Exception {
+        JobWatchGetResponse response = this.handler.apply(JobWatchGetRequest.builder().jobId("none").waitForVersion("1").build());
+
+        response.opt().status404().orElseThrow(() -> new AssertionError("expected 404, got " + response));
+    }
+
+    @Test
+    public void givenInvalidVersion__whenWatching__then400() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.pending());
+
+        JobWatchGetResponse response = this.handler.apply(JobWatchGetRequest.builder().jobId(job.id()).waitForVersion("not a version").build());
+
+        response.opt().status400().orElseThrow(() -> new AssertionError("expected 400, got " + response));
+    }
+
+    @Test
+    public void givenJobAlreadyPastVersion__whenWatching__thenReturnedRightAway() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.pending());
+        this.repository.update(job, job.value().withName("changed"));
+
+        JobWatchGetResponse response = this.handler.apply(JobWatchGetRequest.builder().jobId(job.id()).waitForVersion("1").timeout(60L).build());
+
+        assertThat(response.status200().payload().version(), is("2"));
+        assertThat(this.watchers.size(), is(0));
+    }
+
+    @Test
+    public void givenJobWatched__whenJobUpdated__thenWatchReturnsUpdatedJob() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.pending());
+
+        CompletableFuture<JobWatchGetResponse> watch = CompletableFuture.supplyAsync(() ->
+                this.handler.apply(JobWatchGetRequest.builder().jobId(job.id()).waitForVersion("1").timeout(30L).build())
+        );
+        while (this.watchers.size() == 0) {
+            Thread.sleep(10);
+        }
+
+        JobValue oldValue = job.value();
+        Entity<JobValue> updated = this.repository.update(job, oldValue.withStatus(Status.builder().run(Status.Run.RUNNING).build()));
+        this.watchers.notifying(PoomjobsJobRepositoryListener.NOOP).jobUpdated(updated, oldValue);
+
+        JobWatchGetResponse response = watch.get(5, TimeUnit.SECONDS);
+        assertThat(response.status200().payload().version(), is("2"));
+        assertThat(response.status200().payload().status().run().name(), is("RUNNING"));
+        assertThat(this.watchers.size(), is(0));
+    }
+
+    @Test
+    public void givenJobWatched__whenTimeoutElapses__thenCurrentJobReturned_andWatchReleased() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.pending());
+
+        JobWatchGetResponse response = this.handler.apply(JobWatchGetRequest.builder().jobId(job.id()).waitForVersion("1").timeout(1L).build());
+
+        assertThat(response.status200().payload().version(), is("1"));
+        assertThat(this.watchers.size(), is(0));
+    }
+
+    @Test
+    public void givenMaxWatchesPending__whenWatching__thenCurrentJobReturnedRightAway() throws Exception {
+        JobWatchers bounded = new JobWatchers(1);
+        JobWatchHandler boundedHandler = new JobWatchHandler(this.repository, bounded);
+        Entity<JobValue> job = this.repository.create(this.pending());
+        JobWatchers.Watch pending = bounded.watch(job.id(), job.version()).get();
+        try {
+            long start = System.currentTimeMillis();
+            JobWatchGetResponse response = boundedHandler.apply(JobWatchGetRequest.builder().jobId(job.id()).waitForVersion("1").timeout(30L).build());
+
+            assertThat(response.status200().payload().version(), is("1"));
+            assertThat(System.currentTimeMillis() - start < 5000L, is(true));
+            assertThat(bounded.size(), is(1));
+        } finally {
+            pending.release();
+        }
+        assertThat(bounded.size(), is(0));
+    }
+
+    private JobValue pending() {
+        return JobValue.builder().name("test").category("category").status(s -> s.run(Status.Run.PENDING)).build();
+    }
+}
@@ -0,0 +1,115 @@
+package org.codingmatters.poom.poomjobs.domain.jobs;
+
+import org.codingmatters.poom.services.support.Env;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Retry policies by job category and name.
+ *
+ * A policy is looked up for the exact category and name, then for the category (name *), then for any job (*).
+ *
+ * From the environment, policies are read from JOB_RETRY_POLICIES as a comma separated list of
+ * <code>category/name=maxAttempts:baseMillis:maxMillis:jitter</code>, for instance
+ * <code>reports/*=5:1000:60000:0.5,*=3:2000:30000:0.2</code>.
+ */
+public class JobRetryPolicies {
+
+    static public final String JOB_RETRY_POLICIES = "JOB_RETRY_POLICIES";
+
+    static public final JobRetryPolicies NONE = new JobRetryPolicies(new HashMap<>());
+
+    static private final String ANY = "*";
+
+    static public JobRetryPolicies fromEnv() {
+        return Env.optional(JOB_RETRY_POLICIES)
+                .map(var -> parse(var.asString()))
+                .orElse(NONE);
+    }
+
+    static public JobRetryPolicies parse(String spec) {
+        Builder builder = builder();
+        if(spec == null || spec.trim().isEmpty()) {
+            return builder.build();
+        }
+        for (String entry : spec.split(",")) {
+            String[] keyAndPolicy = entry.trim().split("=");
+            if(keyAndPolicy.length != 2) {
+                throw new IllegalArgumentException("invalid retry policy, expected category/name=maxAttempts:baseMillis:maxMillis:jitter, was : " + entry);
+            }
+            String[] parameters = keyAndPolicy[1].trim().split(":");
+            if(parameters.length != 4) {
+                throw new IllegalArgumentException("invalid retry policy, expected maxAttempts:baseMillis:maxMillis:jitter, was : " + keyAndPolicy[1]);
+            }
+            JobRetryPolicy policy;
+            try {
+                policy = new JobRetryPolicy(
+                        Integer.parseInt(parameters[0].trim()),
+                        Duration.ofMillis(Long.parseLong(parameters[1].trim())),
+                        Duration.ofMillis(Long.parseLong(parameters[2].trim())),
+                        Double.parseDouble(parameters[3].trim())
+                );
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid retry policy : " + entry, e);
+            }
+
+            String key = keyAndPolicy[0].trim();
+            if(key.equals(ANY)) {
+                builder.defaultPolicy(policy);
+            } else {
+                String[] categoryAndName = key.split("/");
+                if(categoryAndName.length != 2) {
+                    throw new IllegalArgumentException("invalid retry policy key, expected category/name, category/* or *, was : " + key);
+                }
+                builder.policy(categoryAndName[0].trim(), categoryAndName[1].trim(), policy);
+            }
+        }
+        return builder.build();
+    }
+
+    static public Builder builder() {
+        return new Builder();
+    }
+
+    private final Map<String, JobRetryPolicy> policies;
+
+    private JobRetryPolicies(Map<String, JobRetryPolicy> policies) {
+        this.policies = policies;
+    }
+
+    public Optional<JobRetryPolicy> policyFor(String category, String name) {
+        JobRetryPolicy policy = this.policies.get(key(category, name));
+        if(policy == null) {
+            policy = this.policies.get(key(category, ANY));
+        }
+        if(policy == null) {
+            policy = this.policies.get(ANY);
+        }
+        return Optional.ofNullable(policy);
+    }
+
+    static private String key(String category, String name) {
+        return category + "/" + name;
+    }
+
+    static public class Builder {
+        private final Map<String, JobRetryPolicy> policies = new HashMap<>();
+
+        public Builder policy(String category, String name, JobRetryPolicy policy) {
+            this.policies.put(key(category, name), policy);
+            return this;
+        }
+
+        public Builder defaultPolicy(JobRetryPolicy policy) {
+            this.policies.put(ANY, policy);
+            return this;
+        }
+
+        public JobRetryPolicies build() {
+            return new JobRetryPolicies(new HashMap<>(this.policies));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.codingmatters.poom.poomjobs.domain.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+
+import java.time.Duration;
+
+/**
+ * Registry side retry of failed jobs : a job is retried until it ran maxAttempts times, retries being delayed by an
+ * exponential backoff (base, 2 x base, 4 x base... up to max).
+ *
+ * The jitter ratio randomly shortens each delay by up to that ratio, so that jobs failed together by a downstream outage
+ * are not resubmitted all at once.
+ */
+public class JobRetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration base;
+    private final Duration max;
+    private final double jitter;
+
+    public JobRetryPolicy(int maxAttempts, Duration base, Duration max, double jitter) {
+        if(jitter < 0d || jitter > 1d) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1, was " + jitter);
+        }
+        this.maxAttempts = maxAttempts;
+        this.base = base;
+        this.max = max;
+        this.jitter = jitter;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the attempt count of the job, a job with no attempt count being its first attempt
+     */
+    public long attempt(JobValue job) {
+        return job.attemptCount() != null ? job.attemptCount() : 1L;
+    }
+
+    public boolean retryable(JobValue failed) {
+        return this.attempt(failed) < this.maxAttempts;
+    }
+
+    /**
+     * @param attempt the attempt that just failed, starting at 1
+     * @param random a random value between 0 and 1
+     * @return the delay before the next attempt
+     */
+    public Duration backoff(long attempt, double random) {
+        long baseMillis = this.base.toMillis();
+        long maxMillis = this.max.toMillis();
+        long shift = Math.min(Math.max(attempt - 1, 0L), 62L);
+        long delay;
+        if(baseMillis <= 0) {
+            delay = 0L;
+        } else if(shift >= Long.numberOfLeadingZeros(baseMillis) - 1) {
+            delay = maxMillis;
+        } else {
+            delay = Math.min(baseMillis << shift, maxMillis);
+        }
+        return Duration.ofMillis(delay - (long) (delay * this.jitter * random));
+    }
+
+    @Override
+    public String toString() {
+        return "JobRetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", base=" + base +
+                ", max=" + max +
+                ", jitter=" + jitter +
+                '}';
+    }
+}
@@ -49,7 +49,14 @@ public class JobValueChange extends Change<JobValue> {
                     String.format("cannot change a job when run status is DONE")
             );
         }
-        if (this.currentValue().status().run().equals(Status.Run.RUNNING)
+        if (this.currentValue().status().run().equals(Status.Run.SCHEDULED)
+                && this.newValue().status().run().equals(Status.Run.RUNNING)) {
+            return new Validation(
+                    false,
+                    String.format("job is SCHEDULED, cannot run it before %s", this.currentValue().opt().processing().notBefore().orElse(null))
+            );
+        }
+        if ((this.currentValue().status().run().equals(Status.Run.RUNNING) || this.currentValue().status().run().equals(Status.Run.SCHEDULED))
                 && this.newValue().status().run().equals(Status.Run.DONE)
                 && this.newValue().status().exit() == null) {
             return new Validation(
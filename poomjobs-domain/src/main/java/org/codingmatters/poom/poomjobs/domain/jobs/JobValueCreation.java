@@ -38,12 +38,14 @@ public class JobValueCreation extends Change<JobValue> {
 
     @Override
     public JobValue applied() {
+        LocalDateTime now = UTC.now();
         Processing.Builder processing = this.newValue().processing() != null ?
                 Processing.from(this.newValue().processing()) :
                 Processing.builder();
+        LocalDateTime notBefore = this.newValue().opt().processing().notBefore().orElse(null);
         return this.newValue()
-                .withProcessing(processing.submitted(UTC.now()).build())
-                .withStatus(Status.builder().run(Status.Run.PENDING).build());
+                .withProcessing(processing.submitted(now).build())
+                .withStatus(Status.builder().run(notBefore != null && notBefore.isAfter(now) ? Status.Run.SCHEDULED : Status.Run.PENDING).build());
     }
 
     @Override
@@ -0,0 +1,33 @@
+package org.codingmatters.poom.poomjobs.domain.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Order in which pending jobs are handed to runners : highest priority first, then oldest submission first.
+ *
+ * Jobs with no priority have the DEFAULT_PRIORITY, created jobs are stored with it so that repositories sorting on the
+ * priority field agree.
+ */
+public class PendingJobsOrder {
+
+    static public final String SORT = "priority desc, processing.submitted asc";
+
+    static public final long DEFAULT_PRIORITY = 0L;
+
+    static public final Comparator<Long> PRIORITY = Comparator.comparing(PendingJobsOrder::priority, Comparator.<Long>reverseOrder());
+    static public final Comparator<LocalDateTime> SUBMISSION = Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder());
+
+    static public final Comparator<JobValue> COMPARATOR = Comparator
+            .comparing((JobValue value) -> value.priority(), PRIORITY)
+            .thenComparing(value -> value.opt().processing().submitted().orElse(null), SUBMISSION);
+
+    static public Long priority(Long priority) {
+        return priority != null ? priority : DEFAULT_PRIORITY;
+    }
+
+    private PendingJobsOrder() {
+    }
+}
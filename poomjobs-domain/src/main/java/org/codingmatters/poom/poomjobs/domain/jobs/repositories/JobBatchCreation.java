@@ -0,0 +1,67 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outcome of a batch creation : for each value, in the values order, either the created entity or the reason it was not
+ * created. Some values may be created while others failed.
+ */
+public class JobBatchCreation {
+
+    private final Entity<JobValue>[] entities;
+    private final String[] failures;
+
+    @SuppressWarnings("unchecked")
+    public JobBatchCreation(int size) {
+        this.entities = new Entity[size];
+        this.failures = new String[size];
+    }
+
+    public JobBatchCreation created(int index, Entity<JobValue> entity) {
+        this.entities[index] = entity;
+        this.failures[index] = null;
+        return this;
+    }
+
+    public JobBatchCreation failed(int index, String reason) {
+        this.entities[index] = null;
+        this.failures[index] = reason;
+        return this;
+    }
+
+    public int size() {
+        return this.entities.length;
+    }
+
+    public Optional<Entity<JobValue>> entity(int index) {
+        return Optional.ofNullable(this.entities[index]);
+    }
+
+    public Optional<String> failure(int index) {
+        return Optional.ofNullable(this.failures[index]);
+    }
+
+    /**
+     * @return the created entities, in the values order
+     */
+    public List<Entity<JobValue>> created() {
+        List<Entity<JobValue>> result = new ArrayList<>(this.entities.length);
+        for (Entity<JobValue> entity : this.entities) {
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public boolean complete() {
+        return Arrays.stream(this.failures).allMatch(failure -> failure == null);
+    }
+}
@@ -0,0 +1,34 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PoomjobsJobRepository extends Repository<JobValue, PropertyQuery> {
+
+    /**
+     * Atomically updates the entity with the given value, provided the stored entity version still is the entity's version.
+     *
+     * @return the updated entity, or empty if the stored entity was changed or deleted in between.
+     */
+    Optional<Entity<JobValue>> updateIfVersionMatches(Entity<JobValue> entity, JobValue withValue) throws RepositoryException;
+
+    /**
+     * Creates the entities for the given values with one write. Values failing individually don't prevent the others
+     * from being created.
+     *
+     * @return the created entity or the failure of each value, in the values order.
+     * @throws RepositoryException when the write failed as a whole, no value being created.
+     */
+    JobBatchCreation createAll(List<JobValue> withValues) throws RepositoryException;
+
+    /**
+     * Deletes the entities with the given ids with one write, unknown ids are ignored.
+     */
+    void deleteAll(List<String> ids) throws RepositoryException;
+}
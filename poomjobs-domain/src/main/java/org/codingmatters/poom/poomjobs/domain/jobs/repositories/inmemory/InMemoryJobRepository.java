@@ -1,49 +1,407 @@
 package org.codingmatters.poom.poomjobs.domain.jobs.repositories.inmemory;
 
-import org.codingmatters.poom.poomjobs.domain.values.jobs.JobCriteria;
-import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
-import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
-import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
 import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
 
-import java.util.stream.Stream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Created by nelt on 6/6/17.
+ *
+ * Keeps secondary indexes on (category, name, status.run), in creation order and in pending jobs order, and on
+ * processing.submitted so that the queries built by the job registry and the job cleaner cost time proportional to
+ * their result. Other queries are evaluated by a generic property query repository.
+ *
+ * No longer an InMemoryRepository searched with JobQuery, see CHANGELOG.md.
  */
-public class InMemoryJobRepository extends InMemoryRepository<JobValue, JobQuery> {
+public class InMemoryJobRepository implements PoomjobsJobRepository {
+
+    private final Repository<JobValue, PropertyQuery> store = InMemoryRepositoryWithPropertyQuery.notValidating(JobValue.class, true);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long sequence = 0L;
+    private final Map<String, IndexEntry> entries = new HashMap<>();
+    private final Map<BucketKey, TreeMap<Long, String>> buckets = new HashMap<>();
+    private final Map<BucketKey, TreeMap<PendingKey, String>> pendingBuckets = new HashMap<>();
+    private final Map<String, Set<String>> categoryNames = new HashMap<>();
+    private final TreeMap<SubmissionKey, String> submissions = new TreeMap<>();
+
     @Override
-    public PagedEntityList<JobValue> search(JobQuery query, long startIndex, long endIndex) throws RepositoryException {
-        Stream<Entity<JobValue>> filtered = this.stream();
-        for (JobCriteria jobCriteria : query.criteria()) {
-            filtered = this.applyCriterionFilter(filtered, jobCriteria);
+    public Entity<JobValue> create(JobValue withValue) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            return this.indexed(this.store.create(withValue));
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        return this.paged(filtered, startIndex, endIndex);
     }
 
-    private Stream<Entity<JobValue>> applyCriterionFilter(Stream<Entity<JobValue>> filtered, JobCriteria jobCriteria) {
-        if (jobCriteria.opt().category().isPresent()) {
-            filtered = filtered.filter(jobValueEntity ->
-                    jobValueEntity.value().opt().category().filter(s -> s.matches(jobCriteria.category())).isPresent()
-            );
+    @Override
+    public Entity<JobValue> createWithId(String id, JobValue withValue) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            return this.indexed(this.store.createWithId(id, withValue));
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        if (jobCriteria.opt().names().isPresent()) {
-            filtered = filtered.filter(jobValueEntity ->
-                    jobValueEntity.value().opt().name().filter(name -> jobCriteria.names().stream().anyMatch(s -> name.matches(s))).isPresent()
-            );
+    }
+
+    @Override
+    public JobBatchCreation createAll(List<JobValue> withValues) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            JobBatchCreation result = new JobBatchCreation(withValues.size());
+            for (int i = 0; i < withValues.size(); i++) {
+                try {
+                    result.created(i, this.indexed(this.store.create(withValues.get(i))));
+                } catch (RepositoryException e) {
+                    result.failed(i, e.getMessage());
+                }
+            }
+            return result;
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        if (jobCriteria.opt().runStatus().isPresent()) {
-            filtered = filtered.filter(jobValueEntity ->
-                    jobValueEntity.value().opt().status().run().filter(run -> run.name().matches(jobCriteria.runStatus())).isPresent()
-            );
+    }
+
+    @Override
+    public Entity<JobValue> retrieve(String id) throws RepositoryException {
+        return this.store.retrieve(id);
+    }
+
+    @Override
+    public Entity<JobValue> update(Entity<JobValue> entity, JobValue withValue) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            return this.indexed(this.store.update(entity, withValue));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Entity<JobValue>> updateIfVersionMatches(Entity<JobValue> entity, JobValue withValue) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            Entity<JobValue> current = this.store.retrieve(entity.id());
+            if (current == null || current.version().compareTo(entity.version()) != 0) {
+                return Optional.empty();
+            }
+            return Optional.of(this.indexed(this.store.update(current, withValue)));
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        if (jobCriteria.opt().exitStatus().isPresent()) {
-            filtered = filtered.filter(jobValueEntity ->
-                    jobValueEntity.value().opt().status().exit().filter(exit -> exit.name().matches(jobCriteria.exitStatus())).isPresent()
+    }
+
+    @Override
+    public void delete(Entity<JobValue> entity) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            this.store.delete(entity);
+            this.unindexed(entity.id());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                Entity<JobValue> entity = this.store.retrieve(id);
+                if (entity != null) {
+                    this.store.delete(entity);
+                    this.unindexed(id);
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteFrom(PropertyQuery query) throws RepositoryException {
+        this.lock.writeLock().lock();
+        try {
+            List<Entity<JobValue>> matching = new LinkedList<>();
+            Optional<IndexedJobQuery> indexedQuery = IndexedJobQuery.from(query);
+            Iterator<String> candidates = indexedQuery.isPresent() ? this.candidates(indexedQuery.get()) : null;
+            if (candidates != null) {
+                while (candidates.hasNext()) {
+                    Entity<JobValue> entity = this.store.retrieve(candidates.next());
+                    if (entity != null && indexedQuery.get().matches(entity.value())) {
+                        matching.add(entity);
+                    }
+                }
+            } else {
+                matching.addAll(this.store.search(query, 0, Integer.MAX_VALUE - 1));
+            }
+            for (Entity<JobValue> entity : matching) {
+                this.store.delete(entity);
+                this.unindexed(entity.id());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public PagedEntityList<JobValue> all(long startIndex, long endIndex) throws RepositoryException {
+        return this.store.all(startIndex, endIndex);
+    }
+
+    @Override
+    public PagedEntityList<JobValue> search(PropertyQuery query, long startIndex, long endIndex) throws RepositoryException {
+        Optional<IndexedJobQuery> indexedQuery = IndexedJobQuery.from(query);
+        if (indexedQuery.isPresent()) {
+            this.lock.readLock().lock();
+            try {
+                Iterator<String> candidates = this.candidates(indexedQuery.get());
+                if (candidates != null) {
+                    return this.page(candidates, indexedQuery.get(), startIndex, endIndex);
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+        return this.store.search(query, startIndex, endIndex);
+    }
+
+    private PagedEntityList<JobValue> page(Iterator<String> candidates, IndexedJobQuery query, long startIndex, long endIndex) throws RepositoryException {
+        boolean candidatesAllMatch = !query.hasResidualCriteria() && this.fromBuckets(query) && !query.submissionOrdered();
+        long total = candidatesAllMatch ? this.bucketsSize(query) : 0L;
+
+        List<Entity<JobValue>> page = new ArrayList<>();
+        long matched = 0L;
+        while (candidates.hasNext()) {
+            if (candidatesAllMatch && matched > endIndex) break;
+
+            Entity<JobValue> entity = this.store.retrieve(candidates.next());
+            if (entity == null || !query.matches(entity.value())) continue;
+            if (matched >= startIndex && matched <= endIndex) {
+                page.add(entity);
+            }
+            matched++;
+        }
+        return new PagedEntityList.DefaultPagedEntityList<>(startIndex, endIndex, candidatesAllMatch ? total : matched, page);
+    }
+
+    private boolean fromBuckets(IndexedJobQuery query) {
+        return query.category() != null && query.run() != null;
+    }
+
+    private Iterator<String> candidates(IndexedJobQuery query) {
+        if (query.submissionOrdered()) {
+            return query.hasSubmissionBounds() ? this.submissionRange(query).values().iterator() : null;
+        } else if (this.fromBuckets(query)) {
+            return query.pendingOrdered() ?
+                    new OrderedIterator<>(this.buckets(this.pendingBuckets, query), PendingKey.ORDER) :
+                    new OrderedIterator<>(this.buckets(this.buckets, query), Comparator.<Long>naturalOrder());
+        } else if (query.pendingOrdered()) {
+            return null;
+        } else if (query.hasSubmissionBounds()) {
+            return this.submissionRange(query).values().iterator();
+        } else {
+            return null;
+        }
+    }
+
+    private <K> List<TreeMap<K, String>> buckets(Map<BucketKey, TreeMap<K, String>> index, IndexedJobQuery query) {
+        Set<String> names = query.names() != null ? query.names() : this.categoryNames.getOrDefault(query.category(), Collections.emptySet());
+        List<TreeMap<K, String>> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            TreeMap<K, String> bucket = index.get(new BucketKey(query.category(), name, query.run()));
+            if (bucket != null) {
+                result.add(bucket);
+            }
+        }
+        return result;
+    }
+
+    private long bucketsSize(IndexedJobQuery query) {
+        long result = 0L;
+        for (TreeMap<Long, String> bucket : this.buckets(this.buckets, query)) {
+            result += bucket.size();
+        }
+        return result;
+    }
+
+    private NavigableMap<SubmissionKey, String> submissionRange(IndexedJobQuery query) {
+        NavigableMap<SubmissionKey, String> range = this.submissions;
+        if (query.submittedFrom() != null) {
+            range = range.tailMap(new SubmissionKey(query.submittedFrom(), query.submittedFromInclusive() ? Long.MIN_VALUE : Long.MAX_VALUE), true);
+        }
+        if (query.submittedTo() != null) {
+            range = range.headMap(new SubmissionKey(query.submittedTo(), query.submittedToInclusive() ? Long.MAX_VALUE : Long.MIN_VALUE), true);
+        }
+        return range;
+    }
+
+    private Entity<JobValue> indexed(Entity<JobValue> entity) {
+        IndexEntry previous = this.unindexed(entity.id());
+        long seq = previous != null ? previous.sequence : this.sequence++;
+
+        JobValue value = entity.value();
+        IndexEntry entry = new IndexEntry(
+                seq,
+                new BucketKey(value.category(), value.name(), value.opt().status().run().orElse(null)),
+                value.opt().processing().submitted().map(submitted -> new SubmissionKey(submitted, seq)).orElse(null),
+                new PendingKey(value.priority(), value.opt().processing().submitted().orElse(null), seq)
         );
+        this.entries.put(entity.id(), entry);
+        this.buckets.computeIfAbsent(entry.bucket, key -> new TreeMap<>()).put(seq, entity.id());
+        this.pendingBuckets.computeIfAbsent(entry.bucket, key -> new TreeMap<>(PendingKey.ORDER)).put(entry.pending, entity.id());
+        this.categoryNames.computeIfAbsent(entry.bucket.category, key -> new HashSet<>()).add(entry.bucket.name);
+        if (entry.submission != null) {
+            this.submissions.put(entry.submission, entity.id());
+        }
+        return entity;
+    }
+
+    private IndexEntry unindexed(String id) {
+        IndexEntry entry = this.entries.remove(id);
+        if (entry != null) {
+            TreeMap<Long, String> bucket = this.buckets.get(entry.bucket);
+            if (bucket != null) {
+                bucket.remove(entry.sequence);
+                if (bucket.isEmpty()) {
+                    this.buckets.remove(entry.bucket);
+                }
+            }
+            TreeMap<PendingKey, String> pendingBucket = this.pendingBuckets.get(entry.bucket);
+            if (pendingBucket != null) {
+                pendingBucket.remove(entry.pending);
+                if (pendingBucket.isEmpty()) {
+                    this.pendingBuckets.remove(entry.bucket);
+                }
+            }
+            if (entry.submission != null) {
+                this.submissions.remove(entry.submission);
+            }
+        }
+        return entry;
+    }
+
+    static private class IndexEntry {
+        private final long sequence;
+        private final BucketKey bucket;
+        private final SubmissionKey submission;
+        private final PendingKey pending;
+
+        IndexEntry(long sequence, BucketKey bucket, SubmissionKey submission, PendingKey pending) {
+            this.sequence = sequence;
+            this.bucket = bucket;
+            this.submission = submission;
+            this.pending = pending;
+        }
+    }
+
+    static private class BucketKey {
+        private final String category;
+        private final String name;
+        private final Status.Run run;
+
+        BucketKey(String category, String name, Status.Run run) {
+            this.category = category;
+            this.name = name;
+            this.run = run;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BucketKey bucketKey = (BucketKey) o;
+            return Objects.equals(category, bucketKey.category) && Objects.equals(name, bucketKey.name) && run == bucketKey.run;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, name, run);
+        }
+    }
+
+    static private class SubmissionKey implements Comparable<SubmissionKey> {
+        private final LocalDateTime submitted;
+        private final long sequence;
+
+        SubmissionKey(LocalDateTime submitted, long sequence) {
+            this.submitted = submitted;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(SubmissionKey o) {
+            int result = this.submitted.compareTo(o.submitted);
+            return result != 0 ? result : Long.compare(this.sequence, o.sequence);
+        }
+    }
+
+    static private class PendingKey {
+        static final Comparator<PendingKey> ORDER = Comparator
+                .comparing((PendingKey key) -> key.priority, PendingJobsOrder.PRIORITY)
+                .thenComparing(key -> key.submitted, PendingJobsOrder.SUBMISSION)
+                .thenComparingLong(key -> key.sequence);
+
+        private final Long priority;
+        private final LocalDateTime submitted;
+        private final long sequence;
+
+        PendingKey(Long priority, LocalDateTime submitted, long sequence) {
+            this.priority = priority;
+            this.submitted = submitted;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Iterates over the ids of several buckets, merged in their key order.
+     */
+    static private class OrderedIterator<K> implements Iterator<String> {
+        private final PriorityQueue<Map.Entry<K, String>> heads;
+        private final Map<Map.Entry<K, String>, Iterator<Map.Entry<K, String>>> sources = new IdentityHashMap<>();
+
+        OrderedIterator(List<TreeMap<K, String>> buckets, Comparator<K> order) {
+            this.heads = new PriorityQueue<>(Map.Entry.comparingByKey(order));
+            for (TreeMap<K, String> bucket : buckets) {
+                this.advance(bucket.entrySet().iterator());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.heads.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            Map.Entry<K, String> head = this.heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            this.advance(this.sources.remove(head));
+            return head.getValue();
+        }
+
+        private void advance(Iterator<Map.Entry<K, String>> source) {
+            if (source.hasNext()) {
+                Map.Entry<K, String> head = source.next();
+                this.sources.put(head, source);
+                this.heads.offer(head);
+            }
         }
-        return filtered;
     }
 }
@@ -0,0 +1,249 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories.inmemory;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes the conjunctive filters built by the job registry : category, names, run and exit status, and
+ * submission date bounds, either unsorted, sorted in pending jobs order or by submission date. Queries with any other shape are left to the
+ * generic property query evaluation.
+ */
+class IndexedJobQuery {
+
+    static private final Pattern CATEGORY = Pattern.compile("category\\s*==\\s*'([^']*)'");
+    static private final Pattern NAME = Pattern.compile("name\\s*==\\s*'([^']*)'");
+    static private final Pattern NAMES = Pattern.compile("name\\s+(?i:in)\\s*\\((.*)\\)");
+    static private final Pattern NAME_ITEM = Pattern.compile("\\s*'([^']*)'\\s*");
+    static private final Pattern RUN = Pattern.compile("status\\.run\\s*==\\s*'([A-Z_]+)'");
+    static private final Pattern EXIT = Pattern.compile("status\\.exit\\s*==\\s*'([A-Z_]+)'");
+    static private final Pattern SUBMITTED = Pattern.compile("processing\\.submitted\\s*(<=|<|>=|>)\\s*'?([^'\\s]+)'?");
+    static private final Pattern PENDING_ORDER = Pattern.compile("(?i)\\s*priority\\s+desc\\s*,\\s*processing\\.submitted(\\s+asc)?\\s*");
+    static private final Pattern SUBMISSION_ORDER = Pattern.compile("(?i)\\s*processing\\.submitted(\\s+asc)?\\s*");
+
+    static Optional<IndexedJobQuery> from(PropertyQuery query) {
+        if (query == null) {
+            return Optional.empty();
+        }
+        String sort = query.opt().sort().filter(s -> !s.isBlank()).orElse(null);
+        boolean pendingOrdered = sort != null && PENDING_ORDER.matcher(sort).matches();
+        boolean submissionOrdered = sort != null && SUBMISSION_ORDER.matcher(sort).matches();
+        if (sort != null && !pendingOrdered && !submissionOrdered) {
+            return Optional.empty();
+        }
+        if (!query.opt().filter().filter(filter -> !filter.isBlank()).isPresent()) {
+            return Optional.empty();
+        }
+        List<String> atoms = new LinkedList<>();
+        if (!conjunction(query.filter(), atoms)) {
+            return Optional.empty();
+        }
+        IndexedJobQuery result = new IndexedJobQuery(pendingOrdered, submissionOrdered);
+        for (String atom : atoms) {
+            if (!result.parse(atom)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(result);
+    }
+
+    private String category;
+    private Set<String> names;
+    private Status.Run run;
+    private Status.Exit exit;
+    private LocalDateTime submittedFrom;
+    private boolean submittedFromInclusive;
+    private LocalDateTime submittedTo;
+    private boolean submittedToInclusive;
+
+    private final boolean pendingOrdered;
+    private final boolean submissionOrdered;
+
+    private IndexedJobQuery(boolean pendingOrdered, boolean submissionOrdered) {
+        this.pendingOrdered = pendingOrdered;
+        this.submissionOrdered = submissionOrdered;
+    }
+
+    /**
+     * @return true when results are expected by decreasing priority then increasing submission date, false when expected
+     * in creation order
+     */
+    boolean pendingOrdered() {
+        return pendingOrdered;
+    }
+
+    /**
+     * @return true when results are expected by increasing submission date
+     */
+    boolean submissionOrdered() {
+        return submissionOrdered;
+    }
+
+    String category() {
+        return category;
+    }
+
+    Set<String> names() {
+        return names;
+    }
+
+    Status.Run run() {
+        return run;
+    }
+
+    LocalDateTime submittedFrom() {
+        return submittedFrom;
+    }
+
+    boolean submittedFromInclusive() {
+        return submittedFromInclusive;
+    }
+
+    LocalDateTime submittedTo() {
+        return submittedTo;
+    }
+
+    boolean submittedToInclusive() {
+        return submittedToInclusive;
+    }
+
+    boolean hasSubmissionBounds() {
+        return this.submittedFrom != null || this.submittedTo != null;
+    }
+
+    /**
+     * @return true when the criteria not covered by the category / name / run index are to be checked on values
+     */
+    boolean hasResidualCriteria() {
+        return this.exit != null || this.hasSubmissionBounds();
+    }
+
+    boolean matches(JobValue value) {
+        if (this.category != null && !this.category.equals(value.category())) return false;
+        if (this.names != null && !this.names.contains(value.name())) return false;
+        if (this.run != null && this.run != value.opt().status().run().orElse(null)) return false;
+        if (this.exit != null && this.exit != value.opt().status().exit().orElse(null)) return false;
+        if (this.hasSubmissionBounds()) {
+            LocalDateTime submitted = value.opt().processing().submitted().orElse(null);
+            if (submitted == null) return false;
+            if (this.submittedFrom != null) {
+                int comparison = submitted.compareTo(this.submittedFrom);
+                if (comparison < 0 || (comparison == 0 && !this.submittedFromInclusive)) return false;
+            }
+            if (this.submittedTo != null) {
+                int comparison = submitted.compareTo(this.submittedTo);
+                if (comparison > 0 || (comparison == 0 && !this.submittedToInclusive)) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parse(String atom) {
+        try {
+            Matcher matcher;
+            if ((matcher = CATEGORY.matcher(atom)).matches()) {
+                if (this.category != null) return false;
+                this.category = matcher.group(1);
+            } else if ((matcher = NAME.matcher(atom)).matches()) {
+                if (this.names != null) return false;
+                this.names = Collections.singleton(matcher.group(1));
+            } else if ((matcher = NAMES.matcher(atom)).matches()) {
+                if (this.names != null) return false;
+                this.names = new HashSet<>();
+                for (String item : matcher.group(1).split(",")) {
+                    Matcher itemMatcher = NAME_ITEM.matcher(item);
+                    if (!itemMatcher.matches()) return false;
+                    this.names.add(itemMatcher.group(1));
+                }
+            } else if ((matcher = RUN.matcher(atom)).matches()) {
+                if (this.run != null) return false;
+                this.run = Status.Run.valueOf(matcher.group(1));
+            } else if ((matcher = EXIT.matcher(atom)).matches()) {
+                if (this.exit != null) return false;
+                this.exit = Status.Exit.valueOf(matcher.group(1));
+            } else if ((matcher = SUBMITTED.matcher(atom)).matches()) {
+                LocalDateTime bound = LocalDateTime.parse(matcher.group(2));
+                String operator = matcher.group(1);
+                if (operator.startsWith("<")) {
+                    if (this.submittedTo != null) return false;
+                    this.submittedTo = bound;
+                    this.submittedToInclusive = operator.equals("<=");
+                } else {
+                    if (this.submittedFrom != null) return false;
+                    this.submittedFrom = bound;
+                    this.submittedFromInclusive = operator.equals(">=");
+                }
+            } else {
+                return false;
+            }
+            return true;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    static private boolean conjunction(String filter, List<String> atoms) {
+        String expression = unwrapped(filter.trim());
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '|' || c == '!') {
+                    return false;
+                } else if (depth == 0 && c == '&' && i + 1 < expression.length() && expression.charAt(i + 1) == '&') {
+                    if (!atom(expression.substring(start, i), atoms)) return false;
+                    start = i + 2;
+                    i++;
+                }
+            }
+        }
+        if (quoted || depth != 0) return false;
+        return atom(expression.substring(start), atoms);
+    }
+
+    static private boolean atom(String part, List<String> atoms) {
+        String trimmed = part.trim();
+        if (trimmed.isEmpty()) return false;
+        String unwrapped = unwrapped(trimmed);
+        if (!unwrapped.equals(trimmed)) {
+            return conjunction(unwrapped, atoms);
+        }
+        atoms.add(trimmed);
+        return true;
+    }
+
+    static private String unwrapped(String expression) {
+        if (!expression.startsWith("(") || !expression.endsWith(")")) {
+            return expression;
+        }
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == '(') depth++;
+                else if (c == ')') depth--;
+                if (depth == 0 && i < expression.length() - 1) {
+                    return expression;
+                }
+            }
+        }
+        return unwrapped(expression.substring(1, expression.length() - 1).trim());
+    }
+}
@@ -0,0 +1,328 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories.mongo;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
+import io.flexio.io.mongo.repository.MongoCollectionRepository;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.mongo.JobValueMongoMapper;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class MongoJobRepository implements PoomjobsJobRepository {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(MongoJobRepository.class);
+
+    static public final String COLLECTION = "jobs";
+
+    static private final String ID_FIELD = "_id";
+    static private final String VERSION_FIELD = "_version";
+    static private final String PENDING_JOBS_INDEX = "pending_jobs";
+    static private final String RUNNING_JOBS_INDEX = "running_jobs";
+
+    private final JobValueMongoMapper mapper = new JobValueMongoMapper();
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final MongoCollection<Document> collection;
+    private volatile CreationTemplate creationTemplate;
+
+    public MongoJobRepository(MongoClient mongoClient, String database) {
+        this.repository = MongoCollectionRepository.<JobValue, JobQuery>repository(database, COLLECTION)
+                .withToDocument(this.mapper::toDocument)
+                .withToValue(this.mapper::toValue)
+                .buildWithPropertyQuery(mongoClient, true);
+        this.collection = mongoClient.getDatabase(database).getCollection(COLLECTION);
+        this.backfillPriorities();
+        this.createPendingJobsIndex();
+        this.createRunningJobsIndex();
+    }
+
+    /**
+     * Jobs stored before priorities existed have no priority, they are given PendingJobsOrder.DEFAULT_PRIORITY so that
+     * mongo sorts them as PendingJobsOrder does rather than after every prioritized job.
+     */
+    private void backfillPriorities() {
+        try {
+            long updated = this.collection.updateMany(Filters.eq("priority", null), Updates.set("priority", PendingJobsOrder.DEFAULT_PRIORITY)).getModifiedCount();
+            if (updated > 0) {
+                log.info("set the default priority on {} jobs stored without one", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("[GRAVE] failed setting the default priority on jobs stored without one, they will be sorted after prioritized jobs", e);
+        }
+    }
+
+    /**
+     * Backs the pending job lookups sorted by PendingJobsOrder.
+     */
+    private void createPendingJobsIndex() {
+        try {
+            this.collection.createIndex(Indexes.compound(
+                    Indexes.ascending("category", "name", "status.run"),
+                    Indexes.descending("priority"),
+                    Indexes.ascending("processing.submitted")
+            ), new IndexOptions().name(PENDING_JOBS_INDEX).background(true));
+        } catch (RuntimeException e) {
+            log.error("[GRAVE] failed creating pending jobs index, pending job lookups will scan the job collection", e);
+        }
+    }
+
+    /**
+     * Backs the stale job reaper walk of RUNNING jobs by start date.
+     */
+    private void createRunningJobsIndex() {
+        try {
+            this.collection.createIndex(
+                    Indexes.ascending("status.run", "processing.started"),
+                    new IndexOptions().name(RUNNING_JOBS_INDEX).background(true)
+            );
+        } catch (RuntimeException e) {
+            log.error("[GRAVE] failed creating running jobs index, stale job lookups will scan the job collection", e);
+        }
+    }
+
+    @Override
+    public Entity<JobValue> create(JobValue withValue) throws RepositoryException {
+        return this.repository.create(withValue);
+    }
+
+    @Override
+    public Entity<JobValue> createWithId(String id, JobValue withValue) throws RepositoryException {
+        return this.repository.createWithId(id, withValue);
+    }
+
+    /**
+     * Bulk insert of the values. Inserted documents are encoded as the generic repository encodes them : the first
+     * batch creates its first value with the generic repository and reads the created document back to learn how ids,
+     * versions and meta fields are stored.
+     */
+    @Override
+    public JobBatchCreation createAll(List<JobValue> withValues) throws RepositoryException {
+        JobBatchCreation result = new JobBatchCreation(withValues.size());
+        if (withValues.isEmpty()) {
+            return result;
+        }
+        int from = 0;
+        CreationTemplate template = this.creationTemplate;
+        if (template == null) {
+            Entity<JobValue> first = this.repository.create(withValues.get(0));
+            result.created(0, first);
+            template = this.learnCreationTemplate(first);
+            from = 1;
+        }
+
+        List<Document> documents = new ArrayList<>(withValues.size() - from);
+        for (int i = from; i < withValues.size(); i++) {
+            ObjectId objectId = new ObjectId();
+            Document document = this.mapper.toDocument(withValues.get(i));
+            for (String field : template.meta.keySet()) {
+                document.put(field, template.meta.get(field));
+            }
+            document.put(ID_FIELD, template.objectIds ? objectId : objectId.toHexString());
+            documents.add(document);
+            result.created(i, new ImmutableEntity<>(objectId.toHexString(), template.version, withValues.get(i)));
+        }
+        if (documents.isEmpty()) {
+            return result;
+        }
+        try {
+            this.collection.insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                result.failed(from + error.getIndex(), error.getMessage());
+            }
+            log.warn("{} jobs out of {} were not inserted", e.getWriteErrors().size(), withValues.size());
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed inserting " + withValues.size() + " jobs", e);
+        }
+        return result;
+    }
+
+    private CreationTemplate learnCreationTemplate(Entity<JobValue> created) throws RepositoryException {
+        Document stored;
+        try {
+            stored = this.collection.find(this.idFilter(created.id())).first();
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed reading back created job " + created.id(), e);
+        }
+        if (stored == null) {
+            throw new RepositoryException("created job not found " + created.id());
+        }
+        Document meta = new Document();
+        for (String field : stored.keySet()) {
+            if (field.startsWith("_") && !field.equals(ID_FIELD)) {
+                meta.put(field, stored.get(field));
+            }
+        }
+        CreationTemplate template = new CreationTemplate(stored.get(ID_FIELD) instanceof ObjectId, meta, created.version());
+        this.creationTemplate = template;
+        return template;
+    }
+
+    /**
+     * How the generic repository encodes a newly created document, besides the value fields.
+     */
+    static private class CreationTemplate {
+        final boolean objectIds;
+        final Document meta;
+        final BigInteger version;
+
+        CreationTemplate(boolean objectIds, Document meta, BigInteger version) {
+            this.objectIds = objectIds;
+            this.meta = meta;
+            this.version = version;
+        }
+    }
+
+    @Override
+    public Entity<JobValue> retrieve(String id) throws RepositoryException {
+        return this.repository.retrieve(id);
+    }
+
+    @Override
+    public Entity<JobValue> update(Entity<JobValue> entity, JobValue withValue) throws RepositoryException {
+        return this.repository.update(entity, withValue);
+    }
+
+    /**
+     * Compare and set on the stored document : the document written by the generic repository is read back so that
+     * its own id, version and meta fields encoding is kept, the replacement only happens if its version is unchanged.
+     */
+    @Override
+    public Optional<Entity<JobValue>> updateIfVersionMatches(Entity<JobValue> entity, JobValue withValue) throws RepositoryException {
+        try {
+            Document stored = this.collection.find(this.idFilter(entity.id())).first();
+            if (stored == null || !entity.version().equals(versionOf(stored.get(VERSION_FIELD)))) {
+                return Optional.empty();
+            }
+            Object storedVersion = stored.get(VERSION_FIELD);
+            Document replacement = this.mapper.toDocument(withValue);
+            for (String field : stored.keySet()) {
+                if (field.startsWith("_") && !field.equals(ID_FIELD) && !field.equals(VERSION_FIELD)) {
+                    replacement.put(field, stored.get(field));
+                }
+            }
+            replacement.put(VERSION_FIELD, nextVersion(storedVersion));
+
+            Document previous = this.collection.findOneAndReplace(
+                    Filters.and(Filters.eq(ID_FIELD, stored.get(ID_FIELD)), Filters.eq(VERSION_FIELD, storedVersion)),
+                    replacement
+            );
+            if (previous == null) {
+                return Optional.empty();
+            }
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed conditionally updating job " + entity.id(), e);
+        }
+        return Optional.of(new ImmutableEntity<>(entity.id(), entity.version().add(BigInteger.ONE), withValue));
+    }
+
+    @Override
+    public void delete(Entity<JobValue> entity) throws RepositoryException {
+        this.repository.delete(entity);
+    }
+
+    @Override
+    public void deleteAll(List<String> ids) throws RepositoryException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> documentIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (ObjectId.isValid(id)) {
+                documentIds.add(new ObjectId(id));
+            }
+            documentIds.add(id);
+        }
+        try {
+            this.collection.deleteMany(Filters.in(ID_FIELD, documentIds));
+        } catch (RuntimeException e) {
+            throw new RepositoryException("failed deleting " + ids.size() + " jobs", e);
+        }
+    }
+
+    @Override
+    public void deleteFrom(PropertyQuery query) throws RepositoryException {
+        this.repository.deleteFrom(query);
+    }
+
+    @Override
+    public PagedEntityList<JobValue> all(long startIndex, long endIndex) throws RepositoryException {
+        return this.repository.all(startIndex, endIndex);
+    }
+
+    @Override
+    public PagedEntityList<JobValue> search(PropertyQuery query, long startIndex, long endIndex) throws RepositoryException {
+        return this.repository.search(query, startIndex, endIndex);
+    }
+
+    /**
+     * Hexadecimal ids may have been stored as ObjectId or as string depending on how the generic repository created them.
+     */
+    private Bson idFilter(String id) {
+        if (ObjectId.isValid(id)) {
+            return Filters.or(Filters.eq(ID_FIELD, new ObjectId(id)), Filters.eq(ID_FIELD, id));
+        }
+        return Filters.eq(ID_FIELD, id);
+    }
+
+    static private BigInteger versionOf(Object version) {
+        if (version instanceof Decimal128) {
+            return ((Decimal128) version).bigDecimalValue().toBigIntegerExact();
+        }
+        if (version instanceof Number) {
+            return version instanceof Double || version instanceof Float
+                    ? BigDecimal.valueOf(((Number) version).doubleValue()).toBigIntegerExact()
+                    : BigInteger.valueOf(((Number) version).longValue());
+        }
+        if (version instanceof String) {
+            return new BigInteger((String) version);
+        }
+        return null;
+    }
+
+    /**
+     * @return the version following the given stored one, with the same type so that the generic repository reads it
+     */
+    static private Object nextVersion(Object version) {
+        if (version instanceof Integer) {
+            return (Integer) version + 1;
+        }
+        if (version instanceof Long) {
+            return (Long) version + 1L;
+        }
+        if (version instanceof Double) {
+            return (Double) version + 1d;
+        }
+        if (version instanceof Decimal128) {
+            return new Decimal128(((Decimal128) version).bigDecimalValue().add(BigDecimal.ONE));
+        }
+        if (version instanceof String) {
+            return new BigInteger((String) version).add(BigInteger.ONE).toString();
+        }
+        throw new IllegalStateException("unexpected stored job version : " + version);
+    }
+}
@@ -40,6 +40,7 @@ public class JobEntityTransformation {
                 .result(value.result())
                 .context(value.context())
                 .attemptCount(value.attemptCount())
+                .priority(value.priority())
                 .build();
     }
 
@@ -94,6 +95,7 @@ public class JobEntityTransformation {
 
         return org.codingmatters.poomjobs.api.types.job.Processing.builder()
                 .submitted(this.entity.value().processing().submitted())
+                .notBefore(this.entity.value().processing().notBefore())
                 .started(this.entity.value().processing().started())
                 .finished(this.entity.value().processing().finished())
                 .build();
@@ -1,7 +1,9 @@
 package org.codingmatters.poomjobs.service;
 
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobRunnerMetaData;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Processing;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.AbortionStatus;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.TerminationStatus;
@@ -44,6 +46,10 @@ public class JobValueMerger {
                                  creationData.arguments().toArray(new String[creationData.arguments().size()]) :
                                 (String[]) null)
                         .attemptCount(creationData.attemptCount())
+                        .priority(PendingJobsOrder.priority(creationData.priority()))
+                        .processing(creationData.notBefore() != null ?
+                                Processing.builder().notBefore(creationData.notBefore()).build() :
+                                null)
                 )
                 ;
     }
@@ -3,10 +3,27 @@ package org.codingmatters.poomjobs.service;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.services.domain.entities.Entity;
 
+import java.util.List;
+
 public interface PoomjobsJobRepositoryListener {
     void jobCreated(Entity<JobValue> entity);
     void jobUpdated(Entity<JobValue> entity, JobValue value);
 
+    /**
+     * Notified instead of jobCreated for jobs created together, defaults to notifying each job creation.
+     */
+    default void jobsCreated(List<Entity<JobValue>> entities) {
+        for (Entity<JobValue> entity : entities) {
+            this.jobCreated(entity);
+        }
+    }
+
+    /**
+     * Notified of jobs deleted from the repository, as the job cleaner purged ones. Does nothing by default.
+     */
+    default void jobsDeleted(List<String> ids) {
+    }
+
     PoomjobsJobRepositoryListener NOOP = new PoomjobsJobRepositoryListener() {
         @Override
         public void jobCreated(Entity<JobValue> entity) {}
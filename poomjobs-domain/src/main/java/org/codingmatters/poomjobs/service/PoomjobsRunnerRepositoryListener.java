@@ -0,0 +1,17 @@
+package org.codingmatters.poomjobs.service;
+
+import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+
+public interface PoomjobsRunnerRepositoryListener {
+    void runnerCreated(Entity<RunnerValue> entity);
+    void runnerUpdated(Entity<RunnerValue> entity);
+
+    PoomjobsRunnerRepositoryListener NOOP = new PoomjobsRunnerRepositoryListener() {
+        @Override
+        public void runnerCreated(Entity<RunnerValue> entity) {}
+
+        @Override
+        public void runnerUpdated(Entity<RunnerValue> entity) {}
+    };
+}
@@ -0,0 +1,63 @@
+package org.codingmatters.poom.poomjobs.domain.jobs;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class JobRetryPoliciesTest {
+
+    @Test
+    public void givenPolicies__whenLookingUp__thenMostSpecificPolicyIsFound() throws Exception {
+        JobRetryPolicies policies = JobRetryPolicies.parse("reports/export=5:1000:60000:0.5, reports/*=4:1000:60000:0, *=2:500:1000:0");
+
+        assertThat(policies.policyFor("reports", "export").get().maxAttempts(), is(5));
+        assertThat(policies.policyFor("reports", "other").get().maxAttempts(), is(4));
+        assertThat(policies.policyFor("other", "export").get().maxAttempts(), is(2));
+    }
+
+    @Test
+    public void givenNoDefaultPolicy__whenNoPolicyMatches__thenEmpty() throws Exception {
+        JobRetryPolicies policies = JobRetryPolicies.parse("reports/export=5:1000:60000:0.5");
+
+        assertThat(policies.policyFor("reports", "other").isPresent(), is(false));
+        assertThat(JobRetryPolicies.NONE.policyFor("reports", "export").isPresent(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenMalformedPolicy__whenParsing__thenIllegalArgument() throws Exception {
+        JobRetryPolicies.parse("reports/export=5:1000");
+    }
+
+    @Test
+    public void givenNoJitter__thenBackoffDoublesOnEachAttempt_upToMax() throws Exception {
+        JobRetryPolicy policy = new JobRetryPolicy(10, Duration.ofSeconds(1), Duration.ofSeconds(10), 0d);
+
+        assertThat(policy.backoff(1, 0.7), is(Duration.ofSeconds(1)));
+        assertThat(policy.backoff(2, 0.7), is(Duration.ofSeconds(2)));
+        assertThat(policy.backoff(3, 0.7), is(Duration.ofSeconds(4)));
+        assertThat(policy.backoff(5, 0.7), is(Duration.ofSeconds(10)));
+        assertThat(policy.backoff(200, 0.7), is(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    public void givenJitter__thenBackoffIsShortenedByUpToJitterRatio() throws Exception {
+        JobRetryPolicy policy = new JobRetryPolicy(10, Duration.ofSeconds(10), Duration.ofSeconds(60), 0.5d);
+
+        assertThat(policy.backoff(1, 0d), is(Duration.ofSeconds(10)));
+        assertThat(policy.backoff(1, 0.5d), is(Duration.ofMillis(7500)));
+        assertThat(policy.backoff(1, 1d), is(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void givenMaxAttempts__thenJobIsRetryableUntilMaxAttemptReached() throws Exception {
+        JobRetryPolicy policy = new JobRetryPolicy(3, Duration.ofSeconds(1), Duration.ofSeconds(10), 0d);
+
+        assertThat(policy.retryable(JobValue.builder().build()), is(true));
+        assertThat(policy.retryable(JobValue.builder().attemptCount(2L).build()), is(true));
+        assertThat(policy.retryable(JobValue.builder().attemptCount(3L).build()), is(false));
+    }
+}
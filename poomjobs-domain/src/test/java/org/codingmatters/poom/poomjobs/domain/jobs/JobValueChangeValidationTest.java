@@ -87,6 +87,40 @@ public class JobValueChangeValidationTest {
         );
     }
 
+    @Test
+    public void givenRunStatusIsSCHEDULED__whenRunStatusChangedToRUNNING__thenInvalid() throws Exception {
+        LocalDateTime notBefore = LocalDateTime.of(2030, 1, 1, 12, 0);
+        JobValue jobValue = JobValue.builder()
+                .status(Status.builder()
+                        .run(Status.Run.SCHEDULED)
+                        .build())
+                .processing(Processing.builder().notBefore(notBefore).build())
+                .build();
+
+        assertThat(JobValueChange
+                        .from(BigInteger.ONE, BigInteger.ONE, jobValue)
+                        .to(jobValue.withStatus(jobValue.status().withRun(Status.Run.RUNNING)))
+                        .validation(),
+                is(new Validation(false, "job is SCHEDULED, cannot run it before 2030-01-01T12:00"))
+        );
+    }
+
+    @Test
+    public void givenRunStatusIsSCHEDULED__whenRunStatusChangedToPENDING__thenValid() throws Exception {
+        JobValue jobValue = JobValue.builder()
+                .status(Status.builder()
+                        .run(Status.Run.SCHEDULED)
+                        .build())
+                .build();
+
+        assertThat(JobValueChange
+                        .from(BigInteger.ONE, BigInteger.ONE, jobValue)
+                        .to(jobValue.withStatus(jobValue.status().withRun(Status.Run.PENDING)))
+                        .validation(),
+                is(new Validation(true, ""))
+        );
+    }
+
     @Test
     public void givenRunStatusIsRUNNING__whenRunStatusChangedToRUNNING__thenInvalid() throws Exception {
         JobValue jobValue = JobValue.builder()
@@ -62,6 +62,29 @@ public class JobValueCreationApplicationTest {
         assertThat(jobValue.status().run(), is(Status.Run.PENDING));
     }
 
+    @Test
+    public void whenNotBeforeIsInTheFuture__thenRunStatusIsSettedToSCHEDULED() throws Exception {
+        LocalDateTime notBefore = UTC.now().plusMinutes(10);
+        JobValue jobValue = JobValueCreation.with(this.base()
+                .processing(Processing.builder().notBefore(notBefore).build())
+                .build())
+                .applied();
+
+        assertThat(jobValue.status().run(), is(Status.Run.SCHEDULED));
+        assertThat(jobValue.processing().notBefore(), is(notBefore));
+        assertThat(jobValue.processing().submitted(), is(around(UTC.now())));
+    }
+
+    @Test
+    public void whenNotBeforeIsPassed__thenRunStatusIsSettedToPENDING() throws Exception {
+        JobValue jobValue = JobValueCreation.with(this.base()
+                .processing(Processing.builder().notBefore(UTC.now().minusMinutes(10)).build())
+                .build())
+                .applied();
+
+        assertThat(jobValue.status().run(), is(Status.Run.PENDING));
+    }
+
     private JobValue.Builder base() {
         return JobValue.builder()
                 .name("job")
@@ -0,0 +1,243 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories.inmemory;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class InMemoryJobRepositoryTest {
+
+    private final InMemoryJobRepository repository = new InMemoryJobRepository();
+
+    @Test
+    public void givenVersionUnchanged__whenUpdatingIfVersionMatches__thenUpdated() throws Exception {
+        Entity<JobValue> entity = this.repository.create(JobValue.builder().name("job").status(s -> s.run(Status.Run.PENDING)).build());
+
+        Optional<Entity<JobValue>> updated = this.repository.updateIfVersionMatches(entity, entity.value().withName("changed"));
+
+        assertThat(updated.isPresent(), is(true));
+        assertThat(this.repository.retrieve(entity.id()).value().name(), is("changed"));
+        assertThat(this.repository.retrieve(entity.id()).version(), is(updated.get().version()));
+    }
+
+    @Test
+    public void givenValues__whenCreatingAll__thenCreatedInOrder_andIndexed() throws Exception {
+        JobBatchCreation creation = this.repository.createAll(Arrays.asList(
+                JobValue.builder().category("cat").name("job-1").status(s -> s.run(Status.Run.PENDING)).build(),
+                JobValue.builder().category("cat").name("job-2").status(s -> s.run(Status.Run.PENDING)).build()
+        ));
+        List<Entity<JobValue>> created = creation.created();
+
+        assertThat(creation.complete(), is(true));
+
+        assertThat(created.stream().map(entity -> entity.value().name()).collect(Collectors.toList()), is(Arrays.asList("job-1", "job-2")));
+        assertThat(this.repository.retrieve(created.get(1).id()).value().name(), is("job-2"));
+        assertThat(this.repository.search(PropertyQuery.builder().filter("category == 'cat' && name == 'job-1' && status.run == 'PENDING'").build(), 0, 10).total(), is(1L));
+    }
+
+    @Test
+    public void givenVersionChanged__whenUpdatingIfVersionMatches__thenNotUpdated() throws Exception {
+        Entity<JobValue> entity = this.repository.create(JobValue.builder().name("job").status(s -> s.run(Status.Run.PENDING)).build());
+        this.repository.update(entity, entity.value().withName("concurrent"));
+
+        Optional<Entity<JobValue>> updated = this.repository.updateIfVersionMatches(entity, entity.value().withName("changed"));
+
+        assertThat(updated.isPresent(), is(false));
+        assertThat(this.repository.retrieve(entity.id()).value().name(), is("concurrent"));
+    }
+
+    @Test
+    public void givenEntityDeleted__whenUpdatingIfVersionMatches__thenNotUpdated() throws Exception {
+        Entity<JobValue> entity = this.repository.create(JobValue.builder().name("job").status(s -> s.run(Status.Run.PENDING)).build());
+        this.repository.delete(entity);
+
+        assertThat(this.repository.updateIfVersionMatches(entity, entity.value().withName("changed")).isPresent(), is(false));
+    }
+
+    @Test
+    public void givenConcurrentUpdatesFromSameVersion__whenUpdatingIfVersionMatches__thenOnlyOneSucceeds() throws Exception {
+        Entity<JobValue> entity = this.repository.create(JobValue.builder().name("job").status(s -> s.run(Status.Run.PENDING)).build());
+
+        int concurrency = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger(0);
+        for (int i = 0; i < concurrency; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (this.repository.updateIfVersionMatches(entity, entity.value().withStatus(Status.builder().run(Status.Run.RUNNING).build())).isPresent()) {
+                    succeeded.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(succeeded.get(), is(1));
+    }
+
+    @Test
+    public void givenJobs__whenSearchingWithRegistryQueryShapes__thenSameResultsAsGenericRepository() throws Exception {
+        Repository<JobValue, PropertyQuery> reference = InMemoryRepositoryWithPropertyQuery.notValidating(JobValue.class, true);
+        LocalDateTime now = UTC.now();
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            JobValue value = JobValue.builder()
+                    .category("category-" + (i % 3))
+                    .name("name-" + (i % 5))
+                    .status(s -> s.run(Status.Run.values()[index % 3]).exit(index % 3 == 2 ? Status.Exit.values()[index % 2] : null))
+                    .processing(p -> p.submitted(now.minusHours(index)))
+                    .build();
+            Entity<JobValue> created = this.repository.create(value);
+            reference.createWithId(created.id(), value);
+        }
+        for (int i = 0; i < 200; i += 7) {
+            Entity<JobValue> entity = this.repository.all(i, i).get(0);
+            JobValue changed = entity.value().withStatus(Status.builder().run(Status.Run.DONE).exit(Status.Exit.SUCCESS).build());
+            this.repository.update(entity, changed);
+            reference.update(reference.retrieve(entity.id()), changed);
+        }
+
+        List<PropertyQuery> queries = Arrays.asList(
+                PropertyQuery.builder().filter("category == 'category-1' && name IN ('name-1', 'name-2') && status.run == 'PENDING'").build(),
+                PropertyQuery.builder().filter("category == 'category-2' && status.run == 'DONE'").build(),
+                PropertyQuery.builder().filter("(category == 'category-0' && name IN ('name-3') && status.run == 'DONE') && (status.exit == 'SUCCESS')").build(),
+                PropertyQuery.builder().filter("status.run == 'DONE' && processing.submitted < %s", now.minusHours(50)).build(),
+                PropertyQuery.builder().filter("processing.submitted >= %s && processing.submitted <= %s", now.minusHours(20), now.minusHours(10)).build(),
+                PropertyQuery.builder().filter("category == 'category-0' && name == 'name-0' && status.run == 'RUNNING'").build(),
+                PropertyQuery.builder().filter("category == 'category-0' || status.run == 'RUNNING'").build()
+        );
+        for (PropertyQuery query : queries) {
+            PagedEntityList<JobValue> expected = reference.search(query, 0, 1000);
+            PagedEntityList<JobValue> actual = this.repository.search(query, 0, 1000);
+
+            assertThat(query.filter(), actual.total(), is(expected.total()));
+            assertThat(query.filter(), ids(actual), is(ids(expected)));
+        }
+    }
+
+    @Test
+    public void givenPendingJobs__whenSearchingPage__thenPageInCreationOrder_andTotalIsBucketsSize() throws Exception {
+        List<String> created = new LinkedList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(this.repository.create(JobValue.builder()
+                    .category("category").name("name-" + (i % 2))
+                    .status(s -> s.run(Status.Run.PENDING))
+                    .build()).id());
+        }
+
+        PagedEntityList<JobValue> page = this.repository.search(
+                PropertyQuery.builder().filter("category == 'category' && name IN ('name-0', 'name-1') && status.run == 'PENDING'").build(),
+                2, 4
+        );
+
+        assertThat(page.total(), is(10L));
+        assertThat(page.stream().map(Entity::id).collect(Collectors.toList()), is(created.subList(2, 5)));
+    }
+
+    @Test
+    public void givenOldDoneJobs__whenDeletingFromCleanerQuery__thenOnlyOldDoneJobsDeleted_andIndexesUpdated() throws Exception {
+        LocalDateTime now = UTC.now();
+        this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(42))).build());
+        this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.PENDING)).processing(p -> p.submitted(now.minusDays(42))).build());
+        this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(1))).build());
+
+        this.repository.deleteFrom(PropertyQuery.builder().filter("status.run == 'DONE' && processing.submitted < %s", now.minusDays(12)).build());
+
+        assertThat(this.repository.all(0, 10).total(), is(2L));
+        assertThat(this.repository.search(PropertyQuery.builder().filter("category == 'c' && status.run == 'DONE'").build(), 0, 10).total(), is(1L));
+    }
+
+    @Test
+    public void givenJobs__whenDeletingAllById__thenOnlyThoseJobsDeleted_andIndexesUpdated() throws Exception {
+        LocalDateTime now = UTC.now();
+        String first = this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(42))).build()).id();
+        String second = this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(42))).build()).id();
+        String kept = this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(42))).build()).id();
+
+        this.repository.deleteAll(Arrays.asList(first, second, "unknown"));
+
+        assertThat(this.repository.all(0, 10).total(), is(1L));
+        assertThat(this.repository.retrieve(kept).id(), is(kept));
+        assertThat(this.repository.search(PropertyQuery.builder().filter("status.run == 'DONE' && processing.submitted < %s", now.minusDays(12)).sort("processing.submitted asc").build(), 0, 10).total(), is(1L));
+    }
+
+    @Test
+    public void givenOldDoneJobs__whenSearchingBySubmissionOrder__thenOldestFirst() throws Exception {
+        LocalDateTime now = UTC.now();
+        String late = this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(20))).build()).id();
+        String early = this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(40))).build()).id();
+        this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.PENDING)).processing(p -> p.submitted(now.minusDays(30))).build());
+        this.repository.create(JobValue.builder().category("c").name("n").status(s -> s.run(Status.Run.DONE)).processing(p -> p.submitted(now.minusDays(1))).build());
+
+        PagedEntityList<JobValue> page = this.repository.search(PropertyQuery.builder()
+                .filter("status.run == 'DONE' && processing.submitted < %s", now.minusDays(12))
+                .sort("processing.submitted asc")
+                .build(), 0, 9);
+
+        assertThat(page.total(), is(2L));
+        assertThat(page.stream().map(Entity::id).collect(Collectors.toList()), is(Arrays.asList(early, late)));
+    }
+
+    @Test
+    public void givenPendingJobsWithPriorities__whenSearchingInPendingJobsOrder__thenByPriorityThenSubmission_andNoPriorityAsDefaultPriority() throws Exception {
+        LocalDateTime now = UTC.now();
+        String none = this.pending(null, now.minusMinutes(10)).id();
+        String lowLate = this.pending(1L, now.minusMinutes(1)).id();
+        String highLate = this.pending(5L, now.minusMinutes(2)).id();
+        String negative = this.pending(-1L, now.minusMinutes(20)).id();
+        String lowEarly = this.pending(1L, now.minusMinutes(5)).id();
+        String highEarly = this.pending(5L, now.minusMinutes(3)).id();
+        String zero = this.pending(0L, now.minusMinutes(4)).id();
+
+        PropertyQuery query = PropertyQuery.builder()
+                .filter("category == 'category' && name IN ('name') && status.run == 'PENDING'")
+                .sort(PendingJobsOrder.SORT)
+                .build();
+
+        PagedEntityList<JobValue> page = this.repository.search(query, 0, 9);
+        assertThat(page.total(), is(7L));
+        assertThat(page.stream().map(Entity::id).collect(Collectors.toList()), is(Arrays.asList(highEarly, highLate, lowEarly, lowLate, none, zero, negative)));
+
+        Entity<JobValue> promoted = this.repository.retrieve(none);
+        this.repository.update(promoted, promoted.value().withPriority(10L));
+        assertThat(this.repository.search(query, 0, 0).get(0).id(), is(none));
+    }
+
+    private Entity<JobValue> pending(Long priority, LocalDateTime submitted) throws Exception {
+        return this.repository.create(JobValue.builder()
+                .category("category").name("name")
+                .priority(priority)
+                .status(s -> s.run(Status.Run.PENDING))
+                .processing(p -> p.submitted(submitted))
+                .build());
+    }
+
+    static private List<String> ids(PagedEntityList<JobValue> list) {
+        return list.stream().map(Entity::id).sorted().collect(Collectors.toList());
+    }
+}
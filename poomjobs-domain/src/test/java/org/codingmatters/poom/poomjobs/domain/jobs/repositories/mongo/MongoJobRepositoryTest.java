@@ -0,0 +1,157 @@
+package org.codingmatters.poom.poomjobs.domain.jobs.repositories.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobBatchCreation;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Round trips between the generic mongo repository and the documents MongoJobRepository writes directly, needs docker.
+ */
+public class MongoJobRepositoryTest {
+
+    static private MongoDBContainer mongo;
+
+    @BeforeClass
+    static public void startMongo() {
+        Assume.assumeTrue("docker is needed to run mongo", DockerClientFactory.instance().isDockerAvailable());
+        mongo = new MongoDBContainer("mongo:6.0");
+        mongo.start();
+    }
+
+    @AfterClass
+    static public void stopMongo() {
+        if (mongo != null) {
+            mongo.stop();
+        }
+    }
+
+    private MongoClient mongoClient;
+    private String database;
+    private MongoJobRepository repository;
+
+    private MongoJobRepository repository() {
+        if (this.repository == null) {
+            this.mongoClient = MongoClients.create(mongo.getReplicaSetUrl());
+            this.database = "jobs-" + UUID.randomUUID();
+            this.repository = new MongoJobRepository(this.mongoClient, this.database);
+        }
+        return this.repository;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.mongoClient != null) {
+            this.mongoClient.getDatabase(this.database).drop();
+            this.mongoClient.close();
+        }
+    }
+
+    @Test
+    public void givenJobCreated__whenUpdatingIfVersionMatches__thenRetrievedWithNewValueAndVersion() throws Exception {
+        Entity<JobValue> entity = this.repository().create(this.job("job"));
+
+        this.assertConditionallyUpdated(entity);
+    }
+
+    @Test
+    public void givenJobCreatedWithHexId__whenUpdatingIfVersionMatches__thenRetrievedWithNewValueAndVersion() throws Exception {
+        Entity<JobValue> entity = this.repository().createWithId(new ObjectId().toHexString(), this.job("job"));
+
+        this.assertConditionallyUpdated(entity);
+    }
+
+    @Test
+    public void givenJobCreatedWithNonHexId__whenUpdatingIfVersionMatches__thenRetrievedWithNewValueAndVersion() throws Exception {
+        Entity<JobValue> entity = this.repository().createWithId("not-an-object-id", this.job("job"));
+
+        this.assertConditionallyUpdated(entity);
+    }
+
+    @Test
+    public void givenJobUpdatedByGenericRepository__whenUpdatingIfVersionMatchesWithStaleEntity__thenNotUpdated() throws Exception {
+        Entity<JobValue> entity = this.repository().create(this.job("job"));
+        this.repository().update(entity, entity.value().withName("updated"));
+
+        Optional<Entity<JobValue>> updated = this.repository().updateIfVersionMatches(entity, entity.value().withName("stale"));
+
+        assertThat(updated.isPresent(), is(false));
+        assertThat(this.repository().retrieve(entity.id()).value().name(), is("updated"));
+    }
+
+    @Test
+    public void givenJobsCreatedInBatches__thenGenericRepositoryRetrievesSearchesAndUpdatesThem() throws Exception {
+        JobBatchCreation firstBatch = this.repository().createAll(Arrays.asList(this.job("job-1"), this.job("job-2")));
+        JobBatchCreation secondBatch = this.repository().createAll(Arrays.asList(this.job("job-3"), this.job("job-4")));
+
+        assertThat(firstBatch.complete(), is(true));
+        assertThat(secondBatch.complete(), is(true));
+        List<Entity<JobValue>> created = new ArrayList<>(firstBatch.created());
+        created.addAll(secondBatch.created());
+
+        assertThat(this.repository().search(PropertyQuery.builder().filter("category == 'cat' && status.run == 'PENDING'").build(), 0, 10).total(), is(4L));
+        for (Entity<JobValue> entity : created) {
+            Entity<JobValue> retrieved = this.repository().retrieve(entity.id());
+            assertThat(retrieved.value(), is(entity.value()));
+            assertThat(retrieved.version(), is(entity.version()));
+
+            Entity<JobValue> updated = this.repository().update(retrieved, retrieved.value().withName(entity.value().name() + "-updated"));
+            assertThat(this.repository().retrieve(entity.id()).value().name(), is(entity.value().name() + "-updated"));
+            assertThat(this.repository().updateIfVersionMatches(updated, updated.value().withName("done")).isPresent(), is(true));
+        }
+        assertThat(this.repository().search(PropertyQuery.builder().filter("name == 'done'").build(), 0, 10).total(), is(4L));
+    }
+
+    @Test
+    public void givenJobsStoredWithoutPriority__whenRepositoryCreated__thenDefaultPrioritySet() throws Exception {
+        Entity<JobValue> stored = this.repository().create(this.job("job"));
+        this.mongoClient.getDatabase(this.database).getCollection(MongoJobRepository.COLLECTION).updateMany(new Document(), Updates.unset("priority"));
+
+        MongoJobRepository reopened = new MongoJobRepository(this.mongoClient, this.database);
+
+        assertThat(reopened.retrieve(stored.id()).value().priority(), is(PendingJobsOrder.DEFAULT_PRIORITY));
+    }
+
+    private void assertConditionallyUpdated(Entity<JobValue> entity) throws Exception {
+        Optional<Entity<JobValue>> updated = this.repository().updateIfVersionMatches(entity, entity.value().withName("changed"));
+
+        assertThat(updated.isPresent(), is(true));
+        Entity<JobValue> retrieved = this.repository().retrieve(entity.id());
+        assertThat(retrieved.value().name(), is("changed"));
+        assertThat(retrieved.version(), is(updated.get().version()));
+        assertThat(retrieved.version(), is(entity.version().add(BigInteger.ONE)));
+
+        Entity<JobValue> updatedAgain = this.repository().update(retrieved, retrieved.value().withName("changed again"));
+        assertThat(this.repository().retrieve(entity.id()).value().name(), is("changed again"));
+        assertThat(this.repository().updateIfVersionMatches(updatedAgain, updatedAgain.value().withName("changed once more")).isPresent(), is(true));
+        assertThat(this.repository().updateIfVersionMatches(retrieved, retrieved.value().withName("stale")).isPresent(), is(false));
+    }
+
+    private JobValue job(String name) {
+        return JobValue.builder().category("cat").name(name).status(s -> s.run(Status.Run.PENDING)).build();
+    }
+}
@@ -1,5 +1,6 @@
 package org.codingmatters.poomjobs.service;
 
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobRunnerMetaData;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poomjobs.api.types.JobCreationData;
@@ -87,5 +88,6 @@ public class JobValueMergerTest {
         assertThat(value.category(), is("category"));
         assertThat(value.arguments(), contains("arg1", "arg2"));
         assertThat(value.attemptCount(), is(1L));
+        assertThat(value.priority(), is(PendingJobsOrder.DEFAULT_PRIORITY));
     }
 }
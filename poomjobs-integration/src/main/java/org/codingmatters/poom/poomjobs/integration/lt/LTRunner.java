@@ -1,6 +1,7 @@
 package org.codingmatters.poom.poomjobs.integration.lt;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.jobs.runner.service.ExecutionMode;
 import org.codingmatters.poom.jobs.runner.service.RunnerService;
 import org.codingmatters.poom.jobs.runner.service.exception.RunnerServiceInitializationException;
 import org.codingmatters.poom.poomjobs.integration.lt.jobs.LTJobFactory;
@@ -24,6 +25,10 @@ public class LTRunner {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(LTRunner.class);
     /**
      * mvn exec:java -Dexec.mainClass="org.codingmatters.poom.poomjobs.integration.lt.LTRunner" -Dexec.args="5"
+     *
+     * An optional second argument selects the execution mode to compare pools under the same injection :
+     *
+     * mvn exec:java -Dexec.mainClass="org.codingmatters.poom.poomjobs.integration.lt.LTRunner" -Dexec.args="1000 VIRTUAL_THREADS"
      * @param args
      */
     public static void main(String[] args) {
@@ -40,6 +45,7 @@ public class LTRunner {
         System.setProperty("service.url", "http://localhost:" + port);
         int concurrentJobCount = Integer.parseInt(args[0]);
         if(concurrentJobCount <= 0) throw new RuntimeException("concurentjob count should be more than 0, was " + concurrentJobCount);
+        ExecutionMode executionMode = args.length > 1 ? ExecutionMode.valueOf(args[1].toUpperCase()) : ExecutionMode.PLATFORM_THREADS;
 
         RunnerService runner = RunnerService.setup()
                 .jobs(LTJobFactory.CATEGORY, new String[]{
@@ -50,13 +56,26 @@ public class LTRunner {
                 .endpoint("0.0.0.0", port)
                 .ttl(1000L)
                 .exitOnUnrecoverableError(false)
+                .executionMode(executionMode)
                 .build();
 
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long start = System.currentTimeMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            long elapsed = Math.max(1L, (System.currentTimeMillis() - start) / 1000L);
+            System.out.printf("[%s x%s] completed %s jobs in %ss (%s jobs/s), %s running, %s live threads\n",
+                    executionMode, concurrentJobCount,
+                    LTJobProcessor.COMPLETED.get(), elapsed, LTJobProcessor.COMPLETED.get() / elapsed,
+                    LTJobProcessor.PENDING.get(), Thread.activeCount()
+            );
+        }, 10, 10, TimeUnit.SECONDS);
+
         try {
             runner.run();
         } catch (RunnerServiceInitializationException e) {
             e.printStackTrace();
         } finally {
+            reporter.shutdownNow();
             runner.stop();
         }
     }
@@ -0,0 +1,105 @@
+package org.codingmatters.poomjobs.registries.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.undertow.server.handlers.sse.ServerSentEventConnection;
+import io.undertow.server.handlers.sse.ServerSentEventConnectionCallback;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.types.json.JobWriter;
+import org.codingmatters.poomjobs.service.events.JobEventStream;
+import org.xnio.IoUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+
+/**
+ * Streams the job events as server-sent events : the event name is the event type, the event id its sequence and the
+ * data the json job.
+ *
+ * Events can be filtered with the category, name and account-id query parameters (account-id may also be passed as
+ * header). A client reconnecting with a Last-Event-ID header resumes after that event.
+ */
+public class JobEventsSseCallback implements ServerSentEventConnectionCallback {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobEventsSseCallback.class);
+
+    private final JobEventStream stream;
+    private final int bufferSize;
+    private final JsonFactory jsonFactory;
+
+    public JobEventsSseCallback(JobEventStream stream, int bufferSize, JsonFactory jsonFactory) {
+        this.stream = stream;
+        this.bufferSize = bufferSize;
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public void connected(ServerSentEventConnection connection, String lastEventId) {
+        String accountId = this.parameter(connection, "account-id");
+        if (accountId == null) {
+            accountId = connection.getRequestHeaders().getFirst("account-id");
+        }
+
+        Long afterSequence = null;
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            try {
+                afterSequence = Long.parseLong(lastEventId);
+            } catch (NumberFormatException e) {
+                log.info("ignoring invalid Last-Event-ID : {}", lastEventId);
+            }
+        }
+
+        JobEventStream.Subscription subscription = this.stream.subscribe(
+                JobEventStream.filter(this.parameter(connection, "category"), this.parameter(connection, "name"), accountId),
+                afterSequence,
+                this.bufferSize,
+                new JobEventStream.Subscriber() {
+                    @Override
+                    public void event(JobEventStream.JobEvent event, Runnable sent) {
+                        String data;
+                        try {
+                            data = json(event);
+                        } catch (IOException e) {
+                            log.error("failed serializing job event " + event.sequence(), e);
+                            sent.run();
+                            return;
+                        }
+                        connection.send(data, event.type().name().toLowerCase(), String.valueOf(event.sequence()), new ServerSentEventConnection.EventCallback() {
+                            @Override
+                            public void done(ServerSentEventConnection connection, String data, String event, String id) {
+                                sent.run();
+                            }
+
+                            @Override
+                            public void failed(ServerSentEventConnection connection, String data, String event, String id, IOException e) {
+                                sent.run();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void overflowed() {
+                        IoUtils.safeClose(connection);
+                    }
+                });
+        connection.addCloseTask(closed -> subscription.cancel());
+        if (!connection.isOpen()) {
+            subscription.cancel();
+        }
+    }
+
+    private String parameter(ServerSentEventConnection connection, String name) {
+        Deque<String> values = connection.getQueryParameters().get(name);
+        return values != null && !values.isEmpty() ? values.getFirst() : null;
+    }
+
+    private String json(JobEventStream.JobEvent event) throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream(); JsonGenerator generator = this.jsonFactory.createGenerator(out)) {
+            new JobWriter().write(generator, event.job());
+            generator.flush();
+            generator.close();
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.codingmatters.poomjobs.registries.service;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Methods;
+import io.undertow.util.SameThreadExecutor;
+import org.codingmatters.poom.jobs.collections.jobs.JobWatchHandler;
+import org.codingmatters.poom.jobs.collections.jobs.JobWatchers;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+
+import java.math.BigInteger;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds job watch requests without holding a worker thread : the exchange is parked until the watched job is updated
+ * or the timeout elapses, then handed to the next handler with a zero timeout so that the job is answered right away.
+ *
+ * Requests that need no waiting, or for which no watch can be acquired, are handed to the next handler as they are.
+ */
+public class JobWatchHttpHandler implements HttpHandler {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobWatchHttpHandler.class);
+
+    static public final String JOB_WATCH_PATH = "/poomjobs-jobs/v1/job-watch/";
+
+    private final HttpHandler next;
+    private final Repository<JobValue, PropertyQuery> repository;
+    private final JobWatchers watchers;
+    private final ScheduledExecutorService timer;
+
+    public JobWatchHttpHandler(HttpHandler next, Repository<JobValue, PropertyQuery> repository, JobWatchers watchers, ScheduledExecutorService timer) {
+        this.next = next;
+        this.repository = repository;
+        this.watchers = watchers;
+        this.timer = timer;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        if (!Methods.GET.equals(exchange.getRequestMethod()) || !exchange.getRequestPath().startsWith(JOB_WATCH_PATH)) {
+            this.next.handleRequest(exchange);
+            return;
+        }
+        if (exchange.isInIoThread()) {
+            exchange.dispatch(this);
+            return;
+        }
+
+        String jobId = exchange.getRequestPath().substring(JOB_WATCH_PATH.length());
+        BigInteger afterVersion;
+        long timeout;
+        try {
+            String waitForVersion = this.parameter(exchange, "waitForVersion");
+            String timeoutParameter = this.parameter(exchange, "timeout");
+            afterVersion = waitForVersion != null ? new BigInteger(waitForVersion) : null;
+            timeout = timeoutParameter != null ? Long.parseLong(timeoutParameter) : JobWatchHandler.DEFAULT_TIMEOUT_SECONDS;
+        } catch (NumberFormatException e) {
+            this.next.handleRequest(exchange);
+            return;
+        }
+        timeout = Math.max(0L, Math.min(timeout, JobWatchHandler.MAX_TIMEOUT_SECONDS));
+        if (jobId.isEmpty() || jobId.contains("/") || afterVersion == null || timeout == 0) {
+            this.next.handleRequest(exchange);
+            return;
+        }
+
+        if (!this.waitNeeded(jobId, afterVersion)) {
+            this.next.handleRequest(exchange);
+            return;
+        }
+        Optional<JobWatchers.Watch> acquired = this.watchers.watch(jobId, afterVersion);
+        if (!acquired.isPresent()) {
+            log.info("too many pending job watches, job {} returned without waiting", jobId);
+            this.answer(exchange);
+            return;
+        }
+        JobWatchers.Watch watch = acquired.get();
+        if (!this.waitNeeded(jobId, afterVersion)) {
+            watch.release();
+            this.next.handleRequest(exchange);
+            return;
+        }
+
+        long waited = timeout;
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            ScheduledFuture<?> expiration = this.timer.schedule(() -> done.complete(null), waited, TimeUnit.SECONDS);
+            watch.future().whenComplete((entity, error) -> done.complete(null));
+            done.thenRun(() -> {
+                expiration.cancel(false);
+                watch.release();
+                this.answer(exchange);
+            });
+        });
+    }
+
+    private boolean waitNeeded(String jobId, BigInteger afterVersion) {
+        try {
+            Entity<JobValue> current = this.repository.retrieve(jobId);
+            return current != null && current.version().compareTo(afterVersion) <= 0;
+        } catch (RepositoryException e) {
+            log.error("error retrieving watched job " + jobId + ", answering right away", e);
+            return false;
+        }
+    }
+
+    private void answer(HttpServerExchange exchange) {
+        Map<String, Deque<String>> parameters = exchange.getQueryParameters();
+        Deque<String> timeout = new ArrayDeque<>();
+        timeout.add("0");
+        parameters.put("timeout", timeout);
+
+        StringBuilder query = new StringBuilder();
+        for (Map.Entry<String, Deque<String>> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                if (query.length() > 0) {
+                    query.append('&');
+                }
+                query.append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        exchange.setQueryString(query.toString());
+
+        exchange.dispatch(this.next);
+    }
+
+    private String parameter(HttpServerExchange exchange, String name) {
+        Deque<String> values = exchange.getQueryParameters().get(name);
+        return values != null && !values.isEmpty() ? values.getFirst() : null;
+    }
+}
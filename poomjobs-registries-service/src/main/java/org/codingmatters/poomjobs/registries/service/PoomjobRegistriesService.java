@@ -1,38 +1,59 @@
 package org.codingmatters.poomjobs.registries.service;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import io.undertow.Handlers;
 import io.undertow.Undertow;
+import org.codingmatters.poom.jobs.collections.jobs.JobCache;
+import org.codingmatters.poom.jobs.collections.jobs.JobWatchers;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
 import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobRepository;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.runners.repositories.RunnerRepository;
-import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerQuery;
 import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.runner.manager.ChainedListener;
 import org.codingmatters.poom.runner.manager.DefaultRunnerClientFactory;
+import org.codingmatters.poom.runner.manager.JobDispatchQueue;
+import org.codingmatters.poom.runner.manager.JobMetricsListener;
+import org.codingmatters.poom.runner.manager.RunnerIndex;
 import org.codingmatters.poom.runner.manager.RunnerInvokerListener;
-import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Tracer;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.support.Env;
 import org.codingmatters.poomjobs.client.PoomjobsRunnerRegistryAPIHandlersClient;
 import org.codingmatters.poomjobs.service.PoomjobsJobRegistryAPI;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
 import org.codingmatters.poomjobs.service.PoomjobsRunnerRegistryAPI;
 import org.codingmatters.poomjobs.service.api.PoomjobsJobRegistryAPIProcessor;
 import org.codingmatters.poomjobs.service.api.PoomjobsRunnerRegistryAPIProcessor;
+import org.codingmatters.poomjobs.service.cleaners.StaleJobReaper;
+import org.codingmatters.poomjobs.service.events.JobEventStream;
+import org.codingmatters.poomjobs.service.metrics.MetricsProcessor;
 import org.codingmatters.rest.api.Processor;
 import org.codingmatters.rest.api.client.okhttp.OkHttpClientWrapper;
 import org.codingmatters.rest.api.processors.MatchingPathProcessor;
 import org.codingmatters.rest.undertow.CdmHttpUndertowHandler;
+import org.codingmatters.value.objects.values.ObjectValue;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class PoomjobRegistriesService {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(PoomjobRegistriesService.class);
 
     static public final String CLIENT_POOL_SIZE = "CLIENT_POOL_SIZE";
+    static public final String STALE_JOB_REAPER_PERIOD = "STALE_JOB_REAPER_PERIOD_IN_SECONDS";
+    static public final String STALE_JOB_REAPER_BATCH_SIZE = "STALE_JOB_REAPER_BATCH_SIZE";
+    static public final String STALE_JOB_REAPER_TTL_GRACE_FACTOR = "STALE_JOB_REAPER_TTL_GRACE_FACTOR";
+    static public final String JOB_EVENTS_BUFFER_SIZE = "JOB_EVENTS_BUFFER_SIZE";
+    static public final String JOB_EVENTS_SUBSCRIBER_BUFFER_SIZE = "JOB_EVENTS_SUBSCRIBER_BUFFER_SIZE";
 
     public static void main(String[] args) {
         String host = Env.mandatory(Env.SERVICE_HOST).asString();
@@ -41,8 +62,9 @@ public class PoomjobRegistriesService {
 
         AtomicInteger threadIndex = new AtomicInteger(1);
         ExecutorService clientPool = Executors.newFixedThreadPool(clientPoolSize, runnable -> new Thread(runnable, "client-pool-thread-" + threadIndex.getAndIncrement()));
-        ExecutorService listenerPool = Executors.newFixedThreadPool(Env.optional("JOB_LISTENER_POOL_SIZE").orElse(new Env.Var("5")).asInteger());
+        ExecutorService listenerPool = Executors.newFixedThreadPool(Env.optional(JobDispatchQueue.JOB_LISTENER_POOL_SIZE).orElse(new Env.Var("5")).asInteger());
 
+        JobTracing.install(Tracer.fromEnv("poomjobs-registries"));
         PoomjobRegistriesService service = new PoomjobRegistriesService(host, port, clientPool, listenerPool, account -> true);
         service.start();
 
@@ -56,6 +78,7 @@ public class PoomjobRegistriesService {
         }
         log.info("poomjob registries stopping...");
         service.stop();
+        JobTracing.tracer().close();
         log.info("poomjob registries stopped.");
     }
 
@@ -67,37 +90,93 @@ public class PoomjobRegistriesService {
     private Undertow server;
     private final JsonFactory jsonFactory = new JsonFactory();
 
-    private final Repository<JobValue, PropertyQuery> jobRepository = JobRepository.createInMemory();
+    private final PoomjobsJobRepository jobRepository = JobRepository.createInMemory();
+    private final JobCache jobCache;
+    private final JobWatchers jobWatchers = JobWatchers.fromEnv();
+    private final JobMetricsListener jobMetrics = new JobMetricsListener();
+    private final JobEventStream jobEvents = new JobEventStream(Env.optional(JOB_EVENTS_BUFFER_SIZE).orElse(new Env.Var("10000")).asInteger());
+    private final StaleJobReaper staleJobReaper;
+    private final ScheduledExecutorService reaperScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stale-job-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService watchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-watch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final PoomjobsJobRegistryAPI jobRegistryAPI;
 
     private final PoomjobsRunnerRegistryAPIHandlersClient runnerRegistryClient;
 
     private final Repository<RunnerValue, RunnerQuery> runnerRepository = RunnerRepository.createInMemory();
     private final PoomjobsRunnerRegistryAPI runnerRegistryAPI;
+    private final RunnerInvokerListener runnerInvokerListener;
 
     public PoomjobRegistriesService(String host, int port, ExecutorService clientPool, ExecutorService listenerPool, Function<String, Boolean> accountValidator) {
         this.host = host;
         this.port = port;
         this.clientPool = clientPool;
 
-        this.runnerRegistryAPI = new PoomjobsRunnerRegistryAPI(this.runnerRepository, new JsonFactory());
+        RunnerIndex runnerIndex = new RunnerIndex();
+        this.runnerRegistryAPI = new PoomjobsRunnerRegistryAPI(this.runnerRepository, runnerIndex, new JsonFactory());
         this.runnerRegistryClient = new PoomjobsRunnerRegistryAPIHandlersClient(
                 this.runnerRegistryAPI.handlers(),
                 this.clientPool
         );
 
-        RunnerInvokerListener runnerInvokerListener = new RunnerInvokerListener(runnerRegistryClient, new DefaultRunnerClientFactory(this.jsonFactory, OkHttpClientWrapper.build()), listenerPool);
+        this.runnerInvokerListener = new RunnerInvokerListener(runnerRegistryClient, new DefaultRunnerClientFactory(this.jsonFactory, OkHttpClientWrapper.build()), listenerPool, runnerIndex);
+        this.jobCache = JobCache.fromEnv();
+        PoomjobsJobRepositoryListener dispatchingListener = this.jobWatchers.notifying(new ChainedListener(
+                this.jobCache != null ? this.jobCache.invalidating(this.runnerInvokerListener) : this.runnerInvokerListener,
+                this.jobEvents,
+                this.jobMetrics
+        ));
         this.jobRegistryAPI = new PoomjobsJobRegistryAPI(
                 this.jobRepository,
-                runnerInvokerListener,
+                dispatchingListener,
                 null,
                 new JsonFactory(),
-                accountValidator
+                accountValidator,
+                JobRetryPolicies.fromEnv(),
+                this.jobCache,
+                this.jobWatchers
         );
+        this.staleJobReaper = new StaleJobReaper(
+                this.jobRepository,
+                this.runnerRepository,
+                dispatchingListener,
+                Env.optional(STALE_JOB_REAPER_BATCH_SIZE).orElse(new Env.Var("1000")).asInteger(),
+                Env.optional(STALE_JOB_REAPER_TTL_GRACE_FACTOR).orElse(new Env.Var("2")).asInteger()
+        );
+    }
+
+    /**
+     * @return job dispatch queue depth, dropped and coalesced dispatch counts, job wait and run time percentiles per
+     * category, name and account since the previous call, and job cache size, hit, miss and eviction counts when the
+     * cache is enabled, also served on /metrics
+     */
+    public Supplier<ObjectValue> metrics() {
+        return () -> {
+            ObjectValue.Builder metrics = ObjectValue.from(this.runnerInvokerListener.dispatchQueue().get());
+            ObjectValue latencies = this.jobMetrics.latencies();
+            for (String name : latencies.propertyNames()) {
+                metrics.property(name, latencies.property(name));
+            }
+            if (this.jobCache != null) {
+                ObjectValue cacheMetrics = this.jobCache.get();
+                for (String name : cacheMetrics.propertyNames()) {
+                    metrics.property(name, cacheMetrics.property(name));
+                }
+            }
+            return metrics.build();
+        };
     }
 
     public void start() {
         Processor processor = MatchingPathProcessor
+                .whenMatching("/metrics/?", new MetricsProcessor(this.jsonFactory, this.metrics()))
                 .whenMatching("/poomjobs-jobs/v1/.*", new PoomjobsJobRegistryAPIProcessor(
                         "/poomjobs-jobs/v1",
                         this.jsonFactory,
@@ -113,12 +192,24 @@ public class PoomjobRegistriesService {
 
         this.server = Undertow.builder()
                 .addHttpListener(this.port, this.host)
-                .setHandler(new CdmHttpUndertowHandler(processor))
+                .setHandler(Handlers.path(new JobWatchHttpHandler(new CdmHttpUndertowHandler(processor), this.jobRepository, this.jobWatchers, this.watchTimer))
+                        .addExactPath("/poomjobs-jobs/v1/job-events", Handlers.serverSentEvents(new JobEventsSseCallback(
+                                this.jobEvents,
+                                Env.optional(JOB_EVENTS_SUBSCRIBER_BUFFER_SIZE).orElse(new Env.Var("1000")).asInteger(),
+                                this.jsonFactory
+                        )))
+                )
                 .build();
         this.server.start();
+        this.jobRegistryAPI.start();
+        this.staleJobReaper.start(this.reaperScheduler, Env.optional(STALE_JOB_REAPER_PERIOD).orElse(new Env.Var("30")).asInteger(), TimeUnit.SECONDS);
     }
 
     public void stop() {
+        this.staleJobReaper.stop();
+        this.reaperScheduler.shutdownNow();
+        this.watchTimer.shutdownNow();
+        this.jobRegistryAPI.stop();
         this.server.stop();
 
         try {
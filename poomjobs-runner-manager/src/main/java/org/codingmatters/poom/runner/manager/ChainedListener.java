@@ -4,6 +4,8 @@ import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
 
+import java.util.List;
+
 public class ChainedListener implements PoomjobsJobRepositoryListener {
 
     private final PoomjobsJobRepositoryListener[] listeners;
@@ -19,6 +21,13 @@ public class ChainedListener implements PoomjobsJobRepositoryListener {
         }
     }
 
+    @Override
+    public void jobsCreated(List<Entity<JobValue>> entities) {
+        for (PoomjobsJobRepositoryListener listener : listeners) {
+            listener.jobsCreated(entities);
+        }
+    }
+
     @Override
     public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
         for (PoomjobsJobRepositoryListener listener : listeners) {
@@ -26,4 +35,11 @@ public class ChainedListener implements PoomjobsJobRepositoryListener {
         }
     }
 
+    @Override
+    public void jobsDeleted(List<String> ids) {
+        for (PoomjobsJobRepositoryListener listener : listeners) {
+            listener.jobsDeleted(ids);
+        }
+    }
+
 }
@@ -0,0 +1,195 @@
+package org.codingmatters.poom.runner.manager;
+
+import com.codahale.metrics.Counter;
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.runner.manager.metrics.ResettingCounter;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.Env;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded queue of job dispatch requests, drained by at most maxDrainers tasks submitted to the executor. Jobs are
+ * dispatched by decreasing priority, then in request order.
+ *
+ * Requests for a job already waiting in the queue are coalesced : only the latest job value is dispatched. When the queue
+ * is full, requests are dropped, the jobs staying PENDING until a runner polls for them.
+ */
+public class JobDispatchQueue implements Supplier<ObjectValue> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobDispatchQueue.class);
+
+    static public final String JOB_LISTENER_POOL_SIZE = "JOB_LISTENER_POOL_SIZE";
+    static public final String JOB_DISPATCH_QUEUE_SIZE = "JOB_DISPATCH_QUEUE_SIZE";
+
+    static public JobDispatchQueue fromEnv(ExecutorService executor, Consumer<Entity<JobValue>> dispatcher) {
+        return new JobDispatchQueue(
+                executor,
+                dispatcher,
+                Env.optional(JOB_LISTENER_POOL_SIZE).orElse(new Env.Var("5")).asInteger(),
+                Env.optional(JOB_DISPATCH_QUEUE_SIZE).orElse(new Env.Var("10000")).asInteger()
+        );
+    }
+
+    private final ExecutorService executor;
+    private final Consumer<Entity<JobValue>> dispatcher;
+    private final int maxDrainers;
+    private final int capacity;
+
+    private final BlockingQueue<Queued> jobIds = new PriorityBlockingQueue<>(11, Queued.ORDER);
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicLong sequence = new AtomicLong(0L);
+    private final Map<String, Entity<JobValue>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger drainers = new AtomicInteger(0);
+
+    private final Counter dropped = new ResettingCounter();
+    private final Counter coalesced = new ResettingCounter();
+
+    public JobDispatchQueue(ExecutorService executor, Consumer<Entity<JobValue>> dispatcher, int maxDrainers, int capacity) {
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+        this.maxDrainers = maxDrainers;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return false when the dispatch request was dropped
+     */
+    public boolean offer(Entity<JobValue> entity) {
+        Offer offer = this.enqueue(entity);
+        if (offer == Offer.QUEUED) {
+            this.scheduleDrainer();
+        }
+        return offer != Offer.DROPPED;
+    }
+
+    /**
+     * Queues the jobs before scheduling drainers, instead of scheduling drainers for each job.
+     *
+     * @return the number of dropped dispatch requests
+     */
+    public int offerAll(List<Entity<JobValue>> entities) {
+        int queuedCount = 0;
+        int droppedCount = 0;
+        for (Entity<JobValue> entity : entities) {
+            Offer offer = this.enqueue(entity);
+            if (offer == Offer.QUEUED) {
+                queuedCount++;
+            } else if (offer == Offer.DROPPED) {
+                droppedCount++;
+            }
+        }
+        for (int i = 0; i < Math.min(queuedCount, this.maxDrainers); i++) {
+            this.scheduleDrainer();
+        }
+        return droppedCount;
+    }
+
+    private Offer enqueue(Entity<JobValue> entity) {
+        AtomicBoolean fresh = new AtomicBoolean(false);
+        this.pending.compute(entity.id(), (id, current) -> {
+            fresh.set(current == null);
+            return entity;
+        });
+        if (!fresh.get()) {
+            this.coalesced.inc();
+            return Offer.COALESCED;
+        }
+        if (this.queued.incrementAndGet() > this.capacity) {
+            this.queued.decrementAndGet();
+            this.pending.remove(entity.id());
+            this.dropped.inc();
+            log.debug("dispatch queue full, job {} left to runner polling", entity.id());
+            return Offer.DROPPED;
+        }
+        this.jobIds.add(new Queued(entity.id(), entity.value().priority(), this.sequence.getAndIncrement()));
+        return Offer.QUEUED;
+    }
+
+    public int depth() {
+        return this.queued.get();
+    }
+
+    private void scheduleDrainer() {
+        int current;
+        do {
+            current = this.drainers.get();
+            if (current >= this.maxDrainers) {
+                return;
+            }
+        } while (!this.drainers.compareAndSet(current, current + 1));
+
+        try {
+            this.executor.submit(this::drain);
+        } catch (RejectedExecutionException e) {
+            this.drainers.decrementAndGet();
+            log.warn("dispatch executor rejected drainer, {} jobs left to runner polling", this.jobIds.size());
+        }
+    }
+
+    private void drain() {
+        try {
+            Queued next;
+            while ((next = this.jobIds.poll()) != null) {
+                this.queued.decrementAndGet();
+                String jobId = next.jobId;
+                Entity<JobValue> entity = this.pending.remove(jobId);
+                if (entity != null) {
+                    try {
+                        this.dispatcher.accept(entity);
+                    } catch (Exception e) {
+                        log.error("unexpected error while dispatching job " + jobId, e);
+                    }
+                }
+            }
+        } finally {
+            this.drainers.decrementAndGet();
+        }
+        if (!this.jobIds.isEmpty()) {
+            this.scheduleDrainer();
+        }
+    }
+
+    @Override
+    public ObjectValue get() {
+        long depth = this.depth();
+        long droppedCount = this.dropped.getCount();
+        long coalescedCount = this.coalesced.getCount();
+        return ObjectValue.builder()
+                .property("dispatch/queue/depth", val -> val.longValue(depth))
+                .property("dispatch/queue/capacity", val -> val.longValue((long) this.capacity))
+                .property("dispatch/dropped/count", val -> val.longValue(droppedCount))
+                .property("dispatch/coalesced/count", val -> val.longValue(coalescedCount))
+                .build();
+    }
+
+    private enum Offer {
+        QUEUED, COALESCED, DROPPED
+    }
+
+    static private class Queued {
+        static final Comparator<Queued> ORDER = Comparator
+                .comparing((Queued queued) -> queued.priority, PendingJobsOrder.PRIORITY)
+                .thenComparingLong(queued -> queued.sequence);
+
+        private final String jobId;
+        private final Long priority;
+        private final long sequence;
+
+        Queued(String jobId, Long priority, long sequence) {
+            this.jobId = jobId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package org.codingmatters.poom.runner.manager;
 
-import com.codahale.metrics.Counter;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.runner.manager.metrics.LatencyHistogram;
 import org.codingmatters.poom.runner.manager.metrics.MaxTimeCounter;
-import org.codingmatters.poom.runner.manager.metrics.ResettingCounter;
 import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
 import org.codingmatters.value.objects.values.ObjectValue;
 import org.codingmatters.value.objects.values.PropertyValue;
 
-import java.time.ZoneOffset;
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /*
@@ -26,7 +28,7 @@ public class JobMetricsListener implements PoomjobsJobRepositoryListener, Suppli
      nb de jobs créés pendant la periode
       créés = created
      */
-    private final Map<String, Map<String, Counter>> count;
+    private final Map<String, Map<String, LongAdder>> count;
 
     /*
      temps d'attente de ceux qui sont pris en charge pendant la periode
@@ -34,60 +36,85 @@ public class JobMetricsListener implements PoomjobsJobRepositoryListener, Suppli
      */
     private final Map<String, MaxTimeCounter> categoryMaxWaitTime;
 
+    /*
+     temps d'attente (PENDING -> RUNNING) et d'exécution (RUNNING -> DONE) en millisecondes
+     par category / name / account
+     */
+    private final Map<JobKey, LatencyHistogram> waitTimes;
+    private final Map<JobKey, LatencyHistogram> runTimes;
+
     public JobMetricsListener() {
-        this.count = new HashMap<>();
-        this.categoryMaxWaitTime = new HashMap<>();
+        this.count = new ConcurrentHashMap<>();
+        this.categoryMaxWaitTime = new ConcurrentHashMap<>();
+        this.waitTimes = new ConcurrentHashMap<>();
+        this.runTimes = new ConcurrentHashMap<>();
     }
 
     @Override
     public void jobCreated(Entity<JobValue> entity) {
-        String category = entity.value().category();
-        String account = entity.value().opt().accounting().accountId().orElse("undefined");
-        count.putIfAbsent(category, new HashMap<>());
-        count.get(category).putIfAbsent(account, new ResettingCounter());
-        count.get(category).get(account).inc();
+        String category = String.valueOf(entity.value().category());
+        String account = this.account(entity.value());
+        count.computeIfAbsent(category, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(account, a -> new LongAdder())
+                .increment();
     }
 
     @Override
     public void jobUpdated(Entity<JobValue> newValue, JobValue oldValue) {
-        if (oldValue.opt().status().run().orElse(Status.Run.DONE) == Status.Run.PENDING && newValue.value().status().run() == Status.Run.RUNNING) {
-            String category = newValue.value().category();
-            String name = newValue.value().name();
-            long submitted = newValue.value().processing().submitted().toEpochSecond(ZoneOffset.UTC);
-            long started = newValue.value().processing().started().toEpochSecond(ZoneOffset.UTC);
-            long waitTimeSec = started - submitted;
-            newWaitTime(category, name, waitTimeSec);
-        } else if (oldValue.opt().status().run().orElse(Status.Run.DONE) == Status.Run.RUNNING && newValue.value().status().run() == Status.Run.DONE) {
-            /*
-            String category = newValue.value().category();
-            String name = newValue.value().name();
-            long started = newValue.value().processing().started().toEpochSecond(ZoneOffset.UTC);
-            long finished = newValue.value().processing().finished().toEpochSecond(ZoneOffset.UTC);
-            long runTimeSec = finished - started;
-            newRunTime(category, name, runTimeSec);
-             */
+        Status.Run from = oldValue.opt().status().run().orElse(Status.Run.DONE);
+        Status.Run to = newValue.value().opt().status().run().orElse(null);
+        if (from == Status.Run.PENDING && to == Status.Run.RUNNING) {
+            Long waitTime = this.millisBetween(
+                    newValue.value().opt().processing().submitted().orElse(null),
+                    newValue.value().opt().processing().started().orElse(null));
+            if (waitTime != null) {
+                newWaitTime(this.key(newValue.value()), waitTime);
+            }
+        } else if (from == Status.Run.RUNNING && to == Status.Run.DONE) {
+            Long runTime = this.millisBetween(
+                    newValue.value().opt().processing().started().orElse(null),
+                    newValue.value().opt().processing().finished().orElse(null));
+            if (runTime != null) {
+                newRunTime(this.key(newValue.value()), runTime);
+            }
+        }
+    }
+
+    private void newRunTime(JobKey key, long runTimeMillis) {
+        runTimes.computeIfAbsent(key, k -> new LatencyHistogram()).record(runTimeMillis);
+    }
+
+    private void newWaitTime(JobKey key, long waitTimeMillis) {
+        categoryMaxWaitTime.computeIfAbsent(key.category, c -> new MaxTimeCounter()).newTime(waitTimeMillis / 1000);
+        waitTimes.computeIfAbsent(key, k -> new LatencyHistogram()).record(waitTimeMillis);
+    }
+
+    private Long millisBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return null;
         }
+        return Math.max(0L, Duration.between(from, to).toMillis());
     }
 
-    private void newRunTime(String category, String name, long runTimeSec) {
+    private JobKey key(JobValue job) {
+        return new JobKey(String.valueOf(job.category()), job.name(), this.account(job));
     }
 
-    private void newWaitTime(String category, String name, long waitTimeSec) {
-        categoryMaxWaitTime.putIfAbsent(category, new MaxTimeCounter());
-        categoryMaxWaitTime.get(category).newTime(waitTimeSec);
+    private String account(JobValue job) {
+        return job.opt().accounting().accountId().orElse("undefined");
     }
 
     @Override
     public ObjectValue get() {
         ObjectValue.Builder builder = ObjectValue.builder();
 
-        for (Map.Entry<String, Map<String, Counter>> entry : count.entrySet()) {
+        for (Map.Entry<String, Map<String, LongAdder>> entry : count.entrySet()) {
             String category = entry.getKey();
-            Map<String, Counter> byJobName = entry.getValue();
+            Map<String, LongAdder> byAccount = entry.getValue();
             long totalAccount = 0;
-            for (Map.Entry<String, Counter> categoryEntry : byJobName.entrySet()) {
+            for (Map.Entry<String, LongAdder> categoryEntry : byAccount.entrySet()) {
                 String account = categoryEntry.getKey();
-                long accountCount = categoryEntry.getValue().getCount();
+                long accountCount = categoryEntry.getValue().sumThenReset();
                 totalAccount += accountCount;
                 builder.property(String.format("total/account/count#category=%s,account=%s#", category, account), val -> val.longValue(accountCount));
             }
@@ -103,4 +130,56 @@ public class JobMetricsListener implements PoomjobsJobRepositoryListener, Suppli
         return builder.build();
     }
 
+    /**
+     * Wait and run time percentiles in milliseconds per category, name and account, recorded since last call.
+     */
+    public ObjectValue latencies() {
+        ObjectValue.Builder builder = ObjectValue.builder();
+        this.appendLatencies(builder, "wait", this.waitTimes);
+        this.appendLatencies(builder, "run", this.runTimes);
+        return builder.build();
+    }
+
+    private void appendLatencies(ObjectValue.Builder builder, String metric, Map<JobKey, LatencyHistogram> histograms) {
+        for (Map.Entry<JobKey, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshotAndReset();
+            if (snapshot.count() == 0L) continue;
+
+            String tags = String.format("#category=%s,name=%s,account=%s#", entry.getKey().category, entry.getKey().name, entry.getKey().account);
+            builder.property(metric + "/time/count" + tags, val -> val.longValue(snapshot.count()));
+            builder.property(metric + "/time/p50" + tags, val -> val.longValue(snapshot.p50()));
+            builder.property(metric + "/time/p95" + tags, val -> val.longValue(snapshot.p95()));
+            builder.property(metric + "/time/p99" + tags, val -> val.longValue(snapshot.p99()));
+            builder.property(metric + "/time/max" + tags, val -> val.longValue(snapshot.max()));
+        }
+    }
+
+    static private final class JobKey {
+        private final String category;
+        private final String name;
+        private final String account;
+        private final int hash;
+
+        JobKey(String category, String name, String account) {
+            this.category = category;
+            this.name = name;
+            this.account = account;
+            this.hash = Objects.hash(category, name, account);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            JobKey jobKey = (JobKey) o;
+            return Objects.equals(category, jobKey.category) &&
+                    Objects.equals(name, jobKey.name) &&
+                    Objects.equals(account, jobKey.account);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,206 @@
+package org.codingmatters.poom.runner.manager;
+
+import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.types.Runner;
+import org.codingmatters.poomjobs.service.PoomjobsRunnerRepositoryListener;
+import org.codingmatters.poomjobs.service.RunnerEntityTransformation;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In process index of the IDLE runners by (category, name) competency, kept up to date from runner registry events.
+ *
+ * Candidates for a job are handed by decreasing free slot count as last reported by the runners, round-robin order
+ * breaking ties. Runners whose ttl expired since their last ping are skipped. Runners not reporting their free slots
+ * are considered single slot.
+ */
+public class RunnerIndex implements PoomjobsRunnerRepositoryListener {
+
+    private final Map<String, IndexedRunner> runners = new HashMap<>();
+    private final Map<Key, Candidates> candidates = new ConcurrentHashMap<>();
+
+    @Override
+    public void runnerCreated(Entity<RunnerValue> entity) {
+        this.index(entity);
+    }
+
+    @Override
+    public void runnerUpdated(Entity<RunnerValue> entity) {
+        this.index(entity);
+    }
+
+    /**
+     * @return the IDLE, non expired runners with the exact category and name competencies, the ones with the most free
+     * slots first
+     */
+    public List<Runner> candidates(String category, String name) {
+        Candidates found = this.candidates.get(new Key(category, name));
+        if(found == null) {
+            return Collections.emptyList();
+        }
+        IndexedRunner[] all = found.runners;
+        if(all.length == 0) {
+            return Collections.emptyList();
+        }
+
+        LocalDateTime now = UTC.now();
+        int start = Math.floorMod(found.cursor.getAndIncrement(), all.length);
+        List<IndexedRunner> result = new ArrayList<>(all.length);
+        for (int i = 0; i < all.length; i++) {
+            IndexedRunner runner = all[(start + i) % all.length];
+            if(! runner.expired(now) && runner.freeSlots() > 0) {
+                result.add(runner);
+            }
+        }
+        result.sort(Comparator.comparingLong(IndexedRunner::freeSlots).reversed());
+        return result.stream().map(runner -> runner.runner).collect(Collectors.toList());
+    }
+
+    /**
+     * Accounts for a job accepted by the runner until it reports its status again. A runner with no slot left is
+     * removed from the candidates.
+     */
+    public synchronized void jobDelegated(String runnerId) {
+        IndexedRunner runner = this.runners.get(runnerId);
+        if(runner != null && runner.freeSlots != null && runner.freeSlots.decrementAndGet() <= 0) {
+            this.evict(runnerId);
+        }
+    }
+
+    /**
+     * Removes a runner until its next registry update, for instance when it refused a job for being busy.
+     */
+    public synchronized void evict(String runnerId) {
+        IndexedRunner previous = this.runners.remove(runnerId);
+        if(previous != null) {
+            this.unindex(previous);
+        }
+    }
+
+    public int size() {
+        synchronized (this) {
+            return this.runners.size();
+        }
+    }
+
+    private synchronized void index(Entity<RunnerValue> entity) {
+        IndexedRunner previous = this.runners.remove(entity.id());
+        if(previous != null) {
+            this.unindex(previous);
+        }
+
+        RunnerValue value = entity.value();
+        if(! Runtime.Status.IDLE.equals(value.opt().runtime().status().orElse(null))) {
+            return;
+        }
+        IndexedRunner runner = new IndexedRunner(entity);
+        this.runners.put(entity.id(), runner);
+        for (Key key : runner.keys) {
+            this.candidates.compute(key, (k, current) -> current == null ?
+                    new Candidates(new IndexedRunner[] {runner}) :
+                    current.with(runner));
+        }
+    }
+
+    private void unindex(IndexedRunner runner) {
+        for (Key key : runner.keys) {
+            this.candidates.computeIfPresent(key, (k, current) -> current.without(runner.id));
+        }
+    }
+
+    static private class Key {
+        private final String category;
+        private final String name;
+
+        Key(String category, String name) {
+            this.category = category;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(category, key.category) && Objects.equals(name, key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, name);
+        }
+    }
+
+    static private class IndexedRunner {
+        private final String id;
+        private final Runner runner;
+        private final List<Key> keys = new LinkedList<>();
+        private final LocalDateTime expiresAt;
+        private final AtomicLong freeSlots;
+
+        IndexedRunner(Entity<RunnerValue> entity) {
+            this.id = entity.id();
+            this.runner = RunnerEntityTransformation.transform(entity).asRunner();
+
+            RunnerValue value = entity.value();
+            if(value.competencies() != null && value.competencies().categories() != null && value.competencies().names() != null) {
+                for (String category : value.competencies().categories()) {
+                    for (String name : value.competencies().names()) {
+                        this.keys.add(new Key(category, name));
+                    }
+                }
+            }
+
+            LocalDateTime lastPing = value.opt().runtime().lastPing().orElse(null);
+            Long ttl = value.timeToLive();
+            this.expiresAt = lastPing != null && ttl != null ? lastPing.plusNanos(ttl * 1_000_000L) : null;
+
+            Long reported = value.opt().runtime().freeSlots().orElse(null);
+            this.freeSlots = reported != null ? new AtomicLong(reported) : null;
+        }
+
+        long freeSlots() {
+            return this.freeSlots != null ? this.freeSlots.get() : 1L;
+        }
+
+        boolean expired(LocalDateTime now) {
+            return this.expiresAt != null && this.expiresAt.isBefore(now);
+        }
+    }
+
+    /**
+     * Immutable candidate array, replaced on runner changes so that lookups need no lock.
+     */
+    static private class Candidates {
+        private final IndexedRunner[] runners;
+        private final AtomicInteger cursor;
+
+        Candidates(IndexedRunner[] runners) {
+            this(runners, new AtomicInteger(0));
+        }
+
+        private Candidates(IndexedRunner[] runners, AtomicInteger cursor) {
+            this.runners = runners;
+            this.cursor = cursor;
+        }
+
+        Candidates with(IndexedRunner runner) {
+            IndexedRunner[] result = Arrays.copyOf(this.runners, this.runners.length + 1);
+            result[this.runners.length] = runner;
+            return new Candidates(result, this.cursor);
+        }
+
+        Candidates without(String id) {
+            IndexedRunner[] result = Arrays.stream(this.runners).filter(runner -> ! runner.id.equals(id)).toArray(IndexedRunner[]::new);
+            return result.length == 0 ? null : new Candidates(result, this.cursor);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.codingmatters.poom.runner.manager;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
 import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
 import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poomjobs.api.*;
 import org.codingmatters.poomjobs.api.types.Job;
@@ -18,6 +20,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 public class RunnerInvokerListener implements PoomjobsJobRepositoryListener, JobTerminationRunnerInvoker {
@@ -26,23 +30,46 @@ public class RunnerInvokerListener implements PoomjobsJobRepositoryListener, Job
 
     private final PoomjobsRunnerRegistryAPIClient runnerRegistry;
     private final RunnerClientFactory runnerClientFactory;
-    private final ExecutorService listenerPool;
+    private final JobDispatchQueue dispatchQueue;
+    private final RunnerIndex runnerIndex;
 
     public RunnerInvokerListener(PoomjobsRunnerRegistryAPIClient runnerRegistry, RunnerClientFactory runnerClientFactory, ExecutorService listenerPool) {
+        this(runnerRegistry, runnerClientFactory, listenerPool, null);
+    }
+
+    public RunnerInvokerListener(PoomjobsRunnerRegistryAPIClient runnerRegistry, RunnerClientFactory runnerClientFactory, ExecutorService listenerPool, RunnerIndex runnerIndex) {
         this.runnerRegistry = runnerRegistry;
         this.runnerClientFactory = runnerClientFactory;
-        this.listenerPool = listenerPool;
+        this.dispatchQueue = JobDispatchQueue.fromEnv(listenerPool, this::findRunnerAndDeleguateJob);
+        this.runnerIndex = runnerIndex;
+    }
+
+    public JobDispatchQueue dispatchQueue() {
+        return dispatchQueue;
     }
 
     @Override
     public void jobCreated(Entity<JobValue> entity) {
-        this.listenerPool.submit(() -> this.findRunnerAndDeleguateJob(entity));
+        if (Status.Run.PENDING.equals(entity.value().opt().status().run().orElse(Status.Run.PENDING))) {
+            this.dispatchQueue.offer(entity);
+        }
+    }
+
+    @Override
+    public void jobsCreated(List<Entity<JobValue>> entities) {
+        List<Entity<JobValue>> pending = new ArrayList<>(entities.size());
+        for (Entity<JobValue> entity : entities) {
+            if (Status.Run.PENDING.equals(entity.value().opt().status().run().orElse(Status.Run.PENDING))) {
+                pending.add(entity);
+            }
+        }
+        this.dispatchQueue.offerAll(pending);
     }
 
     @Override
     public void jobUpdated(Entity<JobValue> entity, JobValue value) {
         if (Status.Run.PENDING.equals(entity.value().opt().status().run().orElse(Status.Run.DONE))) {
-            this.listenerPool.submit(() -> this.findRunnerAndDeleguateJob(entity));
+            this.dispatchQueue.offer(entity);
         }
     }
 
@@ -113,6 +140,16 @@ public class RunnerInvokerListener implements PoomjobsJobRepositoryListener, Job
     }
 
     private void findRunnerAndDeleguateJob(Entity<JobValue> entity) {
+        try (Span span = JobTracing.span(JobTracing.traceId(entity.value().context()), "job.dispatch")) {
+            span.attribute("job", entity.id()).attribute("category", entity.value().category()).attribute("name", entity.value().name());
+            this.deleguateJob(entity);
+        }
+    }
+
+    private void deleguateJob(Entity<JobValue> entity) {
+        if (this.runnerIndex != null && this.deleguateToIndexedRunner(entity)) {
+            return;
+        }
         try {
             int start = 0;
             int step = 10;
@@ -172,6 +209,47 @@ public class RunnerInvokerListener implements PoomjobsJobRepositoryListener, Job
         }
     }
 
+    /**
+     * @return false when the index knows no runner for the job, the runner registry is then looked up. When indexed
+     * runners all refuse the job, it stays pending until a runner polls for it.
+     */
+    private boolean deleguateToIndexedRunner(Entity<JobValue> entity) {
+        List<Runner> candidates = this.runnerIndex.candidates(entity.value().category(), entity.value().name());
+        if (candidates.isEmpty()) {
+            log.debug("no indexed runner for job {} - {} [{}], looking up runner registry", entity.value().category(), entity.value().name(), entity.id());
+            return false;
+        }
+        for (Runner candidate : candidates) {
+            log.debug("trying indexed candidate: {}", candidate);
+            try {
+                RunningJobPutResponse resp = this.runnerClient(candidate).runningJob().put(req -> req
+                        .jobId(entity.id())
+                        .payload(this.createJobRequest(entity)));
+                if (resp.opt().status201().isPresent()) {
+                    this.runnerIndex.jobDelegated(candidate.id());
+                    log.info("delegated job {}/{} to indexed runner {} at {}",
+                            entity.value().category(),
+                            entity.value().name(),
+                            candidate.id(),
+                            candidate.callback());
+                    return true;
+                } else {
+                    log.info("indexed runner refused the job ; runner {} job {}/{} with response: {}",
+                            candidate.id(),
+                            entity.value().category(),
+                            entity.value().name(),
+                            resp);
+                    this.runnerIndex.evict(candidate.id());
+                }
+            } catch (IOException e) {
+                this.runnerIndex.evict(candidate.id());
+                this.disconnectRunner(candidate, e);
+            }
+        }
+        log.info("no indexed runner accepted job {} - {} [{}], left pending", entity.value().category(), entity.value().name(), entity.id());
+        return true;
+    }
+
     private void disconnectRunner(Runner candidate, IOException e) {
         log.info(
                 String.format("runner with id %s at %s seem to be down, setting as disconnected",
@@ -0,0 +1,125 @@
+package org.codingmatters.poom.runner.manager.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with log-linear buckets : values under 64 are counted exactly, larger values in one of 32
+ * buckets per power of two, that is with a relative error under 1/32. Values are capped to 2^40.
+ *
+ * Recording is a single atomic increment. Snapshots read and reset the buckets, samples recorded while a snapshot is
+ * taken being either in that snapshot or in the next one.
+ */
+public class LatencyHistogram {
+
+    static private final int SUB_BUCKET_BITS = 5;
+    static private final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static private final int EXACT_VALUES = 2 * SUB_BUCKETS;
+    static private final int MAX_MAGNITUDE = 40;
+    static private final int BUCKET_COUNT = EXACT_VALUES + (MAX_MAGNITUDE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long value) {
+        this.buckets.incrementAndGet(index(value));
+    }
+
+    public Snapshot snapshotAndReset() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0L;
+        int highest = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (this.buckets.get(i) != 0L) {
+                counts[i] = this.buckets.getAndSet(i, 0L);
+                total += counts[i];
+                if (counts[i] != 0L) {
+                    highest = i;
+                }
+            }
+        }
+        if (total == 0L) {
+            return Snapshot.EMPTY;
+        }
+
+        long p50Rank = rank(total, 0.50), p95Rank = rank(total, 0.95), p99Rank = rank(total, 0.99);
+        long p50 = 0L, p95 = 0L, p99 = 0L;
+        long seen = 0L;
+        for (int i = 0; i <= highest; i++) {
+            if (counts[i] == 0L) continue;
+            long before = seen;
+            seen += counts[i];
+            long value = highestEquivalentValue(i);
+            if (before < p50Rank && seen >= p50Rank) p50 = value;
+            if (before < p95Rank && seen >= p95Rank) p95 = value;
+            if (before < p99Rank && seen >= p99Rank) p99 = value;
+        }
+        return new Snapshot(total, p50, p95, p99, highestEquivalentValue(highest));
+    }
+
+    static private long rank(long total, double percentile) {
+        return Math.max(1L, (long) Math.ceil(total * percentile));
+    }
+
+    static int index(long value) {
+        if (value < 0L) {
+            value = 0L;
+        }
+        if (value < EXACT_VALUES) {
+            return (int) value;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE);
+        if (magnitude == MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >> shift) - SUB_BUCKETS;
+        return EXACT_VALUES + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < EXACT_VALUES) {
+            return index;
+        }
+        int magnitude = (index - EXACT_VALUES) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - EXACT_VALUES) % SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    static public class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0L, 0L, 0L, 0L, 0L);
+
+        private final long count;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+        private final long max;
+
+        Snapshot(long count, long p50, long p95, long p99, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long p50() {
+            return p50;
+        }
+
+        public long p95() {
+            return p95;
+        }
+
+        public long p99() {
+            return p99;
+        }
+
+        public long max() {
+            return max;
+        }
+    }
+}
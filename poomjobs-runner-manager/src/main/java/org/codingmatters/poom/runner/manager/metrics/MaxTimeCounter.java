@@ -18,6 +18,6 @@ public class MaxTimeCounter implements Gauge<Long> {
     }
 
     public void newTime(long waitTimeSec) {
-        waitTimeSeconds.set(Math.max(waitTimeSec, waitTimeSeconds.get()));
+        waitTimeSeconds.accumulateAndGet(waitTimeSec, Math::max);
     }
 }
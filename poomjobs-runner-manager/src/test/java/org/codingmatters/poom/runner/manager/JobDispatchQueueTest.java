@@ -0,0 +1,140 @@
+package org.codingmatters.poom.runner.manager;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.tests.Eventually;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JobDispatchQueueTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final CountDownLatch dispatcherBlocked = new CountDownLatch(1);
+    private final List<Entity<JobValue>> dispatched = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        this.dispatcherBlocked.countDown();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void givenJobsOffered__thenJobsAreDispatchedInOrder() throws Exception {
+        JobDispatchQueue queue = new JobDispatchQueue(this.executor, this.dispatched::add, 1, 10);
+
+        queue.offer(this.job("1", "v1"));
+        queue.offer(this.job("2", "v1"));
+        queue.offer(this.job("3", "v1"));
+
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(3));
+        assertThat(this.dispatched.stream().map(Entity::id).collect(Collectors.toList()), contains("1", "2", "3"));
+    }
+
+    @Test
+    public void givenJobWaitingInQueue__whenSameJobOffered__thenOnlyLatestValueIsDispatched() throws Exception {
+        JobDispatchQueue queue = new JobDispatchQueue(this.executor, this.blockingDispatcher(), 1, 10);
+        queue.offer(this.job("blocker", "v1"));
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(1));
+
+        assertThat(queue.offer(this.job("1", "v1")), is(true));
+        assertThat(queue.offer(this.job("1", "v2")), is(true));
+        assertThat(queue.offer(this.job("1", "v3")), is(true));
+        assertThat(queue.depth(), is(1));
+
+        this.dispatcherBlocked.countDown();
+
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(2));
+        assertThat(this.dispatched.get(1).value().name(), is("v3"));
+        assertThat(queue.get().property("dispatch/coalesced/count").single().longValue(), is(2L));
+    }
+
+    @Test
+    public void givenQueueFull__whenJobOffered__thenJobIsDropped() throws Exception {
+        JobDispatchQueue queue = new JobDispatchQueue(this.executor, this.blockingDispatcher(), 1, 2);
+        queue.offer(this.job("blocker", "v1"));
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(1));
+
+        assertThat(queue.offer(this.job("1", "v1")), is(true));
+        assertThat(queue.offer(this.job("2", "v1")), is(true));
+        assertThat(queue.offer(this.job("3", "v1")), is(false));
+
+        ObjectValue metrics = queue.get();
+        assertThat(metrics.property("dispatch/queue/depth").single().longValue(), is(2L));
+        assertThat(metrics.property("dispatch/dropped/count").single().longValue(), is(1L));
+
+        this.dispatcherBlocked.countDown();
+
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(3));
+        assertThat(this.dispatched.stream().map(Entity::id).collect(Collectors.toList()), contains("blocker", "1", "2"));
+    }
+
+    @Test
+    public void givenJobsWaitingInQueue__thenHighestPriorityJobsAreDispatchedFirst() throws Exception {
+        JobDispatchQueue queue = new JobDispatchQueue(this.executor, this.blockingDispatcher(), 1, 10);
+        queue.offer(this.job("blocker", "v1"));
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(1));
+
+        queue.offer(this.job("none", "v1"));
+        queue.offer(this.job("low", "v1", 1L));
+        queue.offer(this.job("high", "v1", 5L));
+        queue.offer(this.job("other-low", "v1", 1L));
+
+        this.dispatcherBlocked.countDown();
+
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(5));
+        assertThat(this.dispatched.stream().map(Entity::id).collect(Collectors.toList()), contains("blocker", "high", "low", "other-low", "none"));
+    }
+
+    @Test
+    public void givenJobsOfferedAsBatch__thenAllJobsAreDispatched_andOverflowIsDropped() throws Exception {
+        JobDispatchQueue queue = new JobDispatchQueue(this.executor, this.blockingDispatcher(), 1, 3);
+        queue.offer(this.job("blocker", "v1"));
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(1));
+
+        int dropped = queue.offerAll(Arrays.asList(this.job("1", "v1"), this.job("2", "v1"), this.job("3", "v1"), this.job("4", "v1")));
+
+        assertThat(dropped, is(1));
+        assertThat(queue.depth(), is(3));
+
+        this.dispatcherBlocked.countDown();
+
+        Eventually.defaults().assertThat(() -> this.dispatched.size(), is(4));
+        assertThat(this.dispatched.stream().map(Entity::id).collect(Collectors.toList()), contains("blocker", "1", "2", "3"));
+    }
+
+    private Consumer<Entity<JobValue>> blockingDispatcher() {
+        return entity -> {
+            this.dispatched.add(entity);
+            try {
+                this.dispatcherBlocked.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private Entity<JobValue> job(String id, String name) {
+        return this.job(id, name, null);
+    }
+
+    private Entity<JobValue> job(String id, String name, Long priority) {
+        return new ImmutableEntity<>(id, BigInteger.ONE, JobValue.builder().category("TEST").name(name).priority(priority).build());
+    }
+}
@@ -0,0 +1,129 @@
+package org.codingmatters.poom.runner.manager;
+
+import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.api.types.Runner;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RunnerIndexTest {
+
+    private final RunnerIndex index = new RunnerIndex();
+
+    @Test
+    public void givenIdleRunner__whenLookingUpCandidates__thenRunnerFoundForExactCompetenciesOnly() throws Exception {
+        this.index.runnerCreated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r1"));
+        assertThat(this.index.candidates("CAT", "OTHER"), is(empty()));
+        assertThat(this.index.candidates("OTHER", "NAME"), is(empty()));
+    }
+
+    @Test
+    public void givenIdleRunner__whenRunnerUpdatedToRunningOrDisconnected__thenRunnerIsNotACandidateAnymore() throws Exception {
+        this.index.runnerCreated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+        this.index.runnerCreated(this.runner("r2", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        this.index.runnerUpdated(this.runner("r1", Runtime.Status.RUNNING, UTC.now(), "CAT", "NAME"));
+        this.index.runnerUpdated(this.runner("r2", Runtime.Status.DISCONNECTED, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.index.candidates("CAT", "NAME"), is(empty()));
+        assertThat(this.index.size(), is(0));
+
+        this.index.runnerUpdated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r1"));
+    }
+
+    @Test
+    public void givenManyIdleRunners__whenLookingUpCandidatesRepeatedly__thenRunnersAreHandedInRoundRobinOrder() throws Exception {
+        this.index.runnerCreated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+        this.index.runnerCreated(this.runner("r2", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+        this.index.runnerCreated(this.runner("r3", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r1", "r2", "r3"));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r2", "r3", "r1"));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r3", "r1", "r2"));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r1", "r2", "r3"));
+    }
+
+    @Test
+    public void givenRunnerTtlExpired__whenLookingUpCandidates__thenRunnerIsSkipped() throws Exception {
+        this.index.runnerCreated(this.runner("expired", Runtime.Status.IDLE, UTC.now().minusMinutes(5), "CAT", "NAME"));
+        this.index.runnerCreated(this.runner("alive", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("alive"));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("alive"));
+    }
+
+    @Test
+    public void givenRunnerEvicted__whenLookingUpCandidates__thenRunnerIsSkippedUntilNextUpdate() throws Exception {
+        this.index.runnerCreated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+        this.index.runnerCreated(this.runner("r2", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        this.index.evict("r1");
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r2"));
+
+        this.index.runnerUpdated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+        assertThat(this.index.size(), is(2));
+    }
+
+    @Test
+    public void givenRunnersReportingFreeSlots__whenLookingUpCandidates__thenRunnersWithMostFreeSlotsComeFirst() throws Exception {
+        this.index.runnerCreated(this.runner("small", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME", 2L));
+        this.index.runnerCreated(this.runner("big", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME", 16L));
+        this.index.runnerCreated(this.runner("unknown", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME"));
+
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("big", "small", "unknown"));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("big", "small", "unknown"));
+    }
+
+    @Test
+    public void givenRunnerReportingFreeSlots__whenJobsDelegated__thenFreeSlotsAreAccountedUntilNextUpdate() throws Exception {
+        this.index.runnerCreated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME", 3L));
+        this.index.runnerCreated(this.runner("r2", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME", 2L));
+
+        this.index.jobDelegated("r1");
+        this.index.jobDelegated("r1");
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r2", "r1"));
+
+        this.index.jobDelegated("r1");
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")), contains("r2"));
+
+        this.index.runnerUpdated(this.runner("r1", Runtime.Status.IDLE, UTC.now(), "CAT", "NAME", 3L));
+        assertThat(this.ids(this.index.candidates("CAT", "NAME")).get(0), is("r1"));
+    }
+
+    private ImmutableEntity<RunnerValue> runner(String id, Runtime.Status status, LocalDateTime lastPing, String category, String name) {
+        return this.runner(id, status, lastPing, category, name, null);
+    }
+
+    private ImmutableEntity<RunnerValue> runner(String id, Runtime.Status status, LocalDateTime lastPing, String category, String name, Long freeSlots) {
+        return new ImmutableEntity<>(id, BigInteger.ONE, RunnerValue.builder()
+                .callback("http://" + id)
+                .competencies(competencies -> competencies.categories(category).names(name))
+                .timeToLive(20000L)
+                .runtime(runtime -> runtime
+                        .status(status)
+                        .created(lastPing)
+                        .lastPing(lastPing)
+                        .freeSlots(freeSlots)
+                )
+                .build());
+    }
+
+    private List<String> ids(List<Runner> runners) {
+        return runners.stream().map(Runner::id).collect(Collectors.toList());
+    }
+}
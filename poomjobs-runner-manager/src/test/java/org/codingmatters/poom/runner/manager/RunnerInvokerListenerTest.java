@@ -15,6 +15,7 @@ import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime
 import org.codingmatters.poom.runner.manager.harness.TestRunnerClientFactory;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
 import org.codingmatters.poomjobs.api.PoomjobsRunnerAPIHandlers;
 import org.codingmatters.poomjobs.api.RunningJobPutRequest;
 import org.codingmatters.poomjobs.api.RunningJobPutResponse;
@@ -29,6 +30,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -235,4 +237,43 @@ public class RunnerInvokerListenerTest {
 
         Eventually.defaults().assertThat(() -> this.runnerRepository.retrieve(runnerId).value().runtime().status(), is(Runtime.Status.DISCONNECTED));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenRunnerIndexed__whenJobCreatedForRunnerCompetencies__thenIndexedRunnerGetsDelegatedTheJobWithoutRegistryLookup() throws Exception {
+        RunnerIndex runnerIndex = new RunnerIndex();
+        this.runnerInvokerListener = new RunnerInvokerListener(
+                this.runnerRegistry,
+                testRunnerClientFactory,
+                this.listenerPool,
+                runnerIndex
+        );
+        runnerIndex.runnerCreated(new ImmutableEntity<>("indexed-runner", BigInteger.ONE, RunnerValue.builder()
+                .callback(this.undertow.baseUrl())
+                .competencies(competencies -> competencies.categories("TEST").names("TEST"))
+                .timeToLive(20000L)
+                .runtime(runtime -> runtime
+                        .status(Runtime.Status.IDLE)
+                        .created(LocalDateTime.now())
+                        .lastPing(LocalDateTime.now())
+                )
+                .build()));
+
+        AtomicReference<Job> runnerRequestJob = new AtomicReference<>();
+
+        this.runnerPutResponder = request -> {
+            Job job = request.payload();
+            runnerRequestJob.set(job);
+            return RunningJobPutResponse.builder()
+                    .status201(status -> status.location("http://fake.job.repo/jobs/" + job.id())).build();
+        };
+
+        Entity<JobValue> jobEntity = this.jobRepository.create(JobValue.builder()
+                .category("TEST")
+                .name("TEST")
+                .build());
+        this.runnerInvokerListener.jobCreated(jobEntity);
+
+        Eventually.defaults().assertThat(() -> runnerRequestJob.get().id(), is(jobEntity.id()));
+        assertThat(this.runnerRepository.all(0, 0).total(), is(0L));
+    }
+}
@@ -13,6 +13,9 @@ import org.junit.Test;
 
 import java.math.BigInteger;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -82,6 +85,82 @@ public class JobMetricsListenerTest {
                 .build()));
     }
 
+    @Test
+    public void givenJobsWaitingAndRunning__whenGettingLatencies__thenPercentilesInMillisPerCategoryNameAndAccount() {
+        LocalDateTime date = UTC.now();
+
+        jobUpdated("c1", "j1", date, date.plusNanos(12_000_000));
+        jobUpdated("c1", "j1", date, date.plusNanos(40_000_000));
+        jobDone("c1", "j1", date, date.plusNanos(7_000_000));
+
+        assertThat(listener.latencies(), is(ObjectValue.builder()
+                .property("wait/time/count#category=c1,name=j1,account=undefined#", v -> v.longValue(2L))
+                .property("wait/time/p50#category=c1,name=j1,account=undefined#", v -> v.longValue(12L))
+                .property("wait/time/p95#category=c1,name=j1,account=undefined#", v -> v.longValue(40L))
+                .property("wait/time/p99#category=c1,name=j1,account=undefined#", v -> v.longValue(40L))
+                .property("wait/time/max#category=c1,name=j1,account=undefined#", v -> v.longValue(40L))
+                .property("run/time/count#category=c1,name=j1,account=undefined#", v -> v.longValue(1L))
+                .property("run/time/p50#category=c1,name=j1,account=undefined#", v -> v.longValue(7L))
+                .property("run/time/p95#category=c1,name=j1,account=undefined#", v -> v.longValue(7L))
+                .property("run/time/p99#category=c1,name=j1,account=undefined#", v -> v.longValue(7L))
+                .property("run/time/max#category=c1,name=j1,account=undefined#", v -> v.longValue(7L))
+                .build()));
+
+        assertThat(listener.latencies(), is(ObjectValue.builder().build()));
+    }
+
+    @Test
+    public void givenConcurrentCreations__whenGettingMetrics__thenNoCreationLost() throws Exception {
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        jobCreated("a" + (i % 3), "c1", "j1");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : done) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(listener.get().property("total/count#category=c1#").single().longValue(), is((long) threads * perThread));
+    }
+
+    private void jobDone(String category, String name, LocalDateTime startedAt, LocalDateTime finishedAt) {
+        listener.jobUpdated(new ImmutableEntity<>("id", BigInteger.ONE, JobValue.builder()
+                        .category(category)
+                        .name(name)
+                        .status(Status.builder()
+                                .run(Status.Run.DONE)
+                                .build())
+                        .processing(Processing.builder()
+                                .started(startedAt)
+                                .finished(finishedAt)
+                                .build())
+                        .build()),
+                JobValue.builder()
+                        .category(category)
+                        .name(name)
+                        .status(Status.builder()
+                                .run(Status.Run.RUNNING)
+                                .build())
+                        .processing(Processing.builder()
+                                .started(startedAt)
+                                .build())
+                        .build());
+    }
+
     private void jobUpdated(String category, String name, LocalDateTime submittedAt, LocalDateTime startedAt) {
         listener.jobUpdated(new ImmutableEntity<>("id", BigInteger.ONE, JobValue.builder()
                         .category(category)
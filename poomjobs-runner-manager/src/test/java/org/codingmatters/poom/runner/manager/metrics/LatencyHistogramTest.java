@@ -0,0 +1,77 @@
+package org.codingmatters.poom.runner.manager.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void givenNoRecord__whenSnapshot__thenEmpty() throws Exception {
+        LatencyHistogram.Snapshot snapshot = this.histogram.snapshotAndReset();
+
+        assertThat(snapshot.count(), is(0L));
+        assertThat(snapshot.max(), is(0L));
+    }
+
+    @Test
+    public void givenSmallValues__whenSnapshot__thenPercentilesAreExact() throws Exception {
+        for (long i = 1; i <= 50; i++) {
+            this.histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = this.histogram.snapshotAndReset();
+
+        assertThat(snapshot.count(), is(50L));
+        assertThat(snapshot.p50(), is(25L));
+        assertThat(snapshot.p95(), is(48L));
+        assertThat(snapshot.p99(), is(50L));
+        assertThat(snapshot.max(), is(50L));
+    }
+
+    @Test
+    public void givenLargeValues__whenSnapshot__thenPercentilesWithinBucketPrecision() throws Exception {
+        for (long i = 1; i <= 10000; i++) {
+            this.histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = this.histogram.snapshotAndReset();
+
+        assertThat(snapshot.count(), is(10000L));
+        assertThat(snapshot.p50(), is(both(greaterThanOrEqualTo(5000L)).and(lessThan(5000L + 5000L / 32))));
+        assertThat(snapshot.p95(), is(both(greaterThanOrEqualTo(9500L)).and(lessThan(9500L + 9500L / 32))));
+        assertThat(snapshot.p99(), is(both(greaterThanOrEqualTo(9900L)).and(lessThan(9900L + 9900L / 32))));
+        assertThat(snapshot.max(), is(both(greaterThanOrEqualTo(10000L)).and(lessThan(10000L + 10000L / 32))));
+    }
+
+    @Test
+    public void givenSnapshotTaken__whenSnapshotAgain__thenReset() throws Exception {
+        this.histogram.record(12L);
+        this.histogram.snapshotAndReset();
+
+        assertThat(this.histogram.snapshotAndReset().count(), is(0L));
+    }
+
+    @Test
+    public void givenOutOfRangeValues__whenRecording__thenClamped() throws Exception {
+        this.histogram.record(-5L);
+        this.histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = this.histogram.snapshotAndReset();
+
+        assertThat(snapshot.count(), is(2L));
+        assertThat(snapshot.p50(), is(0L));
+        assertThat(snapshot.max(), is(greaterThanOrEqualTo(1L << 40)));
+    }
+
+    @Test
+    public void bucketsAreContiguous() throws Exception {
+        for (int i = 1; i < LatencyHistogram.index(1L << 40); i++) {
+            assertThat("bucket " + i, LatencyHistogram.index(LatencyHistogram.highestEquivalentValue(i - 1) + 1), is(i));
+            assertThat("bucket " + i, LatencyHistogram.index(LatencyHistogram.highestEquivalentValue(i)), is(i));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.codingmatters.poom.jobs.runner.service;
+
+import org.codingmatters.poom.services.support.Env;
+
+public enum ExecutionMode {
+    /**
+     * one platform thread per concurrent job slot, parked while idle
+     */
+    PLATFORM_THREADS,
+    /**
+     * one virtual thread per job, the number of concurrent jobs being limited by a semaphore
+     */
+    VIRTUAL_THREADS;
+
+    public static final String RUNNER_EXECUTION_MODE = "RUNNER_EXECUTION_MODE";
+
+    static public ExecutionMode fromEnv() {
+        return ExecutionMode.valueOf(Env.optional(RUNNER_EXECUTION_MODE).orElse(new Env.Var(PLATFORM_THREADS.name())).asString().toUpperCase());
+    }
+}
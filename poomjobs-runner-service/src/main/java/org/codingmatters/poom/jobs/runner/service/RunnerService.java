@@ -11,10 +11,14 @@ import org.codingmatters.poom.jobs.runner.service.exception.RunnerServiceInitial
 import org.codingmatters.poom.jobs.runner.service.execution.pool.JobProcessingPoolManager;
 import org.codingmatters.poom.jobs.runner.service.jobs.termination.FailedJobTerminationHandler;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobManager;
+import org.codingmatters.poom.jobs.runner.service.jobs.JobUpdateCoalescer;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.jobs.runner.service.pool.*;
 import org.codingmatters.poom.runner.JobContextSetup;
 import org.codingmatters.poom.runner.JobProcessor;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Tracer;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.support.Env;
 import org.codingmatters.poomjobs.api.*;
@@ -24,13 +28,17 @@ import org.codingmatters.poomjobs.api.types.runnerdata.Competencies;
 import org.codingmatters.poomjobs.client.PoomjobsJobRegistryAPIClient;
 import org.codingmatters.poomjobs.client.PoomjobsRunnerRegistryAPIClient;
 import org.codingmatters.poomjobs.service.api.PoomjobsRunnerAPIProcessor;
+import org.codingmatters.poomjobs.service.metrics.MetricsProcessor;
 import org.codingmatters.rest.api.Api;
 import org.codingmatters.rest.api.Processor;
+import org.codingmatters.rest.api.processors.MatchingPathProcessor;
+import org.codingmatters.value.objects.values.ObjectValue;
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class RunnerService {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(RunnerService.class);
@@ -77,6 +85,8 @@ public class RunnerService {
 
         OptionsSetup exitOnUnrecoverableError(boolean exit);
 
+        OptionsSetup executionMode(ExecutionMode executionMode);
+
         EndpointSetup processorShutdownProperly(int processorShutdownProperly);
 
         RunnerService build();
@@ -100,6 +110,7 @@ public class RunnerService {
         private boolean exitOnUnrecoverableError = true;
         private ApiContainerRuntimeBuilder containerRuntimeBuilder;
         private Integer timeoutSeconds = Env.optional(PROCESS_SHUTDOWN_PROPERLY_TIMEOUT_IN_SECONDS).orElse(Env.Var.value("20")).asInteger();
+        private ExecutionMode executionMode = ExecutionMode.fromEnv();
 
         @Override
         public ClientsSetup jobs(String category, String[] names, JobProcessor.Factory factory) {
@@ -156,6 +167,12 @@ public class RunnerService {
             return this;
         }
 
+        @Override
+        public OptionsSetup executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode != null ? executionMode : ExecutionMode.PLATFORM_THREADS;
+            return this;
+        }
+
         @Override
         public EndpointSetup processorShutdownProperly(int processorShutdownProperly) {
             this.timeoutSeconds = processorShutdownProperly;
@@ -176,7 +193,8 @@ public class RunnerService {
                     this.containerRuntimeBuilder != null ? this.containerRuntimeBuilder : new ApiContainerRuntimeBuilder(),
                     this.jobRequestEndpointHost,
                     this.jobRequestEndpointPort,
-                    this.timeoutSeconds
+                    this.timeoutSeconds,
+                    this.executionMode
             );
         }
     }
@@ -196,14 +214,18 @@ public class RunnerService {
     private final int jobRequestEndpointPort;
     private final String jobRequestEndpointHost;
     private final FailedJobTerminationHandler failedJobTerminationHandler;
+    private final ExecutionMode executionMode;
 
     private String runnerId;
     private final String jobRequestEndpointUrl;
 
     private JobManager jobManager;
+    private final JobUpdateCoalescer jobUpdateCoalescer;
     private JobProcessingPoolManager jobProcessingPoolManager;
     private RunnerStatusManager runnerStatusManager;
 
+    private final RunnerMetrics metrics = new RunnerMetrics();
+
     private final AtomicReference<String> errorToken = new AtomicReference<>(null);
     private final Object stopMonitor = new Object();
 
@@ -221,6 +243,22 @@ public class RunnerService {
             String jobRequestEndpointHost,
             int jobRequestEndpointPort,
             Integer runnerShutdownProperlyTimeoutSeconds
+    ) {
+        this(runnerRegistryClient, jobRegistryClient, concurrentJobCount, ttl, jobCategory, jobNames, jobProcessorFactory, contextSetup, containerRuntimeBuilder, jobRequestEndpointHost, jobRequestEndpointPort, runnerShutdownProperlyTimeoutSeconds, ExecutionMode.PLATFORM_THREADS);
+    }
+
+    public RunnerService(
+            PoomjobsRunnerRegistryAPIClient runnerRegistryClient,
+            PoomjobsJobRegistryAPIClient jobRegistryClient,
+            int concurrentJobCount,
+            long ttl,
+            String jobCategory, String[] jobNames, JobProcessor.Factory jobProcessorFactory,
+            JobContextSetup contextSetup,
+            ApiContainerRuntimeBuilder containerRuntimeBuilder,
+            String jobRequestEndpointHost,
+            int jobRequestEndpointPort,
+            Integer runnerShutdownProperlyTimeoutSeconds,
+            ExecutionMode executionMode
     ) {
         this.runnerRegistryClient = runnerRegistryClient;
         this.jobRegistryClient = jobRegistryClient;
@@ -236,6 +274,8 @@ public class RunnerService {
         this.failedJobTerminationHandler = new FailedJobTerminationHandler(jobProcessorFactory);
         this.jobRequestEndpointUrl = Env.mandatory(Env.SERVICE_URL).asString();
         this.timeoutSeconds = runnerShutdownProperlyTimeoutSeconds;
+        this.executionMode = executionMode;
+        this.jobUpdateCoalescer = JobUpdateCoalescer.fromEnv(jobRegistryClient);
     }
 
     public void run() throws RunnerServiceInitializationException {
@@ -251,6 +291,9 @@ public class RunnerService {
     }
 
     public void run(RuntimeInitializer runtimeInitializer) throws RunnerServiceInitializationException {
+        if (!JobTracing.enabled()) {
+            JobTracing.install(Tracer.fromEnv("poomjobs-runner"));
+        }
         if (shouldUseExperimentalPool()) {
             log.info("using experimental pool");
             this.startExperimentalFramework(runtimeInitializer);
@@ -260,6 +303,13 @@ public class RunnerService {
         }
     }
 
+    /**
+     * @return reservation, pool wait, processing and final update times, and slot usage, also served on /metrics
+     */
+    public Supplier<ObjectValue> metrics() {
+        return this.metrics;
+    }
+
     public StatusManager statusManager() {
         if (runnerStatusManager == null) {
             return new StatusManager() {
@@ -282,13 +332,16 @@ public class RunnerService {
         this.jobRunner = new JobProcessorRunner(
                 this.jobManager,
                 this.jobProcessorFactory,
-                this.contextSetup
+                this.contextSetup,
+                this.metrics
         );
 
         this.jobPool = new JobPool(
                 this.concurrentJobCount,
                 this.jobRunner,
-                JobLocker.wrapped(this.jobManager)
+                JobLocker.wrapped(this.jobManager, this.metrics),
+                this.executionMode,
+                this.metrics
         );
         log.info("Create runner status manager");
         this.createRunnerStatusManager(jobPool, this::stop);
@@ -305,9 +358,12 @@ public class RunnerService {
             }
         });
 
+        LocalJobQueue localJobQueue = new LocalJobQueue(jobPool::availableSlots);
         this.jobFeeder = new JobFeeder(
                 jobPool,
-                this.jobManager
+                localJobQueue,
+                this.jobManager,
+                PollingBackoff.fromEnv()
         );
 
 
@@ -315,7 +371,7 @@ public class RunnerService {
         try {
             this.startJobRequestEndpoint(
                     runtimeInitializer.initialize(this.jobRequestEndpointHost, this.jobRequestEndpointPort, log),
-                    new JobFeederHandler(jobPool, this.jobRequestEndpointUrl)
+                    new JobFeederHandler(localJobQueue, this.jobRequestEndpointUrl)
             );
         } catch (Exception e) {
             throw new RunnerServiceInitializationException("failed initializing runtime", e);
@@ -407,20 +463,25 @@ public class RunnerService {
                 this.jobManager,
                 this.jobProcessorFactory,
                 this.contextSetup,
-                this.jobRequestEndpointUrl
+                this.jobRequestEndpointUrl,
+                this.executionMode,
+                this.metrics
         );
     }
 
 
     private void startJobRequestEndpoint(ApiContainerRuntime withRuntime, Function<RunningJobPutRequest, RunningJobPutResponse> jobPutHandler) {
-        Processor processor = new PoomjobsRunnerAPIProcessor(
-                "",
-                new JsonFactory(),
-                new PoomjobsRunnerAPIHandlers.Builder()
-                        .runningJobPutHandler(jobPutHandler)
-                        .abortedJobTerminationPostHandler(this.failedJobTerminationHandler)
-                        .build()
-        );
+        JsonFactory jsonFactory = new JsonFactory();
+        Processor processor = MatchingPathProcessor
+                .whenMatching("/metrics/?", new MetricsProcessor(jsonFactory, this.metrics))
+                .whenNoMatch(new PoomjobsRunnerAPIProcessor(
+                        "",
+                        jsonFactory,
+                        new PoomjobsRunnerAPIHandlers.Builder()
+                                .runningJobPutHandler(jobPutHandler)
+                                .abortedJobTerminationPostHandler(this.failedJobTerminationHandler)
+                                .build()
+                ));
         this.containerRuntimeBuilder.withApi(new Api() {
             @Override
             public String name() {
@@ -462,7 +523,8 @@ public class RunnerService {
                 this.jobRegistryClient,
                 this.runnerId,
                 this.jobCategory,
-                this.jobNames
+                this.jobNames,
+                this.jobUpdateCoalescer
         );
     }
 
@@ -485,6 +547,9 @@ public class RunnerService {
         } catch (Throwable e) {
             log.error("Error stopping runner", e);
         }
+        if (this.jobUpdateCoalescer != null) {
+            this.jobUpdateCoalescer.stop();
+        }
         synchronized (this.stopMonitor) {
             this.stopMonitor.notify();
         }
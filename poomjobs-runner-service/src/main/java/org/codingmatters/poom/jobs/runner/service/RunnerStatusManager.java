@@ -60,7 +60,11 @@ public class RunnerStatusManager implements Runnable, StatusManager {
 
     @Override
     public void run() {
-        boolean goOn = this.patchRunnerStatus(RunnerStatusData.builder().status(status()).build());
+        boolean goOn = this.patchRunnerStatus(RunnerStatusData.builder()
+                .status(this.status())
+                .capacity(this.capacity())
+                .freeSlots(this.freeSlots())
+                .build());
         if (goOn) {
             this.executor.schedule(this, nextTimeout(), TimeUnit.MILLISECONDS);
         }
@@ -107,4 +111,14 @@ public class RunnerStatusManager implements Runnable, StatusManager {
             return RunnerStatusData.Status.DISCONNECTED;
         }
     }
+
+    @Override
+    public Long capacity() {
+        return poolStatusManager.capacity();
+    }
+
+    @Override
+    public Long freeSlots() {
+        return running.get() ? poolStatusManager.freeSlots() : Long.valueOf(0L);
+    }
 }
@@ -5,4 +5,18 @@ import org.codingmatters.poomjobs.api.types.RunnerStatusData;
 public interface StatusManager {
 
     public RunnerStatusData.Status status();
+
+    /**
+     * @return the number of jobs the runner can process concurrently, null when unknown
+     */
+    default Long capacity() {
+        return null;
+    }
+
+    /**
+     * @return the number of jobs the runner can accept right now, null when unknown
+     */
+    default Long freeSlots() {
+        return null;
+    }
 }
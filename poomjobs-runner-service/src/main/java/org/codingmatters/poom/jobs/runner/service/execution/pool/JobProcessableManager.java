@@ -2,29 +2,48 @@ package org.codingmatters.poom.jobs.runner.service.execution.pool;
 
 import org.codingmatters.poom.jobs.runner.service.jobs.JobManager;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.pattern.execution.pool.processable.ProcessableManager;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.LockingFailed;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.UnlockingFailed;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
 import org.codingmatters.poomjobs.api.types.Job;
 
 public class JobProcessableManager implements ProcessableManager<Job> {
     private final JobManager jobManager;
+    private final RunnerMetrics metrics;
 
     public JobProcessableManager(JobManager jobManager) {
+        this(jobManager, new RunnerMetrics());
+    }
+
+    /**
+     * Jobs are locked before being handed to a worker, so a locked job is queued until the worker runs it.
+     */
+    public JobProcessableManager(JobManager jobManager, RunnerMetrics metrics) {
         this.jobManager = jobManager;
+        this.metrics = metrics;
     }
 
     @Override
     public Job lock(Job job) throws LockingFailed {
-        try {
-            return this.jobManager.reserve(job);
+        long start = System.nanoTime();
+        Job locked;
+        try (Span span = JobTracing.span(JobTracing.traceId(job), "job.reservation").attribute("job", job.id())) {
+            locked = this.jobManager.reserve(job);
         } catch (JobProcessorRunner.JobUpdateFailure e) {
             throw new LockingFailed("while reserving, failed updating job", e);
+        } finally {
+            this.metrics.reservation(System.nanoTime() - start);
         }
+        this.metrics.queued(locked);
+        return locked;
     }
 
     @Override
     public Job release(Job job) throws UnlockingFailed {
+        this.metrics.discarded(job);
         try {
             return this.jobManager.release(job);
         } catch (JobProcessorRunner.JobUpdateFailure e) {
@@ -1,9 +1,13 @@
 package org.codingmatters.poom.jobs.runner.service.execution.pool;
 
+import org.codingmatters.poom.jobs.runner.service.ExecutionMode;
 import org.codingmatters.poom.jobs.runner.service.StatusManager;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobManager;
+import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.pattern.execution.pool.ProcessingPool;
 import org.codingmatters.poom.pattern.execution.pool.ProcessingPoolListener;
+import org.codingmatters.poom.pattern.execution.pool.VirtualThreadProcessingPool;
 import org.codingmatters.poom.pattern.execution.pool.WorkerProcessingPool;
 import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.LockingFailed;
@@ -16,12 +20,15 @@ import org.codingmatters.poomjobs.api.ValueList;
 import org.codingmatters.poomjobs.api.types.Error;
 import org.codingmatters.poomjobs.api.types.Job;
 import org.codingmatters.poomjobs.api.types.RunnerStatusData;
+import org.codingmatters.poomjobs.api.types.job.Status;
+
+import java.util.Iterator;
 
 public class JobProcessingPoolManager implements ProcessingPoolListener, StatusManager {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobProcessingPoolManager.class);
 
     private final JobManager jobManager;
-    private final WorkerProcessingPool<Job> pool;
+    private final ProcessingPool<Job> pool;
     private final String jobRequestEndpointUrl;
     private final JobWorkerProcessor jobWorkerProcessor;
 
@@ -31,19 +38,52 @@ public class JobProcessingPoolManager implements ProcessingPoolListener, StatusM
             JobProcessor.Factory processorFactory,
             JobContextSetup contextSetup,
             String jobRequestEndpointUrl
+    ) {
+        this(poolSize, jobManager, processorFactory, contextSetup, jobRequestEndpointUrl, ExecutionMode.PLATFORM_THREADS);
+    }
+
+    public JobProcessingPoolManager(
+            int poolSize,
+            JobManager jobManager,
+            JobProcessor.Factory processorFactory,
+            JobContextSetup contextSetup,
+            String jobRequestEndpointUrl,
+            ExecutionMode executionMode
+    ) {
+        this(poolSize, jobManager, processorFactory, contextSetup, jobRequestEndpointUrl, executionMode, new RunnerMetrics());
+    }
+
+    public JobProcessingPoolManager(
+            int poolSize,
+            JobManager jobManager,
+            JobProcessor.Factory processorFactory,
+            JobContextSetup contextSetup,
+            String jobRequestEndpointUrl,
+            ExecutionMode executionMode,
+            RunnerMetrics metrics
     ) {
         this.jobManager = jobManager;
         this.jobRequestEndpointUrl = jobRequestEndpointUrl;
-        this.jobWorkerProcessor = new JobWorkerProcessor(this.jobManager, processorFactory, contextSetup);
-        this.pool = new WorkerProcessingPool<>(
-                poolSize,
-                new JobProcessableManager(this.jobManager),
-                jobWorkerProcessor,
-                this
-        );
+        this.jobWorkerProcessor = new JobWorkerProcessor(this.jobManager, processorFactory, contextSetup, metrics);
+        if (ExecutionMode.VIRTUAL_THREADS.equals(executionMode)) {
+            this.pool = new VirtualThreadProcessingPool<>(
+                    poolSize,
+                    new JobProcessableManager(this.jobManager, metrics),
+                    jobWorkerProcessor,
+                    this
+            );
+        } else {
+            this.pool = new WorkerProcessingPool<>(
+                    poolSize,
+                    new JobProcessableManager(this.jobManager, metrics),
+                    jobWorkerProcessor,
+                    this
+            );
+        }
+        metrics.slots(this);
     }
 
-    public WorkerProcessingPool<Job> pool() {
+    public ProcessingPool<Job> pool() {
         return pool;
     }
 
@@ -85,25 +125,38 @@ public class JobProcessingPoolManager implements ProcessingPoolListener, StatusM
 
     private void processPendingJobs() {
         while (this.pool.status().equals(ProcessingPool.Status.ACCEPTING)) {
-            ValueList<Job> jobs = this.jobManager.pendingJobs();
+            ValueList<Job> jobs = this.jobManager.reservePendingJobs(this.pool.availableSlots());
             if (jobs.isEmpty()) {
                 log.debug("No pending jobs");
                 return;
             }
             log.info("found " + jobs.size() + " pending job");
-            for (Job pendingJob : jobs) {
+            Iterator<Job> pending = jobs.iterator();
+            while (pending.hasNext()) {
+                Job pendingJob = pending.next();
                 try {
                     this.pool.process(pendingJob, "pending job");
                 } catch (LockingFailed e) {
                     log.debug("process pending job - cannot lock job, ignoring", e);
                 } catch (PoolBusyException e) {
                     log.debug("process pending job - pool became busy, stopping assigning pending", e);
+                    pending.forEachRemaining(this::releaseReserved);
                     return;
                 }
             }
         }
     }
 
+    private void releaseReserved(Job job) {
+        if (Status.Run.RUNNING.equals(job.opt().status().run().orElse(null))) {
+            try {
+                this.jobManager.release(job);
+            } catch (JobProcessorRunner.JobUpdateFailure e) {
+                log.error("[GRAVE] failed releasing reserved job that couldn't be processed : " + job, e);
+            }
+        }
+    }
+
     private void process(Job job, String reason) throws LockingFailed, PoolBusyException {
         this.pool.process(job, reason);
     }
@@ -124,4 +177,14 @@ public class JobProcessingPoolManager implements ProcessingPoolListener, StatusM
     public RunnerStatusData.Status status() {
         return pool.status() == ProcessingPool.Status.ACCEPTING ? RunnerStatusData.Status.IDLE : RunnerStatusData.Status.RUNNING;
     }
+
+    @Override
+    public Long capacity() {
+        return (long) this.pool.poolSize();
+    }
+
+    @Override
+    public Long freeSlots() {
+        return (long) this.pool.availableSlots();
+    }
 }
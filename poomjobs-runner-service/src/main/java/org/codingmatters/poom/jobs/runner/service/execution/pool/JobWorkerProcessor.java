@@ -1,6 +1,7 @@
 package org.codingmatters.poom.jobs.runner.service.execution.pool;
 
 import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.pattern.execution.pool.workers.WorkerProcessor;
 import org.codingmatters.poom.pattern.execution.pool.workers.exceptions.WorkerProcessorException;
 import org.codingmatters.poom.runner.JobContextSetup;
@@ -15,7 +16,11 @@ public class JobWorkerProcessor implements WorkerProcessor<Job> {
     private final JobProcessorRunner jobProcessorRunner;
 
     public JobWorkerProcessor(JobProcessorRunner.JobUpdater updatedJobConsumer, JobProcessor.Factory processorFactory, JobContextSetup contextSetup) {
-        this.jobProcessorRunner = new JobProcessorRunner(updatedJobConsumer, processorFactory, contextSetup);
+        this(updatedJobConsumer, processorFactory, contextSetup, new RunnerMetrics());
+    }
+
+    public JobWorkerProcessor(JobProcessorRunner.JobUpdater updatedJobConsumer, JobProcessor.Factory processorFactory, JobContextSetup contextSetup, RunnerMetrics metrics) {
+        this.jobProcessorRunner = new JobProcessorRunner(updatedJobConsumer, processorFactory, contextSetup, metrics);
     }
 
     @Override
@@ -1,9 +1,14 @@
 package org.codingmatters.poom.jobs.runner.service.jobs;
 
+import org.codingmatters.poom.poomjobs.domain.jobs.PendingJobsOrder;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.support.Env;
 import org.codingmatters.poomjobs.api.*;
+import org.codingmatters.poomjobs.api.types.Error;
 import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdate;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdateResult;
+import org.codingmatters.poomjobs.api.types.JobReservation;
 import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
 import org.codingmatters.poomjobs.api.types.JobUpdateData;
 import org.codingmatters.poomjobs.api.types.job.optional.OptionalStatus;
@@ -11,6 +16,7 @@ import org.codingmatters.poomjobs.api.types.jobupdatedata.Status;
 import org.codingmatters.poomjobs.client.PoomjobsJobRegistryAPIClient;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRunner.PendingJobManager {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobManager.class);
@@ -23,16 +29,56 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
     private final String runnerId;
     private final String jobCategory;
     private final String[] jobNames;
+    private final JobUpdateCoalescer coalescer;
 
     public JobManager(PoomjobsJobRegistryAPIClient client, String runnerId, String jobCategory, String[] jobNames) {
+        this(client, runnerId, jobCategory, jobNames, null);
+    }
+
+    /**
+     * @param coalescer when not null, sends the updates of DONE jobs in batches
+     */
+    public JobManager(PoomjobsJobRegistryAPIClient client, String runnerId, String jobCategory, String[] jobNames, JobUpdateCoalescer coalescer) {
         this.client = client;
         this.runnerId = runnerId;
         this.jobCategory = jobCategory;
         this.jobNames = jobNames;
+        this.coalescer = coalescer;
     }
 
     @Override
     public Job update(Job job) throws JobProcessorRunner.JobUpdateFailure {
+        if (this.coalescer != null && job.opt().status().run().orElse(null) == org.codingmatters.poomjobs.api.types.job.Status.Run.DONE) {
+            Optional<JobBatchUpdateResult> result = this.coalescer.update(JobBatchUpdate.builder()
+                    .jobId(job.id())
+                    .currentVersion(job.version())
+                    .strict(false)
+                    .update(this.updateData(job))
+                    .build());
+            if (result.isPresent()) {
+                if (result.get().opt().job().isPresent()) {
+                    return result.get().job();
+                } else if (result.get().opt().error().code().orElse(null) == Error.Code.INVALID_OBJECT_FOR_UPDATE) {
+                    throw new JobProcessorRunner.JobUpdateFailure("job update failed due to version mismatch : " + result.get().error());
+                } else {
+                    throw new JobProcessorRunner.JobUpdateFailure("Failed updating job, got batch update result : " + result.get());
+                }
+            }
+
+            Optional<Job> alreadyUpdated = this.alreadyUpdated(job);
+            if (alreadyUpdated.isPresent()) {
+                return alreadyUpdated.get();
+            }
+            try {
+                return this.update(job, false);
+            } catch (JobProcessorRunner.JobUpdateInvalid e) {
+                alreadyUpdated = this.alreadyUpdated(job);
+                if (alreadyUpdated.isPresent()) {
+                    return alreadyUpdated.get();
+                }
+                throw new JobProcessorRunner.JobUpdateFailure("job update failed due to version mismatch", e);
+            }
+        }
         try {
             return this.update(job, false);
         } catch (JobProcessorRunner.JobUpdateInvalid e) {
@@ -40,7 +86,37 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
         }
     }
 
+    /**
+     * A batch left unanswered may still have been applied, the job is then already DONE with the expected exit.
+     */
+    private Optional<Job> alreadyUpdated(Job job) {
+        JobResourceGetResponse response;
+        try {
+            response = this.client.jobCollection().jobResource().get(JobResourceGetRequest.builder()
+                    .accountId(job.opt().accounting().accountId().orElse(null))
+                    .jobId(job.id())
+                    .build());
+        } catch (IOException e) {
+            log.warn("couldn't re-read job " + job.id() + " before updating it on its own", e);
+            return Optional.empty();
+        }
+        if (response.opt().status200().isEmpty()) {
+            return Optional.empty();
+        }
+        Job current = response.status200().payload();
+        if (current.opt().status().run().orElse(null) == org.codingmatters.poomjobs.api.types.job.Status.Run.DONE
+                && current.opt().status().exit().orElse(null) == job.opt().status().exit().orElse(null)) {
+            log.debug("job {} already updated by an unanswered batch", job.id());
+            return Optional.of(current);
+        }
+        return Optional.empty();
+    }
+
     public Job reserve(Job job) throws JobProcessorRunner.JobUpdateFailure {
+        if (this.reservedByThisRunner(job)) {
+            log.debug("job already reserved through a batch reservation: {}", job);
+            return job;
+        }
         job = job.toBuilder()
                 .status(org.codingmatters.poomjobs.api.types.job.Status.builder()
                         .run(org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING)
@@ -49,37 +125,19 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
                         .runnerId(runnerId)
                         .build())
                 .build();
-        Job result = null;
-        boolean doIt = true;
-        while (doIt) {
-            doIt = false;
-            try {
-                result = this.update(
-                        job,
-                        true
-                );
-            } catch (JobProcessorRunner.JobUpdateInvalid e) {
-                try {
-                    job = this.retrieve(job.id());
-                } catch (IOException ex) {
-                    throw new JobProcessorRunner.JobUpdateFailure("failed updating job to latest version : " + job.id(), e);
-                }
-                if (job.status().run().equals(org.codingmatters.poomjobs.api.types.job.Status.Run.PENDING)) {
-                    job = job.withStatus(org.codingmatters.poomjobs.api.types.job.Status.builder()
-                            .run(org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING)
-                            .build()
-                    );
-                    doIt = true;
-                    log.info("job version was outdated, retrying with updated version {}", job);
-                } else {
-                    throw new JobProcessorRunner.JobUpdateFailure("job reserved by another runner", e);
-                }
-            }
+        try {
+            Job result = this.update(job, false);
+            log.debug("reserved job: {}", result);
+            return result;
+        } catch (JobProcessorRunner.JobUpdateInvalid e) {
+            throw new JobProcessorRunner.JobUpdateFailure("job reserved by another runner", e);
         }
-        log.debug("reserved job: {}", job);
-        return result;
     }
 
+    private boolean reservedByThisRunner(Job job) {
+        return job.opt().status().run().orElse(null) == org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING
+                && this.runnerId.equals(job.opt().runner().runnerId().orElse(null));
+    }
 
     @Override
     public Job release(Job job) throws JobProcessorRunner.JobUpdateFailure {
@@ -133,25 +191,17 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
                 .jobId(job.id())
                 .currentVersion(job.version())
                 .strict(strictly)
-                .payload(JobUpdateData.builder()
-                        .status(this.translated(job.opt().status()))
-                        .result(job.result())
-                        .runner(job.runner())
-                        .build())
+                .payload(this.updateData(job))
                 .build());
         return response;
     }
 
-    private Job retrieve(String jobId) throws IOException {
-        JobResourceGetResponse response = this.client.jobCollection().jobResource().get(JobResourceGetRequest.builder()
-                .jobId(jobId)
-                .build());
-        if (response.opt().status200().isPresent()) {
-            return response.status200().payload();
-        } else {
-            log.error("unexpected response while retrieving job {} : {}", jobId, response);
-            throw new IOException(String.format("unexpected response while retrieving job %s : %s", jobId, response));
-        }
+    private JobUpdateData updateData(Job job) {
+        return JobUpdateData.builder()
+                .status(this.translated(job.opt().status()))
+                .result(job.result())
+                .runner(job.runner())
+                .build();
     }
 
     private Status translated(OptionalStatus status) {
@@ -168,6 +218,7 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
                     .category(this.jobCategory)
                     .names(this.jobNames)
                     .runStatus(org.codingmatters.poomjobs.api.types.job.Status.Run.PENDING.name())
+                    .orderBy(PendingJobsOrder.SORT)
                     .range("0-19")
             );
         } catch (IOException e) {
@@ -187,4 +238,34 @@ public class JobManager implements JobProcessorRunner.JobUpdater, JobProcessorRu
         return candidates;
     }
 
+    @Override
+    public ValueList<Job> reservePendingJobs(int count) {
+        if (count <= 0) {
+            return ValueList.<Job>builder().build();
+        }
+        JobReservationsPostResponse response;
+        try {
+            response = this.client.jobReservations().post(JobReservationsPostRequest.builder()
+                    .payload(JobReservation.builder()
+                            .category(this.jobCategory)
+                            .names(this.jobNames)
+                            .runner(JobRunnerMetaData.builder()
+                                    .runnerId(this.runnerId)
+                                    .build())
+                            .count((long) count)
+                            .build())
+                    .build());
+        } catch (IOException e) {
+            log.error("while reserving jobs, couldn't reach job registry, nothing to process", e);
+            return ValueList.<Job>builder().build();
+        }
+
+        if (response.opt().status200().isPresent()) {
+            return response.status200().payload();
+        } else {
+            log.warn("job reservation failed, falling back to pending job lookup, got : {}", response);
+            return this.pendingJobs();
+        }
+    }
+
 }
@@ -1,10 +1,13 @@
 package org.codingmatters.poom.jobs.runner.service.jobs;
 
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.jobs.runner.service.pool.JobRunner;
 import org.codingmatters.poom.runner.JobContextSetup;
 import org.codingmatters.poom.runner.JobProcessor;
 import org.codingmatters.poom.runner.exception.JobMonitorError;
 import org.codingmatters.poom.runner.exception.JobProcessingException;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.support.Env;
 import org.codingmatters.poom.services.support.logging.LoggingContext;
@@ -12,6 +15,7 @@ import org.codingmatters.poomjobs.api.ValueList;
 import org.codingmatters.poomjobs.api.types.Job;
 import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
 import org.codingmatters.poomjobs.api.types.job.Status;
+import org.slf4j.MDC;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,15 +34,21 @@ public class JobProcessorRunner implements JobRunner {
     private final JobProcessor.Factory processorFactory;
     private final JobContextSetup contextSetup;
     private final JobStartStopLogPolicy jobStartStopLogPolicy;
+    private final RunnerMetrics metrics;
 
     private final List<Job> runningJobs = Collections.synchronizedList(new ArrayList<>());
 
     private final AtomicBoolean shutdownRequested;
 
     public JobProcessorRunner(JobUpdater updatedJobConsumer, JobProcessor.Factory processorFactory, JobContextSetup contextSetup) {
+        this(updatedJobConsumer, processorFactory, contextSetup, new RunnerMetrics());
+    }
+
+    public JobProcessorRunner(JobUpdater updatedJobConsumer, JobProcessor.Factory processorFactory, JobContextSetup contextSetup, RunnerMetrics metrics) {
         this.updatedJobConsumer = updatedJobConsumer;
         this.processorFactory = processorFactory;
         this.contextSetup = contextSetup;
+        this.metrics = metrics;
 
         JobStartStopLogPolicy policy;
         try {
@@ -73,7 +83,12 @@ public class JobProcessorRunner implements JobRunner {
     @Override
     public void runWith(Job job) throws JobProcessingException, JobUpdateFailure {
         JobProcessor processor = null;
-        try (LoggingContext loggingContext = LoggingContext.start()) {
+        this.metrics.dequeued(job);
+        String traceId = JobTracing.traceId(job);
+        try (LoggingContext loggingContext = LoggingContext.start(); JobTracing.Scope trace = JobTracing.enter(traceId)) {
+            if (traceId != null) {
+                MDC.put(JobTracing.MDC_KEY, traceId);
+            }
             synchronized (runningJobs) {
                 runningJobs.add(job);
             }
@@ -91,6 +106,8 @@ public class JobProcessorRunner implements JobRunner {
                 log.info("starting processing job {}", job);
             }
             Job updated;
+            long processingStart = System.nanoTime();
+            Span execution = JobTracing.span(traceId, "job.execution").attribute("job", job.id()).attribute("name", job.name());
             try {
                 if (processor.isIdempotent()) {
                     monitor.canRestartThisJobFromTheBeginning();
@@ -107,10 +124,18 @@ public class JobProcessorRunner implements JobRunner {
             } catch (Exception e) {
                 log.error("[GRAVE] unexpected exception while processing job " + job, e);
                 updated = this.withErrorStatus(job);
+            } finally {
+                this.metrics.processing(job.name(), System.nanoTime() - processingStart);
+                execution.close();
             }
 
             log.debug("job processed, will update status with {}", updated);
-            updated = this.updatedJobConsumer.update(updated);
+            long updateStart = System.nanoTime();
+            try (Span span = JobTracing.span(traceId, "job.final.update").attribute("job", job.id())) {
+                updated = this.updatedJobConsumer.update(updated);
+            } finally {
+                this.metrics.finalUpdate(System.nanoTime() - updateStart);
+            }
 
             if (this.jobStartStopLogPolicy.equals(JobStartStopLogPolicy.DEBUG)) {
                 log.debug("job processed : {}", updated);
@@ -118,6 +143,7 @@ public class JobProcessorRunner implements JobRunner {
                 log.info("job processed : {}", updated);
             }
         } finally {
+            MDC.remove(JobTracing.MDC_KEY);
             synchronized (runningJobs) {
                 runningJobs.remove(job);
             }
@@ -175,6 +201,8 @@ public class JobProcessorRunner implements JobRunner {
     public interface PendingJobManager {
         ValueList<Job> pendingJobs();
 
+        ValueList<Job> reservePendingJobs(int count);
+
         Job reserve(Job job) throws JobProcessorRunner.JobUpdateFailure;
 
         Job release(Job reserved) throws JobUpdateFailure;
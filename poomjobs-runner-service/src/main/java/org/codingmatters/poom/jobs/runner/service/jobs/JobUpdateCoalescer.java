@@ -0,0 +1,190 @@
+package org.codingmatters.poom.jobs.runner.service.jobs;
+
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.Env;
+import org.codingmatters.poomjobs.api.JobBatchPatchRequest;
+import org.codingmatters.poomjobs.api.JobBatchPatchResponse;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdate;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdateResult;
+import org.codingmatters.poomjobs.client.PoomjobsJobRegistryAPIClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Groups the job updates submitted within delay, or batchSize of them, in one job batch PATCH.
+ *
+ * An update is answered with empty when the batch couldn't be sent or wasn't answered within timeout, the caller is
+ * then expected to update the job on its own. An unanswered batch may still be applied, so the caller should re-read
+ * the job first. When the job registry doesn't know the batch endpoint, the coalescer
+ * stays disabled.
+ *
+ * One coalescer is shared by the runner's job updates, it must be stopped with the runner.
+ */
+public class JobUpdateCoalescer {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobUpdateCoalescer.class);
+
+    static public final String JOB_UPDATE_BATCH_SIZE = "JOB_UPDATE_BATCH_SIZE";
+    static public final String JOB_UPDATE_BATCH_DELAY = "JOB_UPDATE_BATCH_DELAY_IN_MS";
+    static public final String JOB_UPDATE_BATCH_TIMEOUT = "JOB_UPDATE_BATCH_TIMEOUT_IN_MS";
+
+    static public final long DEFAULT_TIMEOUT = 10000L;
+
+    /**
+     * @return a coalescer configured from the environment, or null when JOB_UPDATE_BATCH_SIZE is lower than 2
+     */
+    static public JobUpdateCoalescer fromEnv(PoomjobsJobRegistryAPIClient client) {
+        int batchSize = Env.optional(JOB_UPDATE_BATCH_SIZE).orElse(new Env.Var("50")).asInteger();
+        if (batchSize < 2) {
+            return null;
+        }
+        return new JobUpdateCoalescer(client, batchSize,
+                Env.optional(JOB_UPDATE_BATCH_DELAY).orElse(new Env.Var("5")).asInteger(),
+                Env.optional(JOB_UPDATE_BATCH_TIMEOUT).orElse(new Env.Var("" + DEFAULT_TIMEOUT)).asInteger()
+        );
+    }
+
+    private final PoomjobsJobRegistryAPIClient client;
+    private final int batchSize;
+    private final long delay;
+    private final long timeout;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-update-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Pending> pending = new ArrayList<>();
+    private volatile boolean disabled = false;
+
+    public JobUpdateCoalescer(PoomjobsJobRegistryAPIClient client, int batchSize, long delay) {
+        this(client, batchSize, delay, DEFAULT_TIMEOUT);
+    }
+
+    public JobUpdateCoalescer(PoomjobsJobRegistryAPIClient client, int batchSize, long delay, long timeout) {
+        this.client = client;
+        this.batchSize = batchSize;
+        this.delay = delay;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sends the pending updates and stops the coalescer, later updates are answered with empty.
+     */
+    public void stop() {
+        List<Pending> batch;
+        synchronized (this) {
+            this.disabled = true;
+            batch = this.taken();
+        }
+        this.scheduler.shutdownNow();
+        if (!batch.isEmpty()) {
+            this.flush(batch);
+        }
+    }
+
+    /**
+     * Waits for the batch holding the update to be sent.
+     *
+     * @return the update result, or empty if it couldn't be sent in a batch
+     */
+    public Optional<JobBatchUpdateResult> update(JobBatchUpdate update) {
+        if (this.disabled) {
+            return Optional.empty();
+        }
+        Pending submitted = new Pending(update);
+        List<Pending> batch = null;
+        synchronized (this) {
+            if (this.disabled) {
+                return Optional.empty();
+            }
+            this.pending.add(submitted);
+            if (this.pending.size() >= this.batchSize) {
+                batch = this.taken();
+            } else if (this.pending.size() == 1) {
+                this.scheduler.schedule(this::flushPending, this.delay, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            this.flush(batch);
+        }
+
+        try {
+            return submitted.result.get(this.timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("batch job update not answered in {}ms, job {} will be updated on its own", this.timeout, update.jobId());
+            submitted.result.complete(Optional.empty());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.error("unexpected error while waiting for batch job update", e);
+            return Optional.empty();
+        }
+    }
+
+    private void flushPending() {
+        List<Pending> batch;
+        synchronized (this) {
+            batch = this.taken();
+        }
+        if (!batch.isEmpty()) {
+            this.flush(batch);
+        }
+    }
+
+    private List<Pending> taken() {
+        List<Pending> batch = this.pending;
+        this.pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void flush(List<Pending> batch) {
+        JobBatchUpdate[] updates = new JobBatchUpdate[batch.size()];
+        for (int i = 0; i < updates.length; i++) {
+            updates[i] = batch.get(i).update;
+        }
+
+        JobBatchPatchResponse response;
+        try {
+            response = this.client.jobBatch().patch(JobBatchPatchRequest.builder().payload(updates).build());
+        } catch (IOException | RuntimeException e) {
+            log.warn("error sending batch of " + updates.length + " job updates, jobs will be updated one by one", e);
+            this.completeEmpty(batch);
+            return;
+        }
+
+        if (response.opt().status200().isPresent() && response.status200().payload().size() == updates.length) {
+            for (int i = 0; i < updates.length; i++) {
+                batch.get(i).result.complete(Optional.of(response.status200().payload().get(i)));
+            }
+        } else {
+            if (!response.opt().status400().isPresent() && !response.opt().status500().isPresent()) {
+                log.info("job registry doesn't support batch job updates, disabling update coalescing : {}", response);
+                this.disabled = true;
+            } else {
+                log.warn("batch job update failed, jobs will be updated one by one : {}", response);
+            }
+            this.completeEmpty(batch);
+        }
+    }
+
+    private void completeEmpty(List<Pending> batch) {
+        for (Pending p : batch) {
+            p.result.complete(Optional.empty());
+        }
+    }
+
+    static private class Pending {
+        private final JobBatchUpdate update;
+        private final CompletableFuture<Optional<JobBatchUpdateResult>> result = new CompletableFuture<>();
+
+        Pending(JobBatchUpdate update) {
+            this.update = update;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.codingmatters.poom.jobs.runner.service.metrics;
+
+import org.codingmatters.poom.jobs.runner.service.StatusManager;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.value.objects.values.ObjectValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runner side execution metrics : job reservation, wait in the pool before being run, processing per job name and final
+ * job update (retries included), in milliseconds. Counts, totals and maxima are cumulative since the runner started and
+ * are never reset on read, so that many readers (or a lost scrape) don't skew them ; rates and windowed means are left
+ * to the metrics backend. Slots are read from the pool.
+ */
+public class RunnerMetrics implements Supplier<ObjectValue> {
+
+    private final Timing reservation = new Timing();
+    private final Timing queueWait = new Timing();
+    private final Timing finalUpdate = new Timing();
+    private final Map<String, Timing> processing = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> queued = new ConcurrentHashMap<>();
+    private volatile StatusManager slots;
+
+    public void slots(StatusManager slots) {
+        this.slots = slots;
+    }
+
+    public void queued(Job job) {
+        if (job.id() != null) {
+            this.queued.put(job.id(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Records the time spent in the pool by a job previously queued, does nothing when the job was not queued.
+     */
+    public void dequeued(Job job) {
+        Long queuedAt = job.id() != null ? this.queued.remove(job.id()) : null;
+        if (queuedAt != null) {
+            this.queueWait.record(System.nanoTime() - queuedAt);
+        }
+    }
+
+    /**
+     * Forgets a queued job that won't be run.
+     */
+    public void discarded(Job job) {
+        if (job.id() != null) {
+            this.queued.remove(job.id());
+        }
+    }
+
+    public void reservation(long nanos) {
+        this.reservation.record(nanos);
+    }
+
+    public void processing(String jobName, long nanos) {
+        this.processing.computeIfAbsent(String.valueOf(jobName), name -> new Timing()).record(nanos);
+    }
+
+    public void finalUpdate(long nanos) {
+        this.finalUpdate.record(nanos);
+    }
+
+    @Override
+    public ObjectValue get() {
+        ObjectValue.Builder builder = ObjectValue.builder();
+        this.reservation.appendTo(builder, "runner/reservation/time", "");
+        this.queueWait.appendTo(builder, "runner/queue/wait/time", "");
+        this.finalUpdate.appendTo(builder, "runner/final/update/time", "");
+        for (Map.Entry<String, Timing> entry : this.processing.entrySet()) {
+            entry.getValue().appendTo(builder, "runner/processing/time", String.format("#name=%s#", entry.getKey()));
+        }
+
+        StatusManager slots = this.slots;
+        if (slots != null && slots.capacity() != null && slots.freeSlots() != null) {
+            long capacity = slots.capacity();
+            long busy = Math.max(0L, capacity - slots.freeSlots());
+            builder.property("runner/slots/capacity", val -> val.longValue(capacity));
+            builder.property("runner/slots/busy", val -> val.longValue(busy));
+        }
+        return builder.build();
+    }
+
+    static private class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong(0L);
+
+        void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void appendTo(ObjectValue.Builder builder, String metric, String tags) {
+            long count = this.count.sum();
+            long total = this.totalNanos.sum();
+            long max = this.maxNanos.get();
+
+            long mean = count == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(total / count);
+            builder.property(metric + "/count" + tags, val -> val.longValue(count));
+            builder.property(metric + "/total" + tags, val -> val.longValue(TimeUnit.NANOSECONDS.toMillis(total)));
+            builder.property(metric + "/mean" + tags, val -> val.longValue(mean));
+            builder.property(metric + "/max" + tags, val -> val.longValue(TimeUnit.NANOSECONDS.toMillis(max)));
+        }
+    }
+}
@@ -5,28 +5,41 @@ import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyExceptio
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poomjobs.api.ValueList;
 import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.job.Status;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Feeds the job pool from the local job queue. Pushed jobs are fed as soon as they are queued, the registry is only
+ * polled when the queue stays empty, with a delay growing while polls find nothing.
+ */
 public class JobFeeder implements JobPoolListener {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobFeeder.class);
 
     private final JobPool jobPool;
+    private final LocalJobQueue queue;
     private final JobProcessorRunner.PendingJobManager pendingJobManager;
+    private final PollingBackoff backoff;
     private final ExecutorService pool;
 
     private final AtomicBoolean running = new AtomicBoolean(true);
     private final AtomicBoolean stopped = new AtomicBoolean(false);
 
-    private final AtomicReference<State> state = new AtomicReference<>(State.ACCEPTING);
+    private final Object slotMonitor = new Object();
 
     public JobFeeder(JobPool jobPool, JobProcessorRunner.PendingJobManager pendingJobManager) {
+        this(jobPool, new LocalJobQueue(jobPool::availableSlots), pendingJobManager, PollingBackoff.fromEnv());
+    }
+
+    public JobFeeder(JobPool jobPool, LocalJobQueue queue, JobProcessorRunner.PendingJobManager pendingJobManager, PollingBackoff backoff) {
         this.jobPool = jobPool;
         this.jobPool.addJobPoolListener(this);
+        this.queue = queue;
         this.pendingJobManager = pendingJobManager;
+        this.backoff = backoff;
         this.pool = Executors.newSingleThreadExecutor(runnable -> new Thread(new ThreadGroup("job-feeder"), runnable));
         this.pool.submit(this::feederLoop);
         log.info("job feeder starting...");
@@ -35,11 +48,8 @@ public class JobFeeder implements JobPoolListener {
     public void stop() {
         log.debug("stopping job feeder...");
         this.running.set(false);
-        synchronized (this.state) {
-            this.state.set(State.STOPPING);
-            this.state.notifyAll();
-            log.debug("job feeder stop requested.");
-        }
+        this.pool.shutdownNow();
+        log.debug("job feeder stop requested.");
     }
 
     public boolean stopped() {
@@ -48,88 +58,95 @@ public class JobFeeder implements JobPoolListener {
 
     private void feederLoop() {
         log.info("job feeder started.");
-        int fullCycles = 0;
         while(this.running.get()) {
-            this.feederCycle();
-            if(this.state.get() == State.FULL) {
-                fullCycles++;
-            } else {
-                fullCycles = 0;
-            }
-            if(fullCycles > 100) {
-                // try feed have we missed an event
-                this.feed();
-                fullCycles = 0;
+            try {
+                this.feederCycle();
+            } catch (InterruptedException e) {
+                if(this.running.get()) {
+                    log.error("job feeder interrupted while running", e);
+                }
             }
         }
         log.info("job feeder stopping...");
+        this.releaseQueued();
         this.stopped.set(true);
         this.pool.shutdown();
         log.info("job feeder stopped");
     }
 
-    private void feederCycle() {
-        //log.debug("feeder loop start {}", this.state.get());
-        if (!State.ACCEPTING.equals(this.state.get())) {
-            synchronized (this.state) {
-                if (!State.ACCEPTING.equals(this.state.get())) {
-                    try {
-                        //log.debug("feeder waits a while on state : {}", this.state.get());
-                        this.state.wait(100);
-                        //log.debug("feeder wakes up with state : {}", this.state.get());
-                    } catch (InterruptedException e) {
-                        log.error("interrupted while waiting for state change", e);
-                    }
-                }
-            }
-        } else {
-            log.debug("feeder feeding {}", this.state.get());
-            this.feed();
+    private void feederCycle() throws InterruptedException {
+        if(this.jobPool.availableSlots() == 0) {
+            this.waitForSlot();
+            return;
+        }
+        Job job = this.queue.poll(this.backoff.delay(), TimeUnit.MILLISECONDS);
+        if(job != null) {
+            this.feed(job);
+        } else if(this.running.get()) {
+            this.pollRegistry();
         }
-        //log.debug("feeder loop end {}", this.state.get());
     }
 
-    private void feed() {
-        ValueList<Job> jobs = this.pendingJobManager.pendingJobs();
-        if (jobs.isEmpty()) {
-            synchronized (this.state) {
-                log.debug("nothing to feed from, sleeping");
-                this.state.set(State.FULL.equals(this.state.get()) ? State.FULL : State.SLEEPING);
-            }
+    private void feed(Job job) throws InterruptedException {
+        try {
+            this.jobPool.feed(job);
+            this.backoff.reset();
+        } catch (PoolBusyException e) {
+            log.debug("pool is full, job kept in queue");
+            this.queue.putBack(job);
+            this.waitForSlot();
+        }
+    }
+
+    private void pollRegistry() {
+        int slots = this.jobPool.availableSlots() - this.queue.size();
+        if(slots <= 0) return;
+
+        ValueList<Job> jobs = this.pendingJobManager.reservePendingJobs(slots);
+        if(jobs.isEmpty()) {
+            this.backoff.nothingFound();
+            log.debug("nothing to feed from, next poll in {}ms", this.backoff.delay());
         } else {
             log.debug("feeding from {}", jobs);
-            for (Job job : jobs) {
-                try {
-                    this.jobPool.feed(job);
-                } catch (PoolBusyException e) {
-                    log.debug("pool is full, stop feeding it");
-                    break;
-                }
+            this.backoff.reset();
+            this.queue.addAll(jobs);
+        }
+    }
+
+    private void waitForSlot() throws InterruptedException {
+        synchronized (this.slotMonitor) {
+            if(this.running.get() && this.jobPool.availableSlots() == 0) {
+                this.slotMonitor.wait(this.backoff.delay());
+            }
+        }
+    }
+
+    private void releaseQueued() {
+        for(Job job = this.queue.poll() ; job != null ; job = this.queue.poll()) {
+            this.release(job);
+        }
+    }
+
+    private void release(Job job) {
+        if (Status.Run.RUNNING.equals(job.opt().status().run().orElse(null))) {
+            try {
+                this.pendingJobManager.release(job);
+            } catch (JobProcessorRunner.JobUpdateFailure e) {
+                log.error("[GRAVE] failed releasing reserved job that couldn't be fed to the pool : " + job, e);
             }
         }
     }
 
     @Override
     public void poolIsFull() {
-        synchronized (this.state) {
-            this.state.set(State.FULL);
-            log.debug("pool is full");
-        }
+        log.debug("pool is full");
     }
 
     @Override
     public void poolIsAcceptingJobs() {
-        synchronized (this.state) {
-            this.state.set(State.ACCEPTING);
+        synchronized (this.slotMonitor) {
             log.debug("pool is accepting jobs");
-            this.state.notify();
+            this.slotMonitor.notifyAll();
         }
     }
-
-    enum State {
-        ACCEPTING,
-        SLEEPING,
-        FULL,
-        STOPPING
-    }
 }
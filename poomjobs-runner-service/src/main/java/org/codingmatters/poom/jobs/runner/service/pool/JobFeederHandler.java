@@ -1,6 +1,5 @@
 package org.codingmatters.poom.jobs.runner.service.pool;
 
-import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poomjobs.api.RunningJobPutRequest;
 import org.codingmatters.poomjobs.api.RunningJobPutResponse;
@@ -11,11 +10,11 @@ import java.util.function.Function;
 
 public class JobFeederHandler implements Function<RunningJobPutRequest, RunningJobPutResponse> {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobFeederHandler.class);
-    private final JobPool jobPool;
+    private final LocalJobQueue queue;
     private final String jobRequestEndpointUrl;
 
-    public JobFeederHandler(JobPool jobPool, String jobRequestEndpointUrl) {
-        this.jobPool = jobPool;
+    public JobFeederHandler(LocalJobQueue queue, String jobRequestEndpointUrl) {
+        this.queue = queue;
         this.jobRequestEndpointUrl = jobRequestEndpointUrl;
     }
 
@@ -23,16 +22,14 @@ public class JobFeederHandler implements Function<RunningJobPutRequest, RunningJ
     public RunningJobPutResponse apply(RunningJobPutRequest request) {
         log.debug("job execution requested : {}", request);
         Job job = request.payload();
-        try {
-            this.jobPool.feed(job);
-            log.debug("job execution accepted : {}", request);
-        } catch (PoolBusyException e) {
+        if(! this.queue.push(job)) {
             return RunningJobPutResponse.builder().status409(status -> status.payload(error -> error
                     .code(Error.Code.OVERLOADED)
-                    .token(log.tokenized().info("runner became busy for job " + job, e))
+                    .token(log.tokenized().info("runner became busy for job {}", job))
                     .description("runner busy, come back later")
             )).build();
         }
+        log.debug("job execution accepted : {}", request);
         return RunningJobPutResponse.builder().status201(status -> status
                 .location("%s/%s", this.jobRequestEndpointUrl, job.id())
         ).build();
@@ -2,8 +2,11 @@ package org.codingmatters.poom.jobs.runner.service.pool;
 
 import org.codingmatters.poom.jobs.runner.service.jobs.JobManager;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.LockingFailed;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.UnlockingFailed;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Span;
 import org.codingmatters.poomjobs.api.types.Job;
 
 public interface JobLocker {
@@ -11,13 +14,24 @@ public interface JobLocker {
     Job release(Job job) throws UnlockingFailed;
 
     static JobLocker wrapped(JobManager jobManager) {
+        return wrapped(jobManager, new RunnerMetrics());
+    }
+
+    /**
+     * Locking happens when a worker takes the job, so the job leaves the pool queue and its reservation is timed.
+     */
+    static JobLocker wrapped(JobManager jobManager, RunnerMetrics metrics) {
         return new JobLocker() {
             @Override
             public Job lock(Job job) throws LockingFailed {
-                try {
+                metrics.dequeued(job);
+                long start = System.nanoTime();
+                try (Span span = JobTracing.span(JobTracing.traceId(job), "job.reservation").attribute("job", job.id())) {
                     return jobManager.reserve(job);
                 } catch (JobProcessorRunner.JobUpdateFailure e) {
                     throw new LockingFailed("job manager failed locking job", e);
+                } finally {
+                    metrics.reservation(System.nanoTime() - start);
                 }
             }
 
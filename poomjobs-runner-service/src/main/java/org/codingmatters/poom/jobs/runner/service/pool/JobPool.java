@@ -1,6 +1,8 @@
 package org.codingmatters.poom.jobs.runner.service.pool;
 
+import org.codingmatters.poom.jobs.runner.service.ExecutionMode;
 import org.codingmatters.poom.jobs.runner.service.StatusManager;
+import org.codingmatters.poom.jobs.runner.service.metrics.RunnerMetrics;
 import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poomjobs.api.types.Job;
@@ -15,14 +17,35 @@ import java.util.concurrent.Executors;
 public class JobPool implements StatusManager {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobPool.class);
 
-    private final PendingWorkers pendingWorkers;
+    private final int capacity;
+    private final JobSlots pendingWorkers;
 
     private final ExecutorService workerPool;
     private final List<JobWorker> workers;
+    private final RunnerMetrics metrics;
 
     public JobPool(int capacity, JobRunner jobRunner, JobLocker jobLocker) {
+        this(capacity, jobRunner, jobLocker, ExecutionMode.PLATFORM_THREADS);
+    }
+
+    public JobPool(int capacity, JobRunner jobRunner, JobLocker jobLocker, ExecutionMode executionMode) {
+        this(capacity, jobRunner, jobLocker, executionMode, new RunnerMetrics());
+    }
+
+    public JobPool(int capacity, JobRunner jobRunner, JobLocker jobLocker, ExecutionMode executionMode, RunnerMetrics metrics) {
         log.info("starting job pool...");
-        this.pendingWorkers = new PendingWorkers(capacity);
+        this.capacity = capacity;
+        this.metrics = metrics;
+        this.metrics.slots(this);
+        if(ExecutionMode.VIRTUAL_THREADS.equals(executionMode)) {
+            this.pendingWorkers = new VirtualThreadJobSlots(capacity, jobRunner, jobLocker);
+            this.workerPool = null;
+            this.workers = new ArrayList<>(0);
+            log.info("job pool ready, running jobs on virtual threads.");
+            return;
+        }
+        PendingWorkers pendingWorkers = new PendingWorkers(capacity);
+        this.pendingWorkers = pendingWorkers;
         this.workerPool = Executors.newFixedThreadPool(
                 capacity,
                 runnable -> new Thread(new ThreadGroup("job-worker-pool"), runnable)
@@ -30,7 +53,7 @@ public class JobPool implements StatusManager {
         this.workers = new ArrayList<>(capacity);
 
         for (int i = 0; i < capacity; i++) {
-            JobWorker jobWorker = new JobWorker(this.pendingWorkers, jobRunner, jobLocker);
+            JobWorker jobWorker = new JobWorker(pendingWorkers, jobRunner, jobLocker);
             this.workerPool.submit(jobWorker);
             this.workers.add(jobWorker);
         }
@@ -43,7 +66,17 @@ public class JobPool implements StatusManager {
     }
 
     public void feed(Job job) throws PoolBusyException {
-        this.pendingWorkers.submit(job);
+        this.metrics.queued(job);
+        try {
+            this.pendingWorkers.submit(job);
+        } catch (PoolBusyException e) {
+            this.metrics.discarded(job);
+            throw e;
+        }
+    }
+
+    public int availableSlots() {
+        return this.pendingWorkers.waitingCount();
     }
 
     public void addJobPoolListener(JobPoolListener listener) {
@@ -62,7 +95,12 @@ public class JobPool implements StatusManager {
                 } catch (InterruptedException e) {}
             }
         }
-        this.workerPool.shutdown();
+        if(this.workerPool != null) {
+            this.workerPool.shutdown();
+        }
+        if(this.pendingWorkers instanceof VirtualThreadJobSlots) {
+            ((VirtualThreadJobSlots) this.pendingWorkers).stop();
+        }
         log.info("job pool stopped.");
     }
 
@@ -70,4 +108,14 @@ public class JobPool implements StatusManager {
     public RunnerStatusData.Status status() {
         return pendingWorkers.isFull() ? RunnerStatusData.Status.RUNNING : RunnerStatusData.Status.IDLE;
     }
+
+    @Override
+    public Long capacity() {
+        return (long) this.capacity;
+    }
+
+    @Override
+    public Long freeSlots() {
+        return (long) this.availableSlots();
+    }
 }
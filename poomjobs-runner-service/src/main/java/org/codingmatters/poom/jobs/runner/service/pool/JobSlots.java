@@ -0,0 +1,11 @@
+package org.codingmatters.poom.jobs.runner.service.pool;
+
+import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
+import org.codingmatters.poomjobs.api.types.Job;
+
+public interface JobSlots {
+    void submit(Job job) throws PoolBusyException;
+    boolean isFull();
+    int waitingCount();
+    void addJobPoolListener(JobPoolListener listener);
+}
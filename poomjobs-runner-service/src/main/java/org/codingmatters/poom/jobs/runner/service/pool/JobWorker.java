@@ -60,23 +60,23 @@ public class JobWorker implements Runnable {
                 Job job = this.currentJob.getAndSet(null);
                 if(job != null) {
                     log.debug("running job {}", job.name());
-                    this.process(job);
+                    process(job, this.jobLocker, this.jobRunner);
                 }
             }
         }
         this.stopped.set(true);
     }
 
-    private void process(Job job) {
+    static void process(Job job, JobLocker jobLocker, JobRunner jobRunner) {
         try {
-            job = this.jobLocker.lock(job);
+            job = jobLocker.lock(job);
         } catch (LockingFailed e) {
             log.error("job locking failed : " + job, e);
             return;
         }
         try {
             log.info("processing job {}", job.name());
-            this.jobRunner.runWith(job);
+            jobRunner.runWith(job);
         } catch (JobProcessingException e) {
             log.error("[GRAVE] job processing exception : " + job.withStatus((Status) null), e);
         } catch (JobProcessorRunner.JobUpdateFailure e) {
@@ -0,0 +1,60 @@
+package org.codingmatters.poom.jobs.runner.service.pool;
+
+import org.codingmatters.poomjobs.api.types.Job;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Jobs waiting to be fed to the job pool, whether they were pushed to the runner endpoint or polled from the registry.
+ */
+public class LocalJobQueue {
+
+    private final LinkedBlockingDeque<Job> jobs = new LinkedBlockingDeque<>();
+    private final IntSupplier availableSlots;
+
+    public LocalJobQueue(IntSupplier availableSlots) {
+        this.availableSlots = availableSlots;
+    }
+
+    /**
+     * Accepts a pushed job only if a pool slot is left for it once the already queued jobs are fed.
+     *
+     * @return false when the runner is busy
+     */
+    public synchronized boolean push(Job job) {
+        if(this.jobs.size() >= this.availableSlots.getAsInt()) {
+            return false;
+        }
+        this.jobs.offerLast(job);
+        return true;
+    }
+
+    public void addAll(Collection<Job> jobs) {
+        for (Job job : jobs) {
+            this.jobs.offerLast(job);
+        }
+    }
+
+    public void putBack(Job job) {
+        this.jobs.offerFirst(job);
+    }
+
+    public Job poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.jobs.pollFirst(timeout, unit);
+    }
+
+    public Job poll() {
+        return this.jobs.pollFirst();
+    }
+
+    public boolean isEmpty() {
+        return this.jobs.isEmpty();
+    }
+
+    public int size() {
+        return this.jobs.size();
+    }
+}
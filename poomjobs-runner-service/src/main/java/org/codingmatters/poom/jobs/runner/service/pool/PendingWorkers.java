@@ -8,7 +8,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 
-public class PendingWorkers {
+public class PendingWorkers implements JobSlots {
     private final ArrayBlockingQueue<JobWorker> queue;
     private final List<JobPoolListener>  listeners = Collections.synchronizedList(new ArrayList<JobPoolListener>());
 
@@ -16,6 +16,7 @@ public class PendingWorkers {
         this.queue = new ArrayBlockingQueue<>(capacity);
     }
 
+    @Override
     public void submit(Job job) throws PoolBusyException {
         JobWorker worker = this.queue.poll();
         if(worker == null) {
@@ -27,17 +28,24 @@ public class PendingWorkers {
     }
 
     public void idle(JobWorker worker) {
-        this.queue.offer(worker);
+        synchronized (this.queue) {
+            if(! this.queue.contains(worker)) {
+                this.queue.offer(worker);
+            }
+        }
         this.notifyPoolState();
     }
 
+    @Override
     public boolean isFull() {
         return this.queue.isEmpty();
     }
+    @Override
     public int waitingCount() {
         return this.queue.size();
     }
 
+    @Override
     public void addJobPoolListener(JobPoolListener listener) {
         this.listeners.add(listener);
     }
@@ -0,0 +1,41 @@
+package org.codingmatters.poom.jobs.runner.service.pool;
+
+import org.codingmatters.poom.services.support.Env;
+
+/**
+ * Delay between two polls of the registry : doubles each time a poll finds nothing, up to max, and falls back to min
+ * as soon as jobs are found.
+ */
+public class PollingBackoff {
+    public static final String JOB_FEEDER_POLLING_MIN_DELAY_MS = "JOB_FEEDER_POLLING_MIN_DELAY_MS";
+    public static final String JOB_FEEDER_POLLING_MAX_DELAY_MS = "JOB_FEEDER_POLLING_MAX_DELAY_MS";
+
+    static public PollingBackoff fromEnv() {
+        return new PollingBackoff(
+                Env.optional(JOB_FEEDER_POLLING_MIN_DELAY_MS).orElse(new Env.Var("500")).asLong(),
+                Env.optional(JOB_FEEDER_POLLING_MAX_DELAY_MS).orElse(new Env.Var("30000")).asLong()
+        );
+    }
+
+    private final long min;
+    private final long max;
+    private long current;
+
+    public PollingBackoff(long min, long max) {
+        this.min = Math.max(1L, min);
+        this.max = Math.max(this.min, max);
+        this.current = this.min;
+    }
+
+    public synchronized long delay() {
+        return this.current;
+    }
+
+    public synchronized void nothingFound() {
+        this.current = Math.min(this.max, this.current * 2);
+    }
+
+    public synchronized void reset() {
+        this.current = this.min;
+    }
+}
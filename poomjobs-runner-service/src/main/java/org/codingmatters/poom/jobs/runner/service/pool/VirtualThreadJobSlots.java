@@ -0,0 +1,86 @@
+package org.codingmatters.poom.jobs.runner.service.pool;
+
+import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.types.Job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs each submitted job on a new virtual thread, at most capacity jobs at a time.
+ */
+public class VirtualThreadJobSlots implements JobSlots {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(VirtualThreadJobSlots.class);
+
+    private final int capacity;
+    private final Semaphore permits;
+    private final JobRunner jobRunner;
+    private final JobLocker jobLocker;
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("job-worker-", 0).factory();
+    private final List<JobPoolListener>  listeners = Collections.synchronizedList(new ArrayList<JobPoolListener>());
+
+    public VirtualThreadJobSlots(int capacity, JobRunner jobRunner, JobLocker jobLocker) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        this.jobRunner = jobRunner;
+        this.jobLocker = jobLocker;
+    }
+
+    @Override
+    public void submit(Job job) throws PoolBusyException {
+        if(! this.permits.tryAcquire()) {
+            throw new PoolBusyException("no permit left");
+        }
+        this.notifyPoolState();
+        this.threadFactory.newThread(() -> this.run(job)).start();
+    }
+
+    private void run(Job job) {
+        try {
+            log.debug("running job {}", job.name());
+            JobWorker.process(job, this.jobLocker, this.jobRunner);
+        } finally {
+            this.permits.release();
+            this.notifyPoolState();
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return this.permits.availablePermits() == 0;
+    }
+
+    @Override
+    public int waitingCount() {
+        return this.permits.availablePermits();
+    }
+
+    @Override
+    public void addJobPoolListener(JobPoolListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Waits for running jobs to end, as JobPool does for its workers.
+     */
+    public void stop() {
+        this.permits.acquireUninterruptibly(this.capacity);
+        this.permits.release(this.capacity);
+    }
+
+    private void notifyPoolState() {
+        boolean full = this.isFull();
+        for(JobPoolListener listener : this.listeners) {
+            if(full) {
+                listener.poolIsFull();
+            } else {
+                listener.poolIsAcceptingJobs();
+            }
+        }
+    }
+}
@@ -3,9 +3,14 @@ package org.codingmatters.poom.pattern.execution.pool;
 import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
 import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.LockingFailed;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public interface ProcessingPool<P> {
     void process(P p, String reason) throws LockingFailed, PoolBusyException;
     Status status();
+    int availableSlots();
+    int poolSize();
+    AtomicInteger workingCount();
 
     void start();
     void stop(long timeout);
@@ -0,0 +1,143 @@
+package org.codingmatters.poom.pattern.execution.pool;
+
+import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
+import org.codingmatters.poom.pattern.execution.pool.processable.ProcessableManager;
+import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.LockingFailed;
+import org.codingmatters.poom.pattern.execution.pool.processable.exceptions.UnlockingFailed;
+import org.codingmatters.poom.pattern.execution.pool.workers.WorkerProcessor;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes each processable on its own virtual thread, concurrency being bounded by a semaphore of poolSize permits
+ * instead of poolSize parked platform threads.
+ */
+public class VirtualThreadProcessingPool<P> implements ProcessingPool<P> {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(VirtualThreadProcessingPool.class);
+
+    private final int poolSize;
+    private final Semaphore permits;
+    private final AtomicInteger workingCount = new AtomicInteger(0);
+
+    private final ProcessableManager<P> manager;
+    private final WorkerProcessor<P> workerProcessor;
+    private final ProcessingPoolListener listener;
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("runner-job-processing-", 0).factory();
+    private final Set<Thread> processing = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public VirtualThreadProcessingPool(int poolSize, ProcessableManager<P> manager, WorkerProcessor<P> workerProcessor, ProcessingPoolListener listener) {
+        this.poolSize = poolSize;
+        this.permits = new Semaphore(poolSize);
+        this.manager = manager;
+        this.workerProcessor = workerProcessor;
+        this.listener = listener;
+    }
+
+    @Override
+    public int poolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public AtomicInteger workingCount() {
+        return workingCount;
+    }
+
+    @Override
+    public void process(P p, String reason) throws LockingFailed, PoolBusyException {
+        P locked = this.manager.lock(p);
+        log.debug("processable locked : {}", locked);
+
+        if (this.running.get() && this.permits.tryAcquire()) {
+            this.busy();
+            this.threadFactory.newThread(() -> this.run(locked, reason)).start();
+            log.debug("process {} - processable submitted : {}", reason, locked);
+        } else {
+            try {
+                log.debug("process {} - processable submission failed, will release : {}", reason, locked);
+                this.manager.release(locked);
+                log.debug("process {} - processable released : {}", reason, locked);
+            } catch (UnlockingFailed e) {
+                log.error("[GRAVE] process " + reason + " - failed unlocking processable " + locked, e);
+            }
+            throw new PoolBusyException("all permits are taken");
+        }
+    }
+
+    private void run(P processable, String reason) {
+        this.processing.add(Thread.currentThread());
+        try {
+            log.debug("run {} - delegating processable processing : {}", reason, processable);
+            this.workerProcessor.process(processable);
+        } catch (Exception e) {
+            log.error("[GRAVE] unexpected exception while processing " + processable, e);
+        } finally {
+            this.processing.remove(Thread.currentThread());
+            this.permits.release();
+            this.idle();
+        }
+    }
+
+    private void busy() {
+        if (this.workingCount.incrementAndGet() == this.poolSize) {
+            this.listener.full();
+        }
+    }
+
+    private void idle() {
+        if (this.workingCount.decrementAndGet() == this.poolSize - 1) {
+            this.listener.accepting();
+        }
+    }
+
+    @Override
+    public Status status() {
+        if (running.get()) {
+            return this.workingCount.get() >= this.poolSize ? Status.FULL : Status.ACCEPTING;
+        } else {
+            return Status.FULL;
+        }
+    }
+
+    @Override
+    public int availableSlots() {
+        return this.running.get() ? this.permits.availablePermits() : 0;
+    }
+
+    @Override
+    public void start() {
+        this.running.set(true);
+    }
+
+    @Override
+    public void stop(long timeout) {
+        log.info("Stopping virtual thread pool");
+        if (this.running.getAndSet(false)) {
+            try {
+                boolean terminated = this.permits.tryAcquire(this.poolSize, timeout, TimeUnit.MILLISECONDS);
+                log.info("Pool terminated after timeout: " + terminated);
+                if (!terminated) {
+                    log.info("Interrupting remaining processing threads");
+                    this.processing.forEach(Thread::interrupt);
+                } else {
+                    this.permits.release(this.poolSize);
+                }
+            } catch (InterruptedException e) {
+                log.error("Interrupted while awaiting shutdown", e);
+            }
+        } else {
+            log.info("Not running");
+        }
+        log.info("Virtual thread pool stopped");
+    }
+}
@@ -39,10 +39,12 @@ public class WorkerProcessingPool<P> implements ProcessingPool<P>, WorkerListene
         }
     }
 
+    @Override
     public int poolSize() {
         return poolSize;
     }
 
+    @Override
     public AtomicInteger workingCount() {
         return workingCount;
     }
@@ -81,6 +83,15 @@ public class WorkerProcessingPool<P> implements ProcessingPool<P>, WorkerListene
         }
     }
 
+    @Override
+    public int availableSlots() {
+        if (running.get()) {
+            return Math.max(0, this.poolSize - this.workingCount.get());
+        } else {
+            return 0;
+        }
+    }
+
     @Override
     public void busy() {
         if (this.workingCount.incrementAndGet() == this.poolSize) {
@@ -6,7 +6,9 @@ import org.codingmatters.poomjobs.api.jobcollectiongetresponse.Status200;
 import org.codingmatters.poomjobs.api.jobresourcepatchresponse.Status400;
 import org.codingmatters.poomjobs.api.jobresourcepatchresponse.Status404;
 import org.codingmatters.poomjobs.api.jobresourcepatchresponse.Status500;
+import org.codingmatters.poomjobs.api.types.Error;
 import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobReservation;
 import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
 import org.codingmatters.poomjobs.api.types.JobUpdateData;
 import org.codingmatters.poomjobs.api.types.jobupdatedata.Status;
@@ -20,8 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.Matchers.*;
 
 public class JobManagerTest {
 
@@ -42,10 +43,31 @@ public class JobManagerTest {
             return JobCollectionGetResponse.builder().status200(Status200.builder().contentRange("Job 0-0/0").acceptRange("Job 100").payload(new Job[0]).build()).build();
         }
     };
+    private HandlerResource<JobReservationsPostRequest, JobReservationsPostResponse> jobReservations = new HandlerResource<JobReservationsPostRequest, JobReservationsPostResponse>() {
+        @Override
+        protected JobReservationsPostResponse defaultResponse(JobReservationsPostRequest request) {
+            return JobReservationsPostResponse.builder().status200(status -> status.payload(new Job[0])).build();
+        }
+    };
+    private HandlerResource<JobResourceGetRequest, JobResourceGetResponse> jobGet = new HandlerResource<JobResourceGetRequest, JobResourceGetResponse>() {
+        @Override
+        protected JobResourceGetResponse defaultResponse(JobResourceGetRequest request) {
+            return JobResourceGetResponse.builder().status404(status -> status.payload(error -> error.code(Error.Code.RESOURCE_NOT_FOUND))).build();
+        }
+    };
+    private HandlerResource<JobBatchPatchRequest, JobBatchPatchResponse> jobBatchPatch = new HandlerResource<JobBatchPatchRequest, JobBatchPatchResponse>() {
+        @Override
+        protected JobBatchPatchResponse defaultResponse(JobBatchPatchRequest request) {
+            return JobBatchPatchResponse.builder().status500(status -> status.payload(error -> error.code(Error.Code.UNEXPECTED_ERROR))).build();
+        }
+    };
     private PoomjobsJobRegistryAPIClient apiClient = new PoomjobsJobRegistryAPIHandlersClient(
             new PoomjobsJobRegistryAPIHandlers.Builder()
                     .jobResourcePatchHandler(this.jobPatch)
+                    .jobResourceGetHandler(this.jobGet)
+                    .jobBatchPatchHandler(this.jobBatchPatch)
                     .jobCollectionGetHandler(this.jobsGet)
+                    .jobReservationsPostHandler(this.jobReservations)
                     .build()
     );
     private final JobManager manager = new JobManager(this.apiClient, "runnerID", "test-category", new String[]{"job1", "job2"});
@@ -62,6 +84,74 @@ public class JobManagerTest {
                         .build()));
     }
 
+    @Test
+    public void givenJobChangeRefused__whenReserving__thenJobUpdateFailure_andReservationNotRetried() throws Exception {
+        this.jobPatch.nextResponse(request -> JobResourcePatchResponse.builder().status400(Status400.builder().build()).build());
+
+        this.thrown.expect(JobProcessorRunner.JobUpdateFailure.class);
+        this.thrown.expectMessage(startsWith("job reserved by another runner"));
+
+        try {
+            this.manager.reserve(Job.builder().id("job-id").version("1").build());
+        } finally {
+            assertThat(this.jobPatch.lastRequest().strict(), is(false));
+            assertThat(this.jobsGet.lastRequest(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void givenJobReservedByThisRunner__whenReserving__thenJobNotPatched() throws Exception {
+        Job job = Job.builder().id("reserved-job")
+                .status(org.codingmatters.poomjobs.api.types.job.Status.builder().run(org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING).build())
+                .runner(JobRunnerMetaData.builder().runnerId("runnerID").build())
+                .build();
+
+        assertThat(this.manager.reserve(job), is(job));
+        assertThat(this.jobPatch.lastRequest(), is(nullValue()));
+    }
+
+    @Test
+    public void whenReservingPendingJobs__thenReservationRequested_andReservedJobsReturned() throws Exception {
+        this.jobReservations.nextResponse(request -> JobReservationsPostResponse.builder()
+                .status200(status -> status.payload(Job.builder().id("job-1").build(), Job.builder().id("job-2").build()))
+                .build());
+
+        ValueList<Job> reserved = this.manager.reservePendingJobs(3);
+
+        assertThat(reserved, contains(Job.builder().id("job-1").build(), Job.builder().id("job-2").build()));
+        assertThat(this.jobReservations.lastRequest().payload(), is(JobReservation.builder()
+                .category("test-category")
+                .names("job1", "job2")
+                .runner(JobRunnerMetaData.builder().runnerId("runnerID").build())
+                .count(3L)
+                .build()));
+    }
+
+    @Test
+    public void givenNoFreeSlot__whenReservingPendingJobs__thenNothingRequested() throws Exception {
+        assertThat(this.manager.reservePendingJobs(0), is(empty()));
+        assertThat(this.jobReservations.lastRequest(), is(nullValue()));
+    }
+
+    @Test
+    public void givenReservationFails__whenReservingPendingJobs__thenFallsBackToPendingJobs() throws Exception {
+        this.jobReservations.nextResponse(request -> JobReservationsPostResponse.builder()
+                .status500(status -> status.payload(error -> error.code(Error.Code.UNEXPECTED_ERROR)))
+                .build());
+
+        this.manager.reservePendingJobs(3);
+
+        assertThat(this.jobsGet.lastRequest().runStatus(), is("PENDING"));
+    }
+
+    @Test
+    public void whenLookingUpPendingJobs__thenJobsAreRequestedByPriorityThenSubmission() throws Exception {
+        this.manager.pendingJobs();
+
+        assertThat(this.jobsGet.lastRequest().runStatus(), is("PENDING"));
+        assertThat(this.jobsGet.lastRequest().orderBy(), is("priority desc, processing.submitted asc"));
+    }
+
     @Test
     public void givenUpdatingJob__whenJobPatchSucceeds__thenJobPatchCalled_andJobUpdateDataTakenFromJob() throws Exception {
         this.manager.update(Job.builder()
@@ -126,4 +216,57 @@ public class JobManagerTest {
                         .exit(org.codingmatters.poomjobs.api.types.job.Status.Exit.SUCCESS))
                 .build());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenBatchUpdateUnanswered__whenJobAlreadyDoneWithExpectedExit__thenJobNotPatchedAgain() throws Exception {
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.apiClient, 2, 1);
+        JobManager coalescing = new JobManager(this.apiClient, "runnerID", "test-category", new String[]{"job1", "job2"}, coalescer);
+        Job done = Job.builder().id("job-id").version("2")
+                .status(builder -> builder
+                        .run(org.codingmatters.poomjobs.api.types.job.Status.Run.DONE)
+                        .exit(org.codingmatters.poomjobs.api.types.job.Status.Exit.SUCCESS))
+                .build();
+        this.jobGet.nextResponse(request -> JobResourceGetResponse.builder().status200(status -> status.payload(done)).build());
+        this.jobPatch.nextResponse(request -> JobResourcePatchResponse.builder().status400(Status400.builder().build()).build());
+
+        try {
+            Job updated = coalescing.update(Job.builder()
+                    .id("job-id")
+                    .accounting(builder -> builder.accountId("account"))
+                    .version("1")
+                    .status(builder -> builder
+                            .run(org.codingmatters.poomjobs.api.types.job.Status.Run.DONE)
+                            .exit(org.codingmatters.poomjobs.api.types.job.Status.Exit.SUCCESS))
+                    .build());
+
+            assertThat(updated, is(done));
+            assertThat(this.jobGet.lastRequest().accountId(), is("account"));
+            assertThat(this.jobPatch.lastRequest(), is(nullValue()));
+        } finally {
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    public void givenBatchUpdateUnanswered__whenJobStillRunning__thenJobPatched() throws Exception {
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.apiClient, 2, 1);
+        JobManager coalescing = new JobManager(this.apiClient, "runnerID", "test-category", new String[]{"job1", "job2"}, coalescer);
+        this.jobGet.nextResponse(request -> JobResourceGetResponse.builder().status200(status -> status.payload(Job.builder().id("job-id").version("1")
+                .status(builder -> builder.run(org.codingmatters.poomjobs.api.types.job.Status.Run.RUNNING))
+                .build())).build());
+
+        try {
+            assertThat(coalescing.update(Job.builder()
+                    .id("job-id")
+                    .version("1")
+                    .status(builder -> builder
+                            .run(org.codingmatters.poomjobs.api.types.job.Status.Run.DONE)
+                            .exit(org.codingmatters.poomjobs.api.types.job.Status.Exit.SUCCESS))
+                    .build()), is(Job.builder().id("patched-job").build()));
+
+            assertThat(this.jobPatch.lastRequest().jobId(), is("job-id"));
+        } finally {
+            coalescer.stop();
+        }
+    }
+}
@@ -4,6 +4,10 @@ import org.codingmatters.poom.runner.JobContextSetup;
 import org.codingmatters.poom.runner.JobProcessor;
 import org.codingmatters.poom.runner.exception.FailedJobTerminationException;
 import org.codingmatters.poom.runner.exception.JobProcessingException;
+import org.codingmatters.poom.runner.tracing.JobTracing;
+import org.codingmatters.poom.runner.tracing.Sampler;
+import org.codingmatters.poom.runner.tracing.Span;
+import org.codingmatters.poom.runner.tracing.Tracer;
 import org.codingmatters.poomjobs.api.types.Job;
 import org.codingmatters.poomjobs.api.types.JobRunnerMetaData;
 import org.codingmatters.poomjobs.api.types.job.Status;
@@ -11,14 +15,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.*;
 
 public class JobProcessorRunnerTest {
 
@@ -216,5 +223,40 @@ public class JobProcessorRunnerTest {
         assertThat(this.updatedJob.get().runner(), is(nullValue()));
     }
 
-
-}
\ No newline at end of file
+    @Test
+    public void givenTracedJob__whenRunning__thenTraceIdCurrentWhileProcessing_andExecutionAndUpdateSpansExported() throws Exception {
+        List<Span> spans = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<String> currentTraceId = new AtomicReference<>();
+        JobTracing.install(new Tracer("test", Sampler.always(), spans::add));
+        try {
+            JobProcessorRunner runner = new JobProcessorRunner(
+                    job -> job,
+                    (job, monitor) -> new JobProcessor() {
+                        @Override
+                        public Job process() throws JobProcessingException {
+                            currentTraceId.set(JobTracing.current());
+                            return job;
+                        }
+
+                        @Override
+                        public void terminateFailedJob(Job job) throws FailedJobTerminationException {}
+                    },
+                    JobContextSetup.NOOP
+            );
+
+            runner.runWith(Job.builder()
+                    .id("job-1")
+                    .status(Status.builder().run(Status.Run.RUNNING).build())
+                    .context(JobTracing.withTraceId(null))
+                    .build());
+        } finally {
+            JobTracing.install(Tracer.NOOP);
+        }
+
+        assertThat(currentTraceId.get(), is(notNullValue()));
+        assertThat(JobTracing.current(), is(nullValue()));
+        assertThat(spans.stream().map(Span::name).collect(Collectors.toList()), contains("job.execution", "job.final.update"));
+        assertThat(spans.get(0).traceId(), is(currentTraceId.get()));
+        assertThat(spans.get(0).attributes().get("job"), is("job-1"));
+    }
+}
@@ -0,0 +1,127 @@
+package org.codingmatters.poom.jobs.runner.service.jobs;
+
+import org.codingmatters.poom.handler.HandlerResource;
+import org.codingmatters.poomjobs.api.JobBatchPatchRequest;
+import org.codingmatters.poomjobs.api.JobBatchPatchResponse;
+import org.codingmatters.poomjobs.api.PoomjobsJobRegistryAPIHandlers;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdate;
+import org.codingmatters.poomjobs.api.types.JobBatchUpdateResult;
+import org.codingmatters.poomjobs.client.PoomjobsJobRegistryAPIClient;
+import org.codingmatters.poomjobs.client.PoomjobsJobRegistryAPIHandlersClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobUpdateCoalescerTest {
+
+    private final AtomicInteger batchCount = new AtomicInteger(0);
+
+    private final HandlerResource<JobBatchPatchRequest, JobBatchPatchResponse> jobBatchPatch = new HandlerResource<JobBatchPatchRequest, JobBatchPatchResponse>() {
+        @Override
+        protected JobBatchPatchResponse defaultResponse(JobBatchPatchRequest request) {
+            batchCount.incrementAndGet();
+            JobBatchUpdateResult[] results = new JobBatchUpdateResult[request.payload().size()];
+            for (int i = 0; i < results.length; i++) {
+                JobBatchUpdate update = request.payload().get(i);
+                results[i] = JobBatchUpdateResult.builder().index((long) i).jobId(update.jobId()).job(Job.builder().id(update.jobId()).version("2").build()).build();
+            }
+            return JobBatchPatchResponse.builder().status200(status -> status.payload(results)).build();
+        }
+    };
+
+    private final PoomjobsJobRegistryAPIClient client = new PoomjobsJobRegistryAPIHandlersClient(
+            new PoomjobsJobRegistryAPIHandlers.Builder()
+                    .jobBatchPatchHandler(this.jobBatchPatch)
+                    .build()
+    );
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws Exception {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    public void givenUpdatesSubmittedWithinDelay__thenSentAsOneBatch_andEachGetsItsResult() throws Exception {
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.client, 100, 200);
+
+        List<Future<Optional<JobBatchUpdateResult>>> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String jobId = "job-" + i;
+            results.add(this.pool.submit(() -> coalescer.update(JobBatchUpdate.builder().jobId(jobId).build())));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS).get().job().id(), is("job-" + i));
+        }
+        assertThat(this.batchCount.get(), is(1));
+        assertThat(this.jobBatchPatch.lastRequest().payload(), hasSize(3));
+    }
+
+    @Test
+    public void givenBatchSizeReached__thenBatchSentWithoutWaitingForDelay() throws Exception {
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.client, 2, TimeUnit.MINUTES.toMillis(1));
+
+        Future<Optional<JobBatchUpdateResult>> first = this.pool.submit(() -> coalescer.update(JobBatchUpdate.builder().jobId("job-1").build()));
+        Future<Optional<JobBatchUpdateResult>> second = this.pool.submit(() -> coalescer.update(JobBatchUpdate.builder().jobId("job-2").build()));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).get().job().id(), is("job-1"));
+        assertThat(second.get(5, TimeUnit.SECONDS).get().job().id(), is("job-2"));
+        assertThat(this.batchCount.get(), is(1));
+    }
+
+    @Test
+    public void givenRegistryWithoutBatchEndpoint__thenUpdatesAnsweredEmpty_andCoalescingDisabled() throws Exception {
+        this.jobBatchPatch.nextResponse(request -> JobBatchPatchResponse.builder().build());
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.client, 100, 10);
+
+        assertThat(coalescer.update(JobBatchUpdate.builder().jobId("job-1").build()).isPresent(), is(false));
+        assertThat(coalescer.update(JobBatchUpdate.builder().jobId("job-2").build()).isPresent(), is(false));
+        assertThat(this.jobBatchPatch.lastRequest().payload().get(0).jobId(), is("job-1"));
+    }
+
+    @Test
+    public void givenBatchNotAnsweredWithinTimeout__thenUpdateAnsweredEmpty() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        this.jobBatchPatch.nextResponse(request -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return JobBatchPatchResponse.builder().build();
+        });
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.client, 100, 10, 200);
+        try {
+            long start = System.currentTimeMillis();
+            assertThat(coalescer.update(JobBatchUpdate.builder().jobId("job-1").build()).isPresent(), is(false));
+            assertThat(System.currentTimeMillis() - start, is(lessThan(5000L)));
+        } finally {
+            release.countDown();
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    public void givenPendingUpdates__whenStopped__thenPendingUpdatesSent_andLaterUpdatesAnsweredEmpty() throws Exception {
+        JobUpdateCoalescer coalescer = new JobUpdateCoalescer(this.client, 100, TimeUnit.MINUTES.toMillis(1));
+
+        Future<Optional<JobBatchUpdateResult>> pending = this.pool.submit(() -> coalescer.update(JobBatchUpdate.builder().jobId("job-1").build()));
+        Thread.sleep(200);
+        coalescer.stop();
+
+        assertThat(pending.get(5, TimeUnit.SECONDS).get().job().id(), is("job-1"));
+        assertThat(coalescer.update(JobBatchUpdate.builder().jobId("job-2").build()).isPresent(), is(false));
+        assertThat(this.batchCount.get(), is(1));
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.codingmatters.poom.jobs.runner.service.metrics;
+
+import org.codingmatters.poom.jobs.runner.service.StatusManager;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.RunnerStatusData;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RunnerMetricsTest {
+
+    private final RunnerMetrics metrics = new RunnerMetrics();
+
+    @Test
+    public void givenTimesRecorded__whenGettingMetrics__thenCountMeanAndMaxInMillis() throws Exception {
+        this.metrics.reservation(TimeUnit.MILLISECONDS.toNanos(10));
+        this.metrics.reservation(TimeUnit.MILLISECONDS.toNanos(30));
+        this.metrics.finalUpdate(TimeUnit.MILLISECONDS.toNanos(5));
+        this.metrics.processing("job-a", TimeUnit.MILLISECONDS.toNanos(100));
+        this.metrics.processing("job-b", TimeUnit.MILLISECONDS.toNanos(200));
+
+        ObjectValue value = this.metrics.get();
+
+        assertThat(value.property("runner/reservation/time/count").single().longValue(), is(2L));
+        assertThat(value.property("runner/reservation/time/total").single().longValue(), is(40L));
+        assertThat(value.property("runner/reservation/time/mean").single().longValue(), is(20L));
+        assertThat(value.property("runner/reservation/time/max").single().longValue(), is(30L));
+        assertThat(value.property("runner/final/update/time/max").single().longValue(), is(5L));
+        assertThat(value.property("runner/queue/wait/time/count").single().longValue(), is(0L));
+        assertThat(value.property("runner/processing/time/max#name=job-a#").single().longValue(), is(100L));
+        assertThat(value.property("runner/processing/time/max#name=job-b#").single().longValue(), is(200L));
+    }
+
+    @Test
+    public void givenMetricsRead__whenReadingAgain__thenNotReset() throws Exception {
+        this.metrics.reservation(TimeUnit.MILLISECONDS.toNanos(10));
+        this.metrics.get();
+
+        ObjectValue value = this.metrics.get();
+
+        assertThat(value.property("runner/reservation/time/count").single().longValue(), is(1L));
+        assertThat(value.property("runner/reservation/time/total").single().longValue(), is(10L));
+        assertThat(value.property("runner/reservation/time/max").single().longValue(), is(10L));
+    }
+
+    @Test
+    public void givenMetricsRead__whenMoreTimesRecorded__thenCountAndTotalCumulative_andMaxKept() throws Exception {
+        this.metrics.reservation(TimeUnit.MILLISECONDS.toNanos(30));
+        this.metrics.get();
+        this.metrics.reservation(TimeUnit.MILLISECONDS.toNanos(10));
+
+        ObjectValue value = this.metrics.get();
+
+        assertThat(value.property("runner/reservation/time/count").single().longValue(), is(2L));
+        assertThat(value.property("runner/reservation/time/total").single().longValue(), is(40L));
+        assertThat(value.property("runner/reservation/time/max").single().longValue(), is(30L));
+    }
+
+    @Test
+    public void givenJobQueued__whenDequeued__thenWaitRecordedOnce() throws Exception {
+        Job job = Job.builder().id("job-1").build();
+
+        this.metrics.queued(job);
+        Thread.sleep(20);
+        this.metrics.dequeued(job);
+        this.metrics.dequeued(job);
+
+        ObjectValue value = this.metrics.get();
+        assertThat(value.property("runner/queue/wait/time/count").single().longValue(), is(1L));
+        assertThat(value.property("runner/queue/wait/time/max").single().longValue(), is(greaterThanOrEqualTo(20L)));
+    }
+
+    @Test
+    public void givenJobDiscarded__whenDequeued__thenNoWaitRecorded() throws Exception {
+        Job job = Job.builder().id("job-1").build();
+
+        this.metrics.queued(job);
+        this.metrics.discarded(job);
+        this.metrics.dequeued(job);
+
+        assertThat(this.metrics.get().property("runner/queue/wait/time/count").single().longValue(), is(0L));
+    }
+
+    @Test
+    public void givenSlots__whenGettingMetrics__thenCapacityAndBusySlots() throws Exception {
+        this.metrics.slots(new StatusManager() {
+            @Override
+            public RunnerStatusData.Status status() {
+                return RunnerStatusData.Status.RUNNING;
+            }
+
+            @Override
+            public Long capacity() {
+                return 4L;
+            }
+
+            @Override
+            public Long freeSlots() {
+                return 1L;
+            }
+        });
+
+        ObjectValue value = this.metrics.get();
+
+        assertThat(value.property("runner/slots/capacity").single().longValue(), is(4L));
+        assertThat(value.property("runner/slots/busy").single().longValue(), is(3L));
+    }
+}
@@ -3,19 +3,24 @@ package org.codingmatters.poom.jobs.runner.service.pool;
 import org.codingmatters.poom.jobs.runner.service.jobs.JobProcessorRunner;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.tests.Eventually;
+import org.codingmatters.poomjobs.api.RunningJobPutRequest;
+import org.codingmatters.poomjobs.api.RunningJobPutResponse;
 import org.codingmatters.poomjobs.api.ValueList;
 import org.codingmatters.poomjobs.api.types.Job;
 import org.junit.jupiter.api.*;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 class JobFeederTest {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobFeederTest.class);
 
     private final ConcurrentLinkedQueue<ValueList<Job>> nextPendingJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger polls = new AtomicInteger(0);
 
     private JobProcessorRunner.PendingJobManager pendingJobManager = new JobProcessorRunner.PendingJobManager() {
         @Override
@@ -30,6 +35,12 @@ class JobFeederTest {
             }
         }
 
+        @Override
+        public ValueList<Job> reservePendingJobs(int count) {
+            polls.incrementAndGet();
+            return this.pendingJobs();
+        }
+
         @Override
         public Job reserve(Job job) throws JobProcessorRunner.JobUpdateFailure {
             throw new RuntimeException("NYIMPL");
@@ -45,7 +56,8 @@ class JobFeederTest {
 
     private final TestJobRunner jobRunner = new TestJobRunner();
     private JobPool pool = new JobPool(3, jobRunner, new NOOPJobLocker());
-    private JobFeeder feeder = new JobFeeder(this.pool, this.pendingJobManager);
+    private LocalJobQueue queue = new LocalJobQueue(this.pool::availableSlots);
+    private JobFeeder feeder = new JobFeeder(this.pool, this.queue, this.pendingJobManager, new PollingBackoff(50, 400));
 
     @AfterEach
     void tearDown() throws Exception{
@@ -88,5 +100,36 @@ class JobFeederTest {
         ));
     }
 
+    @RepeatedTest(3)
+    @Timeout(5)
+    void givenStarted__whenJobPushedToHandler__thenJobIsExecuted() throws Exception {
+        RunningJobPutResponse response = new JobFeederHandler(this.queue, "http://runner").apply(RunningJobPutRequest.builder()
+                .jobId("pushed")
+                .payload(Job.builder().id("pushed").name("SHORT").arguments("from push").build())
+                .build());
+
+        assertThat(response.opt().status201().isPresent(), is(true));
+        this.eventually.assertThat("", () -> this.jobRunner.doneJobs, contains(
+                Job.builder().id("pushed").name("SHORT").arguments("from push").build()
+        ));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void givenNoSlotLeft__whenJobPushedToHandler__thenRunnerIsBusy() throws Exception {
+        RunningJobPutResponse response = new JobFeederHandler(new LocalJobQueue(() -> 0), "http://runner").apply(RunningJobPutRequest.builder()
+                .jobId("pushed")
+                .payload(Job.builder().id("pushed").name("SHORT").build())
+                .build());
+
+        assertThat(response.opt().status409().isPresent(), is(true));
+    }
+
+    @Test
+    @Timeout(5)
+    void givenNothingPending__whenIdle__thenPollingBacksOff() throws Exception {
+        Thread.sleep(1500);
+
+        // 50, 100, 200, 400, 400, 400 ms : a fixed 50ms period would have polled about 30 times
+        assertThat(this.polls.get(), is(both(greaterThan(2)).and(lessThan(10))));
+    }
+}
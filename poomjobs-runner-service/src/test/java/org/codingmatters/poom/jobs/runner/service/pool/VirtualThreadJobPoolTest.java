@@ -0,0 +1,63 @@
+package org.codingmatters.poom.jobs.runner.service.pool;
+
+import org.codingmatters.poom.jobs.runner.service.ExecutionMode;
+import org.codingmatters.poom.pattern.execution.pool.exceptions.PoolBusyException;
+import org.codingmatters.poom.services.tests.Eventually;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VirtualThreadJobPoolTest {
+
+    private final TestJobRunner jobRunner = new TestJobRunner();
+    private final JobPool pool = new JobPool(1000, this.jobRunner, new NOOPJobLocker(), ExecutionMode.VIRTUAL_THREADS);
+
+    private final Eventually eventually = Eventually.timeout(5, TimeUnit.SECONDS);
+
+    @AfterEach
+    void tearDown() {
+        this.pool.stop();
+    }
+
+    @Test
+    @Timeout(10)
+    void whenSubmittingCapacityBlockingJobs__thenAllRunConcurrently() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            this.pool.feed(Job.builder().name("LONG").build());
+        }
+        assertThat(this.pool.availableSlots(), is(0));
+
+        this.eventually.assertThat("all jobs executed", () -> this.jobRunner.doneJobs, hasSize(1000));
+        this.eventually.assertThat("slots released", () -> this.pool.availableSlots(), is(1000));
+    }
+
+    @Test
+    void givenCapacityJobsRunning__whenSubmittingOneMore__thenPoolBusyException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        JobPool blockingPool = new JobPool(1000, job -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, new NOOPJobLocker(), ExecutionMode.VIRTUAL_THREADS);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                blockingPool.feed(Job.builder().name("BLOCKED").build());
+            }
+
+            assertThrows(PoolBusyException.class, () -> blockingPool.feed(Job.builder().name("BLOCKED").build()));
+        } finally {
+            release.countDown();
+            blockingPool.stop();
+        }
+    }
+}
@@ -1,27 +1,46 @@
 package org.codingmatters.poomjobs.service;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.jobs.collections.jobs.JobCache;
 import org.codingmatters.poom.jobs.collections.jobs.JobRegistryHandlersBuilder;
+import org.codingmatters.poom.jobs.collections.jobs.JobWatchers;
+import org.codingmatters.poom.poomjobs.domain.jobs.JobRetryPolicies;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poomjobs.api.JobCollectionPostRequest;
 import org.codingmatters.poomjobs.api.PoomjobsJobRegistryAPIHandlers;
 import org.codingmatters.poomjobs.service.api.PoomjobsJobRegistryAPIProcessor;
+import org.codingmatters.poomjobs.service.scheduling.JobScheduler;
 import org.codingmatters.rest.api.Api;
 import org.codingmatters.rest.api.Processor;
 import org.codingmatters.value.objects.values.ObjectValue;
 
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
  * Created by nelt on 6/15/17.
+ *
+ * When the job repository is a PoomjobsJobRepository, the repository listener is wrapped in a JobScheduler (unless it
+ * already is one) so that SCHEDULED jobs, including retried ones, are turned PENDING when due. The scheduler created by
+ * the api is started right away, a given one starts at the latest on its first scheduled job. Embedders should call
+ * stop() on shutdown.
+ *
+ * When a job cache is given, job updates and deletions notified to the listeners, including scheduler promotions, are
+ * invalidated from the cache. A given JobScheduler is expected to delegate to a listener wrapped with
+ * JobCache.invalidating, and a JobCleaner to notify one.
+ *
+ * When job watchers are given, the given listener is expected to notify them (see JobWatchers.notifying), otherwise the
+ * api creates its own and notifies them.
  */
 public class PoomjobsJobRegistryAPI implements Api {
     public static final String VERSION = Api.versionFrom(PoomjobsJobRegistryAPI.class);
 
     private final PoomjobsJobRegistryAPIHandlers handlers;
     private final Processor processor;
+    private final JobScheduler scheduler;
 
     public PoomjobsJobRegistryAPI(Repository<JobValue, PropertyQuery> jobRepository, JsonFactory jsonFactory) {
         this(jobRepository, PoomjobsJobRepositoryListener.NOOP, null, jsonFactory, account->true);
@@ -33,7 +52,70 @@ public class PoomjobsJobRegistryAPI implements Api {
             Function<JobCollectionPostRequest, ObjectValue> contextualizer,
             JsonFactory jsonFactory,
             Function<String, Boolean> accountValidator) {
-        this.handlers = new JobRegistryHandlersBuilder(jobRepository, "", contextualizer, jobRepositoryListener, accountValidator).build();
+        this(jobRepository, jobRepositoryListener, contextualizer, jsonFactory, accountValidator, JobRetryPolicies.NONE);
+    }
+
+    public PoomjobsJobRegistryAPI(
+            Repository<JobValue, PropertyQuery> jobRepository,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            JsonFactory jsonFactory,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies) {
+        this(jobRepository, jobRepositoryListener, contextualizer, jsonFactory, accountValidator, retryPolicies, null);
+    }
+
+    public PoomjobsJobRegistryAPI(
+            Repository<JobValue, PropertyQuery> jobRepository,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            JsonFactory jsonFactory,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache) {
+        this(jobRepository, jobRepositoryListener, contextualizer, jsonFactory, accountValidator, retryPolicies, jobCache, new JobWatchers(), true);
+    }
+
+    public PoomjobsJobRegistryAPI(
+            Repository<JobValue, PropertyQuery> jobRepository,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            JsonFactory jsonFactory,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache,
+            JobWatchers jobWatchers) {
+        this(jobRepository, jobRepositoryListener, contextualizer, jsonFactory, accountValidator, retryPolicies, jobCache, jobWatchers, false);
+    }
+
+    private PoomjobsJobRegistryAPI(
+            Repository<JobValue, PropertyQuery> jobRepository,
+            PoomjobsJobRepositoryListener jobRepositoryListener,
+            Function<JobCollectionPostRequest, ObjectValue> contextualizer,
+            JsonFactory jsonFactory,
+            Function<String, Boolean> accountValidator,
+            JobRetryPolicies retryPolicies,
+            JobCache jobCache,
+            JobWatchers jobWatchers,
+            boolean notifyWatchers) {
+        PoomjobsJobRepositoryListener listener;
+        if(jobRepositoryListener instanceof JobScheduler) {
+            this.scheduler = (JobScheduler) jobRepositoryListener;
+            listener = notifyWatchers ? jobWatchers.notifying(this.scheduler) : this.scheduler;
+        } else {
+            listener = notifyWatchers ? jobWatchers.notifying(jobRepositoryListener) : jobRepositoryListener;
+            if(jobCache != null) {
+                listener = jobCache.invalidating(listener);
+            }
+            if(jobRepository instanceof PoomjobsJobRepository) {
+                this.scheduler = new JobScheduler((PoomjobsJobRepository) jobRepository, listener);
+                this.scheduler.start();
+                listener = this.scheduler;
+            } else {
+                this.scheduler = null;
+            }
+        }
+        this.handlers = new JobRegistryHandlersBuilder(jobRepository, "", contextualizer, listener, accountValidator, retryPolicies, jobCache, jobWatchers).build();
         this.processor = new PoomjobsJobRegistryAPIProcessor(
                 this.path(),
                 jsonFactory,
@@ -45,6 +127,25 @@ public class PoomjobsJobRegistryAPI implements Api {
         return this.handlers;
     }
 
+    public Optional<JobScheduler> scheduler() {
+        return Optional.ofNullable(this.scheduler);
+    }
+
+    /**
+     * Starts promoting SCHEDULED jobs if not already started, no-op when the job repository is not a PoomjobsJobRepository.
+     */
+    public void start() {
+        if(this.scheduler != null) {
+            this.scheduler.start();
+        }
+    }
+
+    public void stop() {
+        if(this.scheduler != null) {
+            this.scheduler.stop();
+        }
+    }
+
     @Override
     public String name() {
         return "poomjobs-jobs";
@@ -22,12 +22,18 @@ public class PoomjobsRunnerRegistryAPI implements Api {
 
     public PoomjobsRunnerRegistryAPI(
             Repository<RunnerValue, RunnerQuery> runnerRepository, JsonFactory jsonFactory
+    ) {
+        this(runnerRepository, PoomjobsRunnerRepositoryListener.NOOP, jsonFactory);
+    }
+
+    public PoomjobsRunnerRegistryAPI(
+            Repository<RunnerValue, RunnerQuery> runnerRepository, PoomjobsRunnerRepositoryListener runnerRepositoryListener, JsonFactory jsonFactory
     ) {
         this.handlers = new PoomjobsRunnerRegistryAPIHandlers.Builder()
                 .runnerCollectionGetHandler(new RunnerCollectionGetHandler(runnerRepository))
-                .runnerCollectionPostHandler(new RunnerCollectionPostHandler(runnerRepository))
+                .runnerCollectionPostHandler(new RunnerCollectionPostHandler(runnerRepository, runnerRepositoryListener))
                 .runnerGetHandler(new RunnerGetHandler(runnerRepository))
-                .runnerPatchHandler(new RunnerPatchHandler(runnerRepository))
+                .runnerPatchHandler(new RunnerPatchHandler(runnerRepository, runnerRepositoryListener))
                 .build();
         this.processor = new PoomjobsRunnerRegistryAPIProcessor(
                 this.path(),
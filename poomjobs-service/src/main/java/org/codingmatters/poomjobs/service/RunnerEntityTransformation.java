@@ -42,6 +42,8 @@ public class RunnerEntityTransformation {
                     .created(this.entity.value().runtime().created())
                     .lastPing(this.entity.value().runtime().lastPing())
                     .status(this.runnerStatus(this.entity.value().runtime().status()))
+                    .capacity(this.entity.value().runtime().capacity())
+                    .freeSlots(this.entity.value().runtime().freeSlots())
                     .build());
         }
 
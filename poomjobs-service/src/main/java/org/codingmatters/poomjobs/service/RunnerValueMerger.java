@@ -57,6 +57,8 @@ public class RunnerValueMerger {
         } else {
             runtime.status(null);
         }
+        runtime.capacity(runnerStatusData.capacity());
+        runtime.freeSlots(runnerStatusData.freeSlots());
 
         return result.withRuntime(runtime.build());
     }
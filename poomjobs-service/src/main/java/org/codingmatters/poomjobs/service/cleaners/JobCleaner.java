@@ -1,39 +1,182 @@
 package org.codingmatters.poomjobs.service.cleaners;
 
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
 import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
 import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.logging.CategorizedLogger;
 import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.codingmatters.poomjobs.service.cleaners.archive.JobArchive;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Deletes DONE jobs submitted before the kept delay.
+ *
+ * Jobs are deleted in batches of at most batchSize jobs, walking them by submission date, each delete being bounded to
+ * the ids of the batch. When maxDeletesPerSecond is positive, the cleaner pauses between batches to stay under that
+ * rate. The submission date reached is checkpointed : a cleanup interrupted before its end resumes from there. Stopping
+ * the cleaner returns right away, a cleanup in progress stops after its current batch.
+ *
+ * When an archive is given, each batch is appended to the archive before exactly its jobs are deleted, and the cleanup
+ * stops without deleting when archiving fails. Jobs are archived at least once : a cleanup stopped between archiving
+ * and deleting a batch archives it again on the next run.
+ *
+ * The listener is notified of the ids of each deleted batch, for instance for cached jobs to be invalidated.
+ */
 public class JobCleaner {
     static private final CategorizedLogger log = CategorizedLogger.getLogger(JobCleaner.class);
 
+    static public final int DEFAULT_BATCH_SIZE = 1000;
+
     private final Repository<JobValue, PropertyQuery> jobRepository;
     private final long kept;
     private final TemporalUnit keptUnit;
+    private final int batchSize;
+    private final long maxDeletesPerSecond;
+    private final JobArchive archive;
+    private final PoomjobsJobRepositoryListener listener;
     private ScheduledFuture<?> task;
 
+    private final Object cleaning = new Object();
+    private volatile long stops = 0L;
+
+    private volatile LocalDateTime checkpoint = null;
+
     public JobCleaner(Repository<JobValue, PropertyQuery> jobRepository, long kept, TemporalUnit keptUnit) {
+        this(jobRepository, kept, keptUnit, DEFAULT_BATCH_SIZE, 0L);
+    }
+
+    public JobCleaner(Repository<JobValue, PropertyQuery> jobRepository, long kept, TemporalUnit keptUnit, int batchSize, long maxDeletesPerSecond) {
+        this(jobRepository, kept, keptUnit, batchSize, maxDeletesPerSecond, null);
+    }
+
+    public JobCleaner(Repository<JobValue, PropertyQuery> jobRepository, long kept, TemporalUnit keptUnit, int batchSize, long maxDeletesPerSecond, JobArchive archive) {
+        this(jobRepository, kept, keptUnit, batchSize, maxDeletesPerSecond, archive, PoomjobsJobRepositoryListener.NOOP);
+    }
+
+    public JobCleaner(Repository<JobValue, PropertyQuery> jobRepository, long kept, TemporalUnit keptUnit, int batchSize, long maxDeletesPerSecond, JobArchive archive, PoomjobsJobRepositoryListener listener) {
         this.jobRepository = jobRepository;
         this.kept = kept;
         this.keptUnit = keptUnit;
+        this.batchSize = batchSize;
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+        this.archive = archive;
+        this.listener = listener;
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        this.stop();
+        this.task = scheduler.scheduleWithFixedDelay(this::cleanup, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        this.stops++;
+        if (this.task != null) {
+            this.task.cancel(true);
+            this.task = null;
+        }
+    }
+
+    /**
+     * @return the submission date of the last purged batch of an unfinished cleanup, null when the last cleanup went through
+     */
+    public LocalDateTime checkpoint() {
+        return this.checkpoint;
     }
 
-    public void cleanup() {
+    /**
+     * @return the number of purged jobs
+     */
+    public long cleanup() {
+        synchronized (this.cleaning) {
+            return this.cleanup(this.stops);
+        }
+    }
+
+    private long cleanup(long stops) {
+        LocalDateTime limit = UTC.now().minus(this.kept, this.keptUnit);
+        long purged = 0L;
         try {
-            PropertyQuery query = PropertyQuery.builder()
-                    .filter("status.run == 'DONE' && processing.submitted < %s", UTC.now().minus(this.kept, this.keptUnit))
-                    .build();
-            this.jobRepository.deleteFrom(query);
+            while (!Thread.currentThread().isInterrupted() && stops == this.stops) {
+                long batchStart = System.currentTimeMillis();
+                PagedEntityList<JobValue> batch = this.jobRepository.search(this.batchQuery(limit), 0, this.batchSize - 1);
+                if (batch.isEmpty()) {
+                    this.checkpoint = null;
+                    break;
+                }
+
+                LocalDateTime from = batch.get(0).value().processing().submitted();
+                LocalDateTime to = batch.get(batch.size() - 1).value().processing().submitted();
+                if (this.archive != null) {
+                    this.archive.append(batch);
+                }
+                this.delete(batch);
+                purged += batch.size();
+                this.checkpoint = to;
+                log.debug("purged {} jobs submitted from {} to {}", batch.size(), from, to);
+
+                if (batch.size() < this.batchSize) {
+                    this.checkpoint = null;
+                    break;
+                }
+                this.throttle(batch.size(), System.currentTimeMillis() - batchStart);
+            }
         } catch (RepositoryException e) {
             log.error("[GRAVE] error cleaning job repository", e);
+        } catch (IOException e) {
+            log.error("[GRAVE] error archiving jobs, cleanup stopped before deleting them", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (purged > 0) {
+            log.info("purged {} jobs submitted before {}", purged, limit);
+        }
+        return purged;
+    }
+
+    private PropertyQuery batchQuery(LocalDateTime limit) {
+        PropertyQuery.Builder query = PropertyQuery.builder().sort("processing.submitted asc");
+        if (this.checkpoint != null && this.checkpoint.isBefore(limit)) {
+            query.filter("status.run == 'DONE' && processing.submitted >= %s && processing.submitted < %s", this.checkpoint, limit);
+        } else {
+            query.filter("status.run == 'DONE' && processing.submitted < %s", limit);
+        }
+        return query.build();
+    }
+
+    private void delete(List<Entity<JobValue>> batch) throws RepositoryException {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Entity<JobValue> entity : batch) {
+            ids.add(entity.id());
+        }
+        if (this.jobRepository instanceof PoomjobsJobRepository) {
+            ((PoomjobsJobRepository) this.jobRepository).deleteAll(ids);
+        } else {
+            for (Entity<JobValue> entity : batch) {
+                this.jobRepository.delete(entity);
+            }
+        }
+        this.listener.jobsDeleted(ids);
+    }
+
+    private void throttle(long deleted, long elapsedMillis) throws InterruptedException {
+        if (this.maxDeletesPerSecond > 0) {
+            long pause = deleted * 1000L / this.maxDeletesPerSecond - elapsedMillis;
+            if (pause > 0) {
+                Thread.sleep(pause);
+            }
         }
     }
 }
@@ -0,0 +1,194 @@
+package org.codingmatters.poomjobs.service.cleaners;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobRunnerMetaData;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Processing;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.AbortionStatus;
+import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases RUNNING jobs whose runner is gone : the runner is no longer registered, is DISCONNECTED or did not ping
+ * within its time to live.
+ *
+ * Idempotent jobs are put back PENDING, others are DONE / ABORTED with the STALE cause.
+ *
+ * A runner is considered gone when it did not ping for ttlGraceFactor times its time to live (2 by default), so that a
+ * late ping does not get its jobs reaped.
+ *
+ * Each pass examines at most batchSize RUNNING jobs, walking them by start date from where the previous pass stopped,
+ * and starting over once all have been seen. Jobs started at the checkpoint date are looked up again and told apart by
+ * id, so that jobs sharing the last start date of a batch are not skipped.
+ */
+public class StaleJobReaper {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(StaleJobReaper.class);
+
+    private final Repository<JobValue, PropertyQuery> jobRepository;
+    private final Repository<RunnerValue, ?> runnerRepository;
+    private final PoomjobsJobRepositoryListener listener;
+    private final int batchSize;
+    private final int ttlGraceFactor;
+
+    private LocalDateTime checkpoint = null;
+    private final Set<String> seenAtCheckpoint = new HashSet<>();
+    private ScheduledFuture<?> task;
+
+    public StaleJobReaper(Repository<JobValue, PropertyQuery> jobRepository, Repository<RunnerValue, ?> runnerRepository, PoomjobsJobRepositoryListener listener, int batchSize) {
+        this(jobRepository, runnerRepository, listener, batchSize, 2);
+    }
+
+    public StaleJobReaper(Repository<JobValue, PropertyQuery> jobRepository, Repository<RunnerValue, ?> runnerRepository, PoomjobsJobRepositoryListener listener, int batchSize, int ttlGraceFactor) {
+        this.jobRepository = jobRepository;
+        this.runnerRepository = runnerRepository;
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.ttlGraceFactor = Math.max(1, ttlGraceFactor);
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        this.stop();
+        this.task = scheduler.scheduleWithFixedDelay(this::reap, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+    }
+
+    /**
+     * @return the number of stale jobs released by this pass
+     */
+    public synchronized int reap() {
+        PropertyQuery.Builder query = PropertyQuery.builder().sort("processing.started asc");
+        if (this.checkpoint == null) {
+            query.filter("status.run == 'RUNNING'");
+        } else {
+            query.filter("status.run == 'RUNNING' && processing.started >= %s", this.checkpoint);
+        }
+
+        long requested = this.batchSize + this.seenAtCheckpoint.size();
+        PagedEntityList<JobValue> page;
+        try {
+            page = this.jobRepository.search(query.build(), 0, requested - 1);
+        } catch (RepositoryException e) {
+            log.error("[GRAVE] error looking up running jobs", e);
+            return 0;
+        }
+
+        LocalDateTime now = UTC.now();
+        Map<String, Boolean> expiredRunners = new HashMap<>();
+        int reaped = 0;
+        int examined = 0;
+        for (Entity<JobValue> job : page) {
+            if (examined >= this.batchSize) {
+                break;
+            }
+            LocalDateTime started = job.value().opt().processing().started().orElse(null);
+            if (started != null && started.equals(this.checkpoint) && this.seenAtCheckpoint.contains(job.id())) {
+                continue;
+            }
+            examined++;
+
+            String runnerId = job.value().opt().runner().runnerId().orElse(null);
+            if (runnerId != null && expiredRunners.computeIfAbsent(runnerId, id -> this.runnerExpired(id, now))) {
+                if (this.release(job, now)) {
+                    reaped++;
+                }
+            }
+            if (started != null) {
+                if (!started.equals(this.checkpoint)) {
+                    this.checkpoint = started;
+                    this.seenAtCheckpoint.clear();
+                }
+                this.seenAtCheckpoint.add(job.id());
+            }
+        }
+        if (page.size() < requested) {
+            this.checkpoint = null;
+            this.seenAtCheckpoint.clear();
+        }
+
+        if (reaped > 0) {
+            log.info("released {} stale jobs", reaped);
+        }
+        return reaped;
+    }
+
+    private boolean runnerExpired(String runnerId, LocalDateTime now) {
+        Entity<RunnerValue> runner;
+        try {
+            runner = this.runnerRepository.retrieve(runnerId);
+        } catch (RepositoryException e) {
+            log.error("error retrieving runner " + runnerId + ", considering it alive", e);
+            return false;
+        }
+        if (runner == null) {
+            return true;
+        }
+        if (Runtime.Status.DISCONNECTED.equals(runner.value().opt().runtime().status().orElse(null))) {
+            return true;
+        }
+        LocalDateTime lastPing = runner.value().opt().runtime().lastPing().orElse(null);
+        Long ttl = runner.value().timeToLive();
+        return lastPing != null && ttl != null && lastPing.plusNanos(ttl * this.ttlGraceFactor * 1_000_000L).isBefore(now);
+    }
+
+    private boolean release(Entity<JobValue> job, LocalDateTime now) {
+        Processing processing = job.value().processing() != null ? job.value().processing() : Processing.builder().build();
+        JobValue released;
+        if (job.value().opt().runner().idempotent().orElse(false)) {
+            released = job.value()
+                    .withRunner((JobRunnerMetaData) null)
+                    .withStatus(job.value().status().withRun(Status.Run.PENDING).withExit(null))
+                    .withProcessing(processing.withStarted(null));
+        } else {
+            released = job.value()
+                    .withStatus(job.value().status()
+                            .withRun(Status.Run.DONE)
+                            .withExit(Status.Exit.ABORTED)
+                            .withAbortionStatus(AbortionStatus.builder().cause(AbortionStatus.Cause.STALE).build()))
+                    .withProcessing(processing.withFinished(now));
+        }
+
+        Optional<Entity<JobValue>> updated;
+        try {
+            if (this.jobRepository instanceof PoomjobsJobRepository) {
+                updated = ((PoomjobsJobRepository) this.jobRepository).updateIfVersionMatches(job, released);
+            } else {
+                updated = Optional.of(this.jobRepository.update(job, released));
+            }
+        } catch (RepositoryException e) {
+            log.error("[GRAVE] error releasing stale job " + job.id(), e);
+            return false;
+        }
+        if (!updated.isPresent()) {
+            log.debug("stale job {} changed concurrently, left as is", job.id());
+            return false;
+        }
+        log.info("runner {} expired, stale job {} is now {}", job.value().runner().runnerId(), job.id(), released.status().run());
+        this.listener.jobUpdated(updated.get(), job.value());
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package org.codingmatters.poomjobs.service.cleaners.archive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.json.JobWriter;
+import org.codingmatters.poomjobs.service.JobEntityTransformation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append only archive of jobs on local disk, partitioned by submission day and category : jobs submitted on a given day
+ * for a category are appended to the &lt;root&gt;/&lt;yyyy-MM-dd&gt;/&lt;category&gt;.jobs.gz segment.
+ *
+ * Each append adds a gzip member to the segment, holding one json job per line. Segments are read with
+ * {@link JobArchiveReader}.
+ */
+public class JobArchive {
+
+    static final String SEGMENT_SUFFIX = ".jobs.gz";
+    static final String UNDATED = "undated";
+
+    private final Path root;
+    private final JsonFactory jsonFactory;
+
+    public JobArchive(Path root, JsonFactory jsonFactory) {
+        this.root = root;
+        this.jsonFactory = jsonFactory;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public synchronized void append(List<Entity<JobValue>> jobs) throws IOException {
+        Map<Path, List<Job>> segments = new LinkedHashMap<>();
+        for (Entity<JobValue> entity : jobs) {
+            Job job = JobEntityTransformation.transform(entity).asJob();
+            LocalDateTime submitted = job.opt().processing().submitted().orElse(null);
+            segments.computeIfAbsent(this.segment(submitted != null ? submitted.toLocalDate() : null, job.category()), path -> new LinkedList<>()).add(job);
+        }
+
+        for (Map.Entry<Path, List<Job>> segment : segments.entrySet()) {
+            this.appendTo(segment.getKey(), segment.getValue());
+        }
+    }
+
+    private void appendTo(Path segment, List<Job> jobs) throws IOException {
+        Files.createDirectories(segment.getParent());
+        try (FileOutputStream file = new FileOutputStream(segment.toFile(), true)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+            for (Job job : jobs) {
+                gzip.write(this.json(job));
+                gzip.write('\n');
+            }
+            gzip.finish();
+            gzip.flush();
+            file.getFD().sync();
+            gzip.close();
+        }
+    }
+
+    private byte[] json(Job job) throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream(); JsonGenerator generator = this.jsonFactory.createGenerator(out)) {
+            new JobWriter().write(generator, job);
+            generator.flush();
+            generator.close();
+            return out.toByteArray();
+        }
+    }
+
+    Path segment(LocalDate day, String category) {
+        return this.root.resolve(day != null ? day.toString() : UNDATED).resolve(segmentName(category));
+    }
+
+    static String segmentName(String category) {
+        String name = category != null ? category.replaceAll("[^A-Za-z0-9._-]", "_") : "_";
+        return name + SEGMENT_SUFFIX;
+    }
+}
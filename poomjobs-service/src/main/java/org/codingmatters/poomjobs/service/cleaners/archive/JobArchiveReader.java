@@ -0,0 +1,114 @@
+package org.codingmatters.poomjobs.service.cleaners.archive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.api.types.json.JobReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Scans the jobs archived by {@link JobArchive}, only reading the segments of the days in the scanned range.
+ */
+public class JobArchiveReader {
+
+    private final Path root;
+    private final JsonFactory jsonFactory;
+
+    public JobArchiveReader(Path root, JsonFactory jsonFactory) {
+        this.root = root;
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Scans jobs submitted from (inclusive) to (exclusive), in segment order.
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<Job> consumer) throws IOException {
+        this.scan(from, to, null, consumer);
+    }
+
+    /**
+     * Scans jobs of the category submitted from (inclusive) to (exclusive), in segment order. All categories are scanned
+     * when category is null.
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, String category, Consumer<Job> consumer) throws IOException {
+        for (Path day : this.days(from.toLocalDate(), to.toLocalDate())) {
+            for (Path segment : this.segments(day, category)) {
+                this.read(segment, job -> {
+                    LocalDateTime submitted = job.opt().processing().submitted().orElse(null);
+                    if (submitted != null && !submitted.isBefore(from) && submitted.isBefore(to)
+                            && (category == null || category.equals(job.category()))) {
+                        consumer.accept(job);
+                    }
+                });
+            }
+        }
+    }
+
+    private List<Path> days(LocalDate from, LocalDate to) throws IOException {
+        if (!Files.isDirectory(this.root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> days = Files.list(this.root)) {
+            return days
+                    .filter(Files::isDirectory)
+                    .filter(day -> {
+                        LocalDate date = this.date(day);
+                        return date != null && !date.isBefore(from) && !date.isAfter(to);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private LocalDate date(Path day) {
+        try {
+            return LocalDate.parse(day.getFileName().toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private List<Path> segments(Path day, String category) throws IOException {
+        if (category != null) {
+            Path segment = day.resolve(JobArchive.segmentName(category));
+            List<Path> result = new ArrayList<>();
+            if (Files.exists(segment)) {
+                result.add(segment);
+            }
+            return result;
+        }
+        try (Stream<Path> segments = Files.list(day)) {
+            return segments
+                    .filter(segment -> segment.getFileName().toString().endsWith(JobArchive.SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void read(Path segment, Consumer<Job> consumer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(segment), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try (JsonParser parser = this.jsonFactory.createParser(line)) {
+                    consumer.accept(new JobReader().read(parser));
+                }
+            }
+        }
+    }
+}
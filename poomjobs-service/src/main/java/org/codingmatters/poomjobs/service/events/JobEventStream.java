@@ -0,0 +1,252 @@
+package org.codingmatters.poomjobs.service.events;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.service.JobEntityTransformation;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Fans the job lifecycle events out to subscribers. Events are numbered, and the last events are kept in a ring buffer
+ * so that a subscriber can resume after the last event it received.
+ *
+ * Subscribers have a bounded buffer of events not yet sent : a subscriber that doesn't keep up is cancelled and
+ * notified of the overflow, it can then resume from its last received event.
+ *
+ * Publishing only numbers the event and queues it to the subscriptions, the job payload is built once, on first use, and
+ * each subscription's queue is drained in order on the delivery executor, outside of the publishing lock.
+ */
+public class JobEventStream implements PoomjobsJobRepositoryListener {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobEventStream.class);
+
+    public enum Type {
+        CREATED, UPDATED, DONE
+    }
+
+    private final JobEvent[] ring;
+    private long nextSequence = 1;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Executor delivery;
+
+    public JobEventStream(int ringSize) {
+        this(ringSize, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public JobEventStream(int ringSize, Executor delivery) {
+        this.ring = new JobEvent[ringSize];
+        this.delivery = delivery;
+    }
+
+    @Override
+    public void jobCreated(Entity<JobValue> entity) {
+        this.publish(Type.CREATED, entity);
+    }
+
+    @Override
+    public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+        boolean done = this.isDone(entity.value()) && (oldValue == null || !this.isDone(oldValue));
+        this.publish(done ? Type.DONE : Type.UPDATED, entity);
+    }
+
+    /**
+     * Subscribes to the events matching filter. When afterSequence is not null, the buffered events following it are
+     * sent first.
+     *
+     * Subscriber methods are called in event order from the delivery executor and must not block.
+     */
+    public Subscription subscribe(Predicate<JobEvent> filter, Long afterSequence, int bufferSize, Subscriber subscriber) {
+        Subscription subscription = new Subscription(filter, bufferSize, subscriber);
+        synchronized (this) {
+            if (afterSequence != null) {
+                long from = Math.max(afterSequence + 1, this.nextSequence - this.ring.length);
+                if (from > afterSequence + 1) {
+                    log.info("events {} to {} are no longer buffered, resuming from {}", afterSequence + 1, from - 1, from);
+                }
+                for (long sequence = from; sequence < this.nextSequence && !subscription.cancelled.get(); sequence++) {
+                    subscription.offer(this.ring[this.index(sequence)]);
+                }
+            }
+            if (!subscription.cancelled.get()) {
+                this.subscriptions.add(subscription);
+            }
+        }
+        subscription.deliver();
+        return subscription;
+    }
+
+    public int subscriptionCount() {
+        return this.subscriptions.size();
+    }
+
+    public synchronized long lastSequence() {
+        return this.nextSequence - 1;
+    }
+
+    private void publish(Type type, Entity<JobValue> entity) {
+        Subscription[] targets;
+        synchronized (this) {
+            JobEvent event = new JobEvent(this.nextSequence++, type, entity);
+            this.ring[this.index(event.sequence)] = event;
+            if (this.subscriptions.isEmpty()) {
+                return;
+            }
+            targets = this.subscriptions.toArray(new Subscription[0]);
+            for (Subscription subscription : targets) {
+                subscription.offer(event);
+            }
+        }
+        for (Subscription subscription : targets) {
+            subscription.deliver();
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % this.ring.length);
+    }
+
+    private boolean isDone(JobValue value) {
+        return Status.Run.DONE.equals(value.opt().status().run().orElse(null));
+    }
+
+    /**
+     * @return a filter on the job category, name and account, null criteria matching any job
+     */
+    static public Predicate<JobEvent> filter(String category, String name, String accountId) {
+        return event -> (category == null || category.equals(event.job().category()))
+                && (name == null || name.equals(event.job().name()))
+                && (accountId == null || accountId.equals(event.job().opt().accounting().accountId().orElse(null)));
+    }
+
+    public interface Subscriber {
+        /**
+         * Must not block. sent is to be called once the event is no longer buffered, whether it was sent or not.
+         */
+        void event(JobEvent event, Runnable sent);
+
+        void overflowed();
+    }
+
+    public class Subscription {
+        private final Predicate<JobEvent> filter;
+        private final int bufferSize;
+        private final Subscriber subscriber;
+
+        private final Queue<JobEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger(0);
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final AtomicBoolean overflowed = new AtomicBoolean(false);
+        private final AtomicBoolean delivering = new AtomicBoolean(false);
+
+        private Subscription(Predicate<JobEvent> filter, int bufferSize, Subscriber subscriber) {
+            this.filter = filter;
+            this.bufferSize = bufferSize;
+            this.subscriber = subscriber;
+        }
+
+        public void cancel() {
+            if (this.cancelled.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+            }
+        }
+
+        public boolean cancelled() {
+            return this.cancelled.get();
+        }
+
+        /**
+         * Called while publishing, only queues the event.
+         */
+        private void offer(JobEvent event) {
+            if (this.cancelled.get()) {
+                return;
+            }
+            if (this.buffered.incrementAndGet() > this.bufferSize) {
+                log.info("job event subscriber overflowed at event {}, cancelling subscription", event.sequence);
+                this.cancel();
+                this.overflowed.set(true);
+                return;
+            }
+            this.queue.offer(event);
+        }
+
+        private void deliver() {
+            if (this.delivering.compareAndSet(false, true)) {
+                delivery.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                JobEvent event;
+                while ((event = this.queue.poll()) != null) {
+                    if (this.cancelled.get()) {
+                        this.queue.clear();
+                    } else if (this.filter.test(event)) {
+                        this.subscriber.event(event, this.buffered::decrementAndGet);
+                    } else {
+                        this.buffered.decrementAndGet();
+                    }
+                }
+                if (this.overflowed.compareAndSet(true, false)) {
+                    this.subscriber.overflowed();
+                }
+                this.delivering.set(false);
+            } while ((!this.queue.isEmpty() || this.overflowed.get()) && this.delivering.compareAndSet(false, true));
+        }
+    }
+
+    static public class JobEvent {
+        private final long sequence;
+        private final Type type;
+        private final Entity<JobValue> entity;
+        private volatile Job job;
+
+        public JobEvent(long sequence, Type type, Job job) {
+            this.sequence = sequence;
+            this.type = type;
+            this.entity = null;
+            this.job = job;
+        }
+
+        private JobEvent(long sequence, Type type, Entity<JobValue> entity) {
+            this.sequence = sequence;
+            this.type = type;
+            this.entity = entity;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        public Type type() {
+            return type;
+        }
+
+        public Job job() {
+            Job result = this.job;
+            if (result == null) {
+                synchronized (this) {
+                    result = this.job;
+                    if (result == null) {
+                        result = JobEntityTransformation.transform(this.entity).asJob();
+                        this.job = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.codingmatters.poom.poomjobs.domain.jobs.JobValueCreation;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobQuery;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Accounting;
+import org.codingmatters.poom.runner.tracing.JobTracing;
 import org.codingmatters.poom.services.domain.change.Change;
 import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
 import org.codingmatters.poom.services.domain.repositories.Repository;
@@ -60,7 +61,7 @@ public class JobCollectionPostHandler implements CollectionPostProtocol<JobValue
                         .accountId(request.accountId())
                         .extension(request.xExtension())
                         .build())
-                .withContext(this.contextualize(request))
+                .withContext(JobTracing.traced(this.contextualize(request)))
                 ;
 
         return JobValueCreation.with(jobValue);
@@ -14,6 +14,7 @@ import org.codingmatters.poomjobs.api.runnercollectionpostresponse.Status201;
 import org.codingmatters.poomjobs.api.runnercollectionpostresponse.Status400;
 import org.codingmatters.poomjobs.api.runnercollectionpostresponse.Status500;
 import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.service.PoomjobsRunnerRepositoryListener;
 import org.codingmatters.poomjobs.service.RunnerValueMerger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +23,15 @@ public class RunnerCollectionPostHandler implements CollectionPostProtocol<Runne
     static private final Logger log = LoggerFactory.getLogger(RunnerCollectionPostHandler.class);
 
     private final Repository<RunnerValue, RunnerQuery> repository;
+    private final PoomjobsRunnerRepositoryListener listener;
 
     public RunnerCollectionPostHandler(Repository<RunnerValue, RunnerQuery> repository) {
+        this(repository, PoomjobsRunnerRepositoryListener.NOOP);
+    }
+
+    public RunnerCollectionPostHandler(Repository<RunnerValue, RunnerQuery> repository, PoomjobsRunnerRepositoryListener listener) {
         this.repository = repository;
+        this.listener = listener != null ? listener : PoomjobsRunnerRepositoryListener.NOOP;
     }
 
     @Override
@@ -44,6 +51,7 @@ public class RunnerCollectionPostHandler implements CollectionPostProtocol<Runne
 
     @Override
     public RunnerCollectionPostResponse entityCreated(RunnerCollectionPostRequest request, Change<RunnerValue> creation, Entity<RunnerValue> entity) {
+        this.listener.runnerCreated(entity);
         return RunnerCollectionPostResponse.builder()
                 .status201(Status201.builder()
                         .location("%API_PATH%/runners/" + entity.id())
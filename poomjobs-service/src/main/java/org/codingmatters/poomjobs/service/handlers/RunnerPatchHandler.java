@@ -16,6 +16,7 @@ import org.codingmatters.poomjobs.api.runnerpatchresponse.Status400;
 import org.codingmatters.poomjobs.api.runnerpatchresponse.Status404;
 import org.codingmatters.poomjobs.api.runnerpatchresponse.Status500;
 import org.codingmatters.poomjobs.api.types.Error;
+import org.codingmatters.poomjobs.service.PoomjobsRunnerRepositoryListener;
 import org.codingmatters.poomjobs.service.RunnerEntityTransformation;
 import org.codingmatters.poomjobs.service.RunnerValueMerger;
 import org.slf4j.Logger;
@@ -26,9 +27,15 @@ public class RunnerPatchHandler implements ResourcePutProtocol<RunnerValue, Runn
     static private final Logger log = LoggerFactory.getLogger(RunnerPatchHandler.class);
 
     private final Repository<RunnerValue, RunnerQuery> repository;
+    private final PoomjobsRunnerRepositoryListener listener;
 
     public RunnerPatchHandler(Repository<RunnerValue, RunnerQuery> repository) {
+        this(repository, PoomjobsRunnerRepositoryListener.NOOP);
+    }
+
+    public RunnerPatchHandler(Repository<RunnerValue, RunnerQuery> repository, PoomjobsRunnerRepositoryListener listener) {
         this.repository = repository;
+        this.listener = listener != null ? listener : PoomjobsRunnerRepositoryListener.NOOP;
     }
 
     @Override
@@ -56,6 +63,7 @@ public class RunnerPatchHandler implements ResourcePutProtocol<RunnerValue, Runn
 
     @Override
     public RunnerPatchResponse entityUpdated(Entity<RunnerValue> entity) {
+        this.listener.runnerUpdated(entity);
         return RunnerPatchResponse.builder()
                 .status200(Status200.builder()
                         .payload(RunnerEntityTransformation.transform(entity).asRunner())
@@ -0,0 +1,42 @@
+package org.codingmatters.poomjobs.service.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.codingmatters.rest.api.Processor;
+import org.codingmatters.rest.api.RequestDelegate;
+import org.codingmatters.rest.api.ResponseDelegate;
+import org.codingmatters.value.objects.values.ObjectValue;
+import org.codingmatters.value.objects.values.json.ObjectValueWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Serves the supplied metrics as a json object on GET, other methods are answered with a 405.
+ */
+public class MetricsProcessor implements Processor {
+
+    private final JsonFactory jsonFactory;
+    private final Supplier<ObjectValue> metrics;
+
+    public MetricsProcessor(JsonFactory jsonFactory, Supplier<ObjectValue> metrics) {
+        this.jsonFactory = jsonFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void process(RequestDelegate requestDelegate, ResponseDelegate responseDelegate) throws IOException {
+        if (!RequestDelegate.Method.GET.equals(requestDelegate.method())) {
+            responseDelegate.status(405).contenType("text/plain").payload("metrics are read with GET", "UTF-8");
+            return;
+        }
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream(); JsonGenerator generator = this.jsonFactory.createGenerator(out)) {
+            new ObjectValueWriter().write(generator, this.metrics.get());
+            generator.flush();
+            generator.close();
+            responseDelegate.status(200).contenType("application/json").payload(new String(out.toByteArray(), StandardCharsets.UTF_8), "UTF-8");
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.codingmatters.poomjobs.service.scheduling;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.PagedEntityList;
+import org.codingmatters.poom.services.domain.exceptions.RepositoryException;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.logging.CategorizedLogger;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps SCHEDULED jobs in a time ordered queue and turns them PENDING when their notBefore date is reached, the
+ * delegate listener being then notified of the update as for any job becoming PENDING.
+ *
+ * Other job events are passed to the delegate listener as is.
+ *
+ * A job has at most one pending promotion : scheduling an already scheduled job replaces its promotion date, a job
+ * updated out of the SCHEDULED state is unscheduled.
+ *
+ * The scheduler starts on the first scheduled job when start() was not called, so that scheduled jobs are never left
+ * SCHEDULED silently. Once stopped, it is only restarted by start().
+ */
+public class JobScheduler implements PoomjobsJobRepositoryListener {
+    static private final CategorizedLogger log = CategorizedLogger.getLogger(JobScheduler.class);
+
+    static private final int MAX_PROMOTION_ATTEMPTS = 5;
+    static private final long LOAD_PAGE_SIZE = 1000;
+
+    private final PoomjobsJobRepository repository;
+    private final PoomjobsJobRepositoryListener delegate;
+
+    private final DelayQueue<Due> due = new DelayQueue<>();
+    private final ConcurrentHashMap<String, Due> pending = new ConcurrentHashMap<>();
+    private volatile Thread promoter;
+    private boolean stopped = false;
+
+    public JobScheduler(PoomjobsJobRepository repository, PoomjobsJobRepositoryListener delegate) {
+        this.repository = repository;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Loads the jobs already SCHEDULED in the repository and starts promoting due jobs.
+     */
+    public synchronized void start() {
+        if (this.promoter != null) {
+            return;
+        }
+        this.stopped = false;
+        this.promoter = new Thread(this::promoteDueJobs, "job-scheduler");
+        this.promoter.setDaemon(true);
+        this.promoter.start();
+        this.load();
+    }
+
+    public boolean started() {
+        return this.promoter != null;
+    }
+
+    public synchronized void stop() {
+        this.stopped = true;
+        if (this.promoter != null) {
+            this.promoter.interrupt();
+            this.promoter = null;
+        }
+    }
+
+    public int scheduledCount() {
+        return this.pending.size();
+    }
+
+    @Override
+    public void jobCreated(Entity<JobValue> entity) {
+        if (this.isScheduled(entity.value())) {
+            this.schedule(entity);
+        } else {
+            this.delegate.jobCreated(entity);
+        }
+    }
+
+    @Override
+    public void jobsCreated(List<Entity<JobValue>> entities) {
+        List<Entity<JobValue>> unscheduled = new ArrayList<>(entities.size());
+        for (Entity<JobValue> entity : entities) {
+            if (this.isScheduled(entity.value())) {
+                this.schedule(entity);
+            } else {
+                unscheduled.add(entity);
+            }
+        }
+        if (!unscheduled.isEmpty()) {
+            this.delegate.jobsCreated(unscheduled);
+        }
+    }
+
+    @Override
+    public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+        if (this.isScheduled(entity.value())) {
+            this.schedule(entity);
+        } else {
+            this.unschedule(entity.id());
+        }
+        this.delegate.jobUpdated(entity, oldValue);
+    }
+
+    @Override
+    public void jobsDeleted(List<String> ids) {
+        for (String id : ids) {
+            this.unschedule(id);
+        }
+        this.delegate.jobsDeleted(ids);
+    }
+
+    private void load() {
+        PropertyQuery query = PropertyQuery.builder().filter("status.run == 'SCHEDULED'").build();
+        try {
+            long start = 0;
+            PagedEntityList<JobValue> page;
+            do {
+                page = this.repository.search(query, start, start + LOAD_PAGE_SIZE - 1);
+                for (Entity<JobValue> entity : page) {
+                    this.schedule(entity);
+                }
+                start += LOAD_PAGE_SIZE;
+            } while (!page.isEmpty() && start < page.total());
+            log.info("loaded {} scheduled jobs", this.pending.size());
+        } catch (RepositoryException e) {
+            log.error("[GRAVE] failed loading scheduled jobs, they will stay SCHEDULED until updated", e);
+        }
+    }
+
+    private void schedule(Entity<JobValue> entity) {
+        if (this.promoter == null) {
+            this.startOnFirstScheduledJob(entity.id());
+        }
+        LocalDateTime notBefore = entity.value().opt().processing().notBefore().orElse(UTC.now());
+        this.pending.compute(entity.id(), (jobId, previous) -> {
+            if (previous != null) {
+                this.due.remove(previous);
+            }
+            Due next = new Due(jobId, notBefore);
+            this.due.offer(next);
+            return next;
+        });
+        log.debug("job {} scheduled at {}", entity.id(), notBefore);
+    }
+
+    private synchronized void startOnFirstScheduledJob(String jobId) {
+        if (this.promoter != null) {
+            return;
+        }
+        if (this.stopped) {
+            log.warn("job {} scheduled while the job scheduler is stopped, it will stay SCHEDULED until the scheduler is started", jobId);
+            return;
+        }
+        log.info("job scheduler was not started, starting it for scheduled job {}", jobId);
+        this.start();
+    }
+
+    private void unschedule(String jobId) {
+        this.pending.computeIfPresent(jobId, (id, previous) -> {
+            this.due.remove(previous);
+            return null;
+        });
+    }
+
+    private void promoteDueJobs() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Due next = this.due.take();
+                if (this.pending.remove(next.jobId, next)) {
+                    this.promote(next.jobId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("[GRAVE] unexpected error while promoting scheduled job", e);
+            }
+        }
+        log.info("job scheduler stopped");
+    }
+
+    private void promote(String jobId) throws RepositoryException {
+        for (int attempt = 0; attempt < MAX_PROMOTION_ATTEMPTS; attempt++) {
+            Entity<JobValue> entity = this.repository.retrieve(jobId);
+            if (entity == null || !this.isScheduled(entity.value())) {
+                return;
+            }
+            LocalDateTime notBefore = entity.value().opt().processing().notBefore().orElse(null);
+            if (notBefore != null && notBefore.isAfter(UTC.now())) {
+                this.schedule(entity);
+                return;
+            }
+
+            JobValue pending = entity.value().withStatus(entity.value().status().withRun(Status.Run.PENDING));
+            Optional<Entity<JobValue>> promoted = this.repository.updateIfVersionMatches(entity, pending);
+            if (promoted.isPresent()) {
+                log.debug("scheduled job {} is due, now PENDING", jobId);
+                this.delegate.jobUpdated(promoted.get(), entity.value());
+                return;
+            }
+        }
+        log.warn("job {} changed concurrently on each of {} promotion attempts, left SCHEDULED", jobId, MAX_PROMOTION_ATTEMPTS);
+    }
+
+    private boolean isScheduled(JobValue value) {
+        return Status.Run.SCHEDULED.equals(value.opt().status().run().orElse(null));
+    }
+
+    static private class Due implements Delayed {
+        private final String jobId;
+        private final LocalDateTime at;
+
+        Due(String jobId, LocalDateTime at) {
+            this.jobId = jobId;
+            this.at = at;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(UTC.now(), this.at).toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return this.at.compareTo(((Due) o).at);
+        }
+    }
+}
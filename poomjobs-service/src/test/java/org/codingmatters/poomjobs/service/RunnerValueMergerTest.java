@@ -104,4 +104,29 @@ public class RunnerValueMergerTest {
                         .build())
         );
     }
+
+    @Test
+    public void whenUpdate__withRunnerStatusDataWithSlots__capacityAndFreeSlotsAreUpdated() throws Exception {
+        RunnerValue value = RunnerValueMerger
+                .merge(RunnerValue.builder()
+                        .runtime(Runtime.builder()
+                                .status(Runtime.Status.IDLE)
+                                .capacity(16L).freeSlots(16L)
+                                .build())
+                        .build())
+                .with(RunnerStatusData.builder()
+                        .status(RunnerStatusData.Status.IDLE)
+                        .capacity(16L).freeSlots(3L)
+                        .build());
+
+        assertThat(
+                value,
+                is(RunnerValue.builder()
+                        .runtime(Runtime.builder()
+                                .status(Runtime.Status.IDLE)
+                                .capacity(16L).freeSlots(3L)
+                                .build())
+                        .build())
+        );
+    }
 }
@@ -1,16 +1,30 @@
 package org.codingmatters.poomjobs.service.cleaners;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobRepository;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
 import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
 import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
 import org.codingmatters.poom.services.domain.repositories.Repository;
 import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
 import org.codingmatters.poom.services.support.date.UTC;
 import org.codingmatters.poom.services.tests.Eventually;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.codingmatters.poomjobs.service.cleaners.archive.JobArchive;
+import org.codingmatters.poomjobs.service.cleaners.archive.JobArchiveReader;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -18,6 +32,9 @@ import static org.hamcrest.Matchers.*;
 
 public class JobCleanerTest {
 
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
     private final Repository<JobValue, PropertyQuery> jobs = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
     private final JobCleaner cleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS);
 
@@ -64,4 +81,136 @@ public class JobCleanerTest {
         assertThat(this.jobs.all(0, 0).total(), is(0L));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void givenManyOldDoneJobs__whenCleaningInBatches__thenAllPurged_andPurgedCountReported() throws Exception {
+        JobCleaner batchCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 3, 0L);
+        for (int i = 0; i < 10; i++) {
+            this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build());
+        }
+        this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.RUNNING)).processing(p -> p.submitted(UTC.now().minusDays(42))).build());
+        this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(1))).build());
+
+        assertThat(batchCleaner.cleanup(), is(10L));
+
+        assertThat(this.jobs.all(0, 0).total(), is(2L));
+        assertThat(batchCleaner.checkpoint(), is(nullValue()));
+    }
+
+    @Test
+    public void givenListener__whenCleaningInBatches__thenListenerNotifiedOfEachDeletedBatch() throws Exception {
+        List<List<String>> deleted = new LinkedList<>();
+        JobCleaner notifyingCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 2, 0L, null, new PoomjobsJobRepositoryListener() {
+            @Override
+            public void jobCreated(Entity<JobValue> entity) {}
+
+            @Override
+            public void jobUpdated(Entity<JobValue> entity, JobValue value) {}
+
+            @Override
+            public void jobsDeleted(List<String> ids) {
+                deleted.add(ids);
+            }
+        });
+        List<String> ids = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build()).id());
+        }
+
+        notifyingCleaner.cleanup();
+
+        assertThat(deleted, contains(ids.subList(0, 2), ids.subList(2, 3)));
+    }
+
+    @Test
+    public void givenDeleteRateBudget__whenCleaning__thenPausesBetweenBatches() throws Exception {
+        JobCleaner throttledCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 2, 10L);
+        for (int i = 0; i < 6; i++) {
+            this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build());
+        }
+
+        long start = System.currentTimeMillis();
+        assertThat(throttledCleaner.cleanup(), is(6L));
+
+        assertThat(System.currentTimeMillis() - start, is(greaterThanOrEqualTo(400L)));
+    }
+
+    @Test
+    public void givenCleanupInterrupted__thenProgressIsCheckpointed() throws Exception {
+        JobCleaner throttledCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 2, 1L);
+        for (int i = 0; i < 6; i++) {
+            this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build());
+        }
+
+        Thread cleaning = new Thread(throttledCleaner::cleanup);
+        cleaning.start();
+        Eventually.defaults().assertThat(() -> this.jobs.all(0, 0).total(), is(4L));
+        cleaning.interrupt();
+        cleaning.join(5000);
+
+        assertThat(throttledCleaner.checkpoint(), is(notNullValue()));
+        assertThat(this.jobs.all(0, 0).total(), is(4L));
+
+        assertThat(new JobCleaner(this.jobs, 12, ChronoUnit.DAYS).cleanup(), is(4L));
+    }
+
+    @Test
+    public void givenScheduledCleanupInProgress__whenStopping__thenStopReturnsRightAway_andCleanupStops() throws Exception {
+        JobCleaner throttledCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 2, 1L);
+        for (int i = 0; i < 6; i++) {
+            this.jobs.create(JobValue.builder().status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build());
+        }
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            throttledCleaner.start(scheduler, 10, TimeUnit.MILLISECONDS);
+            Eventually.defaults().assertThat(() -> this.jobs.all(0, 0).total(), is(4L));
+
+            long start = System.currentTimeMillis();
+            throttledCleaner.stop();
+            assertThat(System.currentTimeMillis() - start, is(lessThan(500L)));
+
+            Thread.sleep(500);
+            assertThat(this.jobs.all(0, 0).total(), is(4L));
+            assertThat(throttledCleaner.checkpoint(), is(notNullValue()));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenArchive__whenCleaning__thenPurgedJobsAreArchivedFirst() throws Exception {
+        JsonFactory jsonFactory = new JsonFactory();
+        JobCleaner archivingCleaner = new JobCleaner(this.jobs, 12, ChronoUnit.DAYS, 2, 0L, new JobArchive(this.dir.getRoot().toPath(), jsonFactory));
+        for (int i = 0; i < 5; i++) {
+            this.jobs.create(JobValue.builder().category("category").name("job").status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(UTC.now().minusDays(42).plusMinutes(this.jobs.all(0, 0).total()))).build());
+        }
+
+        assertThat(archivingCleaner.cleanup(), is(5L));
+        assertThat(this.jobs.all(0, 0).total(), is(0L));
+
+        List<Job> archived = new LinkedList<>();
+        new JobArchiveReader(this.dir.getRoot().toPath(), jsonFactory).scan(UTC.now().minusDays(50), UTC.now(), archived::add);
+        assertThat(archived.size(), is(5));
+    }
+
+    @Test
+    public void givenArchive_andJobsSubmittedAtTheSameDateAcrossBatches__whenCleaning__thenEachJobIsArchivedOnce_andDeleted() throws Exception {
+        PoomjobsJobRepository repository = JobRepository.createInMemory();
+        JsonFactory jsonFactory = new JsonFactory();
+        JobCleaner archivingCleaner = new JobCleaner(repository, 12, ChronoUnit.DAYS, 2, 0L, new JobArchive(this.dir.getRoot().toPath(), jsonFactory));
+        LocalDateTime submitted = UTC.now().minusDays(42);
+        for (int i = 0; i < 5; i++) {
+            repository.create(JobValue.builder().category("category").name("job").status(status -> status.run(Status.Run.DONE)).processing(p -> p.submitted(submitted)).build());
+        }
+        repository.create(JobValue.builder().category("category").name("job").status(status -> status.run(Status.Run.RUNNING)).processing(p -> p.submitted(submitted)).build());
+
+        assertThat(archivingCleaner.cleanup(), is(5L));
+        assertThat(repository.all(0, 0).total(), is(1L));
+
+        List<Job> archived = new LinkedList<>();
+        new JobArchiveReader(this.dir.getRoot().toPath(), jsonFactory).scan(UTC.now().minusDays(50), UTC.now(), archived::add);
+        assertThat(archived.size(), is(5));
+        assertThat(archived.stream().map(Job::id).distinct().count(), is(5L));
+    }
+
+}
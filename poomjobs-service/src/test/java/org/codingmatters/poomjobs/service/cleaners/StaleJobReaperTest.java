@@ -0,0 +1,153 @@
+package org.codingmatters.poomjobs.service.cleaners;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.status.AbortionStatus;
+import org.codingmatters.poom.poomjobs.domain.values.runners.RunnerValue;
+import org.codingmatters.poom.poomjobs.domain.values.runners.runnervalue.Runtime;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.property.query.PropertyQuery;
+import org.codingmatters.poom.services.domain.repositories.Repository;
+import org.codingmatters.poom.services.domain.repositories.inmemory.InMemoryRepositoryWithPropertyQuery;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StaleJobReaperTest {
+
+    private final Repository<JobValue, PropertyQuery> jobs = InMemoryRepositoryWithPropertyQuery.validating(JobValue.class);
+    private final Repository<RunnerValue, PropertyQuery> runners = InMemoryRepositoryWithPropertyQuery.validating(RunnerValue.class);
+
+    private final List<Entity<JobValue>> updated = new CopyOnWriteArrayList<>();
+    private final StaleJobReaper reaper = new StaleJobReaper(this.jobs, this.runners, new PoomjobsJobRepositoryListener() {
+        @Override
+        public void jobCreated(Entity<JobValue> entity) {
+        }
+
+        @Override
+        public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+            updated.add(entity);
+        }
+    }, 2);
+
+    @Test
+    public void givenRunningJob__whenRunnerIsAlive__thenNoChange() throws Exception {
+        this.runners.createWithId("runner", this.runner(Runtime.Status.RUNNING, UTC.now().minusSeconds(1)));
+        Entity<JobValue> job = this.jobs.create(this.runningJob("runner", true, UTC.now().minusMinutes(1)));
+
+        assertThat(this.reaper.reap(), is(0));
+
+        assertThat(this.jobs.retrieve(job.id()).value().status().run(), is(Status.Run.RUNNING));
+        assertThat(this.updated, is(empty()));
+    }
+
+    @Test
+    public void givenRunningIdempotentJob__whenRunnerTtlExpired__thenJobIsPendingAgain() throws Exception {
+        this.runners.createWithId("runner", this.runner(Runtime.Status.RUNNING, UTC.now().minusMinutes(5)));
+        Entity<JobValue> job = this.jobs.create(this.runningJob("runner", true, UTC.now().minusMinutes(10)));
+
+        assertThat(this.reaper.reap(), is(1));
+
+        JobValue reaped = this.jobs.retrieve(job.id()).value();
+        assertThat(reaped.status().run(), is(Status.Run.PENDING));
+        assertThat(reaped.status().exit(), is(nullValue()));
+        assertThat(reaped.runner(), is(nullValue()));
+        assertThat(reaped.processing().started(), is(nullValue()));
+        assertThat(this.updated.size(), is(1));
+    }
+
+    @Test
+    public void givenRunningNonIdempotentJob__whenRunnerIsDisconnected__thenJobIsAbortedAsStale() throws Exception {
+        this.runners.createWithId("runner", this.runner(Runtime.Status.DISCONNECTED, UTC.now()));
+        Entity<JobValue> job = this.jobs.create(this.runningJob("runner", false, UTC.now().minusMinutes(10)));
+
+        assertThat(this.reaper.reap(), is(1));
+
+        JobValue reaped = this.jobs.retrieve(job.id()).value();
+        assertThat(reaped.status().run(), is(Status.Run.DONE));
+        assertThat(reaped.status().exit(), is(Status.Exit.ABORTED));
+        assertThat(reaped.status().abortionStatus().cause(), is(AbortionStatus.Cause.STALE));
+        assertThat(reaped.processing().finished(), is(notNullValue()));
+    }
+
+    @Test
+    public void givenRunningJob__whenRunnerIsUnknown__thenJobIsReaped() throws Exception {
+        Entity<JobValue> job = this.jobs.create(this.runningJob("gone", false, UTC.now().minusMinutes(10)));
+
+        assertThat(this.reaper.reap(), is(1));
+
+        assertThat(this.jobs.retrieve(job.id()).value().status().run(), is(Status.Run.DONE));
+    }
+
+    @Test
+    public void givenMoreRunningJobsThanBatchSize__thenEachPassExaminesOneBatch_andWrapsAround() throws Exception {
+        LocalDateTime now = UTC.now();
+        for (int i = 0; i < 3; i++) {
+            this.jobs.create(this.runningJob("gone", false, now.minusMinutes(10 - i)));
+        }
+
+        assertThat(this.reaper.reap(), is(2));
+        assertThat(this.reaper.reap(), is(1));
+        assertThat(this.reaper.reap(), is(0));
+
+        assertThat(this.jobs.search(PropertyQuery.builder().filter("status.run == 'RUNNING'").build(), 0, 0).total(), is(0L));
+    }
+
+    @Test
+    public void givenRunningJobsSharingTheLastStartDateOfABatch__thenNoneIsSkipped() throws Exception {
+        this.runners.createWithId("runner", this.runner(Runtime.Status.RUNNING, UTC.now().minusSeconds(1)));
+        LocalDateTime started = UTC.now().minusMinutes(10);
+        this.jobs.create(this.runningJob("runner", false, started.minusMinutes(1)));
+        this.jobs.create(this.runningJob("runner", false, started));
+        this.jobs.create(this.runningJob("runner", false, started));
+        Entity<JobValue> gone = this.jobs.create(this.runningJob("gone", false, started));
+
+        assertThat(this.reaper.reap() + this.reaper.reap(), is(1));
+
+        assertThat(this.jobs.retrieve(gone.id()).value().status().run(), is(Status.Run.DONE));
+    }
+
+    @Test
+    public void givenRunningJob__whenRunnerPingIsLateWithinGrace__thenNoChange() throws Exception {
+        this.runners.createWithId("runner", this.runner(Runtime.Status.RUNNING, UTC.now().minusSeconds(90)));
+        Entity<JobValue> job = this.jobs.create(this.runningJob("runner", true, UTC.now().minusMinutes(10)));
+
+        assertThat(this.reaper.reap(), is(0));
+
+        assertThat(this.jobs.retrieve(job.id()).value().status().run(), is(Status.Run.RUNNING));
+    }
+
+    @Test
+    public void givenNoGrace__whenRunnerPingIsLate__thenJobIsReaped() throws Exception {
+        StaleJobReaper strict = new StaleJobReaper(this.jobs, this.runners, PoomjobsJobRepositoryListener.NOOP, 2, 1);
+        this.runners.createWithId("runner", this.runner(Runtime.Status.RUNNING, UTC.now().minusSeconds(90)));
+        Entity<JobValue> job = this.jobs.create(this.runningJob("runner", true, UTC.now().minusMinutes(10)));
+
+        assertThat(strict.reap(), is(1));
+
+        assertThat(this.jobs.retrieve(job.id()).value().status().run(), is(Status.Run.PENDING));
+    }
+
+    private RunnerValue runner(Runtime.Status status, LocalDateTime lastPing) {
+        return RunnerValue.builder()
+                .timeToLive(60_000L)
+                .runtime(Runtime.builder().status(status).lastPing(lastPing).build())
+                .build();
+    }
+
+    private JobValue runningJob(String runnerId, boolean idempotent, LocalDateTime started) {
+        return JobValue.builder()
+                .category("category").name("job")
+                .status(status -> status.run(Status.Run.RUNNING))
+                .runner(runner -> runner.runnerId(runnerId).idempotent(idempotent))
+                .processing(processing -> processing.submitted(started.minusMinutes(1)).started(started))
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.codingmatters.poomjobs.service.cleaners.archive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.codingmatters.poomjobs.api.types.Job;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobArchiveTest {
+
+    @Rule
+    public TemporaryFolder dir = new TemporaryFolder();
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    public void givenJobsArchived__thenSegmentsArePartitionedByDayAndCategory() throws Exception {
+        JobArchive archive = new JobArchive(this.dir.getRoot().toPath(), this.jsonFactory);
+
+        archive.append(Arrays.asList(
+                this.job("1", "reports", LocalDateTime.of(2026, 1, 10, 8, 0)),
+                this.job("2", "reports", LocalDateTime.of(2026, 1, 11, 8, 0)),
+                this.job("3", "mails/out", LocalDateTime.of(2026, 1, 10, 9, 0))
+        ));
+
+        assertThat(Files.exists(this.dir.getRoot().toPath().resolve("2026-01-10").resolve("reports.jobs.gz")), is(true));
+        assertThat(Files.exists(this.dir.getRoot().toPath().resolve("2026-01-11").resolve("reports.jobs.gz")), is(true));
+        assertThat(Files.exists(this.dir.getRoot().toPath().resolve("2026-01-10").resolve("mails_out.jobs.gz")), is(true));
+    }
+
+    @Test
+    public void givenSeveralAppendsToSegment__whenScanningTimeRange__thenJobsInRangeAreRead() throws Exception {
+        JobArchive archive = new JobArchive(this.dir.getRoot().toPath(), this.jsonFactory);
+        archive.append(Arrays.asList(
+                this.job("1", "reports", LocalDateTime.of(2026, 1, 10, 8, 0)),
+                this.job("2", "reports", LocalDateTime.of(2026, 1, 10, 12, 0))
+        ));
+        archive.append(Arrays.asList(
+                this.job("3", "reports", LocalDateTime.of(2026, 1, 10, 18, 0)),
+                this.job("4", "mails", LocalDateTime.of(2026, 1, 10, 18, 0)),
+                this.job("5", "reports", LocalDateTime.of(2026, 1, 12, 8, 0))
+        ));
+
+        JobArchiveReader reader = new JobArchiveReader(this.dir.getRoot().toPath(), this.jsonFactory);
+
+        List<Job> read = new LinkedList<>();
+        reader.scan(LocalDateTime.of(2026, 1, 10, 10, 0), LocalDateTime.of(2026, 1, 12, 8, 0), read::add);
+        assertThat(read.stream().map(Job::id).collect(Collectors.toList()), containsInAnyOrder("2", "3", "4"));
+
+        read.clear();
+        reader.scan(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0), "reports", read::add);
+        assertThat(read.stream().map(Job::id).collect(Collectors.toList()), contains("1", "2", "3", "5"));
+        assertThat(read.get(0).status().run(), is(org.codingmatters.poomjobs.api.types.job.Status.Run.DONE));
+        assertThat(read.get(0).arguments(), contains("a", "b"));
+    }
+
+    @Test
+    public void givenNoArchive__whenScanning__thenNothingRead() throws Exception {
+        List<Job> read = new LinkedList<>();
+        new JobArchiveReader(this.dir.getRoot().toPath().resolve("none"), this.jsonFactory)
+                .scan(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0), read::add);
+
+        assertThat(read, is(empty()));
+    }
+
+    private Entity<JobValue> job(String id, String category, LocalDateTime submitted) {
+        return new ImmutableEntity<>(id, BigInteger.ONE, JobValue.builder()
+                .category(category).name("job")
+                .arguments("a", "b")
+                .status(status -> status.run(Status.Run.DONE).exit(Status.Exit.SUCCESS))
+                .processing(processing -> processing.submitted(submitted).started(submitted).finished(submitted.plusMinutes(1)))
+                .build());
+    }
+}
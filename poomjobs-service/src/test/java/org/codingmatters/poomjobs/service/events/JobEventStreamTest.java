@@ -0,0 +1,146 @@
+package org.codingmatters.poomjobs.service.events;
+
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.domain.entities.ImmutableEntity;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobEventStreamTest {
+
+    private final JobEventStream stream = new JobEventStream(3, Runnable::run);
+
+    @Test
+    public void givenSubscription__whenJobsCreatedAndUpdated__thenMatchingEventsAreSent() throws Exception {
+        Recorder recorder = new Recorder(true);
+        this.stream.subscribe(JobEventStream.filter("reports", null, null), null, 10, recorder);
+
+        this.stream.jobCreated(this.job("1", "reports", Status.Run.PENDING));
+        this.stream.jobCreated(this.job("2", "mails", Status.Run.PENDING));
+        this.stream.jobUpdated(this.job("1", "reports", Status.Run.RUNNING), this.job("1", "reports", Status.Run.PENDING).value());
+        this.stream.jobUpdated(this.job("1", "reports", Status.Run.DONE), this.job("1", "reports", Status.Run.RUNNING).value());
+
+        assertThat(recorder.types(), contains(JobEventStream.Type.CREATED, JobEventStream.Type.UPDATED, JobEventStream.Type.DONE));
+        assertThat(recorder.sequences(), contains(1L, 3L, 4L));
+    }
+
+    @Test
+    public void givenEventsPublished__whenSubscribingAfterSequence__thenBufferedEventsAreReplayedFirst() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            this.stream.jobCreated(this.job("" + i, "reports", Status.Run.PENDING));
+        }
+
+        Recorder fromTwo = new Recorder(true);
+        this.stream.subscribe(JobEventStream.filter(null, null, null), 3L, 10, fromTwo);
+        assertThat(fromTwo.sequences(), contains(4L, 5L));
+
+        Recorder tooOld = new Recorder(true);
+        this.stream.subscribe(JobEventStream.filter(null, null, null), 0L, 10, tooOld);
+        assertThat(tooOld.sequences(), contains(3L, 4L, 5L));
+
+        this.stream.jobCreated(this.job("6", "reports", Status.Run.PENDING));
+        assertThat(fromTwo.sequences(), contains(4L, 5L, 6L));
+    }
+
+    @Test
+    public void givenSlowSubscriber__whenBufferIsFull__thenSubscriptionIsCancelled() throws Exception {
+        Recorder slow = new Recorder(false);
+        JobEventStream.Subscription subscription = this.stream.subscribe(JobEventStream.filter(null, null, null), null, 2, slow);
+
+        this.stream.jobCreated(this.job("1", "reports", Status.Run.PENDING));
+        this.stream.jobCreated(this.job("2", "reports", Status.Run.PENDING));
+        this.stream.jobCreated(this.job("3", "reports", Status.Run.PENDING));
+        this.stream.jobCreated(this.job("4", "reports", Status.Run.PENDING));
+
+        assertThat(slow.sequences(), contains(1L, 2L));
+        assertThat(slow.overflowed, is(true));
+        assertThat(subscription.cancelled(), is(true));
+        assertThat(this.stream.subscriptionCount(), is(0));
+    }
+
+    @Test
+    public void givenNoSubscription__whenPublishing__thenJobIsNotTransformed_butEventIsKeptForResume() throws Exception {
+        this.stream.jobCreated(new ImmutableEntity<>("1", BigInteger.ONE, null));
+
+        assertThat(this.stream.lastSequence(), is(1L));
+    }
+
+    @Test
+    public void givenSubscriptionWithAsyncDelivery__whenPublishing__thenEventsAreDeliveredInOrderOutsideThePublisher() throws Exception {
+        ExecutorService delivery = Executors.newSingleThreadExecutor();
+        try {
+            JobEventStream asyncStream = new JobEventStream(10, delivery);
+            CountDownLatch received = new CountDownLatch(3);
+            List<Long> sequences = new CopyOnWriteArrayList<>();
+            asyncStream.subscribe(JobEventStream.filter(null, null, null), null, 10, new JobEventStream.Subscriber() {
+                @Override
+                public void event(JobEventStream.JobEvent event, Runnable sent) {
+                    sequences.add(event.sequence());
+                    sent.run();
+                    received.countDown();
+                }
+
+                @Override
+                public void overflowed() {
+                }
+            });
+
+            for (int i = 1; i <= 3; i++) {
+                asyncStream.jobCreated(this.job("" + i, "reports", Status.Run.PENDING));
+            }
+
+            assertThat(received.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(sequences, contains(1L, 2L, 3L));
+        } finally {
+            delivery.shutdownNow();
+        }
+    }
+
+    private Entity<JobValue> job(String id, String category, Status.Run run) {
+        return new ImmutableEntity<>(id, BigInteger.ONE, JobValue.builder().category(category).name("job").status(s -> s.run(run)).build());
+    }
+
+    static class Recorder implements JobEventStream.Subscriber {
+        private final boolean sends;
+        private final List<JobEventStream.JobEvent> events = new LinkedList<>();
+        private boolean overflowed = false;
+
+        Recorder(boolean sends) {
+            this.sends = sends;
+        }
+
+        @Override
+        public void event(JobEventStream.JobEvent event, Runnable sent) {
+            this.events.add(event);
+            if (this.sends) {
+                sent.run();
+            }
+        }
+
+        @Override
+        public void overflowed() {
+            this.overflowed = true;
+        }
+
+        List<Long> sequences() {
+            return this.events.stream().map(JobEventStream.JobEvent::sequence).collect(Collectors.toList());
+        }
+
+        List<JobEventStream.Type> types() {
+            return this.events.stream().map(JobEventStream.JobEvent::type).collect(Collectors.toList());
+        }
+    }
+}
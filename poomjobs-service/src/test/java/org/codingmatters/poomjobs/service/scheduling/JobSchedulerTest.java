@@ -0,0 +1,173 @@
+package org.codingmatters.poomjobs.service.scheduling;
+
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.JobRepository;
+import org.codingmatters.poom.poomjobs.domain.jobs.repositories.PoomjobsJobRepository;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.JobValue;
+import org.codingmatters.poom.poomjobs.domain.values.jobs.jobvalue.Status;
+import org.codingmatters.poom.services.domain.entities.Entity;
+import org.codingmatters.poom.services.support.date.UTC;
+import org.codingmatters.poom.services.tests.Eventually;
+import org.codingmatters.poomjobs.service.PoomjobsJobRepositoryListener;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JobSchedulerTest {
+
+    private final PoomjobsJobRepository repository = JobRepository.createInMemory();
+
+    private final List<Entity<JobValue>> created = new CopyOnWriteArrayList<>();
+    private final List<Entity<JobValue>> updated = new CopyOnWriteArrayList<>();
+
+    private final JobScheduler scheduler = new JobScheduler(this.repository, new PoomjobsJobRepositoryListener() {
+        @Override
+        public void jobCreated(Entity<JobValue> entity) {
+            created.add(entity);
+        }
+
+        @Override
+        public void jobUpdated(Entity<JobValue> entity, JobValue oldValue) {
+            updated.add(entity);
+        }
+    });
+
+    @After
+    public void tearDown() throws Exception {
+        this.scheduler.stop();
+    }
+
+    @Test
+    public void givenPendingJobCreated__thenDelegateIsNotifiedRightAway() throws Exception {
+        this.scheduler.start();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.PENDING, null));
+        this.scheduler.jobCreated(job);
+
+        assertThat(this.created, contains(job));
+        assertThat(this.scheduler.scheduledCount(), is(0));
+    }
+
+    @Test
+    public void givenScheduledJobCreated__whenNotBeforeIsReached__thenJobIsPENDING_andDelegateIsNotifiedOfUpdate() throws Exception {
+        this.scheduler.start();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusNanos(300_000_000L)));
+        this.scheduler.jobCreated(job);
+
+        assertThat(this.created, is(empty()));
+        assertThat(this.scheduler.scheduledCount(), is(1));
+
+        Eventually.defaults().assertThat(() -> this.updated.size(), is(1));
+        assertThat(this.updated.get(0).id(), is(job.id()));
+        assertThat(this.updated.get(0).value().status().run(), is(Status.Run.PENDING));
+        assertThat(this.repository.retrieve(job.id()).value().status().run(), is(Status.Run.PENDING));
+    }
+
+    @Test
+    public void givenSchedulerNotStarted__whenScheduledJobCreated__thenSchedulerStarted_andJobPromoted() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusNanos(100_000_000L)));
+        this.scheduler.jobCreated(job);
+
+        assertThat(this.scheduler.started(), is(true));
+        Eventually.defaults().assertThat(() -> this.updated.size(), is(1));
+        assertThat(this.repository.retrieve(job.id()).value().status().run(), is(Status.Run.PENDING));
+    }
+
+    @Test
+    public void givenSchedulerStopped__whenScheduledJobCreated__thenSchedulerNotRestarted() throws Exception {
+        this.scheduler.start();
+        this.scheduler.stop();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now()));
+        this.scheduler.jobCreated(job);
+
+        assertThat(this.scheduler.started(), is(false));
+        assertThat(this.scheduler.scheduledCount(), is(1));
+    }
+
+    @Test
+    public void givenSchedulerStarted__whenStartedAgain__thenStillOnePromotion() throws Exception {
+        this.scheduler.start();
+        this.scheduler.start();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now()));
+        this.scheduler.jobCreated(job);
+
+        Eventually.defaults().assertThat(() -> this.updated.size(), is(1));
+        Thread.sleep(100);
+        assertThat(this.updated, hasSize(1));
+    }
+
+    @Test
+    public void givenScheduledJobsInRepository__whenStarted__thenDueJobsArePromoted() throws Exception {
+        Entity<JobValue> due = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().minusMinutes(1)));
+        Entity<JobValue> later = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusHours(1)));
+
+        this.scheduler.start();
+
+        Eventually.defaults().assertThat(() -> this.updated.size(), is(1));
+        assertThat(this.updated.get(0).id(), is(due.id()));
+        assertThat(this.repository.retrieve(later.id()).value().status().run(), is(Status.Run.SCHEDULED));
+        assertThat(this.scheduler.scheduledCount(), is(1));
+    }
+
+    @Test
+    public void givenScheduledJob__whenJobIsDoneBeforeNotBefore__thenJobIsNotPromoted() throws Exception {
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusNanos(200_000_000L)));
+        this.scheduler.start();
+        this.repository.update(job, job.value().withStatus(Status.builder().run(Status.Run.DONE).exit(Status.Exit.ABORTED).build()));
+
+        Thread.sleep(500);
+
+        assertThat(this.updated, is(empty()));
+        assertThat(this.repository.retrieve(job.id()).value().status().run(), is(Status.Run.DONE));
+    }
+
+    @Test
+    public void givenScheduledJob__whenUpdatedManyTimes__thenJobIsScheduledOnce_andPromotedOnce() throws Exception {
+        this.scheduler.start();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusNanos(200_000_000L)));
+        this.scheduler.jobCreated(job);
+        for (int i = 0; i < 5; i++) {
+            job = this.repository.update(job, job.value());
+            this.scheduler.jobUpdated(job, job.value());
+        }
+
+        assertThat(this.scheduler.scheduledCount(), is(1));
+
+        Eventually.defaults().assertThat(() -> this.updated.stream().filter(entity -> entity.value().status().run() == Status.Run.PENDING).count(), is(1L));
+        Thread.sleep(300);
+        assertThat(this.updated.stream().filter(entity -> entity.value().status().run() == Status.Run.PENDING).count(), is(1L));
+        assertThat(this.scheduler.scheduledCount(), is(0));
+    }
+
+    @Test
+    public void givenScheduledJob__whenUpdatedOutOfSCHEDULED__thenJobIsUnscheduled() throws Exception {
+        this.scheduler.start();
+
+        Entity<JobValue> job = this.repository.create(this.job(Status.Run.SCHEDULED, UTC.now().plusHours(1)));
+        this.scheduler.jobCreated(job);
+        assertThat(this.scheduler.scheduledCount(), is(1));
+
+        JobValue old = job.value();
+        job = this.repository.update(job, job.value().withStatus(Status.builder().run(Status.Run.DONE).exit(Status.Exit.ABORTED).build()));
+        this.scheduler.jobUpdated(job, old);
+
+        assertThat(this.scheduler.scheduledCount(), is(0));
+    }
+
+    private JobValue job(Status.Run run, LocalDateTime notBefore) {
+        return JobValue.builder()
+                .category("category").name("job")
+                .status(Status.builder().run(run).build())
+                .processing(processing -> processing.submitted(UTC.now()).notBefore(notBefore))
+                .build();
+    }
+}